@@ -0,0 +1,22 @@
+package hr.fer.zemris.benchmark;
+
+/**
+ * Funkcijsko sučelje koje predstavlja jedan posao čije se vrijeme izvođenja
+ * mjeri razredom {@link BenchmarkRunner}.
+ *
+ * @see BenchmarkRunner
+ *
+ * @author Davor Češljaš
+ */
+@FunctionalInterface
+public interface BenchmarkJob {
+
+	/**
+	 * Metoda koja izvodi posao. Vraćena vrijednost se zbraja i ispisuje samo u
+	 * nemogućem slučaju, a služi tome da JIT ne izbaci izračun čiji se rezultat
+	 * inače ne bi koristio.
+	 *
+	 * @return rezultat posla
+	 */
+	double run();
+}
@@ -0,0 +1,204 @@
+package hr.fer.zemris.benchmark;
+
+import java.util.Locale;
+
+/**
+ * Razred predstavlja rezultat mjerenja jednog posla za jedan skup parametara.
+ * Svako mjerenje sastoji se od {@link #getRounds()} krugova, a u svakom krugu
+ * posao se izvodi {@link #getOperationsPerRound()} puta. Vremena su izražena
+ * u nanosekundama po jednom izvođenju posla. Rezultat se može zapisati kao
+ * redak CSV datoteke (metoda {@link #toCsv()}) ili kao JSON objekt (metoda
+ * {@link #toJson()}), pa se rezultati različitih pokretanja mogu strojno
+ * uspoređivati. Razred je nepromijenjiv.
+ *
+ * @see BenchmarkRunner
+ *
+ * @author Davor Češljaš
+ */
+public final class BenchmarkResult {
+
+	/** Zaglavlje CSV datoteke, redom kao stupci metode {@link #toCsv()} */
+	public static final String CSV_HEADER = "name,parameters,rounds,operationsPerRound,meanNanos,deviationNanos,"
+			+ "minNanos,operationsPerSecond";
+
+	/** Naziv posla */
+	private final String name;
+
+	/** Parametri posla */
+	private final String parameters;
+
+	/** Broj mjerenih krugova */
+	private final int rounds;
+
+	/** Broj izvođenja posla u jednom krugu */
+	private final long operationsPerRound;
+
+	/** Prosječno vrijeme jednog izvođenja */
+	private final double meanNanos;
+
+	/** Standardna devijacija vremena jednog izvođenja po krugovima */
+	private final double deviationNanos;
+
+	/** Najmanje vrijeme jednog izvođenja po krugovima */
+	private final double minNanos;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param name
+	 *            naziv posla
+	 * @param parameters
+	 *            parametri posla
+	 * @param rounds
+	 *            broj mjerenih krugova
+	 * @param operationsPerRound
+	 *            broj izvođenja posla u jednom krugu
+	 * @param meanNanos
+	 *            prosječno vrijeme jednog izvođenja
+	 * @param deviationNanos
+	 *            standardna devijacija vremena jednog izvođenja
+	 * @param minNanos
+	 *            najmanje vrijeme jednog izvođenja
+	 */
+	public BenchmarkResult(String name, String parameters, int rounds, long operationsPerRound, double meanNanos,
+			double deviationNanos, double minNanos) {
+		this.name = name;
+		this.parameters = parameters;
+		this.rounds = rounds;
+		this.operationsPerRound = operationsPerRound;
+		this.meanNanos = meanNanos;
+		this.deviationNanos = deviationNanos;
+		this.minNanos = minNanos;
+	}
+
+	/**
+	 * Metoda dohvaća naziv posla
+	 *
+	 * @return naziv posla
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Metoda dohvaća parametre posla
+	 *
+	 * @return parametri posla
+	 */
+	public String getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Metoda dohvaća broj mjerenih krugova
+	 *
+	 * @return broj mjerenih krugova
+	 */
+	public int getRounds() {
+		return rounds;
+	}
+
+	/**
+	 * Metoda dohvaća broj izvođenja posla u jednom krugu
+	 *
+	 * @return broj izvođenja posla u jednom krugu
+	 */
+	public long getOperationsPerRound() {
+		return operationsPerRound;
+	}
+
+	/**
+	 * Metoda dohvaća prosječno vrijeme jednog izvođenja u nanosekundama
+	 *
+	 * @return prosječno vrijeme jednog izvođenja
+	 */
+	public double getMeanNanos() {
+		return meanNanos;
+	}
+
+	/**
+	 * Metoda dohvaća standardnu devijaciju vremena jednog izvođenja u
+	 * nanosekundama
+	 *
+	 * @return standardna devijacija vremena jednog izvođenja
+	 */
+	public double getDeviationNanos() {
+		return deviationNanos;
+	}
+
+	/**
+	 * Metoda dohvaća najmanje vrijeme jednog izvođenja u nanosekundama
+	 *
+	 * @return najmanje vrijeme jednog izvođenja
+	 */
+	public double getMinNanos() {
+		return minNanos;
+	}
+
+	/**
+	 * Metoda računa prosječan broj izvođenja posla u sekundi
+	 *
+	 * @return prosječan broj izvođenja posla u sekundi
+	 */
+	public double getOperationsPerSecond() {
+		return 1e9 / meanNanos;
+	}
+
+	/**
+	 * Metoda koja zapisuje ovaj rezultat kao redak CSV datoteke čiji su
+	 * stupci dani u {@link #CSV_HEADER}.
+	 *
+	 * @return redak CSV datoteke
+	 */
+	public String toCsv() {
+		return String.format(Locale.ROOT, "%s,%s,%d,%d,%.3f,%.3f,%.3f,%.3f", quote(name), quote(parameters), rounds,
+				operationsPerRound, meanNanos, deviationNanos, minNanos, getOperationsPerSecond());
+	}
+
+	/**
+	 * Metoda koja zapisuje ovaj rezultat kao JSON objekt.
+	 *
+	 * @return JSON objekt
+	 */
+	public String toJson() {
+		return String.format(Locale.ROOT,
+				"{\"name\": \"%s\", \"parameters\": \"%s\", \"rounds\": %d, \"operationsPerRound\": %d, "
+						+ "\"meanNanos\": %.3f, \"deviationNanos\": %.3f, \"minNanos\": %.3f, "
+						+ "\"operationsPerSecond\": %.3f}",
+				escape(name), escape(parameters), rounds, operationsPerRound, meanNanos, deviationNanos, minNanos,
+				getOperationsPerSecond());
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT, "%-45s %-22s %16.1f ns/op +/- %5.1f%%", name, parameters, meanNanos,
+				100 * deviationNanos / meanNanos);
+	}
+
+	/**
+	 * Pomoćna metoda koja stavlja vrijednost CSV stupca u navodnike ukoliko
+	 * sadrži zarez ili navodnik.
+	 *
+	 * @param value
+	 *            vrijednost stupca
+	 * @return vrijednost stupca spremna za zapis
+	 */
+	private static String quote(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Pomoćna metoda koja u vrijednosti JSON niza znakova zamjenjuje posebne
+	 * znakove.
+	 *
+	 * @param value
+	 *            vrijednost niza znakova
+	 * @return vrijednost spremna za zapis
+	 */
+	static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+}
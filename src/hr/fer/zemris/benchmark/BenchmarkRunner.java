@@ -0,0 +1,329 @@
+package hr.fer.zemris.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Razred predstavlja jednostavan alat za mjerenje trajanja poslova
+ * predstavljenih sučeljem {@link BenchmarkJob}. Poslovi se registriraju
+ * metodom {@link #add(String, String, BenchmarkJob)}, a mjere metodom
+ * {@link #run(Predicate)}. Mjerenje svakog posla provodi se u dva dijela:
+ * <ol>
+ * <li>zagrijavanje - posao se izvodi {@link #getWarmupRounds()} krugova, a broj
+ * izvođenja u krugu povećava se sve dok krug ne traje barem
+ * {@link #getRoundNanos()} nanosekundi</li>
+ * <li>mjerenje - posao se izvodi {@link #getRounds()} krugova s tako
+ * određenim brojem izvođenja, a za svaki krug bilježi se prosječno vrijeme
+ * jednog izvođenja</li>
+ * </ol>
+ * Rezultati se mogu zapisati u CSV datoteku (metoda
+ * {@link #writeCsv(Path, List)}) ili u JSON datoteku (metoda
+ * {@link #writeJson(Path, List)}).
+ *
+ * @see BenchmarkJob
+ * @see BenchmarkResult
+ *
+ * @author Davor Češljaš
+ */
+public class BenchmarkRunner {
+
+	/** Podrazumijevani broj krugova zagrijavanja */
+	public static final int DEFAULT_WARMUP_ROUNDS = 5;
+
+	/** Podrazumijevani broj mjerenih krugova */
+	public static final int DEFAULT_ROUNDS = 10;
+
+	/** Podrazumijevano najmanje trajanje jednog kruga u nanosekundama */
+	public static final long DEFAULT_ROUND_NANOS = 100_000_000L;
+
+	/** Broj krugova zagrijavanja */
+	private final int warmupRounds;
+
+	/** Broj mjerenih krugova */
+	private final int rounds;
+
+	/** Najmanje trajanje jednog kruga u nanosekundama */
+	private final long roundNanos;
+
+	/** Registrirani poslovi, redom registracije */
+	private final List<Entry> entries = new ArrayList<>();
+
+	/**
+	 * Zbroj rezultata svih poslova, ispisuje se samo u nemogućem slučaju kako
+	 * JIT ne bi izbacio izračune
+	 */
+	private double sink;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda s podrazumijevanim
+	 * vrijednostima {@value #DEFAULT_WARMUP_ROUNDS},
+	 * {@value #DEFAULT_ROUNDS} i {@value #DEFAULT_ROUND_NANOS}.
+	 */
+	public BenchmarkRunner() {
+		this(DEFAULT_WARMUP_ROUNDS, DEFAULT_ROUNDS, DEFAULT_ROUND_NANOS);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param warmupRounds
+	 *            broj krugova zagrijavanja
+	 * @param rounds
+	 *            broj mjerenih krugova
+	 * @param roundNanos
+	 *            najmanje trajanje jednog kruga u nanosekundama
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je broj krugova zagrijavanja negativan ili ukoliko
+	 *             broj mjerenih krugova ili trajanje kruga nisu pozitivni
+	 */
+	public BenchmarkRunner(int warmupRounds, int rounds, long roundNanos) {
+		if (warmupRounds < 0 || rounds <= 0 || roundNanos <= 0) {
+			throw new IllegalArgumentException("Broj krugova i trajanje kruga moraju biti pozitivni!");
+		}
+
+		this.warmupRounds = warmupRounds;
+		this.rounds = rounds;
+		this.roundNanos = roundNanos;
+	}
+
+	/**
+	 * Metoda dohvaća broj krugova zagrijavanja
+	 *
+	 * @return broj krugova zagrijavanja
+	 */
+	public int getWarmupRounds() {
+		return warmupRounds;
+	}
+
+	/**
+	 * Metoda dohvaća broj mjerenih krugova
+	 *
+	 * @return broj mjerenih krugova
+	 */
+	public int getRounds() {
+		return rounds;
+	}
+
+	/**
+	 * Metoda dohvaća najmanje trajanje jednog kruga u nanosekundama
+	 *
+	 * @return najmanje trajanje jednog kruga
+	 */
+	public long getRoundNanos() {
+		return roundNanos;
+	}
+
+	/**
+	 * Metoda koja registrira posao <b>job</b> pod nazivom <b>name</b> i s
+	 * parametrima <b>parameters</b>.
+	 *
+	 * @param name
+	 *            naziv posla, primjerice <i>"Complex.multiply"</i>
+	 * @param parameters
+	 *            opis parametara posla, primjerice <i>"n=256"</i>
+	 * @param job
+	 *            posao koji se mjeri
+	 * @return ovaj primjerak razreda
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je neki od argumenata <code>null</code>
+	 */
+	public BenchmarkRunner add(String name, String parameters, BenchmarkJob job) {
+		if (name == null || parameters == null || job == null) {
+			throw new IllegalArgumentException("Naziv, parametri i posao ne smiju biti null!");
+		}
+
+		entries.add(new Entry(name, parameters, job));
+		return this;
+	}
+
+	/**
+	 * Metoda koja mjeri sve registrirane poslove čiji naziv zadovoljava
+	 * predani uvjet <b>filter</b>, redom registracije. Rezultat svakog
+	 * mjerenja ispisuje se na standardni izlaz čim je gotov.
+	 *
+	 * @param filter
+	 *            uvjet koji naziv posla mora zadovoljiti
+	 * @return rezultati mjerenja, redom registracije
+	 */
+	public List<BenchmarkResult> run(Predicate<String> filter) {
+		List<BenchmarkResult> results = new ArrayList<>();
+		for (Entry entry : entries) {
+			if (!filter.test(entry.name)) {
+				continue;
+			}
+
+			BenchmarkResult result = measure(entry);
+			System.out.println(result);
+			results.add(result);
+		}
+
+		if (sink == Double.MIN_VALUE) {
+			System.out.println(sink);
+		}
+		return results;
+	}
+
+	/**
+	 * Pomoćna metoda koja mjeri jedan registrirani posao.
+	 *
+	 * @param entry
+	 *            registrirani posao
+	 * @return rezultat mjerenja
+	 */
+	private BenchmarkResult measure(Entry entry) {
+		long operations = 1;
+		for (int i = 0; i < warmupRounds; i++) {
+			operations = calibrate(operations, round(entry.job, operations));
+		}
+		// krugovi se nastavljaju dok barem jedan ne traje dovoljno dugo
+		for (long elapsed; (elapsed = round(entry.job, operations)) < roundNanos;) {
+			operations = calibrate(operations, elapsed);
+		}
+
+		double[] times = new double[rounds];
+		double sum = 0;
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < rounds; i++) {
+			times[i] = (double) round(entry.job, operations) / operations;
+			sum += times[i];
+			min = Math.min(min, times[i]);
+		}
+
+		double mean = sum / rounds;
+		double squares = 0;
+		for (double time : times) {
+			squares += (time - mean) * (time - mean);
+		}
+		double deviation = rounds > 1 ? Math.sqrt(squares / (rounds - 1)) : 0;
+
+		return new BenchmarkResult(entry.name, entry.parameters, rounds, operations, mean, deviation, min);
+	}
+
+	/**
+	 * Pomoćna metoda koja određuje broj izvođenja posla u sljedećem krugu.
+	 * Ukoliko je krug bio prekratak, broj izvođenja se barem udvostručuje.
+	 *
+	 * @param operations
+	 *            broj izvođenja posla u prethodnom krugu
+	 * @param elapsed
+	 *            trajanje prethodnog kruga u nanosekundama
+	 * @return broj izvođenja posla u sljedećem krugu
+	 */
+	private long calibrate(long operations, long elapsed) {
+		if (elapsed >= roundNanos) {
+			return operations;
+		}
+		return Math.max(operations * 2, operations * roundNanos / Math.max(elapsed, 1) / 2);
+	}
+
+	/**
+	 * Pomoćna metoda koja izvodi jedan krug mjerenja.
+	 *
+	 * @param job
+	 *            posao koji se mjeri
+	 * @param operations
+	 *            broj izvođenja posla u krugu
+	 * @return trajanje kruga u nanosekundama
+	 */
+	private long round(BenchmarkJob job, long operations) {
+		long start = System.nanoTime();
+		for (long i = 0; i < operations; i++) {
+			sink += job.run();
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Metoda koja zapisuje rezultate u CSV datoteku. Prvi redak datoteke je
+	 * {@link BenchmarkResult#CSV_HEADER}.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @param results
+	 *            rezultati mjerenja
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja
+	 */
+	public static void writeCsv(Path file, List<BenchmarkResult> results) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write(BenchmarkResult.CSV_HEADER);
+			writer.newLine();
+			for (BenchmarkResult result : results) {
+				writer.write(result.toCsv());
+				writer.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Metoda koja zapisuje rezultate u JSON datoteku. Uz rezultate se zapisuju
+	 * i inačica Jave te broj dostupnih procesora, kako bi se rezultati s
+	 * različitih računala mogli ispravno usporediti.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @param results
+	 *            rezultati mjerenja
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja
+	 */
+	public static void writeJson(Path file, List<BenchmarkResult> results) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write(String.format(Locale.ROOT, "{%n  \"java\": \"%s\",%n  \"processors\": %d,%n  \"results\": [",
+					BenchmarkResult.escape(System.getProperty("java.version")),
+					Runtime.getRuntime().availableProcessors()));
+			for (int i = 0; i < results.size(); i++) {
+				writer.write(i == 0 ? "" : ",");
+				writer.newLine();
+				writer.write("    " + results.get(i).toJson());
+			}
+			writer.newLine();
+			writer.write("  ]");
+			writer.newLine();
+			writer.write("}");
+			writer.newLine();
+		}
+	}
+
+	/**
+	 * Pomoćni razred koji predstavlja jedan registrirani posao
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Entry {
+
+		/** Naziv posla */
+		private final String name;
+
+		/** Parametri posla */
+		private final String parameters;
+
+		/** Posao koji se mjeri */
+		private final BenchmarkJob job;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param name
+		 *            naziv posla
+		 * @param parameters
+		 *            parametri posla
+		 * @param job
+		 *            posao koji se mjeri
+		 */
+		private Entry(String name, String parameters, BenchmarkJob job) {
+			this.name = name;
+			this.parameters = parameters;
+			this.job = job;
+		}
+	}
+}
@@ -0,0 +1,542 @@
+package hr.fer.zemris.benchmark;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import hr.fer.zemris.java.fractals.NewtonFractalProducer;
+import hr.fer.zemris.java.raytracer.AdaptiveSampler;
+import hr.fer.zemris.java.raytracer.BoundingVolumeHierarchy;
+import hr.fer.zemris.java.raytracer.CompiledScene;
+import hr.fer.zemris.java.raytracer.RayCaster;
+import hr.fer.zemris.java.raytracer.RayCasterParallelProducer;
+import hr.fer.zemris.java.raytracer.RayCasterUtil;
+import hr.fer.zemris.java.raytracer.model.GraphicalObject;
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbObserver;
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbProducer;
+import hr.fer.zemris.java.raytracer.model.IRayTracerProducer;
+import hr.fer.zemris.java.raytracer.model.Point3D;
+import hr.fer.zemris.java.raytracer.model.Ray;
+import hr.fer.zemris.java.raytracer.model.RayIntersection;
+import hr.fer.zemris.java.raytracer.model.RayPacket;
+import hr.fer.zemris.java.raytracer.model.Scene;
+import hr.fer.zemris.java.raytracer.model.Sphere;
+import hr.fer.zemris.java.raytracer.model.SphereSet;
+import hr.fer.zemris.java.raytracer.model.SurfacePoint;
+import hr.fer.zemris.java.raytracer.viewer.RayTracerViewer;
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexPolynomial;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+import hr.fer.zemris.math.complex.ComplexParser;
+
+/**
+ * Razred predstavlja program koji mjeri trajanje najčešće korištenih
+ * dijelova matematičke biblioteke, Newton-Raphsonovog fraktala i programa za
+ * bacanje zrake. Program prima dva neobavezna argumenta naredbenog retka:
+ * <ol>
+ * <li>putanju do datoteke u koju se zapisuju rezultati - ukoliko završava s
+ * <i>".json"</i> rezultati se zapisuju u JSON formatu, a inače u CSV
+ * formatu</li>
+ * <li>regularni izraz koji naziv posla mora sadržavati da bi se posao mjerio,
+ * primjerice <i>"Complex\."</i> ili <i>"Producer"</i></li>
+ * </ol>
+ * Rezultati se uvijek ispisuju i na standardni izlaz.
+ *
+ * @see BenchmarkRunner
+ *
+ * @author Davor Češljaš
+ */
+public class BenchmarkSuite {
+
+	/** Broj kompleksnih brojeva nad kojima se mjere operacije */
+	private static final int NUMBERS = 256;
+
+	/** Redovi polinoma za koje se provode mjerenja */
+	private static final int[] DEGREES = { 3, 8, 32 };
+
+	/** Razlučivosti za koje se crta Newton-Raphsonov fraktal */
+	private static final int[][] FRACTAL_RESOLUTIONS = { { 160, 120 }, { 640, 480 } };
+
+	/** Redovi polinoma za koje se crta Newton-Raphsonov fraktal */
+	private static final int[] FRACTAL_DEGREES = { 3, 8 };
+
+	/** Razlučivosti za koje se računa slika scene */
+	private static final int[] SCENE_RESOLUTIONS = { 100, 400 };
+
+	/** Broj zraka po jednoj dimenziji za mjerenje pojedinačnih zraka */
+	private static final int RAYS = 32;
+
+	/** Brojevi nasumično raspoređenih sfera za mjerenje hijerarhije */
+	private static final int[] SPHERE_COUNTS = { 1_000, 100_000 };
+
+	/** Razmak susjednih usklađenih zraka, kao kod slike širine 400 */
+	private static final double COHERENT_SPACING = 20.0 / 400;
+
+	/** Veličine paketa zraka za koje se mjeri obilazak hijerarhije */
+	private static final int[] PACKET_SIZES = { 4, 8, 16 };
+
+	/** Najveći broj sfera za koji se mjeri i ispitivanje svih sfera redom */
+	private static final int MAX_LINEAR_SPHERES = 1_000;
+
+	/**
+	 * Metoda od koje započinje izvođenje programa.
+	 *
+	 * @param args
+	 *            argumenti naredbenog redka. Prvi je putanja do datoteke s
+	 *            rezultatima, a drugi regularni izraz za odabir poslova
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja rezultata
+	 */
+	public static void main(String[] args) throws IOException {
+		Pattern filter = Pattern.compile(args.length > 1 ? args[1] : "");
+
+		BenchmarkRunner runner = new BenchmarkRunner();
+		List<Runnable> shutdowns = new ArrayList<>();
+		List<BenchmarkResult> results;
+		try {
+			addMathBenchmarks(runner);
+			addFractalBenchmarks(runner, shutdowns);
+			addRayTracerBenchmarks(runner, shutdowns);
+
+			results = runner.run(name -> filter.matcher(name).find());
+		} finally {
+			// programi za crtanje ostaju objavljeni na JMX poslužitelju do
+			// gašenja
+			shutdowns.forEach(Runnable::run);
+		}
+		if (args.length == 0) {
+			return;
+		}
+
+		Path output = Paths.get(args[0]);
+		if (output.toString().endsWith(".json")) {
+			BenchmarkRunner.writeJson(output, results);
+		} else {
+			BenchmarkRunner.writeCsv(output, results);
+		}
+		System.out.println("Rezultati zapisani u " + output.toAbsolutePath());
+	}
+
+	/**
+	 * Pomoćna metoda koja registrira poslove nad razredima
+	 * {@link Complex}, {@link ComplexPolynomial},
+	 * {@link ComplexRootedPolynomial} i {@link ComplexParser}. Svaki posao
+	 * provodi operaciju nad {@value #NUMBERS} brojeva.
+	 *
+	 * @param runner
+	 *            alat kojem se poslovi predaju
+	 */
+	private static void addMathBenchmarks(BenchmarkRunner runner) {
+		Random random = new Random(42);
+		Complex[] numbers = new Complex[NUMBERS];
+		String[] texts = new String[NUMBERS];
+		for (int i = 0; i < NUMBERS; i++) {
+			numbers[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+			double im = numbers[i].getIm();
+			texts[i] = String.format("%.6f %s i%.6f", numbers[i].getRe(), im < 0 ? "-" : "+", Math.abs(im))
+					.replace(',', '.');
+		}
+		String parameters = "n=" + NUMBERS;
+
+		runner.add("Complex.add", parameters, () -> {
+			double sum = 0;
+			for (int i = 1; i < NUMBERS; i++) {
+				sum += numbers[i].add(numbers[i - 1]).getRe();
+			}
+			return sum;
+		});
+		runner.add("Complex.multiply", parameters, () -> {
+			double sum = 0;
+			for (int i = 1; i < NUMBERS; i++) {
+				sum += numbers[i].multiply(numbers[i - 1]).getRe();
+			}
+			return sum;
+		});
+		runner.add("Complex.divide", parameters, () -> {
+			double sum = 0;
+			for (int i = 1; i < NUMBERS; i++) {
+				sum += numbers[i].divide(numbers[i - 1]).getRe();
+			}
+			return sum;
+		});
+		runner.add("Complex.module", parameters, () -> {
+			double sum = 0;
+			for (Complex z : numbers) {
+				sum += z.module();
+			}
+			return sum;
+		});
+		runner.add("Complex.power", parameters + ",k=8", () -> {
+			double sum = 0;
+			for (Complex z : numbers) {
+				sum += z.power(8).getRe();
+			}
+			return sum;
+		});
+		runner.add("Complex.root", parameters + ",k=8", () -> {
+			double sum = 0;
+			for (Complex z : numbers) {
+				sum += z.root(8).get(0).getRe();
+			}
+			return sum;
+		});
+
+		for (int degree : DEGREES) {
+			ComplexRootedPolynomial rooted = new ComplexRootedPolynomial(unityRoots(degree));
+			ComplexPolynomial polynomial = rooted.toComplexPolynom();
+			String degreeParameters = parameters + ",degree=" + degree;
+
+			runner.add("ComplexPolynomial.apply", degreeParameters, () -> {
+				double sum = 0;
+				for (Complex z : numbers) {
+					sum += polynomial.apply(z).getRe();
+				}
+				return sum;
+			});
+			runner.add("ComplexRootedPolynomial.apply", degreeParameters, () -> {
+				double sum = 0;
+				for (Complex z : numbers) {
+					sum += rooted.apply(z).getRe();
+				}
+				return sum;
+			});
+			runner.add("ComplexRootedPolynomial.indexOfClosestRootFor", degreeParameters, () -> {
+				double sum = 0;
+				for (Complex z : numbers) {
+					sum += rooted.indexOfClosestRootFor(z, 2);
+				}
+				return sum;
+			});
+		}
+
+		runner.add("ComplexParser", parameters, () -> {
+			double sum = 0;
+			for (String text : texts) {
+				sum += new ComplexParser(text).getResult().getRe();
+			}
+			return sum;
+		});
+	}
+
+	/**
+	 * Pomoćna metoda koja registrira crtanje Newton-Raphsonovog fraktala
+	 * razredom {@link NewtonFractalProducer} za polinome čiji su korijeni
+	 * jedinični korijeni različitih redova, za nekoliko razlučivosti.
+	 *
+	 * @param runner
+	 *            alat kojem se poslovi predaju
+	 * @param shutdowns
+	 *            popis u koji se dodaje gašenje svakog stvorenog programa
+	 */
+	private static void addFractalBenchmarks(BenchmarkRunner runner, List<Runnable> shutdowns) {
+		for (int degree : FRACTAL_DEGREES) {
+			NewtonFractalProducer producer = new NewtonFractalProducer(
+					new ComplexRootedPolynomial(unityRoots(degree)));
+			shutdowns.add(producer::shutdown);
+			for (int[] resolution : FRACTAL_RESOLUTIONS) {
+				int width = resolution[0];
+				int height = resolution[1];
+				runner.add("NewtonFractalProducer.produce", width + "x" + height + ",degree=" + degree, () -> {
+					double[] sum = new double[1];
+					producer.produce(-2, 2, -1.5, 1.5, width, height, 0,
+							(data, colors, requestNo) -> sum[0] = data[data.length / 2] + colors);
+					return sum[0];
+				});
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja registrira poslove nad razredima {@link Sphere},
+	 * {@link BoundingVolumeHierarchy} i {@link RayCasterUtil} te oba programa
+	 * za bacanje zrake ({@link RayCaster} i {@link RayCasterParallelProducer}).
+	 * Hijerarhija se mjeri nad nasumično raspoređenim sferama. Koristi se
+	 * scena {@link RayTracerViewer#createPredefinedScene()} gledana iz iste
+	 * točke kao u programima.
+	 *
+	 * @param runner
+	 *            alat kojem se poslovi predaju
+	 * @param shutdowns
+	 *            popis u koji se dodaje gašenje svakog stvorenog programa
+	 */
+	private static void addRayTracerBenchmarks(BenchmarkRunner runner, List<Runnable> shutdowns) {
+		Point3D eye = new Point3D(10, 0, 0);
+		Point3D view = new Point3D(0, 0, 0);
+		Point3D viewUp = new Point3D(0, 0, 10);
+
+		// zrake kroz pravilnu mrežu točaka ravnine x = 0
+		Ray[] rays = new Ray[RAYS * RAYS];
+		for (int i = 0; i < RAYS; i++) {
+			for (int j = 0; j < RAYS; j++) {
+				Point3D screenPoint = new Point3D(0, 20.0 * i / (RAYS - 1) - 10, 20.0 * j / (RAYS - 1) - 10);
+				rays[i * RAYS + j] = Ray.fromPoints(eye, screenPoint);
+			}
+		}
+		String parameters = "rays=" + rays.length;
+
+		// zrake kroz susjedne slikovne elemente slike širine 20 / COHERENT_SPACING,
+		// poredane po recima kao u programima
+		Point3D[] coherentEnds = new Point3D[RAYS * RAYS];
+		Ray[] coherent = new Ray[RAYS * RAYS];
+		for (int i = 0; i < RAYS; i++) {
+			for (int j = 0; j < RAYS; j++) {
+				coherentEnds[i * RAYS + j] = new Point3D(0, COHERENT_SPACING * j, -COHERENT_SPACING * i);
+				coherent[i * RAYS + j] = Ray.fromPoints(eye, coherentEnds[i * RAYS + j]);
+			}
+		}
+
+		Sphere sphere = new Sphere(new Point3D(-2, 2, -3), 5, 1, 1, 1, 0.5, 0.5, 0.5, 10);
+		runner.add("Sphere.findClosestRayIntersection", parameters, () -> {
+			double sum = 0;
+			for (Ray ray : rays) {
+				RayIntersection intersection = sphere.findClosestRayIntersection(ray);
+				sum += intersection == null ? 0 : intersection.getDistance();
+			}
+			return sum;
+		});
+		SurfacePoint surface = new SurfacePoint();
+		runner.add("Sphere.findSurface", parameters, () -> {
+			double sum = 0;
+			for (Ray ray : rays) {
+				sum += sphere.findSurface(ray, surface) ? surface.distance : 0;
+			}
+			return sum;
+		});
+
+		Scene scene = RayTracerViewer.createPredefinedScene();
+		runner.add("RayCasterUtil.tracer", parameters, () -> {
+			short[] rgb = new short[3];
+			double sum = 0;
+			for (Ray ray : rays) {
+				RayCasterUtil.tracer(scene, ray, rgb);
+				sum += rgb[0];
+			}
+			return sum;
+		});
+		CompiledScene compiled = new CompiledScene(scene);
+		runner.add("RayCasterUtil.tracer", parameters + ",compiled", () -> {
+			short[] rgb = new short[3];
+			double sum = 0;
+			for (Ray ray : rays) {
+				RayCasterUtil.tracer(compiled, ray, rgb);
+				sum += rgb[0];
+			}
+			return sum;
+		});
+		runner.add("CompiledScene.<init>", "predefined", () -> new CompiledScene(scene).getLightCount());
+
+		Random random = new Random(42);
+		for (int count : SPHERE_COUNTS) {
+			List<GraphicalObject> spheres = randomSpheres(random, count);
+			BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy(spheres, null);
+			String countParameters = parameters + ",spheres=" + count;
+			runner.add("BoundingVolumeHierarchy.findClosestIntersection", countParameters, () -> {
+				double sum = 0;
+				for (Ray ray : rays) {
+					RayIntersection intersection = hierarchy.findClosestIntersection(ray);
+					sum += intersection == null ? 0 : intersection.getDistance();
+				}
+				return sum;
+			});
+			String coherentParameters = "rays=" + coherent.length + ",coherent,spheres=" + count;
+			runner.add("BoundingVolumeHierarchy.findClosestIntersection", coherentParameters, () -> {
+				double sum = 0;
+				for (Ray ray : coherent) {
+					RayIntersection intersection = hierarchy.findClosestIntersection(ray);
+					sum += intersection == null ? 0 : intersection.getDistance();
+				}
+				return sum;
+			});
+			for (int packetSize : PACKET_SIZES) {
+				RayPacket packet = new RayPacket(packetSize);
+				runner.add("BoundingVolumeHierarchy.findClosestIntersections",
+						coherentParameters + ",packet=" + packetSize, () -> {
+							double sum = 0;
+							for (int first = 0; first < coherent.length; first += packetSize) {
+								packet.clear();
+								for (int i = first; i < first + packetSize; i++) {
+									packet.add(eye, coherentEnds[i].x, coherentEnds[i].y, coherentEnds[i].z);
+								}
+								hierarchy.findClosestIntersections(packet);
+								for (int lane = 0; lane < packetSize; lane++) {
+									sum += packet.hit[lane] == RayPacket.NO_HIT ? 0 : packet.distance[lane];
+								}
+							}
+							return sum;
+						});
+			}
+			runner.add("BoundingVolumeHierarchy.isOccluded", countParameters, () -> {
+				double sum = 0;
+				for (Ray ray : rays) {
+					sum += hierarchy.isOccluded(ray, 20) ? 1 : 0;
+				}
+				return sum;
+			});
+			if (count <= MAX_LINEAR_SPHERES) {
+				runner.add("GraphicalObject.findClosestRayIntersection (all)", countParameters, () -> {
+					double sum = 0;
+					for (Ray ray : rays) {
+						double min = Double.MAX_VALUE;
+						for (GraphicalObject object : spheres) {
+							RayIntersection intersection = object.findClosestRayIntersection(ray);
+							if (intersection != null && intersection.getDistance() < min) {
+								min = intersection.getDistance();
+							}
+						}
+						sum += min;
+					}
+					return sum;
+				});
+				SphereSet set = new SphereSet(asSpheres(spheres));
+				SphereSet.Hit hit = new SphereSet.Hit();
+				runner.add("SphereSet.nearest (all)", countParameters, () -> {
+					double sum = 0;
+					for (Ray ray : rays) {
+						hit.reset();
+						set.nearest(ray, 0, set.size(), hit);
+						sum += hit.index == RayPacket.NO_HIT ? Double.MAX_VALUE : hit.distance;
+					}
+					return sum;
+				});
+			}
+			runner.add("BoundingVolumeHierarchy.<init>", "spheres=" + count,
+					() -> new BoundingVolumeHierarchy(spheres, null).getNodeCount());
+		}
+
+		IRayTracerProducer sequential = RayCaster.getIRayTracerProducer();
+		RayCasterParallelProducer parallel = new RayCasterParallelProducer();
+		RayCasterParallelProducer packets = new RayCasterParallelProducer(Runtime.getRuntime().availableProcessors(),
+				PACKET_SIZES[1]);
+		RayCasterParallelProducer antiAliased = new RayCasterParallelProducer(
+				Runtime.getRuntime().availableProcessors(), PACKET_SIZES[1], new AdaptiveSampler());
+		shutdowns.add(parallel::shutdown);
+		shutdowns.add(packets::shutdown);
+		shutdowns.add(antiAliased::shutdown);
+		for (int size : SCENE_RESOLUTIONS) {
+			String sizeParameters = size + "x" + size;
+			runner.add("RayCaster.produce", sizeParameters, () -> produce(sequential, eye, view, viewUp, size));
+			runner.add("RayCasterParallelProducer.produce", sizeParameters,
+					() -> produce(parallel, eye, view, viewUp, size));
+			IntBuffer pixels = IntBuffer.allocate(size * size);
+			runner.add("RayCasterParallelProducer.produceArgb", sizeParameters,
+					() -> produceArgb(parallel, eye, view, viewUp, size, pixels));
+			runner.add("RayCasterParallelProducer.produce", sizeParameters + ",packet=" + PACKET_SIZES[1],
+					() -> produce(packets, eye, view, viewUp, size));
+			runner.add("RayCasterParallelProducer.produce", sizeParameters + ",packet=" + PACKET_SIZES[1] + ",aa",
+					() -> produce(antiAliased, eye, view, viewUp, size));
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara <b>count</b> sfera nasumično raspoređenih u
+	 * kocki ispred očišta. Polumjer sfera smanjuje se s njihovim brojem, pa
+	 * sfere zauzimaju približno jednak dio kocke.
+	 *
+	 * @param random
+	 *            generator slučajnih brojeva
+	 * @param count
+	 *            broj sfera
+	 * @return lista sfera
+	 */
+	private static List<GraphicalObject> randomSpheres(Random random, int count) {
+		double radius = 2 / Math.cbrt(count);
+		List<GraphicalObject> spheres = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Point3D center = new Point3D(-10 * random.nextDouble(), 20 * random.nextDouble() - 10,
+					20 * random.nextDouble() - 10);
+			spheres.add(new Sphere(center, radius, 1, 1, 1, 0.5, 0.5, 0.5, 10));
+		}
+		return spheres;
+	}
+
+	/**
+	 * Pomoćna metoda koja pretvara listu objekata stvorenu metodom
+	 * {@link #randomSpheres(Random, int)} u listu sfera.
+	 *
+	 * @param objects
+	 *            objekti koji su sfere
+	 * @return lista sfera
+	 */
+	private static List<Sphere> asSpheres(List<GraphicalObject> objects) {
+		List<Sphere> spheres = new ArrayList<>(objects.size());
+		for (GraphicalObject object : objects) {
+			spheres.add((Sphere) object);
+		}
+		return spheres;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa sliku scene predanim programom za bacanje
+	 * zrake.
+	 *
+	 * @param producer
+	 *            program za bacanje zrake
+	 * @param eye
+	 *            položaj oka
+	 * @param view
+	 *            točka koja se promatra
+	 * @param viewUp
+	 *            približan smjer prema gore
+	 * @param size
+	 *            širina i visina slike
+	 * @return vrijednost crvene komponente središnjeg slikovnog elementa
+	 */
+	private static double produce(IRayTracerProducer producer, Point3D eye, Point3D view, Point3D viewUp,
+			int size) {
+		double[] sum = new double[1];
+		producer.produce(eye, view, viewUp, 20, 20, size, size, 0,
+				(red, green, blue, requestNo) -> sum[0] = red[red.length / 2]);
+		return sum[0];
+	}
+
+	/**
+	 * Pomoćna metoda koja računa sliku scene predanim programom za bacanje
+	 * zrake, zapisujući zapakirane slikovne elemente izravno u međuspremnik
+	 * <b>pixels</b>.
+	 *
+	 * @param producer
+	 *            program za bacanje zrake
+	 * @param eye
+	 *            položaj oka
+	 * @param view
+	 *            točka koja se promatra
+	 * @param viewUp
+	 *            približan smjer prema gore
+	 * @param size
+	 *            širina i visina slike
+	 * @param pixels
+	 *            međuspremnik u koji se zapisuje slika
+	 * @return vrijednost središnjeg slikovnog elementa
+	 */
+	private static double produceArgb(IRayTracerArgbProducer producer, Point3D eye, Point3D view, Point3D viewUp,
+			int size, IntBuffer pixels) {
+		producer.produceArgb(eye, view, viewUp, 20, 20, size, size, 0, new IRayTracerArgbObserver() {
+
+			@Override
+			public IntBuffer acquireBuffer(int width, int height, long requestNo) {
+				return pixels;
+			}
+
+			@Override
+			public void acceptResult(IntBuffer argb, int width, int height, long requestNo) {
+			}
+		});
+		return pixels.get(size * size / 2);
+	}
+
+	/**
+	 * Pomoćna metoda koja vraća sve <i>n</i>-te korijene iz jedinice.
+	 *
+	 * @param n
+	 *            red korijena
+	 * @return korijeni iz jedinice
+	 */
+	private static Complex[] unityRoots(int n) {
+		return Complex.ONE.root(n).toArray(new Complex[n]);
+	}
+}
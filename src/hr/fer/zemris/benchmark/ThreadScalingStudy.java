@@ -0,0 +1,470 @@
+package hr.fer.zemris.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import hr.fer.zemris.java.fractals.NewtonFractalProducer;
+import hr.fer.zemris.java.raytracer.RayCasterParallelProducer;
+import hr.fer.zemris.java.raytracer.model.Point3D;
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+/**
+ * Razred predstavlja program koji mjeri kako se trajanje crtanja razredima
+ * {@link NewtonFractalProducer} i {@link RayCasterParallelProducer} mijenja s
+ * brojem dretvi. Svaki program pokreće se bez grafičkog sučelja, s
+ * promatračem koji samo prima rezultat, za broj dretvi <i>1, 2, 4, ... ,
+ * N</i> u dvije vrste nizova mjerenja (vidi {@link Scaling}):
+ * <ul>
+ * <li>jako skaliranje - nekoliko nepromijenjenih razlučivosti</li>
+ * <li>slabo skaliranje - visina slike raste s brojem dretvi, pa na svaku
+ * dretvu dolazi jednak broj slikovnih elemenata</li>
+ * </ul>
+ * Za svako pokretanje bilježe se:
+ * <ul>
+ * <li>stvarno trajanje (medijan od {@value #REPETITIONS} pokretanja)</li>
+ * <li>procesorsko vrijeme cijelog procesa</li>
+ * <li>broj bajtova zauzetih na gomili u svim dretvama</li>
+ * </ul>
+ * Serijski udio programa procjenjuje se metodom najmanjih kvadrata, za
+ * svaku vrstu niza prema modelu koji mu odgovara:
+ * <ul>
+ * <li>jako skaliranje - Amdahlov zakon <i>S(p) = 1 / (f + (1 - f) / p)</i>,
+ * uz ubrzanje <i>S(p) = T(1) / T(p)</i></li>
+ * <li>slabo skaliranje - Gustafsonov zakon <i>S(p) = p - a * (p - 1)</i>, uz
+ * skalirano ubrzanje <i>S(p) = p * T(1) / T(p)</i></li>
+ * </ul>
+ * Gustafsonov zakon pretpostavlja posao koji raste s brojem dretvi, pa se ne
+ * primjenjuje na mjerenja nepromijenjene razlučivosti, i obrnuto.
+ * Program prima dva neobavezna argumenta naredbenog retka: putanju do CSV
+ * datoteke u koju se zapisuju rezultati i najveći broj dretvi <i>N</i>
+ * (podrazumijevano broj dostupnih procesora).
+ *
+ * @see NewtonFractalProducer
+ * @see RayCasterParallelProducer
+ *
+ * @author Davor Češljaš
+ */
+public class ThreadScalingStudy {
+
+	/** Broj pokretanja radi zagrijavanja za svaki broj dretvi */
+	private static final int WARMUP_RUNS = 2;
+
+	/** Broj mjerenih pokretanja za svaki broj dretvi */
+	private static final int REPETITIONS = 3;
+
+	/** Red polinoma čiji se Newton-Raphsonov fraktal crta */
+	private static final int FRACTAL_DEGREE = 5;
+
+	/** Razlučivosti za koje se crta Newton-Raphsonov fraktal */
+	private static final int[][] FRACTAL_RESOLUTIONS = { { 320, 240 }, { 800, 600 } };
+
+	/** Razlučivosti za koje se računa slika scene */
+	private static final int[] SCENE_RESOLUTIONS = { 200, 500 };
+
+	/**
+	 * Razlučivost fraktala za jednu dretvu pri slabom skaliranju, visina se
+	 * množi brojem dretvi
+	 */
+	private static final int[] WEAK_FRACTAL_RESOLUTION = { 320, 240 };
+
+	/**
+	 * Stranica slike scene za jednu dretvu pri slabom skaliranju, visina se
+	 * množi brojem dretvi
+	 */
+	private static final int WEAK_SCENE_SIZE = 200;
+
+	/** Zaglavlje CSV datoteke */
+	private static final String CSV_HEADER = "name,parameters,scaling,threads,wallMillis,cpuMillis,allocatedBytes,"
+			+ "speedup,model,serialFraction";
+
+	/** Indeks stvarnog trajanja u rezultatu metode {@link #measure(Renderer)} */
+	private static final int WALL = 0;
+
+	/** Indeks procesorskog vremena u rezultatu metode {@link #measure(Renderer)} */
+	private static final int CPU = 1;
+
+	/** Indeks zauzetih bajtova u rezultatu metode {@link #measure(Renderer)} */
+	private static final int ALLOCATED = 2;
+
+	/**
+	 * Metoda od koje započinje izvođenje programa.
+	 *
+	 * @param args
+	 *            argumenti naredbenog redka. Prvi je putanja do CSV datoteke s
+	 *            rezultatima, a drugi najveći broj dretvi
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja rezultata
+	 */
+	public static void main(String[] args) throws IOException {
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+		int[] threadCounts = threadCounts(maxThreads);
+
+		List<String> rows = new ArrayList<>();
+		ComplexRootedPolynomial polynomial = new ComplexRootedPolynomial(
+				Complex.ONE.root(FRACTAL_DEGREE).toArray(new Complex[FRACTAL_DEGREE]));
+		for (int[] resolution : FRACTAL_RESOLUTIONS) {
+			int width = resolution[0];
+			int height = resolution[1];
+			rows.addAll(study("NewtonFractalProducer", width + "x" + height + ",degree=" + FRACTAL_DEGREE,
+					Scaling.STRONG, threadCounts, threads -> fractal(polynomial, threads, width, height)));
+		}
+		int fractalWidth = WEAK_FRACTAL_RESOLUTION[0];
+		int fractalHeight = WEAK_FRACTAL_RESOLUTION[1];
+		rows.addAll(study("NewtonFractalProducer",
+				fractalWidth + "x(" + fractalHeight + "*p),degree=" + FRACTAL_DEGREE, Scaling.WEAK, threadCounts,
+				threads -> fractal(polynomial, threads, fractalWidth, fractalHeight * threads)));
+
+		for (int size : SCENE_RESOLUTIONS) {
+			rows.addAll(study("RayCasterParallelProducer", size + "x" + size, Scaling.STRONG, threadCounts,
+					threads -> scene(threads, size, size)));
+		}
+		rows.addAll(study("RayCasterParallelProducer", WEAK_SCENE_SIZE + "x(" + WEAK_SCENE_SIZE + "*p)",
+				Scaling.WEAK, threadCounts, threads -> scene(threads, WEAK_SCENE_SIZE, WEAK_SCENE_SIZE * threads)));
+
+		if (args.length > 0) {
+			Path output = Paths.get(args[0]);
+			try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+				writer.write(CSV_HEADER);
+				writer.newLine();
+				for (String row : rows) {
+					writer.write(row);
+					writer.newLine();
+				}
+			}
+			System.out.println("Rezultati zapisani u " + output.toAbsolutePath());
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara program koji crta Newton-Raphsonov fraktal
+	 * polinoma <b>polynomial</b>.
+	 *
+	 * @param polynomial
+	 *            polinom čiji se fraktal crta
+	 * @param threads
+	 *            broj dretvi
+	 * @param width
+	 *            širina slike
+	 * @param height
+	 *            visina slike
+	 * @return program za crtanje
+	 */
+	private static Renderer fractal(ComplexRootedPolynomial polynomial, int threads, int width, int height) {
+		NewtonFractalProducer producer = new NewtonFractalProducer(polynomial, 0.0001, 0.0002, threads);
+		return new Renderer() {
+			@Override
+			public void render() {
+				producer.produce(-2, 2, -1.5, 1.5, width, height, 0, (data, colors, requestNo) -> {
+				});
+			}
+
+			@Override
+			public void close() {
+				producer.shutdown();
+			}
+		};
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara program koji računa sliku scene.
+	 *
+	 * @param threads
+	 *            broj dretvi
+	 * @param width
+	 *            širina slike
+	 * @param height
+	 *            visina slike
+	 * @return program za crtanje
+	 */
+	private static Renderer scene(int threads, int width, int height) {
+		Point3D eye = new Point3D(10, 0, 0);
+		Point3D view = new Point3D(0, 0, 0);
+		Point3D viewUp = new Point3D(0, 0, 10);
+		RayCasterParallelProducer producer = new RayCasterParallelProducer(threads);
+		return new Renderer() {
+			@Override
+			public void render() {
+				producer.produce(eye, view, viewUp, 20, 20, width, height, 0, (red, green, blue, requestNo) -> {
+				});
+			}
+
+			@Override
+			public void close() {
+				producer.shutdown();
+			}
+		};
+	}
+
+	/**
+	 * Pomoćna metoda koja provodi mjerenje jednog programa za sve predane
+	 * brojeve dretvi, ispisuje rezultate i procijenjeni serijski udio te ih
+	 * vraća kao retke CSV datoteke. Serijski udio procjenjuje se modelom koji
+	 * odgovara vrsti skaliranja <b>scaling</b>.
+	 *
+	 * @param name
+	 *            naziv programa
+	 * @param parameters
+	 *            opis parametara crtanja
+	 * @param scaling
+	 *            vrsta skaliranja; kod slabog skaliranja tvornica sama
+	 *            povećava sliku s brojem dretvi
+	 * @param threadCounts
+	 *            brojevi dretvi, uzlazno, počevši od 1
+	 * @param factory
+	 *            tvornica koja stvara program za zadani broj dretvi
+	 * @return retci CSV datoteke
+	 */
+	private static List<String> study(String name, String parameters, Scaling scaling, int[] threadCounts,
+			RendererFactory factory) {
+		double[][] measurements = new double[threadCounts.length][];
+		for (int i = 0; i < threadCounts.length; i++) {
+			try (Renderer renderer = factory.create(threadCounts[i])) {
+				measurements[i] = measure(renderer);
+			}
+		}
+
+		double[] speedups = new double[threadCounts.length];
+		for (int i = 0; i < threadCounts.length; i++) {
+			speedups[i] = measurements[0][WALL] / measurements[i][WALL];
+			if (scaling == Scaling.WEAK) {
+				// skalirano ubrzanje: p puta veći posao u vremenu T(p)
+				speedups[i] *= (double) threadCounts[i] / threadCounts[0];
+			}
+		}
+		double serialFraction = scaling == Scaling.STRONG ? amdahlSerialFraction(threadCounts, speedups)
+				: gustafsonSerialFraction(threadCounts, speedups);
+
+		System.out.printf("%s %s (%s)%n", name, parameters, scaling);
+		System.out.printf("%8s %12s %12s %14s %9s %11s%n", "dretve", "vrijeme[ms]", "CPU[ms]", "zauzeto[MB]",
+				"ubrzanje", "učinkovitost");
+		List<String> rows = new ArrayList<>();
+		for (int i = 0; i < threadCounts.length; i++) {
+			double[] m = measurements[i];
+			System.out.printf(Locale.ROOT, "%8d %12.1f %12.1f %14.1f %8.2fx %11.0f%%%n", threadCounts[i],
+					m[WALL] / 1e6, m[CPU] / 1e6, m[ALLOCATED] / (1 << 20), speedups[i],
+					100 * speedups[i] / threadCounts[i]);
+			rows.add(String.format(Locale.ROOT, "%s,\"%s\",%s,%d,%.3f,%.3f,%.0f,%.4f,%s,%.4f", name, parameters,
+					scaling, threadCounts[i], m[WALL] / 1e6, m[CPU] / 1e6, m[ALLOCATED], speedups[i],
+					scaling.model, serialFraction));
+		}
+		System.out.printf(Locale.ROOT, "serijski udio: %s %s = %.4f%n%n", scaling.model, scaling.symbol,
+				serialFraction);
+
+		return rows;
+	}
+
+	/**
+	 * Pomoćna metoda koja pokreće program {@value #WARMUP_RUNS} puta radi
+	 * zagrijavanja, a zatim ga pokreće {@value #REPETITIONS} puta i mjeri.
+	 *
+	 * @param renderer
+	 *            program koji se mjeri
+	 * @return medijan stvarnog trajanja te prosječno procesorsko vrijeme u
+	 *         nanosekundama i prosječan broj zauzetih bajtova, redom na
+	 *         indeksima {@link #WALL}, {@link #CPU} i {@link #ALLOCATED}
+	 */
+	private static double[] measure(Renderer renderer) {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			renderer.render();
+		}
+
+		double[] wall = new double[REPETITIONS];
+		double cpu = 0;
+		double allocated = 0;
+		for (int i = 0; i < REPETITIONS; i++) {
+			long cpuStart = processCpuTime();
+			long allocatedStart = allocatedBytes();
+			long start = System.nanoTime();
+			renderer.render();
+			wall[i] = System.nanoTime() - start;
+			allocated += allocatedBytes() - allocatedStart;
+			cpu += processCpuTime() - cpuStart;
+		}
+
+		Arrays.sort(wall);
+		return new double[] { wall[REPETITIONS / 2], cpu / REPETITIONS, allocated / REPETITIONS };
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća procesorsko vrijeme cijelog procesa.
+	 *
+	 * @return procesorsko vrijeme u nanosekundama ili 0 ukoliko ga virtualni
+	 *         stroj ne podržava
+	 */
+	private static long processCpuTime() {
+		java.lang.management.OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+		if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+		}
+		return 0;
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća zbroj bajtova zauzetih na gomili u svim
+	 * živim dretvama. Dretve programa koji se mjere žive koliko i programi, pa
+	 * razlika dva poziva ove metode obuhvaća sva zauzeća tijekom crtanja.
+	 *
+	 * @return broj zauzetih bajtova ili 0 ukoliko ga virtualni stroj ne
+	 *         podržava
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			return 0;
+		}
+
+		long sum = 0;
+		for (long bytes : ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(bean.getAllThreadIds())) {
+			sum += Math.max(bytes, 0);
+		}
+		return sum;
+	}
+
+	/**
+	 * Pomoćna metoda koja vraća brojeve dretvi <i>1, 2, 4, ...</i> manje od
+	 * <b>maxThreads</b> te sam <b>maxThreads</b>.
+	 *
+	 * @param maxThreads
+	 *            najveći broj dretvi
+	 * @return brojevi dretvi, uzlazno
+	 */
+	private static int[] threadCounts(int maxThreads) {
+		if (maxThreads <= 0) {
+			throw new IllegalArgumentException("Najveći broj dretvi mora biti pozitivan, a predan je " + maxThreads);
+		}
+
+		List<Integer> counts = new ArrayList<>();
+		for (int threads = 1; threads < maxThreads; threads *= 2) {
+			counts.add(threads);
+		}
+		counts.add(maxThreads);
+		return counts.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Metoda koja procjenjuje serijski udio <i>f</i> Amdahlovog zakona. Zakon
+	 * se zapisuje kao <i>1/S - 1/p = f * (1 - 1/p)</i> pa se <i>f</i> dobiva
+	 * metodom najmanjih kvadrata po svim mjerenjima s više od jedne dretve.
+	 *
+	 * @param threads
+	 *            brojevi dretvi
+	 * @param speedups
+	 *            izmjerena ubrzanja
+	 * @return serijski udio ili {@link Double#NaN} ukoliko nema mjerenja s više
+	 *         od jedne dretve
+	 */
+	static double amdahlSerialFraction(int[] threads, double[] speedups) {
+		double numerator = 0;
+		double denominator = 0;
+		for (int i = 0; i < threads.length; i++) {
+			double x = 1 - 1.0 / threads[i];
+			numerator += x * (1 / speedups[i] - 1.0 / threads[i]);
+			denominator += x * x;
+		}
+		return denominator == 0 ? Double.NaN : numerator / denominator;
+	}
+
+	/**
+	 * Metoda koja procjenjuje serijski udio <i>a</i> Gustafsonovog zakona.
+	 * Zakon se zapisuje kao <i>p - S = a * (p - 1)</i> pa se <i>a</i> dobiva
+	 * metodom najmanjih kvadrata po svim mjerenjima s više od jedne dretve.
+	 * Ubrzanja moraju biti skalirana ubrzanja mjerenja kod kojih posao raste
+	 * s brojem dretvi.
+	 *
+	 * @param threads
+	 *            brojevi dretvi
+	 * @param speedups
+	 *            izmjerena skalirana ubrzanja
+	 * @return serijski udio ili {@link Double#NaN} ukoliko nema mjerenja s više
+	 *         od jedne dretve
+	 */
+	static double gustafsonSerialFraction(int[] threads, double[] speedups) {
+		double numerator = 0;
+		double denominator = 0;
+		for (int i = 0; i < threads.length; i++) {
+			double x = threads[i] - 1;
+			numerator += x * (threads[i] - speedups[i]);
+			denominator += x * x;
+		}
+		return denominator == 0 ? Double.NaN : numerator / denominator;
+	}
+
+	/**
+	 * Enumeracija predstavlja vrstu niza mjerenja
+	 *
+	 * @author Davor Češljaš
+	 */
+	private enum Scaling {
+		/** Jako skaliranje - veličina slike ne ovisi o broju dretvi */
+		STRONG("Amdahl", "f"),
+		/** Slabo skaliranje - broj slikovnih elemenata raste s brojem dretvi */
+		WEAK("Gustafson", "a");
+
+		/** Model kojim se procjenjuje serijski udio */
+		private final String model;
+
+		/** Oznaka serijskog udjela u modelu */
+		private final String symbol;
+
+		/**
+		 * Konstruktor koji inicijalizira vrstu niza mjerenja.
+		 *
+		 * @param model
+		 *            model kojim se procjenjuje serijski udio
+		 * @param symbol
+		 *            oznaka serijskog udjela u modelu
+		 */
+		private Scaling(String model, String symbol) {
+			this.model = model;
+			this.symbol = symbol;
+		}
+	}
+
+	/**
+	 * Sučelje koje predstavlja program za crtanje s već zadanim parametrima
+	 * crtanja
+	 *
+	 * @author Davor Češljaš
+	 */
+	private interface Renderer extends AutoCloseable {
+
+		/**
+		 * Metoda koja jednom provodi crtanje i čeka njegov završetak.
+		 */
+		void render();
+
+		/**
+		 * Metoda koja gasi dretve programa.
+		 */
+		@Override
+		void close();
+	}
+
+	/**
+	 * Funkcijsko sučelje koje predstavlja tvornicu programa za crtanje
+	 *
+	 * @author Davor Češljaš
+	 */
+	private interface RendererFactory {
+
+		/**
+		 * Metoda koja stvara program za crtanje s <b>threads</b> dretvi.
+		 *
+		 * @param threads
+		 *            broj dretvi
+		 * @return program za crtanje
+		 */
+		Renderer create(int threads);
+	}
+}
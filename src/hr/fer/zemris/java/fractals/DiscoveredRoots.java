@@ -0,0 +1,275 @@
+package hr.fer.zemris.java.fractals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import hr.fer.zemris.math.Complex;
+
+/**
+ * Razred predstavlja skup korijena funkcije koji se otkrivaju tijekom crtanja
+ * Newton-Raphsonovog fraktala funkcije čiji korijeni nisu unaprijed poznati.
+ * Svakom korijenu dodjeljuje se indeks prema redoslijedu otkrivanja. Taj
+ * redoslijed ovisi o tome koja je dretva prva konvergirala kojem korijenu, pa
+ * se za bojanje koristi poredak korijena dobiven metodom
+ * {@link #canonicalOrder()}, koji ovisi samo o položaju korijena. Korijeni
+ * koji se mogu izračunati unaprijed predaju se konstruktorom, pa se tijekom
+ * crtanja samo dohvaćaju.
+ * <p>
+ * Korijeni su razvrstani u mrežu ćelija stranice jednake najvećoj udaljenosti
+ * točke od korijena, pa dohvat indeksa pregledava samo korijene iz devet
+ * susjednih ćelija, neovisno o broju korijena. Dohvat ne zaključava i ne
+ * stvara nove objekte: mreža se zamjenjuje novom (kopira) samo prilikom
+ * dodavanja novog korijena. Broj korijena ograničen je na
+ * {@value #MAX_ROOTS}, a točke koje nisu blizu niti jednog korijena nakon
+ * toga nemaju indeks. Razred je siguran za korištenje iz više dretvi.
+ *
+ * @see NewtonFractalProducer
+ *
+ * @author Davor Češljaš
+ */
+class DiscoveredRoots {
+
+	/** Najveći broj korijena, kako bi indeks boje stao u <code>short</code> */
+	public static final int MAX_ROOTS = 1 << 14;
+
+	/** Oznaka kraja lanca korijena jedne ćelije */
+	private static final int NONE = -1;
+
+	/** Najveća udaljenost točke od korijena, ujedno i stranica ćelije mreže */
+	private final double treshold;
+
+	/** Trenutna mreža korijena */
+	private volatile Grid grid;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param treshold
+	 *            najveća udaljenost točke od korijena
+	 * @throws IllegalArgumentException
+	 *             ukoliko udaljenost nije pozitivna
+	 */
+	public DiscoveredRoots(double treshold) {
+		if (!(treshold > 0)) {
+			throw new IllegalArgumentException("Udaljenost mora biti pozitivna, a predana je " + treshold);
+		}
+		this.treshold = treshold;
+		this.grid = new Grid(new double[0], 0);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda s unaprijed
+	 * poznatim korijenima <b>known</b>, kojima se indeksi dodjeljuju redom.
+	 * Korijeni bliži od <b>treshold</b> nekom prethodnom korijenu smatraju se
+	 * istim korijenom.
+	 *
+	 * @param treshold
+	 *            najveća udaljenost točke od korijena
+	 * @param known
+	 *            unaprijed poznati korijeni
+	 * @throws IllegalArgumentException
+	 *             ukoliko udaljenost nije pozitivna
+	 */
+	public DiscoveredRoots(double treshold, Complex... known) {
+		this(treshold);
+		for (Complex root : known) {
+			indexOf(root.getRe(), root.getIm());
+		}
+	}
+
+	/**
+	 * Metoda koja vraća broj do sada otkrivenih korijena
+	 *
+	 * @return broj do sada otkrivenih korijena
+	 */
+	public int size() {
+		return grid.size;
+	}
+
+	/**
+	 * Metoda koja dohvaća indeks korijena najbližeg točki <i>re + i*im</i>
+	 * ukoliko je on udaljen najviše {@link #treshold}. Ukoliko takav korijen ne
+	 * postoji, točka se dodaje kao novi korijen, osim ako je već otkriveno
+	 * {@value #MAX_ROOTS} korijena.
+	 *
+	 * @param re
+	 *            realni dio točke kojoj je funkcija konvergirala
+	 * @param im
+	 *            imaginarni dio točke kojoj je funkcija konvergirala
+	 * @return indeks korijena ili -1 ukoliko je broj korijena dosegao
+	 *         {@value #MAX_ROOTS}
+	 */
+	public int indexOf(double re, double im) {
+		int index = grid.find(re, im, treshold);
+		return index >= 0 ? index : add(re, im);
+	}
+
+	/**
+	 * Metoda računa poredak do sada otkrivenih korijena koji ne ovisi o
+	 * redoslijedu otkrivanja. Korijeni se poredaju po ćeliji mreže u kojoj se
+	 * nalaze, najprije po realnom, a zatim po imaginarnom dijelu. Poredak se
+	 * mijenja samo kada se otkrije novi korijen.
+	 *
+	 * @return polje u kojem je na indeksu korijena zapisano njegovo mjesto u
+	 *         poretku
+	 */
+	public int[] canonicalOrder() {
+		Grid current = grid;
+		double[] roots = current.roots;
+		Integer[] indices = new Integer[current.size];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = i;
+		}
+		Arrays.sort(indices, Comparator.<Integer> comparingLong(i -> cell(roots[2 * i]))
+				.thenComparingLong(i -> cell(roots[2 * i + 1]))
+				.thenComparingDouble(i -> roots[2 * i])
+				.thenComparingDouble(i -> roots[2 * i + 1]));
+
+		int[] order = new int[indices.length];
+		for (int i = 0; i < indices.length; i++) {
+			order[indices[i]] = i;
+		}
+		return order;
+	}
+
+	/**
+	 * Pomoćna metoda koja dodaje novi korijen. Prije dodavanja se ponovo
+	 * provjerava je li ga u međuvremenu dodala neka druga dretva.
+	 *
+	 * @param re
+	 *            realni dio korijena
+	 * @param im
+	 *            imaginarni dio korijena
+	 * @return indeks korijena ili -1 ukoliko je broj korijena dosegao
+	 *         {@value #MAX_ROOTS}
+	 */
+	private synchronized int add(double re, double im) {
+		Grid current = grid;
+		int index = current.find(re, im, treshold);
+		if (index >= 0 || current.size == MAX_ROOTS) {
+			return index;
+		}
+
+		double[] roots = Arrays.copyOf(current.roots, 2 * current.size + 2);
+		roots[2 * current.size] = re;
+		roots[2 * current.size + 1] = im;
+		grid = new Grid(roots, current.size + 1);
+		return current.size;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa koordinatu ćelije mreže u kojoj leži
+	 * koordinata <b>value</b>
+	 *
+	 * @param value
+	 *            realni ili imaginarni dio točke
+	 * @return koordinata ćelije
+	 */
+	private long cell(double value) {
+		return (long) Math.floor(value / treshold);
+	}
+
+	/**
+	 * Pomoćna metoda koja računa pretinac tablice za ćeliju
+	 * (<b>cellRe</b>, <b>cellIm</b>)
+	 *
+	 * @param cellRe
+	 *            koordinata ćelije po realnoj osi
+	 * @param cellIm
+	 *            koordinata ćelije po imaginarnoj osi
+	 * @param mask
+	 *            maska veličine tablice
+	 * @return pretinac tablice
+	 */
+	private static int bucket(long cellRe, long cellIm, int mask) {
+		long hash = cellRe * 0x9E3779B97F4A7C15L + cellIm;
+		hash ^= hash >>> 29;
+		hash *= 0xBF58476D1CE4E5B9L;
+		return (int) (hash ^ hash >>> 32) & mask;
+	}
+
+	/**
+	 * Pomoćni razred koji predstavlja nepromjenjivu mrežu korijena. Korijeni
+	 * iste ćelije (i ćelija koje dijele pretinac tablice) povezani su u lanac
+	 * preko polja {@link #next}.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class Grid {
+
+		/** Korijeni: realni i imaginarni dijelovi, naizmjence */
+		private final double[] roots;
+
+		/** Broj korijena */
+		private final int size;
+
+		/** Prvi korijen lanca svakog pretinca */
+		private final int[] heads;
+
+		/** Sljedeći korijen lanca za svaki korijen */
+		private final int[] next;
+
+		/**
+		 * Konstruktor koji razvrstava korijene u mrežu.
+		 *
+		 * @param roots
+		 *            korijeni: realni i imaginarni dijelovi, naizmjence
+		 * @param size
+		 *            broj korijena
+		 */
+		private Grid(double[] roots, int size) {
+			this.roots = roots;
+			this.size = size;
+			// popunjenost tablice najviše 50%
+			this.heads = new int[Integer.highestOneBit(Math.max(1, size) * 4 - 1)];
+			this.next = new int[size];
+			Arrays.fill(heads, NONE);
+			int mask = heads.length - 1;
+			for (int i = 0; i < size; i++) {
+				int bucket = bucket(cell(roots[2 * i]), cell(roots[2 * i + 1]), mask);
+				next[i] = heads[bucket];
+				heads[bucket] = i;
+			}
+		}
+
+		/**
+		 * Metoda traži korijen najbliži točki <i>re + i*im</i> među
+		 * korijenima ćelije točke i osam susjednih ćelija. Ukoliko su dva
+		 * korijena jednako udaljena, odabire se onaj manjeg indeksa.
+		 *
+		 * @param re
+		 *            realni dio točke
+		 * @param im
+		 *            imaginarni dio točke
+		 * @param treshold
+		 *            najveća udaljenost točke od korijena
+		 * @return indeks najbližeg korijena ili -1 ukoliko je najbliži korijen
+		 *         udaljeniji od <b>treshold</b>
+		 */
+		private int find(double re, double im, double treshold) {
+			if (size == 0) {
+				return -1;
+			}
+
+			long cellRe = cell(re);
+			long cellIm = cell(im);
+			int mask = heads.length - 1;
+			int minIndex = -1;
+			double minDistance = treshold * treshold;
+			for (long dRe = -1; dRe <= 1; dRe++) {
+				for (long dIm = -1; dIm <= 1; dIm++) {
+					for (int i = heads[bucket(cellRe + dRe, cellIm + dIm, mask)]; i != NONE; i = next[i]) {
+						double diffRe = roots[2 * i] - re;
+						double diffIm = roots[2 * i + 1] - im;
+						double distance = diffRe * diffRe + diffIm * diffIm;
+						if (distance < minDistance || distance == minDistance && (minIndex < 0 || i < minIndex)) {
+							minDistance = distance;
+							minIndex = i;
+						}
+					}
+				}
+			}
+			return minIndex;
+		}
+	}
+}
@@ -8,6 +8,7 @@ import hr.fer.zemris.java.fractals.viewer.FractalViewer;
 import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
 import hr.fer.zemris.math.Complex;
 import hr.fer.zemris.math.ComplexRootedPolynomial;
+import hr.fer.zemris.math.complex.ComplexExpressionParser;
 
 /**
  * Razred predstavlja program koji crta Newton-Raphsonov fraktal ovisno od
@@ -30,7 +31,13 @@ import hr.fer.zemris.math.ComplexRootedPolynomial;
  * boldano je korisnikov unos
  * </pre>
  * 
+ * Umjesto korijena polinoma program može primiti i izraz proizvoljne
+ * analitičke funkcije kao argument naredbenog redka, primjerice
+ * <code>"z^3 - 1 + sin(z)"</code>. Format izraza opisan je unutar razreda
+ * {@link ComplexExpressionParser}. U tom slučaju korijeni se ne unose.
+ * 
  * @see Complex
+ * @see ComplexExpressionParser
  * @see FractalViewer
  * @see IFractalProducer
  * 
@@ -44,9 +51,16 @@ public class Newton {
 	 * Metoda od koje započinje izvođenje programa.
 	 *
 	 * @param args
-	 *           	argumenti naredbenog redka. Ovdje se ne koriste
+	 *            argumenti naredbenog redka. Ukoliko su predani, predstavljaju
+	 *            izraz funkcije čiji se fraktal crta
 	 */
 	public static void main(String[] args) {
+		if (args.length > 0) {
+			String expression = String.join(" ", args);
+			System.out.println("Crtam fraktal funkcije f(z) = " + expression);
+			FractalViewer.show(new NewtonFractalProducer(ComplexExpressionParser.parse(expression)));
+			return;
+		}
 
 		System.out.println("Dobrodošli u Newton-Raphson fraktalni preglednik na temelju iteracija");
 		System.out.println("Molim Vas unesite barem dva korijena, jedan po liniji. Upišite 'done' kada ste gotovi:");
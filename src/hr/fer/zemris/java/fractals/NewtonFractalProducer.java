@@ -7,12 +7,16 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import hr.fer.zemris.java.fractals.viewer.IFractalProducer;
 import hr.fer.zemris.java.fractals.viewer.IFractalResultObserver;
+import hr.fer.zemris.java.metrics.RenderMetrics;
 import hr.fer.zemris.math.Complex;
-import hr.fer.zemris.math.ComplexPolynomial;
+import hr.fer.zemris.math.ComplexFunction;
 import hr.fer.zemris.math.ComplexRootedPolynomial;
+import hr.fer.zemris.math.DoubleUtil;
+import hr.fer.zemris.math.SparseComplexPolynomial;
 
 /**
  * Razred koji predstavlja implementaciju sučelja {@link IFractalProducer} za
@@ -22,6 +26,25 @@ import hr.fer.zemris.math.ComplexRootedPolynomial;
  * detalja o Newton-Raphsonovom fraktalu i kako se on crta molimo Vas da
  * kliknete na
  * <a href = "https://en.wikipedia.org/wiki/Newton_fractal">poveznicu</a>
+ * <p>
+ * Fraktal se može crtati za polinom zadan korijenima (primjerak razreda
+ * {@link ComplexRootedPolynomial}) ili za proizvoljnu analitičku funkciju
+ * (primjerak sučelja {@link ComplexFunction}, primjerice rijetki polinom
+ * {@link SparseComplexPolynomial}). U drugom slučaju korijeni nisu unaprijed
+ * poznati pa se otkrivaju tijekom crtanja: svaka točka kojoj iteracija
+ * konvergira, a koja nije blizu niti jednog do tada otkrivenog korijena,
+ * postaje novi korijen. Korijeni rijetkog polinoma s dva člana (primjerice
+ * <i>z^1000 - 1</i>) računaju se izravno i poznati su prije prvog crtanja.
+ * Boje bazena određuje poredak korijena po položaju, pa ne ovise o
+ * redoslijedu kojim su dretve otkrile korijene, ali se mogu promijeniti kada
+ * se otkrije novi korijen.
+ * <p>
+ * Mjere rada (broj zahtjeva, trajanje, broj iteracija i slično) objavljuju se
+ * putem JMX-a i dostupne su metodom {@link #getMetrics()}. Mjere se objavljuju
+ * već u konstruktoru, a platformski JMX poslužitelj na njih drži referencu,
+ * pa s njima i na cijeli primjerak i njegove dretve. Zato je kada primjerak
+ * više nije potreban <b>obavezno</b> pozvati metodu {@link #shutdown()};
+ * inače primjerak nikada ne postaje smeće.
  * 
  * @see IFractalProducer
  * @see IFractalResultObserver
@@ -43,13 +66,26 @@ public class NewtonFractalProducer implements IFractalProducer {
 	 */
 	private static final double DEFAULT_ROOT_TRESHOLD = 0.0002;
 
-	/** Članska varijabla koja predstavlja funkciju u obliku polinoma */
+	/** Konstanta koja predstavlja broj traka slike po jednoj dretvi */
+	private static final int LANES_PER_THREAD = 8;
+
+	/**
+	 * Članska varijabla koja predstavlja funkciju u obliku polinoma ili
+	 * <code>null</code> ukoliko korijeni funkcije nisu unaprijed poznati
+	 */
 	private final ComplexRootedPolynomial polynomial;
 
 	/**
-	 * Članska varijabla koja predstavlja derivaciju funkcije u obliku polinoma
+	 * Članska varijabla koja predstavlja funkciju koja istovremeno računa
+	 * vrijednost funkcije i njezine derivacije
 	 */
-	private final ComplexPolynomial derived;
+	private final ComplexFunction function;
+
+	/**
+	 * Članska varijabla koja predstavlja korijene otkrivene tijekom crtanja ili
+	 * <code>null</code> ukoliko su korijeni unaprijed poznati
+	 */
+	private final DiscoveredRoots discoveredRoots;
 
 	/** Članska varijabla koja predstavlja granicu konvergencije */
 	private final double convergenceTreshold;
@@ -61,12 +97,18 @@ public class NewtonFractalProducer implements IFractalProducer {
 	 */
 	private final double rootTreshold;
 
+	/** Članska varijabla koja predstavlja broj dretvi koje provode izračun */
+	private final int threads;
+
 	/**
 	 * Članska varijabla koja predstavlja thread-pool kojem se predaju zadaci
 	 * izračuna predstavljeni razredom {@link ComputationJob}
 	 */
 	private ExecutorService pool;
 
+	/** Članska varijabla koja predstavlja mjere rada ovog primjerka */
+	private final RenderMetrics metrics;
+
 	/**
 	 * Konstruktor koji inicijalizira primjerak ovog razreda. Unutar
 	 * konstruktora pohranjuje se predani argument <b>polynomial</b> kao polinom
@@ -107,25 +149,167 @@ public class NewtonFractalProducer implements IFractalProducer {
 	 *             ukoliko je predani argument <code>null</code>
 	 */
 	public NewtonFractalProducer(ComplexRootedPolynomial polynomial, double convergenceTreshold, double rootTreshold) {
-		if (polynomial == null) {
-			throw new IllegalArgumentException("Polinom ne smije biti null!");
+		this(polynomial, convergenceTreshold, rootTreshold, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda jednako kao
+	 * {@link #NewtonFractalProducer(ComplexRootedPolynomial, double, double)},
+	 * ali izračun provodi s <b>threads</b> dretvi umjesto s po jednom dretvom
+	 * za svaki dostupni procesor.
+	 *
+	 * @param polynomial
+	 *            polinom koji se pohranjuje te kojem se računa derivacija (koja
+	 *            se također pohranjuje)
+	 * @param convergenceTreshold
+	 *            vrijednost koje se pohranjuje kao granica konvergencije
+	 * @param rootTreshold
+	 *            vrijednost koja se pohranjuje kao granica minimalne
+	 *            udaljenosti od korijena
+	 * @param threads
+	 *            broj dretvi koje provode izračun
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani polinom <code>null</code> ili ukoliko broj
+	 *             dretvi nije pozitivan
+	 */
+	public NewtonFractalProducer(ComplexRootedPolynomial polynomial, double convergenceTreshold, double rootTreshold,
+			int threads) {
+		this(requireNonNull(polynomial, "Polinom ne smije biti null!"), polynomial.toComplexPolynom().getEvaluator(),
+				convergenceTreshold, rootTreshold, threads);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda za proizvoljnu
+	 * analitičku funkciju <b>function</b> čiji korijeni nisu unaprijed poznati.
+	 * Za {@link #convergenceTreshold} i {@link #rootTreshold} postavljaju se
+	 * {@value #DEFAULT_CONVERGENCE_TRESHOLD} i {@value #DEFAULT_ROOT_TRESHOLD}
+	 *
+	 * @param function
+	 *            funkcija koja istovremeno računa vrijednost i derivaciju
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code>
+	 */
+	public NewtonFractalProducer(ComplexFunction function) {
+		this(function, DEFAULT_CONVERGENCE_TRESHOLD, DEFAULT_ROOT_TRESHOLD);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda za proizvoljnu
+	 * analitičku funkciju <b>function</b> čiji korijeni nisu unaprijed poznati.
+	 *
+	 * @param function
+	 *            funkcija koja istovremeno računa vrijednost i derivaciju
+	 * @param convergenceTreshold
+	 *            vrijednost koje se pohranjuje kao granica konvergencije
+	 * @param rootTreshold
+	 *            vrijednost koja se pohranjuje kao granica najveće udaljenosti
+	 *            dvije točke koje pripadaju istom korijenu
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code>
+	 */
+	public NewtonFractalProducer(ComplexFunction function, double convergenceTreshold, double rootTreshold) {
+		this(function, convergenceTreshold, rootTreshold, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda jednako kao
+	 * {@link #NewtonFractalProducer(ComplexFunction, double, double)}, ali
+	 * izračun provodi s <b>threads</b> dretvi umjesto s po jednom dretvom za
+	 * svaki dostupni procesor.
+	 *
+	 * @param function
+	 *            funkcija koja istovremeno računa vrijednost i derivaciju
+	 * @param convergenceTreshold
+	 *            vrijednost koje se pohranjuje kao granica konvergencije
+	 * @param rootTreshold
+	 *            vrijednost koja se pohranjuje kao granica najveće udaljenosti
+	 *            dvije točke koje pripadaju istom korijenu
+	 * @param threads
+	 *            broj dretvi koje provode izračun
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predana funkcija <code>null</code>, ukoliko
+	 *             granica udaljenosti od korijena nije pozitivna ili ukoliko
+	 *             broj dretvi nije pozitivan
+	 */
+	public NewtonFractalProducer(ComplexFunction function, double convergenceTreshold, double rootTreshold,
+			int threads) {
+		this(null, requireNonNull(function, "Funkcija ne smije biti null!"), convergenceTreshold, rootTreshold,
+				threads);
+	}
+
+	/**
+	 * Pomoćni konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param polynomial
+	 *            polinom čiji su korijeni poznati ili <code>null</code>
+	 * @param function
+	 *            funkcija koja istovremeno računa vrijednost i derivaciju
+	 * @param convergenceTreshold
+	 *            vrijednost koje se pohranjuje kao granica konvergencije
+	 * @param rootTreshold
+	 *            vrijednost koja se pohranjuje kao granica minimalne
+	 *            udaljenosti od korijena
+	 * @param threads
+	 *            broj dretvi koje provode izračun
+	 * @throws IllegalArgumentException
+	 *             ukoliko korijeni nisu poznati, a granica udaljenosti od
+	 *             korijena nije pozitivna ili ukoliko broj dretvi nije
+	 *             pozitivan
+	 */
+	private NewtonFractalProducer(ComplexRootedPolynomial polynomial, ComplexFunction function,
+			double convergenceTreshold, double rootTreshold, int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Broj dretvi mora biti pozitivan, a predan je " + threads);
 		}
 
+		this.threads = threads;
 		this.polynomial = polynomial;
-		this.derived = polynomial.toComplexPolynom().derive();
+		this.function = function;
+		this.discoveredRoots = polynomial == null ? new DiscoveredRoots(rootTreshold, knownRoots(function)) : null;
 		this.convergenceTreshold = convergenceTreshold;
 		this.rootTreshold = rootTreshold;
-		this.pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
-				new DaemonicThreadFactory());
+		this.pool = Executors.newFixedThreadPool(threads, new DaemonicThreadFactory());
+		this.metrics = new RenderMetrics("iterations", () -> ((ThreadPoolExecutor) pool).getQueue().size());
+		this.metrics.register(getClass().getSimpleName());
+	}
+
+	/**
+	 * Metoda dohvaća broj dretvi koje provode izračun
+	 *
+	 * @return broj dretvi koje provode izračun
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Metoda dohvaća mjere rada ovog primjerka razreda
+	 *
+	 * @return mjere rada
+	 */
+	public RenderMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Metoda koja gasi dretve ovog primjerka razreda i uklanja njegove mjere
+	 * rada s JMX poslužitelja. Metoda se mora pozvati za svaki stvoreni
+	 * primjerak, jer ga JMX poslužitelj do tada drži živim. Nakon poziva ove
+	 * metode primjerak se više ne smije koristiti za crtanje.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+		metrics.unregister();
 	}
 
 	@Override
 	public void produce(double reMin, double reMax, double imMin, double imMax, int width, int height, long requestNo,
 			IFractalResultObserver observer) {
+		long start = metrics.requestStarted();
 		short[] data = new short[width * height];
-		final int availableProcessors = Runtime.getRuntime().availableProcessors();
-		// 8 zadano u zadataku (eksterniziraj)
-		final int numberOfLanes = availableProcessors * 8;
+		// barem jedan redak po traci
+		final int numberOfLanes = Math.max(1, Math.min(threads * LANES_PER_THREAD, height));
 		int numberOfYInLane = height / numberOfLanes;
 
 		int maxIter = 4096;
@@ -141,15 +325,74 @@ public class NewtonFractalProducer implements IFractalProducer {
 			results.add(pool.submit(job));
 		}
 
+		boolean cancelled = false;
 		for (Future<Void> job : results) {
 			try {
 				job.get();
 			} catch (InterruptedException | ExecutionException e) {
+				cancelled = true;
 			}
 		}
 
-		short m = (short) (polynomial.toComplexPolynom().order() + 1);
-		observer.acceptResult(data, m, requestNo);
+		if (cancelled) {
+			metrics.requestCancelled();
+		} else {
+			metrics.requestCompleted(start, data.length);
+		}
+
+		short colors;
+		if (polynomial != null) {
+			// promatrač prima broj boja kao short
+			colors = (short) (polynomial.order() + 1);
+		} else {
+			// boje ne smiju ovisiti o tome koja je dretva prva otkrila korijen
+			int[] order = discoveredRoots.canonicalOrder();
+			for (int i = 0; i < data.length; i++) {
+				if (data[i] != 0) {
+					data[i] = (short) (order[data[i] - 1] + 1);
+				}
+			}
+			colors = (short) (order.length + 1);
+		}
+		observer.acceptResult(data, colors, requestNo);
+	}
+
+	/**
+	 * Pomoćna metoda koja dohvaća korijene funkcije <b>function</b> koji se
+	 * mogu izračunati izravno. To su korijeni rijetkog polinoma s najviše dva
+	 * člana, primjerice <i>z^1000 - 1</i>, čiji bi se korijeni inače otkrivali
+	 * tek tijekom crtanja. Za ostale funkcije vraća se prazno polje.
+	 *
+	 * @param function
+	 *            funkcija čiji se korijeni dohvaćaju
+	 * @return izravno izračunati korijeni funkcije
+	 */
+	private static Complex[] knownRoots(ComplexFunction function) {
+		if (function instanceof SparseComplexPolynomial) {
+			SparseComplexPolynomial polynomial = (SparseComplexPolynomial) function;
+			if (polynomial.numberOfTerms() > 0 && polynomial.numberOfTerms() <= 2) {
+				return polynomial.findRoots().getRoots();
+			}
+		}
+		return new Complex[0];
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava da predani objekt nije <code>null</code>.
+	 *
+	 * @param object
+	 *            objekt koji se provjerava
+	 * @param message
+	 *            poruka iznimke
+	 * @return predani objekt
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani objekt <code>null</code>
+	 */
+	private static <T> T requireNonNull(T object, String message) {
+		if (object == null) {
+			throw new IllegalArgumentException(message);
+		}
+		return object;
 	}
 
 	/**
@@ -191,6 +434,12 @@ public class NewtonFractalProducer implements IFractalProducer {
 		 */
 		private short[] data;
 
+		/**
+		 * Ukupan broj iteracija ovog posla, pribraja se mjerama rada jednom po
+		 * poslu
+		 */
+		private long iterations;
+
 		/**
 		 * Konstruktor koji inicijalizira primjerak ovog razreda. Sve predane
 		 * vrijednosti interno se pohranjuju
@@ -235,64 +484,67 @@ public class NewtonFractalProducer implements IFractalProducer {
 
 		@Override
 		public Void call() {
+			long start = metrics.tileStarted();
+			double[] values = new double[ComplexFunction.RESULT_SIZE];
 			for (int y = yMin; y <= yMax; y++) {
+				double im = ((double) (height - 1 - y) / height) * (imMax - imMin) + imMin;
 				for (int x = 0; x < width; x++) {
-					Complex c = mapToComplexPlain(x, y);
-					int index = computeIteration(c);
+					double re = ((double) x / width) * (reMax - reMin) + reMin;
+					int index = computeIteration(re, im, values);
 					data[x + y * width] = (short) (index + 1);
 				}
 			}
 
+			metrics.addWorkUnits(iterations);
+			metrics.tileCompleted(start);
 			return null;
 		}
 
-		/**
-		 * Pomoćna metoda koja predane parametre <b>x</b> i <b>y</b> mapira u
-		 * kompleknu ravninu te iz njih stvara primjerak razreda
-		 * {@link Complex}, koji predstavlja jednu točku unutar kompleksne
-		 * ravnine
-		 *
-		 * @param x
-		 *            x-koordinata
-		 * @param y
-		 *            y-koordinata
-		 * @return primjerak razreda {@link Complex}, koji predstavlja jednu
-		 *         točku unutar kompleksne ravnine
-		 */
-		private Complex mapToComplexPlain(int x, int y) {
-			double re = ((double) x / width) * (reMax - reMin) + reMin;
-			double im = ((double) (height - 1 - y) / height) * (imMax - imMin) + imMin;
-			return new Complex(re, im);
-		}
-
 		/**
 		 * Metoda koja vrši izračun Newton-Raphsonove iteracije za točku
-		 * kompleksne ravnine <b>c</b> koja je primjerak razreda {@link Complex}
+		 * kompleksne ravnine <i>re + i*im</i>. Izračun se provodi nad
+		 * primitivnim vrijednostima, bez stvaranja novih primjeraka razreda
+		 * {@link Complex}
 		 *
-		 * @param c
-		 *            točku kompleksne ravnine <b>c</b> koja je primjerak
-		 *            razreda {@link Complex}
-		 * @return indeks najbližeg korijena polinoma ili -1 ukoliko je
+		 * @param re
+		 *            realni dio točke kompleksne ravnine
+		 * @param im
+		 *            imaginarni dio točke kompleksne ravnine
+		 * @param values
+		 *            pomoćno polje u koje
+		 *            {@link ComplexFunction#evaluate(double, double, double[])}
+		 *            zapisuje vrijednosti funkcije i derivacije
+		 * @return indeks najbližeg korijena funkcije ili -1 ukoliko je
 		 *         udaljenost veća od {@link NewtonFractalProducer#rootTreshold}
+		 *         (odnosno ukoliko iteracija nije konvergirala, za funkcije čiji
+		 *         korijeni nisu unaprijed poznati)
 		 */
-		private int computeIteration(Complex c) {
-			Complex zn = c;
+		private int computeIteration(double re, double im, double[] values) {
 			int iteration = 0;
-			double distance;
+			double distance = Double.POSITIVE_INFINITY;
 			do {
-				Complex numerator = polynomial.apply(zn);
-				Complex denominator = derived.apply(zn);
-				if (denominator.equals(Complex.ZERO)) {
+				function.evaluate(re, im, values);
+				double numRe = values[ComplexFunction.F_RE];
+				double numIm = values[ComplexFunction.F_IM];
+				double denRe = values[ComplexFunction.DF_RE];
+				double denIm = values[ComplexFunction.DF_IM];
+				if (DoubleUtil.doubleEquals(denRe, 0) && DoubleUtil.doubleEquals(denIm, 0)) {
 					break;
 				}
-				Complex fraction = numerator.divide(denominator);
-				Complex zn1 = zn.sub(fraction);
-				distance = zn1.distance(zn);
-				zn = zn1;
+				double denominator = denRe * denRe + denIm * denIm;
+				double fractionRe = (numRe * denRe + numIm * denIm) / denominator;
+				double fractionIm = (numIm * denRe - numRe * denIm) / denominator;
+				re -= fractionRe;
+				im -= fractionIm;
+				distance = Math.sqrt(fractionRe * fractionRe + fractionIm * fractionIm);
 				iteration++;
 			} while (distance > convergenceTreshold && iteration < maxIter);
+			iterations += iteration;
 
-			return polynomial.indexOfClosestRootFor(zn, rootTreshold);
+			if (polynomial != null) {
+				return polynomial.indexOfClosestRootFor(re, im, rootTreshold);
+			}
+			return distance <= convergenceTreshold ? discoveredRoots.indexOf(re, im) : -1;
 		}
 	}
 
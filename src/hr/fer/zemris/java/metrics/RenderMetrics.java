@@ -0,0 +1,403 @@
+package hr.fer.zemris.java.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Razred predstavlja mjere rada jednog programa za crtanje (primjerice
+ * {@link hr.fer.zemris.java.fractals.NewtonFractalProducer} ili
+ * {@link hr.fer.zemris.java.raytracer.RayCasterParallelProducer}). Mjere se
+ * objavljuju putem JMX-a metodom {@link #register(String)}, pod imenom
+ * <i>"hr.fer.zemris.java:type=naziv,id=broj"</i>, pa se mogu pratiti
+ * primjerice programom <i>jconsole</i>.
+ * <p>
+ * Svi brojači su primjerci razreda {@link LongAdder}, koji svakoj dretvi
+ * daje vlastitu ćeliju pa dretve koje istovremeno ažuriraju mjere ne čekaju
+ * jedna drugu. Programi za crtanje uz to zbrajaju mjere lokalno i ažuriraju ih
+ * jednom po dijelu slike, a ne jednom po slikovnom elementu. Trajanje
+ * pojedinih dijelova slike i vrijeme rada svake dretve bilježe se samo dok je
+ * uključeno detaljno mjerenje (vidi {@link #setDetailedTiming(boolean)}).
+ *
+ * @see RenderMetricsMBean
+ *
+ * @author Davor Češljaš
+ */
+public final class RenderMetrics implements RenderMetricsMBean {
+
+	/** Domena imena pod kojim se mjere objavljuju */
+	private static final String DOMAIN = "hr.fer.zemris.java";
+
+	/** Gornje granice razreda histograma trajanja u milisekundama */
+	private static final long[] BUCKET_BOUNDS_MILLIS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000,
+			10000 };
+
+	/** Broj nanosekundi u jednoj milisekundi */
+	private static final long NANOS_PER_MILLI = 1_000_000L;
+
+	/** Brojač koji služi za stvaranje jedinstvenih imena */
+	private static final AtomicLong IDS = new AtomicLong();
+
+	/** Naziv jedinice rada */
+	private final String workUnitName;
+
+	/** Izvor trenutnog broja poslova koji čekaju na izvođenje */
+	private final LongSupplier queueDepth;
+
+	/** Broj započetih zahtjeva */
+	private final LongAdder requestsStarted = new LongAdder();
+
+	/** Broj dovršenih zahtjeva */
+	private final LongAdder requestsCompleted = new LongAdder();
+
+	/** Broj prekinutih zahtjeva */
+	private final LongAdder requestsCancelled = new LongAdder();
+
+	/** Broj izračunatih slikovnih elemenata u dovršenim zahtjevima */
+	private final LongAdder pixels = new LongAdder();
+
+	/** Ukupno trajanje dovršenih zahtjeva u nanosekundama */
+	private final LongAdder renderNanos = new LongAdder();
+
+	/** Broj obavljenih jedinica rada */
+	private final LongAdder workUnits = new LongAdder();
+
+	/** Broj ispitivanja sjecišta */
+	private final LongAdder intersectionTests = new LongAdder();
+
+	/** Histogram trajanja dovršenih zahtjeva */
+	private final LongAdder[] latencyHistogram = newHistogram();
+
+	/** Histogram trajanja dijelova slike */
+	private final LongAdder[] tileLatencyHistogram = newHistogram();
+
+	/** Vrijeme rada po dretvama u nanosekundama */
+	private final Map<String, LongAdder> threadBusyNanos = new ConcurrentHashMap<>();
+
+	/** Zastavica koja označava je li uključeno detaljno mjerenje */
+	private volatile boolean detailedTiming;
+
+	/** Ime pod kojim su mjere objavljene ili <code>null</code> */
+	private ObjectName objectName;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param workUnitName
+	 *            naziv jedinice rada (primjerice <i>"iterations"</i>)
+	 * @param queueDepth
+	 *            izvor trenutnog broja poslova koji čekaju na izvođenje
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je neki od argumenata <code>null</code>
+	 */
+	public RenderMetrics(String workUnitName, LongSupplier queueDepth) {
+		if (workUnitName == null || queueDepth == null) {
+			throw new IllegalArgumentException("Naziv jedinice rada i izvor broja poslova ne smiju biti null!");
+		}
+
+		this.workUnitName = workUnitName;
+		this.queueDepth = queueDepth;
+	}
+
+	/**
+	 * Metoda koja objavljuje ovaj primjerak razreda na platformskom JMX
+	 * poslužitelju pod imenom <i>"hr.fer.zemris.java:type=type,id=broj"</i>.
+	 * Neuspjela objava ne utječe na crtanje, a mjere se i dalje mogu dohvatiti
+	 * izravno.
+	 *
+	 * @param type
+	 *            naziv programa za crtanje
+	 * @return <code>true</code> ukoliko je objava uspjela
+	 */
+	public synchronized boolean register(String type) {
+		if (objectName != null) {
+			return true;
+		}
+
+		try {
+			ObjectName name = new ObjectName(DOMAIN + ":type=" + type + ",id=" + IDS.incrementAndGet());
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+			objectName = name;
+			return true;
+		} catch (JMException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Metoda koja uklanja ovaj primjerak razreda s platformskog JMX
+	 * poslužitelja, ukoliko je objavljen.
+	 */
+	public synchronized void unregister() {
+		if (objectName == null) {
+			return;
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			server.unregisterMBean(objectName);
+		} catch (JMException e) {
+			// već uklonjen
+		}
+		objectName = null;
+	}
+
+	/**
+	 * Metoda dohvaća ime pod kojim je ovaj primjerak objavljen
+	 *
+	 * @return ime pod kojim je primjerak objavljen ili <code>null</code>
+	 *         ukoliko nije objavljen
+	 */
+	public synchronized ObjectName getObjectName() {
+		return objectName;
+	}
+
+	/**
+	 * Metoda koja bilježi početak zahtjeva za crtanjem.
+	 *
+	 * @return trenutak početka zahtjeva, koji se predaje metodi
+	 *         {@link #requestCompleted(long, long)}
+	 */
+	public long requestStarted() {
+		requestsStarted.increment();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Metoda koja bilježi dovršetak zahtjeva za crtanjem.
+	 *
+	 * @param startNanos
+	 *            trenutak početka zahtjeva
+	 * @param pixels
+	 *            broj izračunatih slikovnih elemenata
+	 */
+	public void requestCompleted(long startNanos, long pixels) {
+		long elapsed = System.nanoTime() - startNanos;
+		requestsCompleted.increment();
+		this.pixels.add(pixels);
+		renderNanos.add(elapsed);
+		record(latencyHistogram, elapsed);
+	}
+
+	/**
+	 * Metoda koja bilježi prekid zahtjeva za crtanjem.
+	 */
+	public void requestCancelled() {
+		requestsCancelled.increment();
+	}
+
+	/**
+	 * Metoda koja pribraja obavljene jedinice rada.
+	 *
+	 * @param units
+	 *            broj obavljenih jedinica rada
+	 */
+	public void addWorkUnits(long units) {
+		workUnits.add(units);
+	}
+
+	/**
+	 * Metoda koja pribraja obavljena ispitivanja sjecišta.
+	 *
+	 * @param tests
+	 *            broj obavljenih ispitivanja sjecišta
+	 */
+	public void addIntersectionTests(long tests) {
+		intersectionTests.add(tests);
+	}
+
+	/**
+	 * Metoda koja vraća trenutak početka dijela slike ukoliko je uključeno
+	 * detaljno mjerenje.
+	 *
+	 * @return trenutak početka dijela slike ili 0 ukoliko detaljno mjerenje
+	 *         nije uključeno
+	 */
+	public long tileStarted() {
+		return detailedTiming ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Metoda koja bilježi trajanje dijela slike i vrijeme rada trenutne
+	 * dretve. Ukoliko dio slike nije započet uz uključeno detaljno mjerenje,
+	 * metoda ne radi ništa.
+	 *
+	 * @param startNanos
+	 *            vrijednost koju je vratila metoda {@link #tileStarted()}
+	 */
+	public void tileCompleted(long startNanos) {
+		if (startNanos == 0) {
+			return;
+		}
+
+		long elapsed = System.nanoTime() - startNanos;
+		record(tileLatencyHistogram, elapsed);
+		threadBusyNanos.computeIfAbsent(Thread.currentThread().getName(), name -> new LongAdder()).add(elapsed);
+	}
+
+	@Override
+	public long getRequestsStarted() {
+		return requestsStarted.sum();
+	}
+
+	@Override
+	public long getRequestsCompleted() {
+		return requestsCompleted.sum();
+	}
+
+	@Override
+	public long getRequestsCancelled() {
+		return requestsCancelled.sum();
+	}
+
+	@Override
+	public long getPixels() {
+		return pixels.sum();
+	}
+
+	@Override
+	public double getPixelsPerSecond() {
+		long nanos = renderNanos.sum();
+		return nanos == 0 ? 0 : pixels.sum() * 1e9 / nanos;
+	}
+
+	@Override
+	public String getWorkUnitName() {
+		return workUnitName;
+	}
+
+	@Override
+	public long getWorkUnits() {
+		return workUnits.sum();
+	}
+
+	@Override
+	public long getIntersectionTests() {
+		return intersectionTests.sum();
+	}
+
+	@Override
+	public long getQueueDepth() {
+		return queueDepth.getAsLong();
+	}
+
+	@Override
+	public long[] getLatencyBucketBoundsMillis() {
+		return BUCKET_BOUNDS_MILLIS.clone();
+	}
+
+	@Override
+	public long[] getLatencyHistogram() {
+		return snapshot(latencyHistogram);
+	}
+
+	@Override
+	public double getMeanLatencyMillis() {
+		long completed = requestsCompleted.sum();
+		return completed == 0 ? 0 : (double) renderNanos.sum() / completed / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public long[] getTileLatencyHistogram() {
+		return snapshot(tileLatencyHistogram);
+	}
+
+	@Override
+	public String[] getThreadBusyTimes() {
+		return threadBusyNanos.entrySet().stream().sorted(Map.Entry.comparingByKey())
+				.map(e -> e.getKey() + ": " + e.getValue().sum() / NANOS_PER_MILLI + " ms").toArray(String[]::new);
+	}
+
+	@Override
+	public boolean isDetailedTiming() {
+		return detailedTiming;
+	}
+
+	@Override
+	public void setDetailedTiming(boolean detailedTiming) {
+		this.detailedTiming = detailedTiming;
+	}
+
+	@Override
+	public void reset() {
+		requestsStarted.reset();
+		requestsCompleted.reset();
+		requestsCancelled.reset();
+		pixels.reset();
+		renderNanos.reset();
+		workUnits.reset();
+		intersectionTests.reset();
+		for (int i = 0; i < latencyHistogram.length; i++) {
+			latencyHistogram[i].reset();
+			tileLatencyHistogram[i].reset();
+		}
+		threadBusyNanos.clear();
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara prazan histogram trajanja.
+	 *
+	 * @return prazan histogram s razredom više od broja granica
+	 */
+	private static LongAdder[] newHistogram() {
+		LongAdder[] histogram = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] = new LongAdder();
+		}
+		return histogram;
+	}
+
+	/**
+	 * Pomoćna metoda koja bilježi trajanje u odgovarajući razred histograma.
+	 *
+	 * @param histogram
+	 *            histogram trajanja
+	 * @param nanos
+	 *            trajanje u nanosekundama
+	 */
+	private static void record(LongAdder[] histogram, long nanos) {
+		histogram[bucket(nanos)].increment();
+	}
+
+	/**
+	 * Pomoćna metoda koja vraća razred histograma u koji pripada trajanje.
+	 * Razred <code>i</code> obuhvaća trajanja od granice <code>i - 1</code>
+	 * (uključivo) do granice <code>i</code> (isključivo), a posljednji razred
+	 * sva trajanja od posljednje granice nadalje.
+	 *
+	 * @param nanos
+	 *            trajanje u nanosekundama
+	 * @return indeks razreda histograma
+	 */
+	static int bucket(long nanos) {
+		long millis = nanos / NANOS_PER_MILLI;
+		int bucket = 0;
+		while (bucket < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[bucket]) {
+			bucket++;
+		}
+		return bucket;
+	}
+
+	/**
+	 * Pomoćna metoda koja vraća trenutne vrijednosti histograma.
+	 *
+	 * @param histogram
+	 *            histogram trajanja
+	 * @return trenutne vrijednosti razreda histograma
+	 */
+	private static long[] snapshot(LongAdder[] histogram) {
+		long[] values = new long[histogram.length];
+		for (int i = 0; i < histogram.length; i++) {
+			values[i] = histogram[i].sum();
+		}
+		return values;
+	}
+}
@@ -0,0 +1,143 @@
+package hr.fer.zemris.java.metrics;
+
+/**
+ * Sučelje upravljačkog zrna (engl. <i>MBean</i>) preko kojeg se putem JMX-a
+ * dohvaćaju mjere rada jednog programa za crtanje. Implementacija je razred
+ * {@link RenderMetrics}.
+ *
+ * @see RenderMetrics
+ *
+ * @author Davor Češljaš
+ */
+public interface RenderMetricsMBean {
+
+	/**
+	 * Metoda dohvaća broj započetih zahtjeva za crtanjem
+	 *
+	 * @return broj započetih zahtjeva
+	 */
+	long getRequestsStarted();
+
+	/**
+	 * Metoda dohvaća broj dovršenih zahtjeva za crtanjem
+	 *
+	 * @return broj dovršenih zahtjeva
+	 */
+	long getRequestsCompleted();
+
+	/**
+	 * Metoda dohvaća broj prekinutih zahtjeva za crtanjem
+	 *
+	 * @return broj prekinutih zahtjeva
+	 */
+	long getRequestsCancelled();
+
+	/**
+	 * Metoda dohvaća ukupan broj izračunatih slikovnih elemenata u dovršenim
+	 * zahtjevima
+	 *
+	 * @return ukupan broj izračunatih slikovnih elemenata
+	 */
+	long getPixels();
+
+	/**
+	 * Metoda dohvaća prosječan broj slikovnih elemenata izračunatih u sekundi
+	 * trajanja dovršenih zahtjeva
+	 *
+	 * @return broj slikovnih elemenata u sekundi
+	 */
+	double getPixelsPerSecond();
+
+	/**
+	 * Metoda dohvaća naziv jedinice rada (primjerice <i>"iterations"</i> ili
+	 * <i>"rays"</i>)
+	 *
+	 * @return naziv jedinice rada
+	 */
+	String getWorkUnitName();
+
+	/**
+	 * Metoda dohvaća ukupan broj obavljenih jedinica rada (Newton-Raphsonovih
+	 * iteracija ili bačenih zraka)
+	 *
+	 * @return ukupan broj jedinica rada
+	 */
+	long getWorkUnits();
+
+	/**
+	 * Metoda dohvaća ukupan broj ispitivanja sjecišta zrake i objekta
+	 *
+	 * @return ukupan broj ispitivanja sjecišta
+	 */
+	long getIntersectionTests();
+
+	/**
+	 * Metoda dohvaća trenutni broj poslova koji čekaju na izvođenje
+	 *
+	 * @return broj poslova koji čekaju
+	 */
+	long getQueueDepth();
+
+	/**
+	 * Metoda dohvaća gornje granice razreda histograma trajanja u
+	 * milisekundama. Zadnji razred histograma nema gornju granicu.
+	 *
+	 * @return gornje granice razreda histograma
+	 */
+	long[] getLatencyBucketBoundsMillis();
+
+	/**
+	 * Metoda dohvaća histogram trajanja dovršenih zahtjeva
+	 *
+	 * @return broj zahtjeva po razredima histograma
+	 */
+	long[] getLatencyHistogram();
+
+	/**
+	 * Metoda dohvaća prosječno trajanje dovršenog zahtjeva u milisekundama
+	 *
+	 * @return prosječno trajanje zahtjeva
+	 */
+	double getMeanLatencyMillis();
+
+	/**
+	 * Metoda dohvaća histogram trajanja pojedinih dijelova slike. Histogram se
+	 * puni samo dok je uključeno detaljno mjerenje.
+	 *
+	 * @return broj dijelova slike po razredima histograma
+	 * @see #setDetailedTiming(boolean)
+	 */
+	long[] getTileLatencyHistogram();
+
+	/**
+	 * Metoda dohvaća vrijeme koje je svaka dretva provela računajući dijelove
+	 * slike, u obliku <i>"naziv dretve: vrijeme ms"</i>. Vremena se bilježe
+	 * samo dok je uključeno detaljno mjerenje.
+	 *
+	 * @return vremena rada dretvi
+	 * @see #setDetailedTiming(boolean)
+	 */
+	String[] getThreadBusyTimes();
+
+	/**
+	 * Metoda provjerava je li uključeno detaljno mjerenje trajanja pojedinih
+	 * dijelova slike
+	 *
+	 * @return <code>true</code> ukoliko je detaljno mjerenje uključeno
+	 */
+	boolean isDetailedTiming();
+
+	/**
+	 * Metoda uključuje ili isključuje detaljno mjerenje trajanja pojedinih
+	 * dijelova slike
+	 *
+	 * @param detailedTiming
+	 *            <code>true</code> za uključivanje detaljnog mjerenja
+	 */
+	void setDetailedTiming(boolean detailedTiming);
+
+	/**
+	 * Metoda postavlja sve mjere na nulu
+	 */
+	void reset();
+}
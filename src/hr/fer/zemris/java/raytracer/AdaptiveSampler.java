@@ -0,0 +1,337 @@
+package hr.fer.zemris.java.raytracer;
+
+import java.util.Objects;
+
+import hr.fer.zemris.java.raytracer.model.RayPacket;
+
+/**
+ * Razred koji provodi prilagodljivo višestruko uzorkovanje (engl. <i>adaptive
+ * supersampling</i>) kojim se uklanja nazubljenost rubova (engl.
+ * <i>anti-aliasing</i>). Slika se najprije izračuna s jednom zrakom po
+ * slikovnom elementu, uz pamćenje identifikatora pogođenog objekta. Slikovni
+ * element je rubni ukoliko mu je pogođeni objekt različit od objekta nekog od
+ * četiri susjeda ili mu se neka komponenta boje od susjedove razlikuje za više
+ * od praga (vidi {@link #isEdge(int[], int[], int, int, int, int)}).
+ * <p>
+ * Samo se za rubne slikovne elemente boja ponovno računa (vidi
+ * {@link #sample(CompiledScene, Viewport, int, int, short[])}):
+ * površina slikovnog elementa dijeli se na četiri jednaka dijela i kroz
+ * središte svakog baca se po jedna zraka. Ukoliko se te četiri zrake međusobno
+ * razlikuju po istom kriteriju, postupak se ponavlja za svaki dio, sve do
+ * najveće dubine. Boja slikovnog elementa je prosjek boja dijelova. Uz dubinu
+ * 2 rubovi dobivaju do 16 uzoraka po slikovnom elementu, a ostatak slike samo
+ * jedan.
+ * <p>
+ * Primjerak ovog razreda smije se koristiti iz više dretvi istovremeno.
+ *
+ * @author Davor Češljaš
+ */
+public class AdaptiveSampler {
+
+	/** Podrazumijevani prag razlike komponente boje */
+	public static final int DEFAULT_THRESHOLD = 24;
+
+	/** Podrazumijevana najveća dubina dijeljenja slikovnog elementa */
+	public static final int DEFAULT_MAX_DEPTH = 2;
+
+	/** Najveća dopuštena dubina dijeljenja slikovnog elementa */
+	public static final int MAX_DEPTH = 4;
+
+	/** Broj dijelova na koje se dijeli površina */
+	private static final int STRATA = 4;
+
+	/**
+	 * Članska varijabla koja predstavlja najveću razliku komponente boje uz
+	 * koju se susjedni uzorci smatraju jednakima
+	 */
+	private final int threshold;
+
+	/**
+	 * Članska varijabla koja predstavlja najveću dubinu dijeljenja slikovnog
+	 * elementa
+	 */
+	private final int maxDepth;
+
+	/** Članska varijabla koja predstavlja pomoćne spremnike svake dretve */
+	private final ThreadLocal<Workspace> workspaces;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda s pragom
+	 * {@value #DEFAULT_THRESHOLD} i najvećom dubinom
+	 * {@value #DEFAULT_MAX_DEPTH}.
+	 */
+	public AdaptiveSampler() {
+		this(DEFAULT_THRESHOLD, DEFAULT_MAX_DEPTH);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param threshold
+	 *            najveća razlika komponente boje (0 - 255) uz koju se susjedni
+	 *            uzorci smatraju jednakima
+	 * @param maxDepth
+	 *            najveća dubina dijeljenja slikovnog elementa; na dubini
+	 *            <i>d</i> slikovni element ima do 4<sup><i>d</i></sup> uzoraka
+	 * @throws IllegalArgumentException
+	 *             ukoliko je prag negativan ili dubina nije između 1 i
+	 *             {@value #MAX_DEPTH}
+	 */
+	public AdaptiveSampler(int threshold, int maxDepth) {
+		if (threshold < 0) {
+			throw new IllegalArgumentException("Prag ne smije biti negativan, a predan je " + threshold);
+		}
+		if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+			throw new IllegalArgumentException(
+					"Dubina mora biti između 1 i " + MAX_DEPTH + ", a predana je " + maxDepth);
+		}
+
+		this.threshold = threshold;
+		this.maxDepth = maxDepth;
+		this.workspaces = ThreadLocal.withInitial(() -> new Workspace(maxDepth));
+	}
+
+	/**
+	 * Metoda dohvaća prag razlike komponente boje
+	 *
+	 * @return prag razlike komponente boje
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Metoda dohvaća najveću dubinu dijeljenja slikovnog elementa
+	 *
+	 * @return najveća dubina dijeljenja
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Metoda provjerava je li slikovni element (<b>x</b>, <b>y</b>) rubni,
+	 * odnosno razlikuje li se od nekog od četiri susjeda po pogođenom objektu
+	 * ili po boji za više od praga.
+	 *
+	 * @param argb
+	 *            slikovni elementi oblika <code>0xAARRGGBB</code> izračunati
+	 *            jednom zrakom po slikovnom elementu
+	 * @param ids
+	 *            identifikatori objekata koje su pogodile zrake
+	 *            ({@link RayPacket#NO_HIT} ukoliko zraka nije ništa pogodila)
+	 * @param width
+	 *            širina rastera
+	 * @param height
+	 *            visina rastera
+	 * @param x
+	 *            stupac slikovnog elementa
+	 * @param y
+	 *            redak slikovnog elementa
+	 * @return <code>true</code> ukoliko je slikovni element rubni
+	 */
+	public boolean isEdge(int[] argb, int[] ids, int width, int height, int x, int y) {
+		int offset = y * width + x;
+		return (x > 0 && differs(argb, ids, offset, offset - 1))
+				|| (x + 1 < width && differs(argb, ids, offset, offset + 1))
+				|| (y > 0 && differs(argb, ids, offset, offset - width))
+				|| (y + 1 < height && differs(argb, ids, offset, offset + width));
+	}
+
+	/**
+	 * Metoda prilagodljivo uzorkuje slikovni element (<b>x</b>, <b>y</b>) i
+	 * zapisuje prosječnu boju uzoraka u <b>rgb</b>. Komponente boje pojedinih
+	 * uzoraka ograničavaju se na 255 prije računanja prosjeka.
+	 *
+	 * @param scene
+	 *            pripremljena scena unutar koje se vrši bacanje zraka
+	 * @param viewport
+	 *            zaslon kroz koji se bacaju zrake
+	 * @param x
+	 *            stupac slikovnog elementa
+	 * @param y
+	 *            redak slikovnog elementa
+	 * @param rgb
+	 *            rgb za slikovni element
+	 * @return broj bačenih zraka, zajedno sa zrakama prema izvorima svjetlosti
+	 */
+	public int sample(CompiledScene scene, Viewport viewport, int x, int y, short[] rgb) {
+		Objects.requireNonNull(viewport);
+
+		Workspace workspace = workspaces.get();
+		double[] sum = workspace.sum;
+		sum[0] = 0;
+		sum[1] = 0;
+		sum[2] = 0;
+
+		int rays = refine(scene, viewport, x, y, 1, 0, 1, workspace);
+
+		rgb[0] = (short) Math.round(sum[0]);
+		rgb[1] = (short) Math.round(sum[1]);
+		rgb[2] = (short) Math.round(sum[2]);
+		return rays;
+	}
+
+	/**
+	 * Pomoćna metoda koja uzorkuje kvadrat zaslona sa središtem (<b>x</b>,
+	 * <b>y</b>) i stranicom <b>size</b> (u koordinatama rastera) s po jednom
+	 * zrakom kroz središte svake četvrtine. Četvrtine čije se zrake međusobno
+	 * razlikuju dalje se dijele dok se ne dosegne najveća dubina. Boja
+	 * kvadrata pomnožena s <b>weight</b> pribraja se zbroju u pomoćnim
+	 * spremnicima.
+	 *
+	 * @param scene
+	 *            pripremljena scena unutar koje se vrši bacanje zraka
+	 * @param viewport
+	 *            zaslon kroz koji se bacaju zrake
+	 * @param x
+	 *            koordinata x središta kvadrata
+	 * @param y
+	 *            koordinata y središta kvadrata
+	 * @param size
+	 *            stranica kvadrata
+	 * @param depth
+	 *            dubina dijeljenja
+	 * @param weight
+	 *            udio kvadrata u boji slikovnog elementa
+	 * @param workspace
+	 *            pomoćni spremnici dretve
+	 * @return broj bačenih zraka, zajedno sa zrakama prema izvorima svjetlosti
+	 */
+	private int refine(CompiledScene scene, Viewport viewport, double x, double y, double size, int depth,
+			double weight, Workspace workspace) {
+		double quarter = size / 4;
+		RayPacket packet = workspace.packet;
+		packet.clear();
+		for (int i = 0; i < STRATA; i++) {
+			viewport.addRay(packet, stratumX(x, quarter, i), stratumY(y, quarter, i));
+		}
+
+		short[] rgb = workspace.rgb[depth];
+		int rays = RayCasterUtil.tracer(scene, packet, rgb);
+		for (int i = 0; i < rgb.length; i++) {
+			rgb[i] = rgb[i] > 255 ? 255 : rgb[i];
+		}
+
+		if (depth + 1 < maxDepth && !uniform(rgb, packet.hit)) {
+			double stratumWeight = weight / STRATA;
+			for (int i = 0; i < STRATA; i++) {
+				rays += refine(scene, viewport, stratumX(x, quarter, i), stratumY(y, quarter, i), size / 2,
+						depth + 1, stratumWeight, workspace);
+			}
+			return rays;
+		}
+
+		double[] sum = workspace.sum;
+		double stratumWeight = weight / STRATA;
+		for (int i = 0; i < STRATA; i++) {
+			sum[0] += stratumWeight * rgb[3 * i];
+			sum[1] += stratumWeight * rgb[3 * i + 1];
+			sum[2] += stratumWeight * rgb[3 * i + 2];
+		}
+		return rays;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava jesu li četiri uzorka jednaka po
+	 * pogođenom objektu i po boji do na prag
+	 *
+	 * @param rgb
+	 *            boje uzoraka
+	 * @param hit
+	 *            identifikatori objekata koje su uzorci pogodili
+	 * @return <code>true</code> ukoliko su uzorci jednaki
+	 */
+	private boolean uniform(short[] rgb, int[] hit) {
+		for (int i = 1; i < STRATA; i++) {
+			if (hit[i] != hit[0] || Math.abs(rgb[3 * i] - rgb[0]) > threshold
+					|| Math.abs(rgb[3 * i + 1] - rgb[1]) > threshold || Math.abs(rgb[3 * i + 2] - rgb[2]) > threshold) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava razlikuju li se slikovni elementi na
+	 * indeksima <b>first</b> i <b>second</b> po pogođenom objektu ili po boji
+	 * za više od praga
+	 *
+	 * @param argb
+	 *            slikovni elementi oblika <code>0xAARRGGBB</code>
+	 * @param ids
+	 *            identifikatori pogođenih objekata
+	 * @param first
+	 *            indeks prvog slikovnog elementa
+	 * @param second
+	 *            indeks drugog slikovnog elementa
+	 * @return <code>true</code> ukoliko se slikovni elementi razlikuju
+	 */
+	private boolean differs(int[] argb, int[] ids, int first, int second) {
+		int a = argb[first];
+		int b = argb[second];
+		return ids[first] != ids[second] || Math.abs((a >>> 16 & 0xFF) - (b >>> 16 & 0xFF)) > threshold
+				|| Math.abs((a >>> 8 & 0xFF) - (b >>> 8 & 0xFF)) > threshold
+				|| Math.abs((a & 0xFF) - (b & 0xFF)) > threshold;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa koordinatu x središta četvrtine <b>i</b>
+	 * kvadrata sa središtem u <b>x</b>
+	 *
+	 * @param x
+	 *            koordinata x središta kvadrata
+	 * @param quarter
+	 *            četvrtina stranice kvadrata
+	 * @param i
+	 *            redni broj četvrtine (0 - 3, po recima)
+	 * @return koordinata x središta četvrtine
+	 */
+	private static double stratumX(double x, double quarter, int i) {
+		return (i & 1) == 0 ? x - quarter : x + quarter;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa koordinatu y središta četvrtine <b>i</b>
+	 * kvadrata sa središtem u <b>y</b>
+	 *
+	 * @param y
+	 *            koordinata y središta kvadrata
+	 * @param quarter
+	 *            četvrtina stranice kvadrata
+	 * @param i
+	 *            redni broj četvrtine (0 - 3, po recima)
+	 * @return koordinata y središta četvrtine
+	 */
+	private static double stratumY(double y, double quarter, int i) {
+		return (i & 2) == 0 ? y - quarter : y + quarter;
+	}
+
+	/**
+	 * Razred koji predstavlja pomoćne spremnike jedne dretve, kako se pri
+	 * uzorkovanju svakog rubnog slikovnog elementa ne bi stvarali novi.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class Workspace {
+
+		/** Paket zraka kroz četvrtine kvadrata */
+		private final RayPacket packet = new RayPacket(STRATA);
+
+		/** Boje uzoraka po dubinama dijeljenja */
+		private final short[][] rgb;
+
+		/** Zbroj boja uzoraka pomnoženih s njihovim udjelom */
+		private final double[] sum = new double[3];
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param maxDepth
+		 *            najveća dubina dijeljenja
+		 */
+		public Workspace(int maxDepth) {
+			rgb = new short[maxDepth][3 * STRATA];
+		}
+	}
+}
@@ -0,0 +1,1092 @@
+package hr.fer.zemris.java.raytracer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+import hr.fer.zemris.java.raytracer.model.Bounded;
+import hr.fer.zemris.java.raytracer.model.BoundingBox;
+import hr.fer.zemris.java.raytracer.model.GraphicalObject;
+import hr.fer.zemris.java.raytracer.model.Intersectable;
+import hr.fer.zemris.java.raytracer.model.Occluder;
+import hr.fer.zemris.java.raytracer.model.Ray;
+import hr.fer.zemris.java.raytracer.model.RayIntersection;
+import hr.fer.zemris.java.raytracer.model.RayPacket;
+import hr.fer.zemris.java.raytracer.model.Scene;
+import hr.fer.zemris.java.raytracer.model.Shadeable;
+import hr.fer.zemris.java.raytracer.model.Sphere;
+import hr.fer.zemris.java.raytracer.model.SphereSet;
+import hr.fer.zemris.java.raytracer.model.SurfacePoint;
+
+/**
+ * Razred predstavlja hijerarhiju omeđujućih volumena (engl. <i>bounding volume
+ * hierarchy</i>) nad grafičkim objektima scene. Objekti koji implementiraju
+ * sučelje {@link Bounded} smještaju se u binarno stablo kvadara, pa se za
+ * jednu zraku sjecište ispituje samo s objektima čije kvadre zraka pogađa.
+ * Ostali objekti ispituju se za svaku zraku, kao i do sada.
+ * <p>
+ * Stablo se gradi odozgo prema dolje. Skup objekata čvora dijeli se ravninom
+ * okomitom na jednu os, a ravnina se bira heuristikom oplošja (engl.
+ * <i>surface area heuristic</i>) nad {@value #BINS} pretinaca središta
+ * objekata po svakoj osi (manji čvorovi koriste po jedan pretinac za svaki
+ * objekt). Čvor postaje list kada nijedna podjela nije jeftinija od
+ * ispitivanja svih njegovih objekata.
+ * <p>
+ * Čvorovi su spremljeni u poljima primitivnih tipova redoslijedom obilaska u
+ * dubinu: lijevo dijete čvora <i>i</i> uvijek je čvor <i>i + 1</i>, a za desno
+ * dijete pamti se indeks. Listovi pamte raspon objekata u polju objekata
+ * presloženom tako da objekti istog lista budu jedan do drugog. Prilikom
+ * obilaska se prvo posjećuje dijete bliže ishodištu zrake, određeno predznakom
+ * smjera zrake po osi podjele, pa se dalje dijete često uopće ne obilazi.
+ * Upit zaklanjanja ({@link #isOccluded(Ray, double)}) staje na prvom objektu
+ * koji siječe zraku, a susjedne zrake mogu obići stablo zajedno kao paket
+ * ({@link #findClosestIntersections(RayPacket)}). Podaci za sjenčanje
+ * najbližeg sjecišta mogu se dobiti i bez stvaranja sjecišta (vidi
+ * {@link #findClosestSurface(Ray, SurfacePoint)}).
+ * <p>
+ * Ukoliko su svi omeđeni objekti sfere ({@link Sphere}), listovi ih dodatno
+ * drže prepisane u skup sfera ({@link SphereSet}) istim redoslijedom, pa se
+ * objekti lista ispituju jednom petljom nad poljima primitivnih vrijednosti
+ * umjesto pozivom metode svakog objekta.
+ * <p>
+ * Razred je nepromijenjiv nakon izgradnje, pa ga smije istodobno koristiti
+ * više dretvi. Naknadne promjene liste objekata scene ne utječu na već
+ * izgrađenu hijerarhiju.
+ *
+ * @see Bounded
+ * @see RayCasterUtil
+ *
+ * @author Davor Češljaš
+ */
+public class BoundingVolumeHierarchy {
+
+	/** Broj pretinaca po osi nad kojima se procjenjuje cijena podjele */
+	private static final int BINS = 16;
+
+	/** Broj objekata do kojeg čvor postaje list bez procjene podjele */
+	private static final int MIN_LEAF_SIZE = 2;
+
+	/** Najveći broj objekata u listu kada je podjela skuplja od lista */
+	private static final int MAX_LEAF_SIZE = 8;
+
+	/**
+	 * Dubina nakon koje se objekti dijele po medijanu umjesto heuristikom, kako
+	 * nepovoljno raspoređeni objekti ne bi izgradili preduboko stablo
+	 */
+	private static final int MAX_SAH_DEPTH = 48;
+
+	/** Cijena obilaska jednog čvora u odnosu na ispitivanje jednog objekta */
+	private static final double TRAVERSAL_COST = 1;
+
+	/** Omeđeni objekti, poredani tako da objekti istog lista budu susjedni */
+	private final GraphicalObject[] objects;
+
+	/**
+	 * Omeđeni objekti prepisani u skup sfera istim redoslijedom ili
+	 * <code>null</code> ukoliko nisu svi omeđeni objekti sfere
+	 */
+	private final SphereSet spheres;
+
+	/** Objekti koji nisu omeđeni i ispituju se za svaku zraku */
+	private final GraphicalObject[] unbounded;
+
+	/** Granice kvadara čvorova, po šest vrijednosti (min x, y, z, max x, y, z) */
+	private double[] nodeBounds;
+
+	/** Za list indeks prvog objekta, a za unutarnji čvor indeks desnog djeteta */
+	private int[] nodeOffsets;
+
+	/** Za list broj objekata, a za unutarnji čvor nula */
+	private int[] nodeSizes;
+
+	/** Za unutarnji čvor os podjele */
+	private byte[] nodeAxes;
+
+	/** Broj izgrađenih čvorova */
+	private int nodes;
+
+	/** Dubina stabla */
+	private int depth;
+
+	/** Potrošač broja ispitivanja sjecišta sa objektima ili <code>null</code> */
+	private final LongConsumer testCounter;
+
+	/** Stog obilaska za svaku dretvu, kako upiti ne bi zauzimali memoriju */
+	private final ThreadLocal<int[]> stacks = ThreadLocal.withInitial(() -> new int[depth]);
+
+	/**
+	 * Konstruktor koji gradi hijerarhiju nad objektima scene <b>scene</b>.
+	 *
+	 * @param scene
+	 *            scena nad čijim se objektima gradi hijerarhija
+	 */
+	public BoundingVolumeHierarchy(Scene scene) {
+		this(scene.getObjects(), null);
+	}
+
+	/**
+	 * Konstruktor koji gradi hijerarhiju nad objektima <b>sceneObjects</b>.
+	 * Nakon svakog upita potrošaču <b>testCounter</b> predaje se broj objekata
+	 * s kojima je ispitano sjecište.
+	 *
+	 * @param sceneObjects
+	 *            objekti nad kojima se gradi hijerarhija
+	 * @param testCounter
+	 *            potrošač broja ispitivanja sjecišta ili <code>null</code>
+	 *            ukoliko se ispitivanja ne broje
+	 */
+	public BoundingVolumeHierarchy(List<GraphicalObject> sceneObjects, LongConsumer testCounter) {
+		Objects.requireNonNull(sceneObjects);
+		this.testCounter = testCounter;
+
+		List<GraphicalObject> bounded = new ArrayList<>();
+		List<GraphicalObject> other = new ArrayList<>();
+		for (GraphicalObject object : sceneObjects) {
+			(object instanceof Bounded ? bounded : other).add(object);
+		}
+		this.unbounded = other.toArray(new GraphicalObject[other.size()]);
+
+		int n = bounded.size();
+		this.objects = new GraphicalObject[n];
+		if (n == 0) {
+			this.spheres = null;
+			return;
+		}
+
+		double[] boxes = new double[6 * n];
+		double[] centers = new double[3 * n];
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			BoundingBox box = ((Bounded) bounded.get(i)).getBounds();
+			for (int axis = 0; axis < 3; axis++) {
+				boxes[6 * i + axis] = box.getMin(axis);
+				boxes[6 * i + 3 + axis] = box.getMax(axis);
+				centers[3 * i + axis] = box.getCenter(axis);
+			}
+			order[i] = i;
+		}
+
+		nodeBounds = new double[6 * (2 * n - 1)];
+		nodeOffsets = new int[2 * n - 1];
+		nodeSizes = new int[2 * n - 1];
+		nodeAxes = new byte[2 * n - 1];
+		new Builder(boxes, centers, order).build(0, n, 1);
+
+		for (int i = 0; i < n; i++) {
+			objects[i] = bounded.get(order[i]);
+		}
+		this.spheres = toSphereSet(objects);
+	}
+
+	/**
+	 * Pomoćna metoda koja prepisuje objekte <b>objects</b> u skup sfera
+	 * ukoliko su svi objekti sfere
+	 *
+	 * @param objects
+	 *            objekti koji se prepisuju
+	 * @return skup sfera istim redoslijedom ili <code>null</code> ukoliko neki
+	 *         objekt nije sfera
+	 */
+	private static SphereSet toSphereSet(GraphicalObject[] objects) {
+		List<Sphere> list = new ArrayList<>(objects.length);
+		for (GraphicalObject object : objects) {
+			if (!(object instanceof Sphere)) {
+				return null;
+			}
+			list.add((Sphere) object);
+		}
+		return new SphereSet(list);
+	}
+
+	/**
+	 * Metoda dohvaća broj čvorova hijerarhije
+	 *
+	 * @return broj čvorova
+	 */
+	public int getNodeCount() {
+		return nodes;
+	}
+
+	/**
+	 * Metoda dohvaća dubinu stabla hijerarhije (stablo sa samo jednim listom
+	 * ima dubinu 1, a prazno stablo dubinu 0)
+	 *
+	 * @return dubina stabla
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Metoda pronalazi najbliže sjecište zrake <b>ray</b> i nekog objekta
+	 * hijerarhije. Rezultat je jednak onom koji se dobiva ispitivanjem svih
+	 * objekata redom. Kandidati se uspoređuju samo po udaljenosti (vidi
+	 * {@link Intersectable}), a sjecište se stvara jednom, za najbliži objekt.
+	 *
+	 * @param ray
+	 *            zraka koja se baca
+	 * @return najbliže sjecište ili <code>null</code> ukoliko zraka nema
+	 *         sjecište niti s jednim objektom
+	 */
+	public RayIntersection findClosestIntersection(Ray ray) {
+		int closest = findClosest(ray);
+		return closest == RayPacket.NO_HIT ? null : getObject(closest).findClosestRayIntersection(ray);
+	}
+
+	/**
+	 * Metoda pronalazi najbliže sjecište zrake <b>ray</b> i nekog objekta
+	 * hijerarhije, kao i metoda {@link #findClosestIntersection(Ray)}, ali
+	 * podatke o sjecištu zapisuje u <b>surface</b> (vidi
+	 * {@link #findSurface(int, Ray, SurfacePoint)}).
+	 *
+	 * @param ray
+	 *            zraka koja se baca
+	 * @param surface
+	 *            primjerak u koji se zapisuju podaci o sjecištu
+	 * @return <code>true</code> ukoliko zraka siječe neki objekt
+	 */
+	public boolean findClosestSurface(Ray ray, SurfacePoint surface) {
+		int closest = findClosest(ray);
+		return closest != RayPacket.NO_HIT && findSurface(closest, ray, surface);
+	}
+
+	/**
+	 * Pomoćna metoda koja pronalazi identifikator objekta hijerarhije s
+	 * najbližim sjecištem zrake <b>ray</b>
+	 *
+	 * @param ray
+	 *            zraka koja se baca
+	 * @return identifikator najbližeg objekta ili {@link RayPacket#NO_HIT}
+	 *         ukoliko zraka nema sjecište niti s jednim objektom
+	 */
+	private int findClosest(Ray ray) {
+		int closest = RayPacket.NO_HIT;
+		double closestDistance = Double.POSITIVE_INFINITY;
+		long tests = unbounded.length;
+
+		for (int i = 0; i < unbounded.length; i++) {
+			double distance = distance(unbounded[i], ray);
+			if (distance < closestDistance) {
+				closest = objects.length + i;
+				closestDistance = distance;
+			}
+		}
+
+		if (nodes > 0) {
+			double ox = ray.start.x;
+			double oy = ray.start.y;
+			double oz = ray.start.z;
+			double invX = 1 / ray.direction.x;
+			double invY = 1 / ray.direction.y;
+			double invZ = 1 / ray.direction.z;
+			// udaljenosti sjecišta su euklidske, a parametri kvadara u
+			// jedinicama duljine vektora smjera
+			double length = ray.direction.norm();
+
+			int[] stack = stacks.get();
+			int top = 0;
+			int node = 0;
+			while (true) {
+				if (hitsNode(node, ox, oy, oz, invX, invY, invZ, closestDistance / length)) {
+					int size = nodeSizes[node];
+					if (size == 0) {
+						// prvo bliže dijete, a dalje na stog
+						byte axis = nodeAxes[node];
+						if ((axis == 0 ? invX : axis == 1 ? invY : invZ) < 0) {
+							stack[top++] = node + 1;
+							node = nodeOffsets[node];
+						} else {
+							stack[top++] = nodeOffsets[node];
+							node++;
+						}
+						continue;
+					}
+
+					tests += size;
+					int first = nodeOffsets[node];
+					if (spheres != null) {
+						SphereSet.Hit hit = SphereSet.Hit.local();
+						hit.index = closest;
+						hit.distance = closestDistance;
+						spheres.nearest(ray, first, first + size, hit);
+						closest = hit.index;
+						closestDistance = hit.distance;
+					} else {
+						for (int i = first, end = first + size; i < end; i++) {
+							double distance = distance(objects[i], ray);
+							if (distance < closestDistance) {
+								closest = i;
+								closestDistance = distance;
+							}
+						}
+					}
+				}
+
+				if (top == 0) {
+					break;
+				}
+				node = stack[--top];
+			}
+		}
+
+		if (testCounter != null) {
+			testCounter.accept(tests);
+		}
+		return closest;
+	}
+
+	/**
+	 * Metoda za zrake paketa <b>packet</b> pronalazi najbliže sjecište s
+	 * nekim objektom hijerarhije. Za svaku zraku u paketu se bilježe
+	 * udaljenost i identifikator najbližeg objekta, a sam objekt dohvaća se
+	 * metodom {@link #getObject(int)}. Stablo se obilazi jednom za cijeli
+	 * paket: u čvor se ulazi čim njegov kvadar pogodi jedna zraka, a preskače
+	 * se tek kada ga ne pogađa nijedna. Poredak djece
+	 * određuje predznak smjera prve aktivne zrake, pa su paketi susjednih
+	 * zraka iz istog očišta najdjelotvorniji.
+	 *
+	 * @param packet
+	 *            paket zraka
+	 */
+	public void findClosestIntersections(RayPacket packet) {
+		int all = packet.getMask();
+		long tests = (long) unbounded.length * packet.size();
+
+		for (int i = 0; i < unbounded.length; i++) {
+			intersect(unbounded[i], packet, all, objects.length + i);
+		}
+
+		if (nodes > 0) {
+			int[] stack = stacks.get();
+			int top = 0;
+			int node = 0;
+			while (true) {
+				int mask = hitsNode(node, packet, all);
+				if (mask != 0) {
+					int size = nodeSizes[node];
+					if (size == 0) {
+						// prvo bliže dijete, a dalje na stog
+						int lane = Integer.numberOfTrailingZeros(mask);
+						byte axis = nodeAxes[node];
+						double direction = axis == 0 ? packet.directionX[lane]
+								: axis == 1 ? packet.directionY[lane] : packet.directionZ[lane];
+						if (direction < 0) {
+							stack[top++] = node + 1;
+							node = nodeOffsets[node];
+						} else {
+							stack[top++] = nodeOffsets[node];
+							node++;
+						}
+						continue;
+					}
+
+					tests += (long) size * Integer.bitCount(mask);
+					int first = nodeOffsets[node];
+					if (spheres != null) {
+						spheres.intersect(packet, mask, first, first + size);
+					} else {
+						for (int i = first, end = first + size; i < end; i++) {
+							intersect(objects[i], packet, mask, i);
+						}
+					}
+				}
+
+				if (top == 0) {
+					break;
+				}
+				node = stack[--top];
+			}
+		}
+
+		if (testCounter != null) {
+			testCounter.accept(tests);
+		}
+	}
+
+	/**
+	 * Metoda dohvaća objekt s identifikatorom <b>id</b> kakav bilježe upiti
+	 * nad paketom zraka
+	 *
+	 * @param id
+	 *            identifikator objekta
+	 * @return objekt s predanim identifikatorom
+	 * @see #findClosestIntersections(RayPacket)
+	 */
+	public GraphicalObject getObject(int id) {
+		return id < objects.length ? objects[id] : unbounded[id - objects.length];
+	}
+
+	/**
+	 * Metoda zapisuje u <b>surface</b> podatke o najbližem sjecištu zrake
+	 * <b>ray</b> i objekta s identifikatorom <b>id</b>. Za sfere prepisane u
+	 * skup sfera podaci se računaju iz skupa, a za ostale objekte vidi
+	 * {@link #surface(GraphicalObject, Ray, SurfacePoint)}.
+	 *
+	 * @param id
+	 *            identifikator objekta
+	 * @param ray
+	 *            zraka
+	 * @param surface
+	 *            primjerak u koji se zapisuju podaci o sjecištu
+	 * @return <code>true</code> ukoliko sjecište postoji
+	 * @see #getObject(int)
+	 */
+	public boolean findSurface(int id, Ray ray, SurfacePoint surface) {
+		if (spheres != null && id < objects.length) {
+			return spheres.findSurface(ray, id, surface);
+		}
+		return surface(getObject(id), ray, surface);
+	}
+
+	/**
+	 * Metoda ispituje siječe li zraka <b>ray</b> neki objekt hijerarhije na
+	 * udaljenosti od ishodišta zrake manjoj od <b>maxDistance</b>. Obilazak
+	 * staje na prvom takvom objektu, a kvadri se obilaze bez obzira na
+	 * poredak. Objekti koji implementiraju sučelje {@link Occluder} ispituju se
+	 * njegovom metodom, pa upit nad takvim objektima ne zauzima memoriju.
+	 *
+	 * @param ray
+	 *            zraka koja se ispituje
+	 * @param maxDistance
+	 *            udaljenost od ishodišta zrake do koje se sjecište traži
+	 * @return <code>true</code> ukoliko neki objekt siječe zraku prije
+	 *         udaljenosti <b>maxDistance</b>
+	 */
+	public boolean isOccluded(Ray ray, double maxDistance) {
+		long tests = 0;
+		boolean occluded = false;
+
+		for (GraphicalObject object : unbounded) {
+			tests++;
+			if (occludes(object, ray, maxDistance)) {
+				occluded = true;
+				break;
+			}
+		}
+
+		if (!occluded && nodes > 0) {
+			double ox = ray.start.x;
+			double oy = ray.start.y;
+			double oz = ray.start.z;
+			double invX = 1 / ray.direction.x;
+			double invY = 1 / ray.direction.y;
+			double invZ = 1 / ray.direction.z;
+			double maxT = maxDistance / ray.direction.norm();
+
+			int[] stack = stacks.get();
+			int top = 0;
+			int node = 0;
+			search: while (true) {
+				if (hitsNode(node, ox, oy, oz, invX, invY, invZ, maxT)) {
+					int size = nodeSizes[node];
+					if (size == 0) {
+						stack[top++] = nodeOffsets[node];
+						node++;
+						continue;
+					}
+
+					int first = nodeOffsets[node];
+					if (spheres != null) {
+						tests += size;
+						if (spheres.occludes(ray, first, first + size, maxDistance)) {
+							occluded = true;
+							break;
+						}
+					} else {
+						for (int i = first, end = first + size; i < end; i++) {
+							tests++;
+							if (occludes(objects[i], ray, maxDistance)) {
+								occluded = true;
+								break search;
+							}
+						}
+					}
+				}
+
+				if (top == 0) {
+					break;
+				}
+				node = stack[--top];
+			}
+		}
+
+		if (testCounter != null) {
+			testCounter.accept(tests);
+		}
+		return occluded;
+	}
+
+	/**
+	 * Pomoćna metoda koja ispituje sjecišta objekta <b>object</b> sa zrakama
+	 * paketa <b>packet</b> iz maske <b>mask</b>. Za objekte koji ne
+	 * implementiraju sučelje {@link Intersectable} zrake se ispituju jedna po
+	 * jedna.
+	 *
+	 * @param object
+	 *            objekt koji se ispituje
+	 * @param packet
+	 *            paket zraka
+	 * @param mask
+	 *            maska zraka koje se ispituju
+	 * @param id
+	 *            identifikator objekta
+	 */
+	static void intersect(GraphicalObject object, RayPacket packet, int mask, int id) {
+		if (object instanceof Intersectable) {
+			((Intersectable) object).intersect(packet, mask, id);
+			return;
+		}
+
+		for (int lanes = mask; lanes != 0; lanes &= lanes - 1) {
+			int lane = Integer.numberOfTrailingZeros(lanes);
+			packet.record(lane, distance(object, packet.toRay(lane)), id);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja računa udaljenost od ishodišta zrake <b>ray</b> do
+	 * najbližeg sjecišta s objektom <b>object</b>. Za objekte koji ne
+	 * implementiraju sučelje {@link Intersectable} sjecište se stvara.
+	 *
+	 * @param object
+	 *            objekt koji se ispituje
+	 * @param ray
+	 *            zraka koja se ispituje
+	 * @return udaljenost do najbližeg sjecišta ili
+	 *         {@link Double#POSITIVE_INFINITY} ukoliko sjecište ne postoji
+	 */
+	static double distance(GraphicalObject object, Ray ray) {
+		if (object instanceof Intersectable) {
+			return ((Intersectable) object).intersectionDistance(ray);
+		}
+
+		RayIntersection intersection = object.findClosestRayIntersection(ray);
+		return intersection == null ? Double.POSITIVE_INFINITY : intersection.getDistance();
+	}
+
+	/**
+	 * Pomoćna metoda koja zapisuje u <b>surface</b> podatke o najbližem
+	 * sjecištu zrake <b>ray</b> i objekta <b>object</b>. Za objekte koji ne
+	 * implementiraju sučelje {@link Shadeable} sjecište se stvara i prepisuje.
+	 *
+	 * @param object
+	 *            objekt koji se ispituje
+	 * @param ray
+	 *            zraka koja se ispituje
+	 * @param surface
+	 *            primjerak u koji se zapisuju podaci o sjecištu
+	 * @return <code>true</code> ukoliko sjecište postoji
+	 */
+	static boolean surface(GraphicalObject object, Ray ray, SurfacePoint surface) {
+		if (object instanceof Shadeable) {
+			return ((Shadeable) object).findSurface(ray, surface);
+		}
+
+		RayIntersection intersection = object.findClosestRayIntersection(ray);
+		if (intersection == null) {
+			return false;
+		}
+		surface.set(intersection);
+		return true;
+	}
+
+	/**
+	 * Pomoćna metoda koja ispituje siječe li zraka <b>ray</b> objekt
+	 * <b>object</b> prije udaljenosti <b>maxDistance</b>. Za objekte koji ne
+	 * implementiraju sučelje {@link Occluder} traži se najbliže sjecište.
+	 *
+	 * @param object
+	 *            objekt koji se ispituje
+	 * @param ray
+	 *            zraka koja se ispituje
+	 * @param maxDistance
+	 *            udaljenost od ishodišta zrake do koje se sjecište traži
+	 * @return <code>true</code> ukoliko objekt siječe zraku prije udaljenosti
+	 *         <b>maxDistance</b>
+	 */
+	static boolean occludes(GraphicalObject object, Ray ray, double maxDistance) {
+		if (object instanceof Occluder) {
+			return ((Occluder) object).occludes(ray, maxDistance);
+		}
+
+		RayIntersection intersection = object.findClosestRayIntersection(ray);
+		return intersection != null && intersection.getDistance() < maxDistance;
+	}
+
+	/**
+	 * Pomoćna metoda koja određuje koje zrake paketa <b>packet</b> iz maske
+	 * <b>mask</b> treba dalje ispitivati u čvoru <b>node</b>. Zrake se
+	 * ispituju redom samo dok jedna od njih ne pogodi kvadar čvora bliže od
+	 * svog dosad najbližeg sjecišta: ta i sve preostale zrake tada ostaju u
+	 * maski bez ispitivanja, jer susjedne zrake kvadar najčešće pogađaju
+	 * zajedno. Smjerovi zraka paketa su normirani.
+	 *
+	 * @param node
+	 *            indeks čvora
+	 * @param packet
+	 *            paket zraka
+	 * @param mask
+	 *            maska zraka koje se ispituju
+	 * @return maska zraka koje se dalje ispituju ili 0 ukoliko nijedna zraka
+	 *         ne siječe kvadar
+	 */
+	private int hitsNode(int node, RayPacket packet, int mask) {
+		for (int lanes = mask; lanes != 0; lanes &= lanes - 1) {
+			int lane = Integer.numberOfTrailingZeros(lanes);
+			if (hitsNode(node, packet.startX[lane], packet.startY[lane], packet.startZ[lane], packet.inverseX[lane],
+					packet.inverseY[lane], packet.inverseZ[lane], packet.distance[lane])) {
+				return lanes;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Pomoćna metoda koja ispituje siječe li zraka kvadar čvora <b>node</b> na
+	 * parametru između 0 i <b>maxT</b>. Ukoliko ishodište leži u ravnini
+	 * granice, a zraka joj je paralelna, usporedbe s <i>NaN</i> vrijednostima
+	 * su lažne, pa se ta os ne uzima u obzir i kvadar se smatra pogođenim.
+	 *
+	 * @param node
+	 *            indeks čvora
+	 * @param ox
+	 *            koordinata x ishodišta zrake
+	 * @param oy
+	 *            koordinata y ishodišta zrake
+	 * @param oz
+	 *            koordinata z ishodišta zrake
+	 * @param invX
+	 *            recipročna vrijednost koordinate x smjera zrake
+	 * @param invY
+	 *            recipročna vrijednost koordinate y smjera zrake
+	 * @param invZ
+	 *            recipročna vrijednost koordinate z smjera zrake
+	 * @param maxT
+	 *            najveći parametar zrake koji se uzima u obzir
+	 * @return <code>true</code> ukoliko zraka siječe kvadar čvora
+	 */
+	private boolean hitsNode(int node, double ox, double oy, double oz, double invX, double invY, double invZ,
+			double maxT) {
+		int base = 6 * node;
+		double tMin = 0;
+		double tMax = maxT;
+
+		double t1 = (nodeBounds[base] - ox) * invX;
+		double t2 = (nodeBounds[base + 3] - ox) * invX;
+		if (t1 > t2) {
+			double tmp = t1;
+			t1 = t2;
+			t2 = tmp;
+		}
+		if (t1 > tMin) {
+			tMin = t1;
+		}
+		if (t2 < tMax) {
+			tMax = t2;
+		}
+
+		t1 = (nodeBounds[base + 1] - oy) * invY;
+		t2 = (nodeBounds[base + 4] - oy) * invY;
+		if (t1 > t2) {
+			double tmp = t1;
+			t1 = t2;
+			t2 = tmp;
+		}
+		if (t1 > tMin) {
+			tMin = t1;
+		}
+		if (t2 < tMax) {
+			tMax = t2;
+		}
+
+		t1 = (nodeBounds[base + 2] - oz) * invZ;
+		t2 = (nodeBounds[base + 5] - oz) * invZ;
+		if (t1 > t2) {
+			double tmp = t1;
+			t1 = t2;
+			t2 = tmp;
+		}
+		if (t1 > tMin) {
+			tMin = t1;
+		}
+		if (t2 < tMax) {
+			tMax = t2;
+		}
+
+		return tMin <= tMax;
+	}
+
+	/**
+	 * Pomoćni razred koji gradi čvorove hijerarhije. Objekti su predstavljeni
+	 * svojim indeksima u polju <b>order</b>, koje se tijekom izgradnje
+	 * presložuje tako da objekti svakog čvora budu susjedni. Granice i središta
+	 * kvadara presložuju se zajedno s indeksima, pa se podaci čvora uvijek
+	 * čitaju redom iz memorije.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class Builder {
+
+		/** Granice kvadara objekata, po šest vrijednosti, u poretku polja order */
+		private final double[] boxes;
+
+		/** Središta kvadara objekata, po tri vrijednosti, u poretku polja order */
+		private final double[] centers;
+
+		/** Indeksi objekata */
+		private final int[] order;
+
+		/** Broj pretinaca za čvor koji se trenutno dijeli */
+		private int bins;
+
+		/** Broj objekata po pretincu */
+		private final int[] binCounts = new int[BINS];
+
+		/** Granice kvadara pretinaca, po šest vrijednosti */
+		private final double[] binBounds = new double[6 * BINS];
+
+		/** Oplošja kvadara lijevo od pojedine ravnine podjele */
+		private final double[] leftAreas = new double[BINS - 1];
+
+		/** Oplošja kvadara desno od pojedine ravnine podjele */
+		private final double[] rightAreas = new double[BINS - 1];
+
+		/** Granice kvadra koji se postupno proširuje pretincima */
+		private final double[] accumulated = new double[6];
+
+		/** Broj objekata lijevo od pojedine ravnine podjele */
+		private final int[] leftCounts = new int[BINS - 1];
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param boxes
+		 *            granice kvadara objekata
+		 * @param centers
+		 *            središta kvadara objekata
+		 * @param order
+		 *            indeksi objekata
+		 */
+		public Builder(double[] boxes, double[] centers, int[] order) {
+			this.boxes = boxes;
+			this.centers = centers;
+			this.order = order;
+		}
+
+		/**
+		 * Metoda gradi čvor nad objektima s indeksima
+		 * <b>order[start]</b>...<b>order[end - 1]</b> i rekurzivno njegovu
+		 * djecu.
+		 *
+		 * @param start
+		 *            početni indeks (uključiv)
+		 * @param end
+		 *            završni indeks (isključiv)
+		 * @param level
+		 *            dubina čvora
+		 */
+		public void build(int start, int end, int level) {
+			int node = nodes++;
+			depth = Math.max(depth, level);
+
+			int base = 6 * node;
+			double[] centerBounds = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+					Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+			resetBounds(nodeBounds, base);
+			for (int i = start; i < end; i++) {
+				includeBox(nodeBounds, base, boxes, 6 * i);
+				for (int axis = 0; axis < 3; axis++) {
+					double center = centers[3 * i + axis];
+					centerBounds[axis] = Math.min(centerBounds[axis], center);
+					centerBounds[3 + axis] = Math.max(centerBounds[3 + axis], center);
+				}
+			}
+
+			int count = end - start;
+			if (level > MAX_SAH_DEPTH && count > MAX_LEAF_SIZE) {
+				int axis = 0;
+				for (int i = 1; i < 3; i++) {
+					if (centerBounds[3 + i] - centerBounds[i] > centerBounds[3 + axis] - centerBounds[axis]) {
+						axis = i;
+					}
+				}
+				int middle = start + count / 2;
+				select(start, end - 1, middle, axis);
+				nodeAxes[node] = (byte) axis;
+				build(start, middle, level + 1);
+				nodeOffsets[node] = nodes;
+				build(middle, end, level + 1);
+				return;
+			}
+
+			if (count <= MIN_LEAF_SIZE) {
+				nodeOffsets[node] = start;
+				nodeSizes[node] = count;
+				return;
+			}
+
+			// manji čvorovi nemaju koristi od svih pretinaca
+			bins = Math.min(BINS, count);
+			double leafCost = count;
+			double bestCost = Double.POSITIVE_INFINITY;
+			int bestAxis = -1;
+			int bestSplit = -1;
+			double parentArea = area(nodeBounds, base);
+			for (int axis = 0; axis < 3; axis++) {
+				double extent = centerBounds[3 + axis] - centerBounds[axis];
+				if (!(extent > 0)) {
+					continue;
+				}
+
+				fillBins(start, end, axis, centerBounds[axis], extent);
+				for (int split = 0; split < bins - 1; split++) {
+					double cost = TRAVERSAL_COST
+							+ (leftAreas[split] * leftCounts[split] + rightAreas[split] * (count - leftCounts[split]))
+									/ parentArea;
+					if (cost < bestCost) {
+						bestCost = cost;
+						bestAxis = axis;
+						bestSplit = split;
+					}
+				}
+			}
+
+			if (bestAxis < 0 || (bestCost >= leafCost && count <= MAX_LEAF_SIZE)) {
+				nodeOffsets[node] = start;
+				nodeSizes[node] = count;
+				return;
+			}
+
+			int middle = partition(start, end, bestAxis, centerBounds[bestAxis],
+					centerBounds[3 + bestAxis] - centerBounds[bestAxis], bestSplit);
+			if (middle == start || middle == end) {
+				// zbog zaokruživanja sve je završilo na jednoj strani
+				middle = start + count / 2;
+			}
+
+			nodeAxes[node] = (byte) bestAxis;
+			build(start, middle, level + 1);
+			nodeOffsets[node] = nodes;
+			build(middle, end, level + 1);
+		}
+
+		/**
+		 * Pomoćna metoda koja raspoređuje objekte u pretince po osi
+		 * <b>axis</b> te za svaku ravninu podjele računa broj objekata s lijeve
+		 * strane i oplošja kvadara s obje strane.
+		 *
+		 * @param start
+		 *            početni indeks (uključiv)
+		 * @param end
+		 *            završni indeks (isključiv)
+		 * @param axis
+		 *            os podjele
+		 * @param min
+		 *            najmanja koordinata središta po osi
+		 * @param extent
+		 *            raspon koordinata središta po osi
+		 */
+		private void fillBins(int start, int end, int axis, double min, double extent) {
+			for (int bin = 0; bin < bins; bin++) {
+				binCounts[bin] = 0;
+				resetBounds(binBounds, 6 * bin);
+			}
+			for (int i = start; i < end; i++) {
+				int bin = binOf(centers[3 * i + axis], min, extent);
+				binCounts[bin]++;
+				includeBox(binBounds, 6 * bin, boxes, 6 * i);
+			}
+
+			resetBounds(accumulated, 0);
+			int leftCount = 0;
+			for (int split = 0; split < bins - 1; split++) {
+				leftCount += binCounts[split];
+				includeBox(accumulated, 0, binBounds, 6 * split);
+				leftCounts[split] = leftCount;
+				leftAreas[split] = leftCount == 0 ? 0 : area(accumulated, 0);
+			}
+
+			resetBounds(accumulated, 0);
+			int rightCount = 0;
+			for (int split = bins - 2; split >= 0; split--) {
+				rightCount += binCounts[split + 1];
+				includeBox(accumulated, 0, binBounds, 6 * (split + 1));
+				rightAreas[split] = rightCount == 0 ? 0 : area(accumulated, 0);
+			}
+		}
+
+		/**
+		 * Pomoćna metoda koja presložuje objekte tako da oni čije središte
+		 * upada u pretince do ravnine <b>split</b> (uključivo) budu prvi.
+		 *
+		 * @param start
+		 *            početni indeks (uključiv)
+		 * @param end
+		 *            završni indeks (isključiv)
+		 * @param axis
+		 *            os podjele
+		 * @param min
+		 *            najmanja koordinata središta po osi
+		 * @param extent
+		 *            raspon koordinata središta po osi
+		 * @param split
+		 *            indeks ravnine podjele
+		 * @return indeks prvog objekta desne strane
+		 */
+		private int partition(int start, int end, int axis, double min, double extent, int split) {
+			int left = start;
+			int right = end - 1;
+			while (left <= right) {
+				if (binOf(centers[3 * left + axis], min, extent) <= split) {
+					left++;
+				} else {
+					swap(left, right--);
+				}
+			}
+			return left;
+		}
+
+		/**
+		 * Pomoćna metoda koja određuje pretinac u koji upada središte s
+		 * koordinatom <b>center</b>.
+		 *
+		 * @param center
+		 *            koordinata središta
+		 * @param min
+		 *            najmanja koordinata središta po osi
+		 * @param extent
+		 *            raspon koordinata središta po osi
+		 * @return indeks pretinca
+		 */
+		private int binOf(double center, double min, double extent) {
+			int bin = (int) (bins * (center - min) / extent);
+			return bin < bins ? bin : bins - 1;
+		}
+
+		/**
+		 * Pomoćna metoda koja presložuje objekte između indeksa <b>left</b> i
+		 * <b>right</b> (uključivo) tako da na indeksu <b>k</b> bude objekt
+		 * koji bi tamo bio da su objekti poredani po koordinati središta na osi
+		 * <b>axis</b>, lijevo od njega objekti s manjim ili jednakim, a desno
+		 * s većim ili jednakim koordinatama.
+		 *
+		 * @param left
+		 *            početni indeks (uključiv)
+		 * @param right
+		 *            završni indeks (uključiv)
+		 * @param k
+		 *            traženi indeks
+		 * @param axis
+		 *            os po kojoj se objekti uspoređuju
+		 */
+		private void select(int left, int right, int k, int axis) {
+			while (left < right) {
+				double pivot = centers[3 * ((left + right) >>> 1) + axis];
+				int i = left;
+				int j = right;
+				while (i <= j) {
+					while (centers[3 * i + axis] < pivot) {
+						i++;
+					}
+					while (centers[3 * j + axis] > pivot) {
+						j--;
+					}
+					if (i <= j) {
+						swap(i++, j--);
+					}
+				}
+				if (k <= j) {
+					right = j;
+				} else if (k >= i) {
+					left = i;
+				} else {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Pomoćna metoda koja zamjenjuje objekte na mjestima <b>i</b> i
+		 * <b>j</b>, zajedno s granicama i središtima njihovih kvadara.
+		 *
+		 * @param i
+		 *            mjesto prvog objekta
+		 * @param j
+		 *            mjesto drugog objekta
+		 */
+		private void swap(int i, int j) {
+			int object = order[i];
+			order[i] = order[j];
+			order[j] = object;
+			for (int k = 0; k < 6; k++) {
+				double tmp = boxes[6 * i + k];
+				boxes[6 * i + k] = boxes[6 * j + k];
+				boxes[6 * j + k] = tmp;
+			}
+			for (int k = 0; k < 3; k++) {
+				double tmp = centers[3 * i + k];
+				centers[3 * i + k] = centers[3 * j + k];
+				centers[3 * j + k] = tmp;
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja postavlja granice kvadra na početku polja
+	 * <b>bounds</b> od indeksa <b>base</b> tako da kvadar bude prazan.
+	 *
+	 * @param bounds
+	 *            polje s granicama kvadara
+	 * @param base
+	 *            indeks prve granice kvadra
+	 */
+	private static void resetBounds(double[] bounds, int base) {
+		for (int axis = 0; axis < 3; axis++) {
+			bounds[base + axis] = Double.POSITIVE_INFINITY;
+			bounds[base + 3 + axis] = Double.NEGATIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja proširuje kvadar iz polja <b>bounds</b> tako da
+	 * sadrži kvadar iz polja <b>other</b>.
+	 *
+	 * @param bounds
+	 *            polje s kvadrom koji se proširuje
+	 * @param base
+	 *            indeks prve granice kvadra koji se proširuje
+	 * @param other
+	 *            polje s kvadrom koji se dodaje
+	 * @param otherBase
+	 *            indeks prve granice kvadra koji se dodaje
+	 */
+	private static void includeBox(double[] bounds, int base, double[] other, int otherBase) {
+		for (int axis = 0; axis < 3; axis++) {
+			double min = other[otherBase + axis];
+			double max = other[otherBase + 3 + axis];
+			if (min < bounds[base + axis]) {
+				bounds[base + axis] = min;
+			}
+			if (max > bounds[base + 3 + axis]) {
+				bounds[base + 3 + axis] = max;
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja računa oplošje kvadra iz polja <b>bounds</b>.
+	 *
+	 * @param bounds
+	 *            polje s granicama kvadara
+	 * @param base
+	 *            indeks prve granice kvadra
+	 * @return oplošje kvadra
+	 */
+	private static double area(double[] bounds, int base) {
+		double dx = bounds[base + 3] - bounds[base];
+		double dy = bounds[base + 4] - bounds[base + 1];
+		double dz = bounds[base + 5] - bounds[base + 2];
+		return 2 * (dx * dy + dy * dz + dz * dx);
+	}
+}
@@ -0,0 +1,280 @@
+package hr.fer.zemris.java.raytracer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import hr.fer.zemris.java.raytracer.model.GraphicalObject;
+import hr.fer.zemris.java.raytracer.model.LightSource;
+import hr.fer.zemris.java.raytracer.model.Point3D;
+import hr.fer.zemris.java.raytracer.model.Ray;
+import hr.fer.zemris.java.raytracer.model.Scene;
+import hr.fer.zemris.java.raytracer.model.Shadeable;
+import hr.fer.zemris.java.raytracer.model.SurfacePoint;
+
+/**
+ * Razred predstavlja scenu pripremljenu za bacanje zraka. Priprema se provodi
+ * jednom, prilikom stvaranja primjerka, a uključuje izgradnju hijerarhije
+ * omeđujućih volumena nad objektima scene (vidi
+ * {@link BoundingVolumeHierarchy}) i prepisivanje podataka o izvorima
+ * svjetlosti u polja primitivnih vrijednosti. Primjerak je nepromjenjiv i
+ * smije se koristiti iz više dretvi istovremeno, pa se jednom pripremljena
+ * scena koristi za sve zahtjeve dok se izvorna scena ne promijeni (vidi
+ * {@link SceneCache}).
+ * <p>
+ * Promjena izvorne scene prepoznaje se usporedbom objekata po identitetu te
+ * položaja i intenziteta izvora svjetlosti (vidi
+ * {@link #isCompiledFrom(Scene)}). Objekti scene (npr.
+ * {@link hr.fer.zemris.java.raytracer.model.Sphere}) nemaju metode za
+ * promjenu, pa se njihova geometrija ne uspoređuje.
+ *
+ * @see RayCasterUtil
+ * @see SceneCache
+ *
+ * @author Davor Češljaš
+ */
+public final class CompiledScene {
+
+	/** Članska varijabla koja predstavlja izvornu scenu */
+	private final Scene source;
+
+	/** Članska varijabla koja predstavlja objekte scene */
+	private final List<GraphicalObject> objects;
+
+	/**
+	 * Članska varijabla koja predstavlja hijerarhiju izgrađenu nad objektima
+	 * scene ili <code>null</code> ukoliko se ispituju svi objekti scene
+	 */
+	private final BoundingVolumeHierarchy hierarchy;
+
+	/** Članska varijabla koja predstavlja položaje izvora svjetlosti */
+	private final Point3D[] lightPoints;
+
+	/** Članska varijabla koja predstavlja crvene komponente izvora svjetlosti */
+	private final double[] lightR;
+
+	/** Članska varijabla koja predstavlja zelene komponente izvora svjetlosti */
+	private final double[] lightG;
+
+	/** Članska varijabla koja predstavlja plave komponente izvora svjetlosti */
+	private final double[] lightB;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda pripremom scene
+	 * <b>scene</b>.
+	 *
+	 * @param scene
+	 *            scena koja se priprema
+	 */
+	public CompiledScene(Scene scene) {
+		this(scene, null);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda pripremom scene
+	 * <b>scene</b>. Broj ispitivanja sjecišta unutar hijerarhije dojavljuje se
+	 * s <b>testCounter</b>.
+	 *
+	 * @param scene
+	 *            scena koja se priprema
+	 * @param testCounter
+	 *            primatelj broja ispitivanja sjecišta ili <code>null</code>
+	 */
+	public CompiledScene(Scene scene, LongConsumer testCounter) {
+		this(scene, true, testCounter);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda pripremom scene
+	 * <b>scene</b>.
+	 *
+	 * @param scene
+	 *            scena koja se priprema
+	 * @param withHierarchy
+	 *            <code>true</code> ukoliko se gradi hijerarhija omeđujućih
+	 *            volumena
+	 * @param testCounter
+	 *            primatelj broja ispitivanja sjecišta ili <code>null</code>
+	 */
+	private CompiledScene(Scene scene, boolean withHierarchy, LongConsumer testCounter) {
+		this.source = scene;
+		this.objects = Collections.unmodifiableList(new ArrayList<>(scene.getObjects()));
+		this.hierarchy = withHierarchy ? new BoundingVolumeHierarchy(objects, testCounter) : null;
+
+		List<LightSource> lights = scene.getLights();
+		int count = lights.size();
+		lightPoints = new Point3D[count];
+		lightR = new double[count];
+		lightG = new double[count];
+		lightB = new double[count];
+		for (int i = 0; i < count; i++) {
+			LightSource light = lights.get(i);
+			lightPoints[i] = light.getPoint().copy();
+			lightR[i] = light.getR();
+			lightG[i] = light.getG();
+			lightB[i] = light.getB();
+		}
+	}
+
+	/**
+	 * Metoda tvornica koja priprema scenu <b>scene</b> bez hijerarhije
+	 * omeđujućih volumena, pa se prilikom bacanja zrake ispituju svi objekti
+	 * scene.
+	 *
+	 * @param scene
+	 *            scena koja se priprema
+	 * @return pripremljena scena
+	 */
+	public static CompiledScene linear(Scene scene) {
+		return new CompiledScene(scene, false, null);
+	}
+
+	/**
+	 * Metoda provjerava je li ovaj primjerak pripremljen iz scene
+	 * <b>scene</b> i je li scena od tada nepromijenjena. Scena je
+	 * nepromijenjena ukoliko su na istim mjestima isti objekti (po
+	 * identitetu) te izvori svjetlosti istog položaja i intenziteta.
+	 *
+	 * @param scene
+	 *            scena koja se provjerava
+	 * @return <code>true</code> ukoliko ovaj primjerak odgovara sceni
+	 */
+	public boolean isCompiledFrom(Scene scene) {
+		if (source != scene) {
+			return false;
+		}
+
+		List<GraphicalObject> sceneObjects = scene.getObjects();
+		if (objects.size() != sceneObjects.size()) {
+			return false;
+		}
+		for (int i = 0, size = objects.size(); i < size; i++) {
+			if (objects.get(i) != sceneObjects.get(i)) {
+				return false;
+			}
+		}
+
+		List<LightSource> lights = scene.getLights();
+		if (lightPoints.length != lights.size()) {
+			return false;
+		}
+		for (int i = 0; i < lightPoints.length; i++) {
+			LightSource light = lights.get(i);
+			Point3D point = light.getPoint();
+			if (point.x != lightPoints[i].x || point.y != lightPoints[i].y || point.z != lightPoints[i].z
+					|| light.getR() != lightR[i] || light.getG() != lightG[i] || light.getB() != lightB[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Metoda dohvaća nepromjenjivu listu objekata scene
+	 *
+	 * @return objekti scene
+	 */
+	public List<GraphicalObject> getObjects() {
+		return objects;
+	}
+
+	/**
+	 * Metoda dohvaća hijerarhiju izgrađenu nad objektima scene
+	 *
+	 * @return hijerarhija ili <code>null</code> ukoliko se ispituju svi
+	 *         objekti scene
+	 */
+	public BoundingVolumeHierarchy getHierarchy() {
+		return hierarchy;
+	}
+
+	/**
+	 * Metoda dohvaća objekt s identifikatorom <b>id</b>. Identifikatori su
+	 * jednaki onima koje pri ispitivanju paketa zraka zapisuje hijerarhija
+	 * (vidi {@link BoundingVolumeHierarchy#getObject(int)}), odnosno indeksi
+	 * objekata scene ukoliko hijerarhije nema.
+	 *
+	 * @param id
+	 *            identifikator objekta
+	 * @return objekt s identifikatorom <b>id</b>
+	 */
+	public GraphicalObject getObject(int id) {
+		return hierarchy != null ? hierarchy.getObject(id) : objects.get(id);
+	}
+
+	/**
+	 * Metoda zapisuje u <b>surface</b> podatke o najbližem sjecištu zrake
+	 * <b>ray</b> i objekta s identifikatorom <b>id</b> (vidi
+	 * {@link #getObject(int)}). Za objekte koji znaju zapisati podatke bez
+	 * stvaranja sjecišta (vidi {@link Shadeable}) upit ne zauzima memoriju.
+	 *
+	 * @param id
+	 *            identifikator objekta
+	 * @param ray
+	 *            zraka
+	 * @param surface
+	 *            primjerak u koji se zapisuju podaci o sjecištu
+	 * @return <code>true</code> ukoliko sjecište postoji
+	 */
+	public boolean findSurface(int id, Ray ray, SurfacePoint surface) {
+		if (hierarchy != null) {
+			return hierarchy.findSurface(id, ray, surface);
+		}
+		return BoundingVolumeHierarchy.surface(objects.get(id), ray, surface);
+	}
+
+	/**
+	 * Metoda dohvaća broj izvora svjetlosti
+	 *
+	 * @return broj izvora svjetlosti
+	 */
+	public int getLightCount() {
+		return lightPoints.length;
+	}
+
+	/**
+	 * Metoda dohvaća položaj izvora svjetlosti <b>index</b>. Vraćenu točku ne
+	 * smije se mijenjati.
+	 *
+	 * @param index
+	 *            indeks izvora svjetlosti
+	 * @return položaj izvora svjetlosti
+	 */
+	public Point3D getLightPoint(int index) {
+		return lightPoints[index];
+	}
+
+	/**
+	 * Metoda dohvaća crvenu komponentu izvora svjetlosti <b>index</b>
+	 *
+	 * @param index
+	 *            indeks izvora svjetlosti
+	 * @return crvena komponenta izvora svjetlosti
+	 */
+	public double getLightR(int index) {
+		return lightR[index];
+	}
+
+	/**
+	 * Metoda dohvaća zelenu komponentu izvora svjetlosti <b>index</b>
+	 *
+	 * @param index
+	 *            indeks izvora svjetlosti
+	 * @return zelena komponenta izvora svjetlosti
+	 */
+	public double getLightG(int index) {
+		return lightG[index];
+	}
+
+	/**
+	 * Metoda dohvaća plavu komponentu izvora svjetlosti <b>index</b>
+	 *
+	 * @param index
+	 *            indeks izvora svjetlosti
+	 * @return plava komponenta izvora svjetlosti
+	 */
+	public double getLightB(int index) {
+		return lightB[index];
+	}
+}
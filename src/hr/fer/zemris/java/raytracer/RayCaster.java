@@ -1,9 +1,13 @@
 package hr.fer.zemris.java.raytracer;
 
+import java.nio.IntBuffer;
+
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbObserver;
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbProducer;
 import hr.fer.zemris.java.raytracer.model.IRayTracerProducer;
-import hr.fer.zemris.java.raytracer.model.IRayTracerResultObserver;
 import hr.fer.zemris.java.raytracer.model.Point3D;
 import hr.fer.zemris.java.raytracer.model.Ray;
+import hr.fer.zemris.java.raytracer.model.RayPacket;
 import hr.fer.zemris.java.raytracer.model.Scene;
 import hr.fer.zemris.java.raytracer.viewer.RayTracerViewer;
 
@@ -41,53 +45,115 @@ public class RayCaster {
 	 * ovog programa
 	 *
 	 * @return primjerak razreda koji implementira sučelje
-	 *         {@link IRayTracerProducer}
+	 *         {@link IRayTracerArgbProducer}
 	 */
-	private static IRayTracerProducer getIRayTracerProducer() {
-		return new IRayTracerProducer() {
+	public static IRayTracerArgbProducer getIRayTracerProducer() {
+		return getIRayTracerProducer(null);
+	}
+
+	/**
+	 * Metoda tvornica koja stvara primjerak razreda koji implementira sučelje
+	 * {@link IRayTracerProducer} kao i metoda {@link #getIRayTracerProducer()},
+	 * ali koji rubove dodatno uzorkuje s <b>sampler</b>. Slika se tada najprije
+	 * izračuna paketima od po jedne zrake, kako bi se zapamtili pogođeni
+	 * objekti, a zatim se rubni slikovni elementi ponovno izračunaju.
+	 * Scena se za bacanje zraka priprema (vidi {@link CompiledScene}) samo pri
+	 * prvom zahtjevu i nakon njene promjene. Slikovni elementi zapisuju se
+	 * zapakirani (vidi {@link IRayTracerArgbProducer}).
+	 *
+	 * @param sampler
+	 *            prilagodljivo uzorkovanje rubova ili <code>null</code> za
+	 *            jednu zraku po slikovnom elementu
+	 * @return primjerak razreda koji implementira sučelje
+	 *         {@link IRayTracerArgbProducer}
+	 */
+	public static IRayTracerArgbProducer getIRayTracerProducer(AdaptiveSampler sampler) {
+		Scene scene = RayTracerViewer.createPredefinedScene();
+		SceneCache sceneCache = new SceneCache(null);
+		return new IRayTracerArgbProducer() {
 
 			@Override
-			public void produce(Point3D eye, Point3D view, Point3D viewUp, double horizontal, double vertical,
-					int width, int height, long requestNo, IRayTracerResultObserver observer) {
+			public void produceArgb(Point3D eye, Point3D view, Point3D viewUp, double horizontal, double vertical,
+					int width, int height, long requestNo, IRayTracerArgbObserver observer) {
 				System.out.println("Započinjem izračune...");
-				short[] red = new short[width * height];
-				short[] green = new short[width * height];
-				short[] blue = new short[width * height];
-
-				Point3D zAxis = view.sub(eye).normalize();
-				Point3D yAxis = viewUp.sub(zAxis.scalarMultiply(zAxis.scalarProduct(viewUp))).modifyNormalize();
-				Point3D xAxis = zAxis.vectorProduct(yAxis).modifyNormalize();
-
-				Point3D screenCorner = view.sub(xAxis.scalarMultiply(horizontal / 2))
-						.add(yAxis.scalarMultiply(vertical / 2));
-
-				Scene scene = RayTracerViewer.createPredefinedScene();
-				short[] rgb = new short[3];
-				int offset = 0;
-				for (int y = 0; y < height; y++) {
-					// negiran !
-					Point3D yPart = yAxis.scalarMultiply(-((double) y / (height - 1)) * vertical);
-					Point3D cornerMinusYPart = yPart.modifyAdd(screenCorner);
-
-					for (int x = 0; x < width; x++) {
-						Point3D xPart = xAxis.scalarMultiply(((double) x / (width - 1)) * horizontal);
-						Point3D screenPoint = cornerMinusYPart.add(xPart);
-						Ray ray = Ray.fromPoints(eye, screenPoint);
-
-						RayCasterUtil.tracer(scene, ray, rgb);
-
-						red[offset] = rgb[0] > 255 ? 255 : rgb[0];
-						green[offset] = rgb[1] > 255 ? 255 : rgb[1];
-						blue[offset] = rgb[2] > 255 ? 255 : rgb[2];
-						offset++;
+				Viewport viewport = new Viewport(eye, view, viewUp, horizontal, vertical, width, height);
+				IntBuffer pixels = RayCasterUtil.acquireBuffer(observer, width, height, requestNo);
+
+				CompiledScene compiled = sceneCache.get(scene);
+				if (sampler != null) {
+					produceRefined(compiled, viewport, sampler, pixels);
+				} else {
+					// jedna zraka za cijelu sliku, zaslon joj postavlja smjer
+					Ray ray = new Ray(new Point3D(), new Point3D());
+					short[] rgb = new short[3];
+					int offset = 0;
+					for (int y = 0; y < height; y++) {
+						for (int x = 0; x < width; x++) {
+							viewport.aim(ray, x, y);
+
+							RayCasterUtil.tracer(compiled, ray, rgb);
+
+							pixels.put(offset, RayCasterUtil.toArgb(rgb, 0));
+							offset++;
+						}
 					}
 				}
 				System.out.println("Izračuni gotovi...");
-				observer.acceptResult(red, green, blue, requestNo);
+				observer.acceptResult(pixels, width, height, requestNo);
 				System.out.println("Dojava gotova...");
 			}
 
 		};
 	}
 
+	/**
+	 * Pomoćna metoda koja izračunava sliku s jednom zrakom po slikovnom
+	 * elementu, a zatim rubne slikovne elemente ponovno izračunava
+	 * prilagodljivim uzorkovanjem <b>sampler</b>.
+	 *
+	 * @param scene
+	 *            pripremljena scena u kojoj se vrši bacanje zrake
+	 * @param viewport
+	 *            zaslon kroz koji se bacaju zrake
+	 * @param sampler
+	 *            prilagodljivo uzorkovanje rubova
+	 * @param pixels
+	 *            međuspremnik u koji se zapisuju slikovni elementi
+	 */
+	private static void produceRefined(CompiledScene scene, Viewport viewport, AdaptiveSampler sampler,
+			IntBuffer pixels) {
+		int width = viewport.getWidth();
+		int height = viewport.getHeight();
+		int[] primary = new int[width * height];
+		int[] ids = new int[width * height];
+
+		RayPacket packet = new RayPacket(1);
+		short[] rgb = new short[3];
+		int offset = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				packet.clear();
+				viewport.addRay(packet, x, y);
+				RayCasterUtil.tracer(scene, packet, rgb);
+
+				primary[offset] = RayCasterUtil.toArgb(rgb, 0);
+				ids[offset] = packet.hit[0];
+				offset++;
+			}
+		}
+
+		offset = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (sampler.isEdge(primary, ids, width, height, x, y)) {
+					sampler.sample(scene, viewport, x, y, rgb);
+					pixels.put(offset, RayCasterUtil.toArgb(rgb, 0));
+				} else {
+					pixels.put(offset, primary[offset]);
+				}
+				offset++;
+			}
+		}
+	}
+
 }
@@ -1,178 +1,661 @@
 package hr.fer.zemris.java.raytracer;
 
+import java.nio.IntBuffer;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
-import java.util.function.Predicate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import hr.fer.zemris.java.raytracer.model.IRayTracerProducer;
-import hr.fer.zemris.java.raytracer.model.IRayTracerResultObserver;
+import hr.fer.zemris.java.metrics.RenderMetrics;
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbObserver;
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbProducer;
 import hr.fer.zemris.java.raytracer.model.Point3D;
 import hr.fer.zemris.java.raytracer.model.Ray;
+import hr.fer.zemris.java.raytracer.model.RayPacket;
 import hr.fer.zemris.java.raytracer.model.Scene;
 import hr.fer.zemris.java.raytracer.viewer.RayTracerViewer;
 
 /**
- * Razred koji implementira sučelje {@link IRayTracerProducer}. Primjerci ovog
+ * Razred koji implementira sučelje {@link IRayTracerArgbProducer}. Primjerci ovog
  * razreda koriste se u prgoramu {@link RayCasterParallel}. Ovaj razred sav
- * izračun sjecišta i boja vrši višedretveno(paralelno).
+ * izračun sjecišta i boja vrši višedretveno(paralelno). Primjerci stvoreni
+ * podrazumijevanim konstruktorom dijele jedan bazen dretvi, a ostali imaju
+ * vlastiti bazen sa zadanim brojem dretvi. Dretve se pokreću već prilikom
+ * stvaranja bazena, pa prvi izračun ne čeka na njihovo pokretanje. To vrijedi
+ * samo za prvi izračun: dretve bazena koje dulje vrijeme nemaju posla se
+ * gase, pa izračun nakon duže stanke ponovo pokreće dretve.
+ * <p>
+ * Slika se dijeli na kvadratne dijelove čija se veličina određuje iz veličine
+ * slike i broja dretvi (vidi {@link #tileSize(int, int, int)}). Zahtjev čiji
+ * je redni broj manji od rednog broja nekog kasnije započetog zahtjeva je
+ * zastario: njegovi dijelovi koji još nisu izračunati se preskaču, a
+ * promatrač ne dobiva rezultat. Uz zadani {@link AdaptiveSampler} rubovi se
+ * nakon izračuna s jednom zrakom po slikovnom elementu dodatno uzorkuju, u
+ * drugom prolazu kroz iste dijelove slike. Scena se priprema za bacanje
+ * zraka (vidi {@link CompiledScene}) samo pri prvom zahtjevu i nakon njene
+ * promjene. Slikovni elementi zapisuju se zapakirani izravno u međuspremnik
+ * promatrača (vidi {@link IRayTracerArgbProducer}). Mjere rada (broj
+ * zahtjeva, trajanje, broj bačenih zraka i slično) objavljuju se putem JMX-a
+ * i dostupne su metodom {@link #getMetrics()}.
+ * <p>
+ * Svaki primjerak objavljuje mjere rada već prilikom stvaranja, a JMX
+ * poslužitelj ih, zajedno s bazenom dretvi i pripremljenom scenom, drži u
+ * memoriji sve do poziva metode {@link #shutdown()}. Ta metoda stoga se
+ * <b>mora</b> pozvati za svaki primjerak, pa i za one koji dijele
+ * zajednički bazen dretvi.
  * 
- * @see IRayTracerProducer
+ * @see IRayTracerArgbProducer
  * @see RayCasterParallel
  * 
  * @author Davor Češljaš
  */
-public class RayCasterParallelProducer implements IRayTracerProducer {
+public class RayCasterParallelProducer implements IRayTracerArgbProducer {
+
+	/** Željeni broj dijelova slike po dretvi, radi ravnomjernog opterećenja */
+	private static final int TILES_PER_THREAD = 16;
+
+	/** Najmanja širina i visina dijela slike */
+	private static final int MIN_TILE_SIZE = 8;
+
+	/** Najveća širina i visina dijela slike */
+	private static final int MAX_TILE_SIZE = 64;
+
+	/** Članska varijabla koja predstavlja bazen dretvi koje provode izračun */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Članska varijabla koja označava je li bazen dretvi zajednički, pa se ne
+	 * gasi zajedno s ovim primjerkom
+	 */
+	private final boolean sharedPool;
+
+	/** Članska varijabla koja predstavlja mjere rada ovog primjerka */
+	private final RenderMetrics metrics;
+
+	/**
+	 * Članska varijabla koja predstavlja broj susjednih zraka od očišta koje
+	 * se bacaju zajedno kao paket, 1 ukoliko se zrake bacaju pojedinačno
+	 */
+	private final int packetSize;
+
+	/**
+	 * Članska varijabla koja predstavlja prilagodljivo uzorkovanje rubova ili
+	 * <code>null</code> ukoliko se baca jedna zraka po slikovnom elementu
+	 */
+	private final AdaptiveSampler sampler;
+
+	/** Članska varijabla koja predstavlja scenu koja se prikazuje */
+	private final Scene scene;
+
+	/** Članska varijabla koja predstavlja zadnju pripremljenu scenu */
+	private final SceneCache sceneCache;
+
+	/** Članska varijabla koja predstavlja najveći dosad primljeni redni broj */
+	private final AtomicLong latestRequest = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Izračun se
+	 * provodi u bazenu dretvi zajedničkom svim primjercima stvorenim ovim
+	 * konstruktorom, s po jednom dretvom za svaki dostupni procesor.
+	 */
+	public RayCasterParallelProducer() {
+		this(SharedPool.POOL, true, 1, null);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda koji rubove
+	 * uzorkuje s <b>sampler</b>. Izračun se provodi u bazenu dretvi
+	 * zajedničkom svim primjercima stvorenim ovim ili podrazumijevanim
+	 * konstruktorom.
+	 *
+	 * @param sampler
+	 *            prilagodljivo uzorkovanje rubova
+	 * @throws NullPointerException
+	 *             ukoliko je <b>sampler</b> <code>null</code>
+	 */
+	public RayCasterParallelProducer(AdaptiveSampler sampler) {
+		this(SharedPool.POOL, true, 1, Objects.requireNonNull(sampler));
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Izračun se
+	 * provodi s <b>parallelism</b> dretvi.
+	 *
+	 * @param parallelism
+	 *            broj dretvi koje provode izračun
+	 * @throws IllegalArgumentException
+	 *             ukoliko broj dretvi nije pozitivan
+	 */
+	public RayCasterParallelProducer(int parallelism) {
+		this(parallelism, 1);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Izračun se
+	 * provodi s <b>parallelism</b> dretvi, a zrake od očišta bacaju se u
+	 * paketima od <b>packetSize</b> susjednih zraka istog retka (vidi
+	 * {@link RayPacket}). Uobičajene veličine paketa su 4, 8 ili 16, a za
+	 * veličinu 1 zrake se bacaju pojedinačno.
+	 *
+	 * @param parallelism
+	 *            broj dretvi koje provode izračun
+	 * @param packetSize
+	 *            broj zraka u paketu
+	 * @throws IllegalArgumentException
+	 *             ukoliko broj dretvi nije pozitivan ili veličina paketa nije
+	 *             između 1 i {@value RayPacket#MAX_SIZE}
+	 */
+	public RayCasterParallelProducer(int parallelism, int packetSize) {
+		this(parallelism, packetSize, null);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Izračun se
+	 * provodi s <b>parallelism</b> dretvi, zrake od očišta bacaju se u
+	 * paketima od <b>packetSize</b> susjednih zraka, a rubovi se uzorkuju s
+	 * <b>sampler</b>.
+	 *
+	 * @param parallelism
+	 *            broj dretvi koje provode izračun
+	 * @param packetSize
+	 *            broj zraka u paketu
+	 * @param sampler
+	 *            prilagodljivo uzorkovanje rubova ili <code>null</code> za
+	 *            jednu zraku po slikovnom elementu
+	 * @throws IllegalArgumentException
+	 *             ukoliko broj dretvi nije pozitivan ili veličina paketa nije
+	 *             između 1 i {@value RayPacket#MAX_SIZE}
+	 */
+	public RayCasterParallelProducer(int parallelism, int packetSize, AdaptiveSampler sampler) {
+		this(createPool(parallelism), false, packetSize, sampler);
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda nad bazenom
+	 * dretvi <b>pool</b>.
+	 *
+	 * @param pool
+	 *            bazen dretvi koje provode izračun
+	 * @param sharedPool
+	 *            <code>true</code> ukoliko je bazen zajednički
+	 * @param packetSize
+	 *            broj zraka u paketu
+	 * @param sampler
+	 *            prilagodljivo uzorkovanje rubova ili <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             ukoliko veličina paketa nije između 1 i
+	 *             {@value RayPacket#MAX_SIZE}
+	 */
+	private RayCasterParallelProducer(ForkJoinPool pool, boolean sharedPool, int packetSize,
+			AdaptiveSampler sampler) {
+		if (packetSize < 1 || packetSize > RayPacket.MAX_SIZE) {
+			if (!sharedPool) {
+				pool.shutdown();
+			}
+			throw new IllegalArgumentException(
+					"Veličina paketa mora biti između 1 i " + RayPacket.MAX_SIZE + ", a predana je " + packetSize);
+		}
+
+		this.packetSize = packetSize;
+		this.sampler = sampler;
+		this.pool = pool;
+		this.sharedPool = sharedPool;
+		this.metrics = new RenderMetrics("rays", () -> pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount());
+		this.metrics.register(getClass().getSimpleName());
+		this.scene = RayTracerViewer.createPredefinedScene();
+		this.sceneCache = new SceneCache(metrics::addIntersectionTests);
+	}
+
+	/**
+	 * Pomoćna metoda tvornica koja stvara bazen s <b>parallelism</b> dretvi i
+	 * odmah pokreće sve njegove dretve. Svaka dretva dobiva po jedan posao
+	 * koji čeka dok se ne pokrenu i ostale, ali najviše sekundu, kako bazen ne
+	 * bi pokretao dretve tek prilikom prvog izračuna. Metoda ne čeka da se
+	 * dretve pokrenu.
+	 * <p>
+	 * Zagrijavanje koristi samo prvom izračunu nakon stvaranja bazena.
+	 * {@link ForkJoinPool} gasi dretve koje nakon isteka vremena mirovanja
+	 * nisu dobile posao, pa se nakon duže stanke dretve ponovo pokreću
+	 * prilikom sljedećeg izračuna. Uzastopni izračuni bazen drže zauzetim, pa
+	 * za njih dretve ostaju pokrenute.
+	 *
+	 * @param parallelism
+	 *            broj dretvi bazena
+	 * @return stvoreni bazen
+	 * @throws IllegalArgumentException
+	 *             ukoliko broj dretvi nije pozitivan
+	 */
+	private static ForkJoinPool createPool(int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("Broj dretvi mora biti pozitivan, a predan je " + parallelism);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		CountDownLatch started = new CountDownLatch(parallelism);
+		for (int i = 0; i < parallelism; i++) {
+			pool.execute(() -> {
+				started.countDown();
+				try {
+					started.await(1, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		return pool;
+	}
+
+	/**
+	 * Metoda dohvaća broj dretvi koje provode izračun
+	 *
+	 * @return broj dretvi koje provode izračun
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Metoda dohvaća broj zraka od očišta koje se bacaju zajedno kao paket
+	 *
+	 * @return broj zraka u paketu
+	 */
+	public int getPacketSize() {
+		return packetSize;
+	}
+
+	/**
+	 * Metoda dohvaća prilagodljivo uzorkovanje rubova
+	 *
+	 * @return prilagodljivo uzorkovanje rubova ili <code>null</code> ukoliko
+	 *         se baca jedna zraka po slikovnom elementu
+	 */
+	public AdaptiveSampler getSampler() {
+		return sampler;
+	}
+
+	/**
+	 * Metoda dohvaća scenu koja se prikazuje. Scena se smije mijenjati između
+	 * zahtjeva, a promjena se uzima u obzir od sljedećeg zahtjeva.
+	 *
+	 * @return scena koja se prikazuje
+	 */
+	public Scene getScene() {
+		return scene;
+	}
+
+	/**
+	 * Metoda dohvaća koliko je puta scena pripremljena za bacanje zraka
+	 *
+	 * @return broj priprema scene
+	 */
+	public long getSceneCompilations() {
+		return sceneCache.getCompilations();
+	}
+
+	/**
+	 * Metoda dohvaća mjere rada ovog primjerka razreda
+	 *
+	 * @return mjere rada
+	 */
+	public RenderMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Metoda koja gasi dretve ovog primjerka razreda (osim ako je bazen
+	 * dretvi zajednički) i uklanja njegove mjere rada s JMX poslužitelja.
+	 * Bez poziva ove metode JMX poslužitelj primjerak drži živim. Nakon
+	 * poziva ove metode primjerak se više ne smije koristiti za izračun.
+	 */
+	public void shutdown() {
+		if (!sharedPool) {
+			pool.shutdown();
+		}
+		metrics.unregister();
+	}
+
+	/**
+	 * Metoda računa širinu i visinu kvadratnih dijelova na koje se dijeli
+	 * slika. Veličina se bira tako da na svaku dretvu dođe približno
+	 * {@value #TILES_PER_THREAD} dijelova, ali tako da dio nije manji od
+	 * {@value #MIN_TILE_SIZE} niti veći od {@value #MAX_TILE_SIZE} slikovnih
+	 * elemenata.
+	 *
+	 * @param width
+	 *            širina slike
+	 * @param height
+	 *            visina slike
+	 * @param parallelism
+	 *            broj dretvi
+	 * @return širina i visina dijela slike
+	 */
+	static int tileSize(int width, int height, int parallelism) {
+		double area = (double) width * height / ((double) parallelism * TILES_PER_THREAD);
+		int size = (int) Math.round(Math.sqrt(area));
+		return Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, size));
+	}
 
 	@Override
-	public void produce(Point3D eye, Point3D view, Point3D viewUp, double horizontal, double vertical, int width,
-			int height, long requestNo, IRayTracerResultObserver observer) {
-		short[] red = new short[width * height];
-		short[] green = new short[width * height];
-		short[] blue = new short[width * height];
+	public void produceArgb(Point3D eye, Point3D view, Point3D viewUp, double horizontal, double vertical,
+			int width, int height, long requestNo, IRayTracerArgbObserver observer) {
+		latestRequest.accumulateAndGet(requestNo, Math::max);
+		long start = metrics.requestStarted();
 
-		Point3D zAxis = view.sub(eye).normalize();
-		Point3D yAxis = viewUp.sub(zAxis.scalarMultiply(zAxis.scalarProduct(viewUp))).modifyNormalize();
-		Point3D xAxis = zAxis.vectorProduct(yAxis).modifyNormalize();
+		Viewport viewport = new Viewport(eye, view, viewUp, horizontal, vertical, width, height);
+		IntBuffer pixels = RayCasterUtil.acquireBuffer(observer, width, height, requestNo);
+		CompiledScene compiled = sceneCache.get(scene);
 
-		Point3D screenCorner = view.sub(xAxis.scalarMultiply(horizontal / 2)).add(yAxis.scalarMultiply(vertical / 2));
+		Frame frame = new Frame(viewport, compiled, requestNo, tileSize(width, height, pool.getParallelism()),
+				pixels, sampler != null);
+		pool.invoke(new ColoringJob(frame, 0, 0, width, height, false));
 
-		Scene scene = RayTracerViewer.createPredefinedScene();
+		if (sampler != null && !frame.isCancelled()) {
+			frame.startRefinement();
+			pool.invoke(new ColoringJob(frame, 0, 0, width, height, true));
+		}
 
-		final int maxRows = 16;
-		Predicate<Integer> predicate = t -> t <= maxRows;
+		if (frame.isCancelled()) {
+			metrics.requestCancelled();
+			return;
+		}
+		metrics.requestCompleted(start, (long) width * height);
 
-		ForkJoinPool pool = new ForkJoinPool();
-		pool.invoke(new ColoringJob(eye, xAxis, yAxis, screenCorner, red, green, blue, scene, 0, height, width, height,
-				vertical, horizontal, predicate));
-		pool.shutdown();
+		observer.acceptResult(pixels, width, height, requestNo);
+	}
 
-		observer.acceptResult(red, green, blue, requestNo);
+	/**
+	 * Razred koji čuva zajednički bazen dretvi. Bazen se stvara tek prilikom
+	 * prvog dohvata, a dretve mu se ne gase do kraja rada programa.
+	 * 
+	 * @author Davor Češljaš
+	 */
+	private static class SharedPool {
+
+		/** Zajednički bazen s po jednom dretvom za svaki dostupni procesor */
+		private static final ForkJoinPool POOL = createPool(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Razred koji predstavlja jedan zahtjev za izračunom slike. Sadrži sve
+	 * podatke zajedničke poslovima {@link ColoringJob} tog zahtjeva, kao i
+	 * međuspremnik u koji poslovi upisuju izračunate slikovne elemente.
+	 * 
+	 * @author Davor Češljaš
+	 */
+	private class Frame {
+
+		// čemu pojedine varijable služe opisano u konstruktoru
+
+		private final Viewport viewport;
+		private final CompiledScene scene;
+		private final long requestNo;
+		private final int tileSize;
+
+		/** Međuspremnik u koji se zapisuju konačni slikovni elementi */
+		private final IntBuffer pixels;
+
+		/**
+		 * Slikovni elementi izračunati jednom zrakom ili <code>null</code>
+		 * ukoliko se rubovi ne uzorkuju, pa se zapisuju izravno u
+		 * {@link #pixels}
+		 */
+		private final int[] primary;
+
+		/** Međuspremnik u koji se zapisuju slikovni elementi prvog prolaza */
+		private final IntBuffer primaryPixels;
+
+		/**
+		 * Identifikatori objekata koje su pogodile zrake ili
+		 * <code>null</code> ukoliko se rubovi ne uzorkuju
+		 */
+		private final int[] ids;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param viewport
+		 *            zaslon kroz koji se bacaju zrake
+		 * @param scene
+		 *            pripremljena scena u kojoj se vrši bacanje zrake
+		 * @param requestNo
+		 *            redni broj zahtjeva
+		 * @param tileSize
+		 *            širina i visina dijela slike koji se računa bez daljnjeg
+		 *            grananja
+		 * @param pixels
+		 *            međuspremnik u koji se zapisuju slikovni elementi
+		 * @param refined
+		 *            <code>true</code> ukoliko se rubovi dodatno uzorkuju
+		 */
+		public Frame(Viewport viewport, CompiledScene scene, long requestNo, int tileSize, IntBuffer pixels,
+				boolean refined) {
+			this.viewport = Objects.requireNonNull(viewport);
+			this.scene = Objects.requireNonNull(scene);
+			this.requestNo = requestNo;
+			this.tileSize = tileSize;
+			this.pixels = Objects.requireNonNull(pixels);
+
+			int count = viewport.getWidth() * viewport.getHeight();
+			this.primary = refined ? new int[count] : null;
+			this.primaryPixels = refined ? IntBuffer.wrap(primary) : pixels;
+			this.ids = refined ? new int[count] : null;
+		}
+
+		/**
+		 * Metoda prepisuje slikovne elemente izračunate jednom zrakom u
+		 * međuspremnik konačnih slikovnih elemenata, prije drugog prolaza.
+		 * Slikovni elementi prvog prolaza ostaju nepromijenjeni jer se prema
+		 * njima traže rubovi.
+		 */
+		public void startRefinement() {
+			IntBuffer target = pixels.duplicate();
+			target.clear();
+			target.put(primary);
+		}
+
+		/**
+		 * Metoda provjerava je li zahtjev zastario, odnosno je li u
+		 * međuvremenu započet zahtjev s većim rednim brojem
+		 *
+		 * @return <code>true</code> ukoliko je zahtjev zastario
+		 */
+		public boolean isCancelled() {
+			return latestRequest.get() > requestNo;
+		}
 	}
 
 	/**
 	 * Razred koji nasljeđuje apstraktan razreda {@link RecursiveAction} i
-	 * implementira jedinu apstraktnu metodu {@link #compute()}
+	 * implementira jedinu apstraktnu metodu {@link #compute()}. Posao računa
+	 * pravokutni dio slike [{@link #x0}, {@link #x1}) &times; [{@link #y0},
+	 * {@link #y1}). Dio veći od veličine dijela slike zahtjeva dijeli se po
+	 * duljoj stranici na granici dijelova slike. U drugom prolazu posao
+	 * dodatno uzorkuje rubne slikovne elemente svog dijela.
 	 * 
 	 * @see RecursiveAction
 	 * 
 	 * @author Davor Češljaš
 	 */
-	private static class ColoringJob extends RecursiveAction {
-		
-		// čemu pojedine privatne varijable služe opisano u konstruktoru
-		
+	private class ColoringJob extends RecursiveAction {
+
 		private static final long serialVersionUID = 1L;
-		private Point3D eye;
-		private Point3D xAxis;
-		private Point3D yAxis;
-		private Point3D screenCorner;
-		private short[] red;
-		private short[] green;
-		private short[] blue;
-		private Scene scene;
-		private int yMin;
-		private int yMax;
-		private int width;
-		private int height;
-		private double vertical;
-		private double horizontal;
-		private Predicate<Integer> predicate;
+
+		/** Zahtjev kojem posao pripada */
+		private final Frame frame;
+
+		/** Stupac od kojeg posao izračunava */
+		private final int x0;
+
+		/** Redak od kojeg posao izračunava */
+		private final int y0;
+
+		/** Stupac do kojeg (isključivo) posao izračunava */
+		private final int x1;
+
+		/** Redak do kojeg (isključivo) posao izračunava */
+		private final int y1;
+
+		/** Označava drugi prolaz, u kojem se uzorkuju rubovi */
+		private final boolean refining;
 
 		/**
 		 * Konstruktor koji inicijalizira primjerak ovog razreda.
 		 *
-		 * @param eye
-		 *            očište
-		 * @param xAxis
-		 *            jedinični vektor osi x
-		 * @param yAxis
-		 *            jedinični vektor osi y
-		 * @param screenCorner
-		 *            točka koja predstavlja točku (0,0) relativno na vektor OG
-		 * @param red
-		 *            utjecaj crvene boje na točke
-		 * @param green
-		 *            utjecaj zelene boje na točke
-		 * @param blue
-		 *            utjecaj plave boje na točke
-		 * @param scene
-		 *            scena u kojoj se vrši bacanje zrake
-		 * @param yMin
-		 *            visina od koje posao izračunava
-		 * @param yMax
-		 *            visina do koje posao izračunava
-		 * @param width
-		 *            širina rastera
-		 * @param height
-		 *            visina rastera
-		 * @param vertical
-		 *            vertikalna visina promatranog prostora
-		 * @param horizontal
-		 *            horizontalna širina promatranog prostora
-		 * @param predicate
-		 *            predikat kojim se testira je li posao potrebno još granati
-		 *            ili je posao spreman za izračun
+		 * @param frame
+		 *            zahtjev kojem posao pripada
+		 * @param x0
+		 *            stupac od kojeg posao izračunava
+		 * @param y0
+		 *            redak od kojeg posao izračunava
+		 * @param x1
+		 *            stupac do kojeg (isključivo) posao izračunava
+		 * @param y1
+		 *            redak do kojeg (isključivo) posao izračunava
+		 * @param refining
+		 *            <code>true</code> ukoliko posao pripada drugom prolazu
 		 */
-		public ColoringJob(Point3D eye, Point3D xAxis, Point3D yAxis, Point3D screenCorner, short[] red, short[] green,
-				short[] blue, Scene scene, int yMin, int yMax, int width, int height, double vertical,
-				double horizontal, Predicate<Integer> predicate) {
-			this.eye = Objects.requireNonNull(eye);
-			this.xAxis = Objects.requireNonNull(xAxis);
-			this.yAxis = Objects.requireNonNull(yAxis);
-			this.screenCorner = Objects.requireNonNull(screenCorner);
-			this.red = Objects.requireNonNull(red);
-			this.green = Objects.requireNonNull(green);
-			this.blue = Objects.requireNonNull(blue);
-			this.scene = Objects.requireNonNull(scene);
-			this.predicate = Objects.requireNonNull(predicate);
-			this.yMin = yMin;
-			this.yMax = yMax;
-			this.width = width;
-			this.height = height;
-			this.vertical = vertical;
-			this.horizontal = horizontal;
+		public ColoringJob(Frame frame, int x0, int y0, int x1, int y1, boolean refining) {
+			this.frame = frame;
+			this.x0 = x0;
+			this.y0 = y0;
+			this.x1 = x1;
+			this.y1 = y1;
+			this.refining = refining;
 		}
 
 		@Override
 		protected void compute() {
-			if (predicate.test(height / (yMax - yMin + 1))) {
+			if (frame.isCancelled()) {
+				return;
+			}
+
+			int tileSize = frame.tileSize;
+			int tileWidth = x1 - x0;
+			int tileHeight = y1 - y0;
+			if (tileWidth <= tileSize && tileHeight <= tileSize) {
 				computeDirect();
 				return;
 			}
-			invokeAll(
-					new ColoringJob(eye, xAxis, yAxis, screenCorner, red, green, blue, scene, yMin,
-							yMin + (yMax - yMin) / 2, width, height, vertical, horizontal, predicate),
-					new ColoringJob(eye, xAxis, yAxis, screenCorner, red, green, blue, scene,
-							yMin + (yMax - yMin) / 2 + 1, yMax, width, height, vertical, horizontal, predicate));
+
+			if (tileWidth >= tileHeight) {
+				int split = x0 + (tileWidth / tileSize + 1) / 2 * tileSize;
+				invokeAll(new ColoringJob(frame, x0, y0, split, y1, refining),
+						new ColoringJob(frame, split, y0, x1, y1, refining));
+			} else {
+				int split = y0 + (tileHeight / tileSize + 1) / 2 * tileSize;
+				invokeAll(new ColoringJob(frame, x0, y0, x1, split, refining),
+						new ColoringJob(frame, x0, split, x1, y1, refining));
+			}
 		}
 
 		/**
-		 * Metoda za izračun utjecaj RGB na točke u rasponu {@link #yMin} -
-		 * {@link #yMax}
+		 * Metoda za izračun utjecaja RGB na točke dijela slike. Kada se rubovi
+		 * uzorkuju, prvi prolaz uvijek baca pakete kako bi se zapamtili
+		 * pogođeni objekti. Prije svakog retka provjerava se je li zahtjev
+		 * zastario.
 		 */
 		private void computeDirect() {
+			long start = metrics.tileStarted();
+			long rays;
+			if (refining) {
+				rays = refineEdges();
+			} else {
+				rays = packetSize > 1 || frame.ids != null ? computePackets() : computeRays();
+			}
+			metrics.addWorkUnits(rays);
+			metrics.tileCompleted(start);
+		}
+
+		/**
+		 * Pomoćna metoda koja baca zrake od očišta jednu po jednu. Svim
+		 * zrakama dijela slike smjer postavlja zaslon (vidi
+		 * {@link Viewport#aim(Ray, double, double)}) u istom primjerku zrake.
+		 *
+		 * @return broj bačenih zraka
+		 */
+		private long computeRays() {
+			Frame f = frame;
+			Viewport v = f.viewport;
+			int width = v.getWidth();
+			long rays = 0;
+			Ray ray = new Ray(new Point3D(), new Point3D());
 			short[] rgb = new short[3];
-			int offset = yMin * width;
-			for (int y = yMin; y < yMax; y++) {
-				// negiran !
-				Point3D yPart = yAxis.scalarMultiply(-((double) y / (height - 1)) * vertical);
-				Point3D cornerMinusYPart = yPart.modifyAdd(screenCorner);
-
-				for (int x = 0; x < width; x++) {
-					Point3D xPart = xAxis.scalarMultiply(((double) x / (width - 1)) * horizontal);
-					Point3D screenPoint = cornerMinusYPart.add(xPart);
-					Ray ray = Ray.fromPoints(eye, screenPoint);
-
-					RayCasterUtil.tracer(scene, ray, rgb);
-
-					red[offset] = rgb[0] > 255 ? 255 : rgb[0];
-					green[offset] = rgb[1] > 255 ? 255 : rgb[1];
-					blue[offset] = rgb[2] > 255 ? 255 : rgb[2];
+			for (int y = y0; y < y1 && !f.isCancelled(); y++) {
+				int offset = y * width + x0;
+				for (int x = x0; x < x1; x++) {
+					v.aim(ray, x, y);
+
+					rays += RayCasterUtil.tracer(f.scene, ray, rgb);
+
+					f.primaryPixels.put(offset, RayCasterUtil.toArgb(rgb, 0));
 					offset++;
 				}
 			}
+			return rays;
+		}
+
+		/**
+		 * Pomoćna metoda koja baca zrake od očišta u paketima od
+		 * {@link #packetSize} susjednih zraka istog retka. Smjerovi zraka
+		 * računaju se jednako kao u metodi {@link #computeRays()} (vidi
+		 * {@link Viewport#addRay(RayPacket, double, double)}), pa su i zrake
+		 * jednake.
+		 *
+		 * @return broj bačenih zraka
+		 */
+		private long computePackets() {
+			Frame f = frame;
+			Viewport v = f.viewport;
+			long rays = 0;
+			RayPacket packet = new RayPacket(packetSize);
+			short[] rgb = new short[3 * packetSize];
+			for (int y = y0; y < y1 && !f.isCancelled(); y++) {
+				int offset = y * v.getWidth() + x0;
+				for (int xStart = x0; xStart < x1; xStart += packetSize) {
+					packet.clear();
+					for (int x = xStart, end = Math.min(x1, xStart + packetSize); x < end; x++) {
+						v.addRay(packet, x, y);
+					}
+
+					rays += RayCasterUtil.tracer(f.scene, packet, rgb);
+
+					for (int lane = 0, size = packet.size(); lane < size; lane++) {
+						if (f.ids != null) {
+							f.ids[offset] = packet.hit[lane];
+						}
+						f.primaryPixels.put(offset, RayCasterUtil.toArgb(rgb, 3 * lane));
+						offset++;
+					}
+				}
+			}
+			return rays;
+		}
+
+		/**
+		 * Pomoćna metoda koja rubne slikovne elemente dijela slike ponovno
+		 * računa prilagodljivim uzorkovanjem (vidi {@link AdaptiveSampler}).
+		 *
+		 * @return broj bačenih zraka
+		 */
+		private long refineEdges() {
+			Frame f = frame;
+			int width = f.viewport.getWidth();
+			int height = f.viewport.getHeight();
+			long rays = 0;
+			short[] rgb = new short[3];
+			for (int y = y0; y < y1 && !f.isCancelled(); y++) {
+				for (int x = x0; x < x1; x++) {
+					if (!sampler.isEdge(f.primary, f.ids, width, height, x, y)) {
+						continue;
+					}
 
+					rays += sampler.sample(f.scene, f.viewport, x, y, rgb);
+					f.pixels.put(y * width + x, RayCasterUtil.toArgb(rgb, 0));
+				}
+			}
+			return rays;
 		}
 	}
 }
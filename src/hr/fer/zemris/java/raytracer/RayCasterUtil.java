@@ -1,17 +1,26 @@
 package hr.fer.zemris.java.raytracer;
 
+import java.nio.IntBuffer;
+import java.util.List;
+
 import hr.fer.zemris.java.raytracer.model.GraphicalObject;
-import hr.fer.zemris.java.raytracer.model.LightSource;
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbObserver;
 import hr.fer.zemris.java.raytracer.model.Point3D;
 import hr.fer.zemris.java.raytracer.model.Ray;
-import hr.fer.zemris.java.raytracer.model.RayIntersection;
+import hr.fer.zemris.java.raytracer.model.RayPacket;
 import hr.fer.zemris.java.raytracer.model.Scene;
+import hr.fer.zemris.java.raytracer.model.SurfacePoint;
 import hr.fer.zemris.math.DoubleUtil;
 
 /**
- * Razred koji predstavlja biblioteku koja sadrži samo jednu javnu metodu
- * {@link #tracer(Scene, Ray, short[])}. Razred je izgrađen kako se isti kod ne
- * bi ponavljao kroz dva programa. {@link RayCaster} i {@link RayCasterParallel}
+ * Razred koji predstavlja biblioteku koja sadrži javnu metodu
+ * {@link #tracer(Scene, Ray, short[])} i njenu inačicu
+ * {@link #tracer(CompiledScene, Ray, short[])} koja zraku baca u unaprijed
+ * pripremljenoj sceni, kao i inačicu
+ * {@link #tracer(CompiledScene, RayPacket, short[])} koja baca cijeli paket
+ * susjednih zraka odjednom. Razred je izgrađen kako se isti
+ * kod ne bi ponavljao kroz dva programa. {@link RayCaster} i
+ * {@link RayCasterParallel}
  * 
  * @see RayCaster
  * @see RayCasterParallel
@@ -20,6 +29,9 @@ import hr.fer.zemris.math.DoubleUtil;
  */
 public class RayCasterUtil {
 
+	/** Radni prostor svake dretve, kako bacanje zrake ne bi zauzimalo memoriju */
+	private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
 	/**
 	 * Metoda koja vrši bacanje zrake predstavljene sa primjerkom razreda
 	 * {@link Ray} <b>ray</b> unutar scene <b>scene</b>
@@ -30,134 +42,348 @@ public class RayCasterUtil {
 	 *            zraka koja se baca
 	 * @param rgb
 	 *            rgb za točku na sceni koju pogađa ova zraka
+	 * @return broj bačenih zraka, zajedno sa zrakama prema izvorima svjetlosti.
+	 *         Svaka bačena zraka ispituje sjecište sa svim objektima scene
 	 */
-	public static void tracer(Scene scene, Ray ray, short[] rgb) {
+	public static int tracer(Scene scene, Ray ray, short[] rgb) {
+		return tracer(CompiledScene.linear(scene), ray, rgb);
+	}
+
+	/**
+	 * Metoda koja vrši bacanje zrake predstavljene sa primjerkom razreda
+	 * {@link Ray} <b>ray</b> unutar pripremljene scene <b>scene</b>. Sjecišta
+	 * zrake od očišta i zraka prema izvorima svjetlosti traže se kroz
+	 * hijerarhiju pripremljene scene ukoliko je ima, pa se ne ispituju svi
+	 * objekti scene.
+	 *
+	 * @param scene
+	 *            pripremljena scena unutar koje se vrši bacanje zrake
+	 * @param ray
+	 *            zraka koja se baca
+	 * @param rgb
+	 *            rgb za točku na sceni koju pogađa ova zraka
+	 * @return broj bačenih zraka, zajedno sa zrakama prema izvorima svjetlosti
+	 */
+	public static int tracer(CompiledScene scene, Ray ray, short[] rgb) {
 		rgb[0] = 0;
 		rgb[1] = 0;
 		rgb[2] = 0;
 
-		RayIntersection closest = findClosestIntersection(scene, ray);
-		if (closest == null) {
-			return;
+		Scratch scratch = SCRATCH.get();
+		if (!findClosestSurface(scene, ray, scratch.surface)) {
+			return 1;
 		}
 
-		findPixelColor(closest, scene, ray, rgb);
+		findPixelColor(scratch, scene, ray.direction, rgb, 0);
+		return 1 + scene.getLightCount();
+	}
+
+	/**
+	 * Metoda koja vrši bacanje svih zraka paketa <b>packet</b> unutar
+	 * pripremljene scene <b>scene</b>. Najbliža sjecišta traže se za cijeli
+	 * paket odjednom, kroz hijerarhiju scene ukoliko je ima, a inače
+	 * ispitivanjem svih objekata scene nad cijelim paketom. Identifikatori
+	 * pogođenih objekata ostaju zapisani u paketu (vidi
+	 * {@link CompiledScene#getObject(int)}). Podaci o sjecištu zatim se
+	 * računaju samo za zrake koje su nešto pogodile, a zrake prema izvorima
+	 * svjetlosti nisu međusobno usklađene, pa se bacaju pojedinačno. Boja
+	 * zrake u traci <i>i</i> zapisuje se u <b>rgb</b> na indekse <i>3i</i>,
+	 * <i>3i + 1</i> i <i>3i + 2</i>.
+	 *
+	 * @param scene
+	 *            pripremljena scena unutar koje se vrši bacanje zrake
+	 * @param packet
+	 *            paket zraka koje se bacaju
+	 * @param rgb
+	 *            rgb za točke na sceni koje pogađaju zrake paketa
+	 * @return broj bačenih zraka, zajedno sa zrakama prema izvorima svjetlosti
+	 */
+	public static int tracer(CompiledScene scene, RayPacket packet, short[] rgb) {
+		BoundingVolumeHierarchy hierarchy = scene.getHierarchy();
+		if (hierarchy != null) {
+			hierarchy.findClosestIntersections(packet);
+		} else {
+			List<GraphicalObject> objects = scene.getObjects();
+			int mask = packet.getMask();
+			for (int i = 0, size = objects.size(); i < size; i++) {
+				BoundingVolumeHierarchy.intersect(objects.get(i), packet, mask, i);
+			}
+		}
+
+		Scratch scratch = SCRATCH.get();
+		Ray ray = scratch.laneRay;
+		int rays = packet.size();
+		for (int lane = 0, size = packet.size(); lane < size; lane++) {
+			int offset = 3 * lane;
+			rgb[offset] = 0;
+			rgb[offset + 1] = 0;
+			rgb[offset + 2] = 0;
+
+			int id = packet.hit[lane];
+			if (id == RayPacket.NO_HIT) {
+				continue;
+			}
+
+			ray.start.x = packet.startX[lane];
+			ray.start.y = packet.startY[lane];
+			ray.start.z = packet.startZ[lane];
+			ray.direction.x = packet.directionX[lane];
+			ray.direction.y = packet.directionY[lane];
+			ray.direction.z = packet.directionZ[lane];
+			if (scene.findSurface(id, ray, scratch.surface)) {
+				findPixelColor(scratch, scene, ray.direction, rgb, offset);
+				rays += scene.getLightCount();
+			}
+		}
+		return rays;
+	}
+
+	/**
+	 * Metoda pakira boju zapisanu u <b>rgb</b> na indeksima <b>offset</b>,
+	 * <b>offset</b> + 1 i <b>offset</b> + 2 u slikovni element oblika
+	 * <code>0xAARRGGBB</code> (vidi {@link IRayTracerArgbObserver}).
+	 * Komponente se ograničavaju na raspon od 0 do 255.
+	 *
+	 * @param rgb
+	 *            komponente boje
+	 * @param offset
+	 *            indeks crvene komponente
+	 * @return zapakirani slikovni element
+	 */
+	public static int toArgb(short[] rgb, int offset) {
+		return 0xFF000000 | clamp(rgb[offset]) << 16 | clamp(rgb[offset + 1]) << 8 | clamp(rgb[offset + 2]);
+	}
+
+	/**
+	 * Pomoćna metoda koja ograničava komponentu boje na raspon od 0 do 255
+	 *
+	 * @param component
+	 *            komponenta boje
+	 * @return ograničena komponenta
+	 */
+	private static int clamp(short component) {
+		return component > 255 ? 255 : component < 0 ? 0 : component;
+	}
+
+	/**
+	 * Metoda dohvaća međuspremnik u koji se zapisuje slika zahtjeva
+	 * <b>requestNo</b>: onaj koji nudi promatrač <b>observer</b> ili, ukoliko
+	 * ga ne nudi, novi međuspremnik nad poljem od <b>width</b> *
+	 * <b>height</b> elemenata.
+	 *
+	 * @param observer
+	 *            promatrač koji prima sliku
+	 * @param width
+	 *            širina slike
+	 * @param height
+	 *            visina slike
+	 * @param requestNo
+	 *            redni broj zahtjeva
+	 * @return međuspremnik u koji se zapisuje slika
+	 * @throws IllegalArgumentException
+	 *             ukoliko je ponuđeni međuspremnik nepromjenjiv ili premalen
+	 */
+	static IntBuffer acquireBuffer(IRayTracerArgbObserver observer, int width, int height, long requestNo) {
+		int pixels = width * height;
+		IntBuffer buffer = observer.acquireBuffer(width, height, requestNo);
+		if (buffer == null) {
+			return IntBuffer.wrap(new int[pixels]);
+		}
+		if (buffer.isReadOnly()) {
+			throw new IllegalArgumentException("Međuspremnik slike mora biti promjenjiv!");
+		}
+		if (buffer.limit() < pixels) {
+			throw new IllegalArgumentException(
+					"Međuspremnik slike mora imati barem " + pixels + " elemenata, a ima " + buffer.limit());
+		}
+		return buffer;
 	}
 
 	/**
 	 * Pomoćna metoda koja koja započinje bojanje točke sjecišta zrake i tijela
 	 * oblikovanog sučelje {@link GraphicalObject} u sceni s kojim se našlo
-	 * presjecište.
+	 * presjecište. Točka sjecišta zapisana je u {@link Scratch#surface}, a
+	 * zrake sjene bacaju se kroz {@link Scratch#shadowRay}, pa metoda ne
+	 * zauzima memoriju.
 	 *
-	 * @param closest
-	 *            najbliže sjecište zrake od očišta i nekog objekta u sceni
+	 * @param scratch
+	 *            radni prostor dretve
 	 * @param scene
-	 *            scena unutar koje se vrši bacanje zrake
-	 * @param ray
-	 *            zraka koja se baca
+	 *            pripremljena scena unutar koje se vrši bacanje zrake
+	 * @param eyeDirection
+	 *            smjer zrake od očišta
 	 * @param rgb
 	 *            rgb za točku na sceni koju pogađa ova zraka
+	 * @param offset
+	 *            indeks crvene komponente u <b>rgb</b>
 	 */
-	private static void findPixelColor(RayIntersection closest, Scene scene, Ray ray, short[] rgb) {
+	private static void findPixelColor(Scratch scratch, CompiledScene scene, Point3D eyeDirection, short[] rgb,
+			int offset) {
 		// ambijentna komponenta
-		rgb[0] = 15;
-		rgb[1] = 15;
-		rgb[2] = 15;
+		rgb[offset] = 15;
+		rgb[offset + 1] = 15;
+		rgb[offset + 2] = 15;
 
-		for (LightSource lightSource : scene.getLights()) {
-			Point3D lsPoint = lightSource.getPoint();
-			Point3D closestPoint = closest.getPoint();
-			Ray lightSourceRay = Ray.fromPoints(lsPoint, closestPoint);
-			RayIntersection closestToLightSource = findClosestIntersection(scene, lightSourceRay);
+		SurfacePoint surface = scratch.surface;
+		Ray lightSourceRay = scratch.shadowRay;
+		Point3D lsStart = lightSourceRay.start;
+		Point3D vectorLS = lightSourceRay.direction;
+		for (int light = 0, count = scene.getLightCount(); light < count; light++) {
+			Point3D lsPoint = scene.getLightPoint(light);
+			double x = surface.x - lsPoint.x;
+			double y = surface.y - lsPoint.y;
+			double z = surface.z - lsPoint.z;
+			double distanceIntersection = Math.sqrt(x * x + y * y + z * z);
 
-			double distanceLS = closestToLightSource.getDistance();
-			double distanceIntersection = closestPoint.sub(lsPoint).norm();
+			// normira se jednako kao u metodi Ray.fromPoints
+			lsStart.x = lsPoint.x;
+			lsStart.y = lsPoint.y;
+			lsStart.z = lsPoint.z;
+			if (distanceIntersection < 1E-9) {
+				vectorLS.x = 0;
+				vectorLS.y = 0;
+				vectorLS.z = 0;
+			} else {
+				vectorLS.x = x / distanceIntersection;
+				vectorLS.y = y / distanceIntersection;
+				vectorLS.z = z / distanceIntersection;
+			}
 
-			if (DoubleUtil.DOUBLE_COMPARATOR.compare(distanceLS, distanceIntersection) < 0) {
+			// točku zaklanja sve što je izvoru bliže za više od DIFF
+			if (isOccluded(scene, lightSourceRay, distanceIntersection - DoubleUtil.DIFF)) {
 				continue;
 			}
 
-			findLightSourceInfluence(lightSource, lightSourceRay, ray, closest, distanceIntersection, rgb);
+			findLightSourceInfluence(scene, light, vectorLS, eyeDirection, surface, distanceIntersection, rgb,
+					offset);
 		}
 	}
 
 	/**
 	 * Pomoćna metoda koja za pojedini izvor svjetlosti traži utjecaj na
-	 * presjecište <b>closest</b>
+	 * točku sjecišta <b>surface</b>
 	 *
-	 * @param lightSource
-	 *            izvor svjetlosti
-	 * @param lightSourceRay
-	 *            zraka od izvora svjetlosti
-	 * @param fromEyeRay
-	 *            zraka od očišta
-	 * @param closest
+	 * @param scene
+	 *            pripremljena scena unutar koje se vrši bacanje zrake
+	 * @param light
+	 *            indeks izvora svjetlosti
+	 * @param vectorLS
+	 *            smjer zrake od izvora svjetlosti
+	 * @param vectorEye
+	 *            smjer zrake od očišta
+	 * @param surface
 	 *            najbliže sjecište zrake od očišta i nekog objekta u sceni
 	 * @param distanceLS
 	 *            udaljenost od izvora svjetlosti
 	 * @param rgb
 	 *            rgb za točku na sceni koju pogađa ova zraka
+	 * @param offset
+	 *            indeks crvene komponente u <b>rgb</b>
 	 */
-	private static void findLightSourceInfluence(LightSource lightSource, Ray lightSourceRay, Ray fromEyeRay,
-			RayIntersection closest, double distanceLS, short[] rgb) {
-		Point3D normal = closest.getNormal();
-		Point3D vectorLS = lightSourceRay.direction;
-		Point3D reflectedVector = getReflectedVector(vectorLS, normal);
-		Point3D vectorEye = fromEyeRay.direction;
+	private static void findLightSourceInfluence(CompiledScene scene, int light, Point3D vectorLS,
+			Point3D vectorEye, SurfacePoint surface, double distanceLS, short[] rgb, int offset) {
 		if (DoubleUtil.doubleEquals(distanceLS, 0)) {
 			return;
 		}
 
-		double diffuseCoef = Math.abs(vectorLS.scalarProduct(normal));
-		double reflectiveCoef = Math.abs(Math.pow(reflectedVector.scalarProduct(vectorEye), closest.getKrn()));
+		double nx = surface.normalX;
+		double ny = surface.normalY;
+		double nz = surface.normalZ;
+		double diffuseCoef = Math.abs(vectorLS.x * nx + vectorLS.y * ny + vectorLS.z * nz);
 
-		rgb[0] += lightSource.getR() * (closest.getKdr() * diffuseCoef + closest.getKrr() * reflectiveCoef);
-		rgb[1] += lightSource.getG() * (closest.getKdg() * diffuseCoef + closest.getKrg() * reflectiveCoef);
-		rgb[2] += lightSource.getB() * (closest.getKdb() * diffuseCoef + closest.getKrb() * reflectiveCoef);
+		// reflektirani vektor: n * 2(n . l) - l
+		double scale = (nx * vectorLS.x + ny * vectorLS.y + nz * vectorLS.z) * 2;
+		double rx = scale * nx - vectorLS.x;
+		double ry = scale * ny - vectorLS.y;
+		double rz = scale * nz - vectorLS.z;
+		double reflectiveCoef = Math.abs(Math.pow(rx * vectorEye.x + ry * vectorEye.y + rz * vectorEye.z,
+				surface.krn));
 
+		rgb[offset] += scene.getLightR(light) * (surface.kdr * diffuseCoef + surface.krr * reflectiveCoef);
+		rgb[offset + 1] += scene.getLightG(light) * (surface.kdg * diffuseCoef + surface.krg * reflectiveCoef);
+		rgb[offset + 2] += scene.getLightB(light) * (surface.kdb * diffuseCoef + surface.krb * reflectiveCoef);
 	}
 
 	/**
-	 * Pomoćna metoda koja dohvaća reflektirani vektor od <b>direction</b> i
-	 * <b>normal</b>
+	 * Pomoćna metoda koja ispituje siječe li zraka sjene neki element scene
+	 * prije udaljenosti <b>maxDistance</b>. Ispitivanje staje na prvom takvom
+	 * elementu.
 	 *
-	 * @param direction
-	 *            vektor koji se reflektira
-	 * @param normal
-	 *            vektor obzirom na koji se reflektira
-	 * @return reflektirani vektor oblikovan sa razredom {@link Point3D}
+	 * @param scene
+	 *            pripremljena scena unutar koje se baca zraka
+	 * @param ray
+	 *            zraka sjene
+	 * @param maxDistance
+	 *            udaljenost od ishodišta zrake do koje se sjecište traži
+	 * @return <code>true</code> ukoliko neki element scene siječe zraku prije
+	 *         udaljenosti <b>maxDistance</b>
 	 */
-	private static Point3D getReflectedVector(Point3D direction, Point3D normal) {
-		return normal.scalarMultiply(normal.scalarProduct(direction) * 2).modifySub(direction);
+	private static boolean isOccluded(CompiledScene scene, Ray ray, double maxDistance) {
+		BoundingVolumeHierarchy hierarchy = scene.getHierarchy();
+		if (hierarchy != null) {
+			return hierarchy.isOccluded(ray, maxDistance);
+		}
+
+		List<GraphicalObject> objects = scene.getObjects();
+		for (int i = 0, size = objects.size(); i < size; i++) {
+			if (BoundingVolumeHierarchy.occludes(objects.get(i), ray, maxDistance)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
 	 * Pomoćna metoda koja pronalazi najbliže sjecište zrake i elemenata u
-	 * sceni. Sjecište je oblikovano sučelje {@link RayIntersection}
+	 * sceni i zapisuje ga u <b>surface</b>
 	 *
 	 * @param scene
-	 *            scena unutar koje se baca zraka
+	 *            pripremljena scena unutar koje se baca zraka
 	 * @param ray
 	 *            zraka koja se baca
-	 * @return najbliže sjecište nekog elementa u sceni ili <code>null</code> ukoliko zraka
-	 *         nema sjecište niti s jednim objektom u sceni
+	 * @param surface
+	 *            primjerak u koji se zapisuju podaci o sjecištu
+	 * @return <code>true</code> ukoliko zraka siječe neki objekt u sceni
 	 */
-	private static RayIntersection findClosestIntersection(Scene scene, Ray ray) {
-		double minDistance = Double.MAX_VALUE;
-		RayIntersection closestIntersection = null;
-		for (GraphicalObject go : scene.getObjects()) {
-			RayIntersection intersection = go.findClosestRayIntersection(ray);
-			if (intersection == null) {
-				continue;
-			}
+	private static boolean findClosestSurface(CompiledScene scene, Ray ray, SurfacePoint surface) {
+		BoundingVolumeHierarchy hierarchy = scene.getHierarchy();
+		if (hierarchy != null) {
+			return hierarchy.findClosestSurface(ray, surface);
+		}
 
-			double distance = intersection.getDistance();
-			if (closestIntersection == null || distance < minDistance) {
-				closestIntersection = intersection;
+		List<GraphicalObject> objects = scene.getObjects();
+		double minDistance = Double.POSITIVE_INFINITY;
+		GraphicalObject closestObject = null;
+		for (int i = 0, size = objects.size(); i < size; i++) {
+			GraphicalObject go = objects.get(i);
+			double distance = BoundingVolumeHierarchy.distance(go, ray);
+			if (distance < minDistance) {
+				closestObject = go;
 				minDistance = distance;
 			}
 		}
 
-		return closestIntersection != null ? closestIntersection : null;
+		// podaci o sjecištu računaju se samo za najbliži objekt
+		return closestObject != null && BoundingVolumeHierarchy.surface(closestObject, ray, surface);
+	}
+
+	/**
+	 * Razred predstavlja radni prostor jedne dretve: točku površine u koju se
+	 * zapisuje najbliže sjecište te zrake čije se ishodište i smjer
+	 * prepisuju za svaku zraku sjene i svaku traku paketa. Zrake imaju
+	 * vlastite točke, pa se prepisivanjem ne mijenjaju točke scene.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static final class Scratch {
+
+		/** Točka površine najbližeg sjecišta */
+		private final SurfacePoint surface = new SurfacePoint();
+
+		/** Zraka od izvora svjetlosti prema točki sjecišta */
+		private final Ray shadowRay = new Ray(new Point3D(), new Point3D());
+
+		/** Zraka trake paketa */
+		private final Ray laneRay = new Ray(new Point3D(), new Point3D());
 	}
 }
@@ -0,0 +1,69 @@
+package hr.fer.zemris.java.raytracer;
+
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+import hr.fer.zemris.java.raytracer.model.Scene;
+
+/**
+ * Razred koji čuva zadnju pripremljenu scenu (vidi {@link CompiledScene}).
+ * Scena se ponovno priprema samo kada se zatraži druga scena ili kada se
+ * zatražena scena u međuvremenu promijenila, pa zahtjevi koji mijenjaju samo
+ * položaj promatrača plaćaju samo bacanje zraka.
+ *
+ * @see CompiledScene
+ *
+ * @author Davor Češljaš
+ */
+public class SceneCache {
+
+	/**
+	 * Članska varijabla koja predstavlja primatelja broja ispitivanja sjecišta
+	 * unutar hijerarhija pripremljenih scena
+	 */
+	private final LongConsumer testCounter;
+
+	/** Članska varijabla koja predstavlja zadnju pripremljenu scenu */
+	private CompiledScene compiled;
+
+	/** Članska varijabla koja predstavlja broj priprema scene */
+	private long compilations;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param testCounter
+	 *            primatelj broja ispitivanja sjecišta ili <code>null</code>
+	 */
+	public SceneCache(LongConsumer testCounter) {
+		this.testCounter = testCounter;
+	}
+
+	/**
+	 * Metoda dohvaća pripremljenu scenu <b>scene</b>. Scena se priprema samo
+	 * ukoliko zadnja pripremljena scena ne odgovara sceni <b>scene</b>.
+	 *
+	 * @param scene
+	 *            scena koja se dohvaća
+	 * @return pripremljena scena
+	 * @throws NullPointerException
+	 *             ukoliko je <b>scene</b> <code>null</code>
+	 */
+	public synchronized CompiledScene get(Scene scene) {
+		Objects.requireNonNull(scene);
+		if (compiled == null || !compiled.isCompiledFrom(scene)) {
+			compiled = new CompiledScene(scene, testCounter);
+			compilations++;
+		}
+		return compiled;
+	}
+
+	/**
+	 * Metoda dohvaća koliko je puta scena pripremljena
+	 *
+	 * @return broj priprema scene
+	 */
+	public synchronized long getCompilations() {
+		return compilations;
+	}
+}
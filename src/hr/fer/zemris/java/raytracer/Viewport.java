@@ -0,0 +1,269 @@
+package hr.fer.zemris.java.raytracer;
+
+import java.util.Objects;
+
+import hr.fer.zemris.java.raytracer.model.Point3D;
+import hr.fer.zemris.java.raytracer.model.Ray;
+import hr.fer.zemris.java.raytracer.model.RayPacket;
+
+/**
+ * Razred predstavlja zaslon kroz koji se iz očišta promatra scena. Zaslon je
+ * zadan očištem, točkom u koju se gleda, smjerom "gore", širinom i visinom
+ * promatranog prostora te širinom i visinom rastera. Točka zaslona zadaje se
+ * koordinatama rastera: slikovni element (<i>x</i>, <i>y</i>) nalazi se u
+ * točki s cjelobrojnim koordinatama, a necjelobrojne koordinate predstavljaju
+ * točke između slikovnih elemenata.
+ * <p>
+ * Prilikom stvaranja zaslon se svodi na primitivnu bazu: vektor od očišta do
+ * gornjeg lijevog kuta zaslona te pomake između susjednih stupaca i susjednih
+ * redaka rastera. Smjer zrake kroz točku rastera (<i>x</i>, <i>y</i>) tada je
+ * zbroj vektora do kuta, <i>x</i> pomaka stupca i <i>y</i> pomaka retka, pa
+ * se zrake računaju nad primitivnim vrijednostima i ne zauzimaju memoriju.
+ * <p>
+ * Smjerovi se namjerno ne računaju postupno (dodavanjem pomaka stupca
+ * smjeru prethodnog slikovnog elementa), nego se pomaci množe koordinatama.
+ * Cijena je jedno množenje više po komponenti, a zauzvrat se pogreška
+ * zaokruživanja ne gomila duž retka i zraka kroz slikovni element ne ovisi o
+ * tome od kojeg stupca dio slike počinje. Programi {@link RayCaster} i
+ * {@link RayCasterParallel} stoga bacaju jednake zrake, a slike su jednake
+ * onima dobivenima izravnim izračunom točke zaslona i
+ * {@link Ray#fromPoints(Point3D, Point3D)}.
+ *
+ * @author Davor Češljaš
+ */
+public final class Viewport {
+
+	/** Članska varijabla koja predstavlja očište */
+	private final Point3D eye;
+
+	/** Članska varijabla koja predstavlja jedinični vektor osi x zaslona */
+	private final Point3D xAxis;
+
+	/** Članska varijabla koja predstavlja jedinični vektor osi y zaslona */
+	private final Point3D yAxis;
+
+	/** Članska varijabla koja predstavlja gornji lijevi kut zaslona */
+	private final Point3D screenCorner;
+
+	/** Članska varijabla koja predstavlja širinu promatranog prostora */
+	private final double horizontal;
+
+	/** Članska varijabla koja predstavlja visinu promatranog prostora */
+	private final double vertical;
+
+	/** Koordinata x vektora od očišta do gornjeg lijevog kuta zaslona */
+	private final double cornerX;
+
+	/** Koordinata y vektora od očišta do gornjeg lijevog kuta zaslona */
+	private final double cornerY;
+
+	/** Koordinata z vektora od očišta do gornjeg lijevog kuta zaslona */
+	private final double cornerZ;
+
+	/** Koordinata x pomaka između susjednih stupaca rastera */
+	private final double columnX;
+
+	/** Koordinata y pomaka između susjednih stupaca rastera */
+	private final double columnY;
+
+	/** Koordinata z pomaka između susjednih stupaca rastera */
+	private final double columnZ;
+
+	/** Koordinata x pomaka između susjednih redaka rastera */
+	private final double rowX;
+
+	/** Koordinata y pomaka između susjednih redaka rastera */
+	private final double rowY;
+
+	/** Koordinata z pomaka između susjednih redaka rastera */
+	private final double rowZ;
+
+	/** Članska varijabla koja predstavlja širinu rastera */
+	private final int width;
+
+	/** Članska varijabla koja predstavlja visinu rastera */
+	private final int height;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param eye
+	 *            očište
+	 * @param view
+	 *            točka u koju se gleda
+	 * @param viewUp
+	 *            smjer "gore"
+	 * @param horizontal
+	 *            horizontalna širina promatranog prostora
+	 * @param vertical
+	 *            vertikalna visina promatranog prostora
+	 * @param width
+	 *            širina rastera
+	 * @param height
+	 *            visina rastera
+	 * @throws IllegalArgumentException
+	 *             ukoliko širina ili visina rastera nije pozitivna
+	 */
+	public Viewport(Point3D eye, Point3D view, Point3D viewUp, double horizontal, double vertical, int width,
+			int height) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException(
+					"Dimenzije rastera moraju biti pozitivne, a predane su " + width + "x" + height);
+		}
+
+		this.eye = Objects.requireNonNull(eye);
+		this.horizontal = horizontal;
+		this.vertical = vertical;
+		this.width = width;
+		this.height = height;
+
+		Point3D zAxis = view.sub(eye).normalize();
+		yAxis = viewUp.sub(zAxis.scalarMultiply(zAxis.scalarProduct(viewUp))).modifyNormalize();
+		xAxis = zAxis.vectorProduct(yAxis).modifyNormalize();
+
+		screenCorner = view.sub(xAxis.scalarMultiply(horizontal / 2)).add(yAxis.scalarMultiply(vertical / 2));
+
+		cornerX = screenCorner.x - eye.x;
+		cornerY = screenCorner.y - eye.y;
+		cornerZ = screenCorner.z - eye.z;
+		double column = horizontal / (width - 1);
+		columnX = xAxis.x * column;
+		columnY = xAxis.y * column;
+		columnZ = xAxis.z * column;
+		// negiran !
+		double row = -vertical / (height - 1);
+		rowX = yAxis.x * row;
+		rowY = yAxis.y * row;
+		rowZ = yAxis.z * row;
+	}
+
+	/**
+	 * Metoda dohvaća očište
+	 *
+	 * @return očište
+	 */
+	public Point3D getEye() {
+		return eye;
+	}
+
+	/**
+	 * Metoda dohvaća jedinični vektor osi x zaslona
+	 *
+	 * @return jedinični vektor osi x
+	 */
+	public Point3D getXAxis() {
+		return xAxis;
+	}
+
+	/**
+	 * Metoda dohvaća jedinični vektor osi y zaslona
+	 *
+	 * @return jedinični vektor osi y
+	 */
+	public Point3D getYAxis() {
+		return yAxis;
+	}
+
+	/**
+	 * Metoda dohvaća gornji lijevi kut zaslona, odnosno točku slikovnog
+	 * elementa (0,0)
+	 *
+	 * @return gornji lijevi kut zaslona
+	 */
+	public Point3D getScreenCorner() {
+		return screenCorner;
+	}
+
+	/**
+	 * Metoda dohvaća horizontalnu širinu promatranog prostora
+	 *
+	 * @return širina promatranog prostora
+	 */
+	public double getHorizontal() {
+		return horizontal;
+	}
+
+	/**
+	 * Metoda dohvaća vertikalnu visinu promatranog prostora
+	 *
+	 * @return visina promatranog prostora
+	 */
+	public double getVertical() {
+		return vertical;
+	}
+
+	/**
+	 * Metoda dohvaća širinu rastera
+	 *
+	 * @return širina rastera
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Metoda dohvaća visinu rastera
+	 *
+	 * @return visina rastera
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Metoda postavlja zraku <b>ray</b> od očišta kroz točku zaslona s
+	 * koordinatama rastera (<b>x</b>, <b>y</b>). Smjer se normira jednako kao
+	 * u metodi {@link Ray#fromPoints(Point3D, Point3D)}. Mijenjaju se
+	 * koordinate točaka zrake, pa zraka mora imati vlastite točke, a zrake
+	 * kroz različite točke rastera mogu se bacati istim primjerkom bez
+	 * zauzimanja memorije.
+	 *
+	 * @param ray
+	 *            zraka koja se postavlja
+	 * @param x
+	 *            koordinata x rastera
+	 * @param y
+	 *            koordinata y rastera
+	 */
+	public void aim(Ray ray, double x, double y) {
+		double dx = cornerX + y * rowX + x * columnX;
+		double dy = cornerY + y * rowY + x * columnY;
+		double dz = cornerZ + y * rowZ + x * columnZ;
+		double norm = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		Point3D direction = ray.direction;
+		if (norm < 1E-9) {
+			direction.x = 0;
+			direction.y = 0;
+			direction.z = 0;
+		} else {
+			direction.x = dx / norm;
+			direction.y = dy / norm;
+			direction.z = dz / norm;
+		}
+
+		Point3D start = ray.start;
+		start.x = eye.x;
+		start.y = eye.y;
+		start.z = eye.z;
+	}
+
+	/**
+	 * Metoda dodaje u paket <b>packet</b> zraku od očišta kroz točku zaslona s
+	 * koordinatama rastera (<b>x</b>, <b>y</b>). Zraka je jednaka onoj koju
+	 * postavlja metoda {@link #aim(Ray, double, double)}.
+	 *
+	 * @param packet
+	 *            paket u koji se dodaje zraka
+	 * @param x
+	 *            koordinata x rastera
+	 * @param y
+	 *            koordinata y rastera
+	 * @return traka u koju je zraka dodana
+	 * @throws IllegalStateException
+	 *             ukoliko je paket pun
+	 */
+	public int addRay(RayPacket packet, double x, double y) {
+		return packet.addDirection(eye, cornerX + y * rowX + x * columnX, cornerY + y * rowY + x * columnY,
+				cornerZ + y * rowZ + x * columnZ);
+	}
+}
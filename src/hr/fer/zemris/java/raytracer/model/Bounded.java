@@ -0,0 +1,22 @@
+package hr.fer.zemris.java.raytracer.model;
+
+/**
+ * Sučelje koje implementiraju grafički objekti ({@link GraphicalObject}) čiji
+ * je prostor omeđen. Takvi objekti mogu se smjestiti u hijerarhiju omeđujućih
+ * volumena ({@link hr.fer.zemris.java.raytracer.BoundingVolumeHierarchy}), pa
+ * se sjecište sa zrakom ispituje samo za objekte čiji kvadar zraka pogađa.
+ *
+ * @see BoundingBox
+ * @see Sphere
+ *
+ * @author Davor Češljaš
+ */
+public interface Bounded {
+
+	/**
+	 * Metoda koja vraća kvadar poravnat s osima koji sadrži cijeli objekt.
+	 *
+	 * @return kvadar koji sadrži cijeli objekt
+	 */
+	BoundingBox getBounds();
+}
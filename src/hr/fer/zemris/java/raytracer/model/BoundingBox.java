@@ -0,0 +1,135 @@
+package hr.fer.zemris.java.raytracer.model;
+
+/**
+ * Razred predstavlja kvadar poravnat s koordinatnim osima (engl.
+ * <i>axis-aligned bounding box</i>) zadan najmanjom i najvećom koordinatom po
+ * svakoj osi. Osi su označene indeksima 0 (x), 1 (y) i 2 (z). Razred je
+ * nepromijenjiv.
+ *
+ * @see Bounded
+ *
+ * @author Davor Češljaš
+ */
+public final class BoundingBox {
+
+	/** Najmanje koordinate kvadra, redom po osima x, y i z */
+	private final double[] min;
+
+	/** Najveće koordinate kvadra, redom po osima x, y i z */
+	private final double[] max;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param minX
+	 *            najmanja koordinata x
+	 * @param minY
+	 *            najmanja koordinata y
+	 * @param minZ
+	 *            najmanja koordinata z
+	 * @param maxX
+	 *            najveća koordinata x
+	 * @param maxY
+	 *            najveća koordinata y
+	 * @param maxZ
+	 *            najveća koordinata z
+	 * @throws IllegalArgumentException
+	 *             ukoliko je neka najmanja koordinata veća od odgovarajuće
+	 *             najveće koordinate ili nije broj
+	 */
+	public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+		if (!(minX <= maxX && minY <= maxY && minZ <= maxZ)) {
+			throw new IllegalArgumentException("Neispravne granice kvadra: (" + minX + ", " + minY + ", " + minZ
+					+ ") - (" + maxX + ", " + maxY + ", " + maxZ + ")");
+		}
+
+		this.min = new double[] { minX, minY, minZ };
+		this.max = new double[] { maxX, maxY, maxZ };
+	}
+
+	/**
+	 * Metoda tvornica koja stvara najmanji kvadar koji sadrži kuglu sa
+	 * središtem <b>center</b> i polumjerom <b>radius</b>.
+	 *
+	 * @param center
+	 *            središte kugle
+	 * @param radius
+	 *            polumjer kugle
+	 * @return kvadar koji sadrži kuglu
+	 * @throws IllegalArgumentException
+	 *             ukoliko je polumjer negativan
+	 */
+	public static BoundingBox ofSphere(Point3D center, double radius) {
+		if (radius < 0) {
+			throw new IllegalArgumentException("Polumjer ne smije biti negativan, a predan je " + radius);
+		}
+
+		return new BoundingBox(center.x - radius, center.y - radius, center.z - radius, center.x + radius,
+				center.y + radius, center.z + radius);
+	}
+
+	/**
+	 * Metoda dohvaća najmanju koordinatu kvadra po osi <b>axis</b>
+	 *
+	 * @param axis
+	 *            indeks osi (0, 1 ili 2)
+	 * @return najmanja koordinata po osi
+	 */
+	public double getMin(int axis) {
+		return min[axis];
+	}
+
+	/**
+	 * Metoda dohvaća najveću koordinatu kvadra po osi <b>axis</b>
+	 *
+	 * @param axis
+	 *            indeks osi (0, 1 ili 2)
+	 * @return najveća koordinata po osi
+	 */
+	public double getMax(int axis) {
+		return max[axis];
+	}
+
+	/**
+	 * Metoda dohvaća koordinatu središta kvadra po osi <b>axis</b>
+	 *
+	 * @param axis
+	 *            indeks osi (0, 1 ili 2)
+	 * @return koordinata središta po osi
+	 */
+	public double getCenter(int axis) {
+		return (min[axis] + max[axis]) / 2;
+	}
+
+	/**
+	 * Metoda računa oplošje kvadra
+	 *
+	 * @return oplošje kvadra
+	 */
+	public double getSurfaceArea() {
+		double dx = max[0] - min[0];
+		double dy = max[1] - min[1];
+		double dz = max[2] - min[2];
+		return 2 * (dx * dy + dy * dz + dz * dx);
+	}
+
+	/**
+	 * Metoda stvara najmanji kvadar koji sadrži ovaj kvadar i kvadar
+	 * <b>other</b>
+	 *
+	 * @param other
+	 *            drugi kvadar
+	 * @return kvadar koji sadrži oba kvadra
+	 */
+	public BoundingBox union(BoundingBox other) {
+		return new BoundingBox(Math.min(min[0], other.min[0]), Math.min(min[1], other.min[1]),
+				Math.min(min[2], other.min[2]), Math.max(max[0], other.max[0]), Math.max(max[1], other.max[1]),
+				Math.max(max[2], other.max[2]));
+	}
+
+	@Override
+	public String toString() {
+		return "[(" + min[0] + ", " + min[1] + ", " + min[2] + ") - (" + max[0] + ", " + max[1] + ", " + max[2]
+				+ ")]";
+	}
+}
@@ -0,0 +1,96 @@
+package hr.fer.zemris.java.raytracer.model;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.nio.IntBuffer;
+
+/**
+ * Sučelje predstavlja promatrača koji prima sliku izračunatu bacanjem zraka
+ * kao slikovne elemente zapakirane u po jedan <code>int</code> oblika
+ * <code>0xAARRGGBB</code>, s neprozirnom komponentom <code>0xFF</code>. Boja
+ * slikovnog elementa (<i>x</i>, <i>y</i>) nalazi se na indeksu
+ * <i>y * width + x</i> međuspremnika. Za razliku od promatrača
+ * {@link IRayTracerResultObserver}, koji prima tri polja tipa
+ * <code>short</code>, slika zauzima upola manje memorije i ne treba je
+ * naknadno spajati u sliku za prikaz.
+ * <p>
+ * Promatrač može sam ponuditi međuspremnik u koji se slika zapisuje (vidi
+ * {@link #acquireBuffer(int, int, long)}), npr. polje slike
+ * {@link BufferedImage} dohvaćeno metodom {@link #wrap(BufferedImage)}, pa
+ * proizvođač slikovne elemente zapisuje izravno u sliku koja se prikazuje.
+ *
+ * @see IRayTracerArgbProducer
+ * @see RayTracerResultAdapter
+ *
+ * @author Davor Češljaš
+ */
+public interface IRayTracerArgbObserver {
+
+	/**
+	 * Metoda dohvaća međuspremnik u koji se zapisuje slika zahtjeva
+	 * <b>requestNo</b>. Slikovni elementi zapisuju se od indeksa 0, pa
+	 * međuspremnik mora biti promjenjiv i imati granicu od barem
+	 * <b>width</b> * <b>height</b> elemenata. Podrazumijevana implementacija
+	 * vraća <code>null</code>, pa proizvođač stvara vlastiti međuspremnik.
+	 *
+	 * @param width
+	 *            širina slike
+	 * @param height
+	 *            visina slike
+	 * @param requestNo
+	 *            redni broj zahtjeva
+	 * @return međuspremnik u koji se zapisuje slika ili <code>null</code>
+	 */
+	default IntBuffer acquireBuffer(int width, int height, long requestNo) {
+		return null;
+	}
+
+	/**
+	 * Metoda kojom proizvođač dojavljuje da je slika zahtjeva
+	 * <b>requestNo</b> zapisana u međuspremnik <b>argb</b>. Ukoliko je
+	 * promatrač ponudio međuspremnik, predaje se upravo taj međuspremnik.
+	 *
+	 * @param argb
+	 *            međuspremnik sa slikovnim elementima oblika
+	 *            <code>0xAARRGGBB</code>
+	 * @param width
+	 *            širina slike
+	 * @param height
+	 *            visina slike
+	 * @param requestNo
+	 *            redni broj zahtjeva
+	 */
+	void acceptResult(IntBuffer argb, int width, int height, long requestNo);
+
+	/**
+	 * Metoda omata polje slikovnih elemenata slike <b>image</b> u
+	 * međuspremnik, bez kopiranja. Slika mora biti tipa
+	 * {@link BufferedImage#TYPE_INT_ARGB} ili
+	 * {@link BufferedImage#TYPE_INT_RGB} i ne smije biti dio veće slike.
+	 *
+	 * @param image
+	 *            slika čije se polje omata
+	 * @return međuspremnik nad poljem slike
+	 * @throws IllegalArgumentException
+	 *             ukoliko slika nije traženog tipa ili je dio veće slike
+	 */
+	static IntBuffer wrap(BufferedImage image) {
+		int type = image.getType();
+		if (type != BufferedImage.TYPE_INT_ARGB && type != BufferedImage.TYPE_INT_RGB) {
+			throw new IllegalArgumentException("Slika mora biti tipa TYPE_INT_ARGB ili TYPE_INT_RGB, a predan je tip "
+					+ type);
+		}
+
+		Raster raster = image.getRaster();
+		DataBuffer buffer = raster.getDataBuffer();
+		if (raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+				|| buffer.getOffset() != 0 || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)
+				|| ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride() != image.getWidth()) {
+			throw new IllegalArgumentException("Slika ne smije biti dio veće slike!");
+		}
+		return IntBuffer.wrap(((DataBufferInt) buffer).getData(), 0, image.getWidth() * image.getHeight());
+	}
+}
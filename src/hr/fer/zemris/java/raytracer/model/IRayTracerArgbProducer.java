@@ -0,0 +1,62 @@
+package hr.fer.zemris.java.raytracer.model;
+
+/**
+ * Sučelje predstavlja proizvođača slike bacanjem zraka koji slikovne elemente
+ * zapisuje zapakirane u po jedan <code>int</code> (vidi
+ * {@link IRayTracerArgbObserver}), izravno iz petlje koja baca zrake.
+ * Proizvođač i dalje zna poslužiti promatrača {@link IRayTracerResultObserver}:
+ * metoda
+ * {@link #produce(Point3D, Point3D, Point3D, double, double, int, int, long, IRayTracerResultObserver)}
+ * sliku računa jednako, a promatraču je predaje kroz
+ * {@link RayTracerResultAdapter}.
+ *
+ * @see IRayTracerArgbObserver
+ *
+ * @author Davor Češljaš
+ */
+public interface IRayTracerArgbProducer extends IRayTracerProducer {
+
+	/**
+	 * Metoda računa sliku scene i zapisuje je u međuspremnik promatrača
+	 * <b>observer</b> (ili u vlastiti, ukoliko ga promatrač ne ponudi), a
+	 * zatim promatraču dojavljuje rezultat. Značenje ostalih parametara
+	 * jednako je kao u metodi
+	 * {@link #produce(Point3D, Point3D, Point3D, double, double, int, int, long, IRayTracerResultObserver)}.
+	 *
+	 * @param eye
+	 *            očište
+	 * @param view
+	 *            točka u koju se gleda
+	 * @param viewUp
+	 *            smjer "gore"
+	 * @param horizontal
+	 *            horizontalna širina promatranog prostora
+	 * @param vertical
+	 *            vertikalna visina promatranog prostora
+	 * @param width
+	 *            širina slike
+	 * @param height
+	 *            visina slike
+	 * @param requestNo
+	 *            redni broj zahtjeva
+	 * @param observer
+	 *            promatrač koji prima sliku
+	 * @throws IllegalArgumentException
+	 *             ukoliko promatrač ponudi međuspremnik koji je nepromjenjiv
+	 *             ili premalen
+	 */
+	void produceArgb(Point3D eye, Point3D view, Point3D viewUp, double horizontal, double vertical, int width,
+			int height, long requestNo, IRayTracerArgbObserver observer);
+
+	/**
+	 * {@inheritDoc} Slika se računa metodom
+	 * {@link #produceArgb(Point3D, Point3D, Point3D, double, double, int, int, long, IRayTracerArgbObserver)},
+	 * a promatraču se predaje kroz {@link RayTracerResultAdapter}.
+	 */
+	@Override
+	default void produce(Point3D eye, Point3D view, Point3D viewUp, double horizontal, double vertical, int width,
+			int height, long requestNo, IRayTracerResultObserver observer) {
+		produceArgb(eye, view, viewUp, horizontal, vertical, width, height, requestNo,
+				new RayTracerResultAdapter(observer));
+	}
+}
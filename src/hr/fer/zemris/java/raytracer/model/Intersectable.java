@@ -0,0 +1,53 @@
+package hr.fer.zemris.java.raytracer.model;
+
+/**
+ * Sučelje koje implementiraju grafički objekti ({@link GraphicalObject}) koji
+ * znaju izračunati samo udaljenost do najbližeg sjecišta sa zrakom. Prilikom
+ * traženja najbližeg objekta svaki kandidat vraća samo udaljenost, a sjecište
+ * ({@link RayIntersection}) s točkom, normalom i svojstvima materijala stvara
+ * se metodom {@link GraphicalObject#findClosestRayIntersection(Ray)} samo
+ * jednom, za objekt koji je na kraju najbliži. Sjecišta se mogu tražiti i za
+ * cijeli paket zraka odjednom ({@link RayPacket}).
+ *
+ * @see Sphere
+ *
+ * @author Davor Češljaš
+ */
+public interface Intersectable {
+
+	/**
+	 * Metoda računa udaljenost od ishodišta zrake <b>ray</b> do najbližeg
+	 * sjecišta s ovim objektom. Udaljenost se mjeri jednako kao
+	 * {@link RayIntersection#getDistance()} sjecišta koje bi vratila metoda
+	 * {@link GraphicalObject#findClosestRayIntersection(Ray)}. Metoda ne
+	 * zauzima memoriju.
+	 *
+	 * @param ray
+	 *            zraka koja se ispituje
+	 * @return udaljenost do najbližeg sjecišta ili
+	 *         {@link Double#POSITIVE_INFINITY} ukoliko sjecište ne postoji
+	 */
+	double intersectionDistance(Ray ray);
+
+	/**
+	 * Metoda ispituje sjecišta ovog objekta sa zrakama paketa <b>packet</b>
+	 * čiji su bitovi postavljeni u maski <b>mask</b>. Za svaku takvu zraku čije
+	 * je sjecište bliže od dosad najbližeg, u paketu se bilježe udaljenost i
+	 * identifikator <b>id</b> (metoda {@link RayPacket#record(int, double, int)}).
+	 * Podrazumijevana implementacija ispituje zraku po zraku, a razredi je
+	 * nadjačavaju izračunom nad poljima paketa.
+	 *
+	 * @param packet
+	 *            paket zraka
+	 * @param mask
+	 *            maska zraka koje se ispituju
+	 * @param id
+	 *            identifikator ovog objekta
+	 */
+	default void intersect(RayPacket packet, int mask, int id) {
+		for (int lanes = mask; lanes != 0; lanes &= lanes - 1) {
+			int lane = Integer.numberOfTrailingZeros(lanes);
+			packet.record(lane, intersectionDistance(packet.toRay(lane)), id);
+		}
+	}
+}
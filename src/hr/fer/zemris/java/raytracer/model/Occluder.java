@@ -0,0 +1,31 @@
+package hr.fer.zemris.java.raytracer.model;
+
+/**
+ * Sučelje koje implementiraju grafički objekti ({@link GraphicalObject}) koji
+ * znaju brzo odgovoriti zaklanjaju li dio zrake. Upit se koristi za zrake
+ * sjene, kod kojih nije bitno koji je objekt najbliži, nego samo postoji li
+ * ikakav objekt između izvora svjetlosti i osvijetljene točke. Za razliku od
+ * metode {@link GraphicalObject#findClosestRayIntersection(Ray)}, upit ne
+ * stvara sjecište niti računa normalu i ne zauzima memoriju.
+ *
+ * @see Sphere
+ *
+ * @author Davor Češljaš
+ */
+public interface Occluder {
+
+	/**
+	 * Metoda ispituje siječe li zraka <b>ray</b> ovaj objekt na udaljenosti od
+	 * ishodišta zrake manjoj od <b>maxDistance</b>. Udaljenost se mjeri jednako
+	 * kao {@link RayIntersection#getDistance()} sjecišta koje bi vratila metoda
+	 * {@link GraphicalObject#findClosestRayIntersection(Ray)}.
+	 *
+	 * @param ray
+	 *            zraka koja se ispituje
+	 * @param maxDistance
+	 *            udaljenost od ishodišta zrake do koje se sjecište traži
+	 * @return <code>true</code> ukoliko objekt siječe zraku prije udaljenosti
+	 *         <b>maxDistance</b>
+	 */
+	boolean occludes(Ray ray, double maxDistance);
+}
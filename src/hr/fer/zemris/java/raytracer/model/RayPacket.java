@@ -0,0 +1,231 @@
+package hr.fer.zemris.java.raytracer.model;
+
+/**
+ * Razred predstavlja paket susjednih zraka spremljen po komponentama (engl.
+ * <i>structure of arrays</i>): za svaku koordinatu ishodišta i smjera postoji
+ * jedno polje u kojem je na indeksu <i>i</i> vrijednost <i>i</i>-te zrake
+ * (trake, engl. <i>lane</i>). Zrake paketa ispituju se zajedno, pa se
+ * izračun za jedan objekt provodi u jednoj petlji nad poljima primitivnih
+ * vrijednosti umjesto nad pojedinačnim primjercima razreda {@link Ray}.
+ * <p>
+ * Skup traka nad kojima se nešto provodi zadaje se maskom: bit <i>i</i> maske
+ * postavljen je ukoliko je traka <i>i</i> aktivna. Za svaku traku pamti se
+ * udaljenost do dosad najbližeg sjecišta i identifikator objekta kojem to
+ * sjecište pripada ({@link #NO_HIT} ukoliko sjecišta nema). Značenje
+ * identifikatora određuje onaj tko paket ispituje.
+ * <p>
+ * Kao i kod razreda {@link Ray}, polja su javna kako bi im se u petljama
+ * pristupalo izravno. Primjerak se ponovno koristi za više paketa metodom
+ * {@link #clear()}.
+ *
+ * @see Intersectable#intersect(RayPacket, int, int)
+ *
+ * @author Davor Češljaš
+ */
+public final class RayPacket {
+
+	/** Najveći broj zraka u paketu (broj bitova maske) */
+	public static final int MAX_SIZE = Integer.SIZE;
+
+	/** Identifikator koji označava da traka nema sjecište */
+	public static final int NO_HIT = -1;
+
+	/** Koordinate x ishodišta zraka */
+	public final double[] startX;
+
+	/** Koordinate y ishodišta zraka */
+	public final double[] startY;
+
+	/** Koordinate z ishodišta zraka */
+	public final double[] startZ;
+
+	/** Koordinate x normiranih smjerova zraka */
+	public final double[] directionX;
+
+	/** Koordinate y normiranih smjerova zraka */
+	public final double[] directionY;
+
+	/** Koordinate z normiranih smjerova zraka */
+	public final double[] directionZ;
+
+	/** Recipročne vrijednosti koordinata x smjerova zraka */
+	public final double[] inverseX;
+
+	/** Recipročne vrijednosti koordinata y smjerova zraka */
+	public final double[] inverseY;
+
+	/** Recipročne vrijednosti koordinata z smjerova zraka */
+	public final double[] inverseZ;
+
+	/** Udaljenosti do dosad najbližeg sjecišta */
+	public final double[] distance;
+
+	/** Identifikatori objekata dosad najbližeg sjecišta */
+	public final int[] hit;
+
+	/** Broj zraka u paketu */
+	private int size;
+
+	/**
+	 * Konstruktor koji inicijalizira prazan paket u koji stane najviše
+	 * <b>capacity</b> zraka.
+	 *
+	 * @param capacity
+	 *            najveći broj zraka u paketu
+	 * @throws IllegalArgumentException
+	 *             ukoliko kapacitet nije između 1 i {@value #MAX_SIZE}
+	 */
+	public RayPacket(int capacity) {
+		if (capacity < 1 || capacity > MAX_SIZE) {
+			throw new IllegalArgumentException(
+					"Kapacitet paketa mora biti između 1 i " + MAX_SIZE + ", a predan je " + capacity);
+		}
+
+		startX = new double[capacity];
+		startY = new double[capacity];
+		startZ = new double[capacity];
+		directionX = new double[capacity];
+		directionY = new double[capacity];
+		directionZ = new double[capacity];
+		inverseX = new double[capacity];
+		inverseY = new double[capacity];
+		inverseZ = new double[capacity];
+		distance = new double[capacity];
+		hit = new int[capacity];
+	}
+
+	/**
+	 * Metoda dohvaća najveći broj zraka u paketu
+	 *
+	 * @return najveći broj zraka u paketu
+	 */
+	public int getCapacity() {
+		return hit.length;
+	}
+
+	/**
+	 * Metoda dohvaća broj zraka u paketu
+	 *
+	 * @return broj zraka u paketu
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Metoda dohvaća masku u kojoj su aktivne sve zrake paketa
+	 *
+	 * @return maska svih zraka paketa
+	 */
+	public int getMask() {
+		return size == MAX_SIZE ? -1 : (1 << size) - 1;
+	}
+
+	/**
+	 * Metoda prazni paket
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Metoda dodaje u paket zraku od točke <b>start</b> prema točki
+	 * (<b>endX</b>, <b>endY</b>, <b>endZ</b>). Smjer se normira jednako kao u
+	 * metodi {@link Ray#fromPoints(Point3D, Point3D)}, pa je zraka jednaka
+	 * onoj koju bi ta metoda stvorila.
+	 *
+	 * @param start
+	 *            ishodište zrake
+	 * @param endX
+	 *            koordinata x točke kroz koju zraka prolazi
+	 * @param endY
+	 *            koordinata y točke kroz koju zraka prolazi
+	 * @param endZ
+	 *            koordinata z točke kroz koju zraka prolazi
+	 * @return traka u koju je zraka dodana
+	 * @throws IllegalStateException
+	 *             ukoliko je paket pun
+	 */
+	public int add(Point3D start, double endX, double endY, double endZ) {
+		return addDirection(start, endX - start.x, endY - start.y, endZ - start.z);
+	}
+
+	/**
+	 * Metoda dodaje u paket zraku od točke <b>start</b> u smjeru
+	 * (<b>x</b>, <b>y</b>, <b>z</b>). Smjer se normira jednako kao u metodi
+	 * {@link Ray#fromPoints(Point3D, Point3D)}.
+	 *
+	 * @param start
+	 *            ishodište zrake
+	 * @param x
+	 *            koordinata x smjera zrake
+	 * @param y
+	 *            koordinata y smjera zrake
+	 * @param z
+	 *            koordinata z smjera zrake
+	 * @return traka u koju je zraka dodana
+	 * @throws IllegalStateException
+	 *             ukoliko je paket pun
+	 */
+	public int addDirection(Point3D start, double x, double y, double z) {
+		if (size == hit.length) {
+			throw new IllegalStateException("Paket je pun!");
+		}
+
+		double norm = Math.sqrt(x * x + y * y + z * z);
+		if (norm < 1E-9) {
+			x = 0;
+			y = 0;
+			z = 0;
+		} else {
+			x /= norm;
+			y /= norm;
+			z /= norm;
+		}
+
+		int lane = size++;
+		startX[lane] = start.x;
+		startY[lane] = start.y;
+		startZ[lane] = start.z;
+		directionX[lane] = x;
+		directionY[lane] = y;
+		directionZ[lane] = z;
+		inverseX[lane] = 1 / x;
+		inverseY[lane] = 1 / y;
+		inverseZ[lane] = 1 / z;
+		distance[lane] = Double.POSITIVE_INFINITY;
+		hit[lane] = NO_HIT;
+		return lane;
+	}
+
+	/**
+	 * Metoda bilježi sjecište trake <b>lane</b> s objektom <b>id</b> na
+	 * udaljenosti <b>candidate</b> ukoliko je bliže od dosad najbližeg.
+	 *
+	 * @param lane
+	 *            traka
+	 * @param candidate
+	 *            udaljenost do sjecišta
+	 * @param id
+	 *            identifikator objekta
+	 */
+	public void record(int lane, double candidate, int id) {
+		if (candidate < distance[lane]) {
+			distance[lane] = candidate;
+			hit[lane] = id;
+		}
+	}
+
+	/**
+	 * Metoda stvara primjerak razreda {@link Ray} jednak zraci trake
+	 * <b>lane</b>
+	 *
+	 * @param lane
+	 *            traka
+	 * @return zraka trake
+	 */
+	public Ray toRay(int lane) {
+		return new Ray(new Point3D(startX[lane], startY[lane], startZ[lane]),
+				new Point3D(directionX[lane], directionY[lane], directionZ[lane]));
+	}
+}
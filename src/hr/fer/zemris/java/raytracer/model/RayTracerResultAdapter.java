@@ -0,0 +1,48 @@
+package hr.fer.zemris.java.raytracer.model;
+
+import java.nio.IntBuffer;
+import java.util.Objects;
+
+/**
+ * Razred prilagođava promatrača {@link IRayTracerResultObserver}, koji sliku
+ * prima kao tri polja tipa <code>short</code>, sučelju
+ * {@link IRayTracerArgbObserver}. Zapakirani slikovni elementi prilikom
+ * dojave rastavljaju se na crvenu, zelenu i plavu komponentu, pa promatrač
+ * dobiva jednake vrijednosti kao da ih je proizvođač zapisao izravno.
+ *
+ * @see IRayTracerArgbProducer
+ *
+ * @author Davor Češljaš
+ */
+public class RayTracerResultAdapter implements IRayTracerArgbObserver {
+
+	/** Članska varijabla koja predstavlja promatrača koji prima sliku */
+	private final IRayTracerResultObserver observer;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param observer
+	 *            promatrač koji prima sliku
+	 * @throws NullPointerException
+	 *             ukoliko je <b>observer</b> <code>null</code>
+	 */
+	public RayTracerResultAdapter(IRayTracerResultObserver observer) {
+		this.observer = Objects.requireNonNull(observer);
+	}
+
+	@Override
+	public void acceptResult(IntBuffer argb, int width, int height, long requestNo) {
+		int pixels = width * height;
+		short[] red = new short[pixels];
+		short[] green = new short[pixels];
+		short[] blue = new short[pixels];
+		for (int i = 0; i < pixels; i++) {
+			int color = argb.get(i);
+			red[i] = (short) ((color >>> 16) & 0xFF);
+			green[i] = (short) ((color >>> 8) & 0xFF);
+			blue[i] = (short) (color & 0xFF);
+		}
+		observer.acceptResult(red, green, blue, requestNo);
+	}
+}
@@ -0,0 +1,31 @@
+package hr.fer.zemris.java.raytracer.model;
+
+/**
+ * Sučelje koje implementiraju grafički objekti ({@link GraphicalObject}) koji
+ * podatke o najbližem sjecištu sa zrakom znaju zapisati u primjerak razreda
+ * {@link SurfacePoint}. Za razliku od metode
+ * {@link GraphicalObject#findClosestRayIntersection(Ray)}, upit ne stvara
+ * sjecište niti normalu, pa sjenčanje pogođene točke ne zauzima memoriju.
+ *
+ * @see SurfacePoint
+ * @see Sphere
+ *
+ * @author Davor Češljaš
+ */
+public interface Shadeable {
+
+	/**
+	 * Metoda zapisuje u <b>surface</b> podatke o najbližem sjecištu zrake
+	 * <b>ray</b> i ovog objekta. Zapisani podaci jednaki su podacima sjecišta
+	 * koje bi vratila metoda
+	 * {@link GraphicalObject#findClosestRayIntersection(Ray)}. Ukoliko
+	 * sjecište ne postoji, <b>surface</b> ostaje nepromijenjen.
+	 *
+	 * @param ray
+	 *            zraka koja se ispituje
+	 * @param surface
+	 *            primjerak u koji se zapisuju podaci o sjecištu
+	 * @return <code>true</code> ukoliko sjecište postoji
+	 */
+	boolean findSurface(Ray ray, SurfacePoint surface);
+}
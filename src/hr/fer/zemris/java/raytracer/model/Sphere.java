@@ -12,16 +12,25 @@ import hr.fer.zemris.java.raytracer.viewer.RayTracerViewer;
  * Razred koji implementira sučelje {@link GraphicalObject}. Razred predstavlja
  * sferu u sceni prilikom iscrtavanja razredom {@link RayTracerViewer}. Ova
  * implementacija koristi se kroz programe {@link RayCaster} i
- * {@link RayCasterParallel}.
+ * {@link RayCasterParallel}. Sfera je omeđena ({@link Bounded}), pa se može
+ * smjestiti u hijerarhiju omeđujućih volumena, zna izračunati samo udaljenost
+ * do sjecišta ({@link Intersectable}) i zna brzo odgovoriti zaklanja li zraku
+ * sjene ({@link Occluder}), a podatke za sjenčanje zna zapisati bez stvaranja
+ * sjecišta ({@link Shadeable}). Svi upiti, uključujući i one nad paketom
+ * zraka ({@link RayPacket}), dijele isti izračun sjecišta.
  * 
  * @see GraphicalObject
+ * @see Bounded
+ * @see Intersectable
+ * @see Occluder
+ * @see Shadeable
  * @see RayTracerViewer
  * @see RayCaster
  * @see RayCasterParallel
  * 
  * @author Davor Češljaš
  */
-public class Sphere extends GraphicalObject {
+public class Sphere extends GraphicalObject implements Bounded, Intersectable, Occluder, Shadeable {
 
 	/**
 	 * Članska varijabla koja je primjerak razreda {@link Point3D} i predstavlja
@@ -87,62 +96,282 @@ public class Sphere extends GraphicalObject {
 		this.krn = krn;
 	}
 
+	/**
+	 * Metoda dohvaća središte sfere
+	 *
+	 * @return središte sfere
+	 */
+	public Point3D getCenter() {
+		return center;
+	}
+
+	/**
+	 * Metoda dohvaća radijus sfere
+	 *
+	 * @return radijus sfere
+	 */
+	public double getRadius() {
+		return radius;
+	}
+
+	/**
+	 * Metoda dohvaća koeficijent difuzne refleksije crvene komponente
+	 *
+	 * @return koeficijent difuzne refleksije
+	 * @see RayIntersection#getKdr()
+	 */
+	public double getKdr() {
+		return kdr;
+	}
+
+	/**
+	 * Metoda dohvaća koeficijent difuzne refleksije zelene komponente
+	 *
+	 * @return koeficijent difuzne refleksije
+	 * @see RayIntersection#getKdg()
+	 */
+	public double getKdg() {
+		return kdg;
+	}
+
+	/**
+	 * Metoda dohvaća koeficijent difuzne refleksije plave komponente
+	 *
+	 * @return koeficijent difuzne refleksije
+	 * @see RayIntersection#getKdb()
+	 */
+	public double getKdb() {
+		return kdb;
+	}
+
+	/**
+	 * Metoda dohvaća koeficijent zrcalne refleksije crvene komponente
+	 *
+	 * @return koeficijent zrcalne refleksije
+	 * @see RayIntersection#getKrr()
+	 */
+	public double getKrr() {
+		return krr;
+	}
+
+	/**
+	 * Metoda dohvaća koeficijent zrcalne refleksije zelene komponente
+	 *
+	 * @return koeficijent zrcalne refleksije
+	 * @see RayIntersection#getKrg()
+	 */
+	public double getKrg() {
+		return krg;
+	}
+
+	/**
+	 * Metoda dohvaća koeficijent zrcalne refleksije plave komponente
+	 *
+	 * @return koeficijent zrcalne refleksije
+	 * @see RayIntersection#getKrb()
+	 */
+	public double getKrb() {
+		return krb;
+	}
+
+	/**
+	 * Metoda dohvaća eksponent zrcalne refleksije
+	 *
+	 * @return eksponent zrcalne refleksije
+	 * @see RayIntersection#getKrn()
+	 */
+	public double getKrn() {
+		return krn;
+	}
+
+	@Override
+	public BoundingBox getBounds() {
+		return BoundingBox.ofSphere(center, radius);
+	}
+
+	@Override
+	public double intersectionDistance(Ray ray) {
+		Point3D start = ray.start;
+		Point3D direction = ray.direction;
+		return distance(start.x, start.y, start.z, direction.x, direction.y, direction.z);
+	}
+
+	@Override
+	public void intersect(RayPacket packet, int mask, int id) {
+		double[] startX = packet.startX;
+		double[] startY = packet.startY;
+		double[] startZ = packet.startZ;
+		double[] directionX = packet.directionX;
+		double[] directionY = packet.directionY;
+		double[] directionZ = packet.directionZ;
+		double[] distance = packet.distance;
+		int[] hit = packet.hit;
+		for (int lane = 0, size = packet.size(); lane < size; lane++) {
+			if ((mask & (1 << lane)) == 0) {
+				continue;
+			}
+
+			double candidate = distance(startX[lane], startY[lane], startZ[lane], directionX[lane], directionY[lane],
+					directionZ[lane]);
+			if (candidate < distance[lane]) {
+				distance[lane] = candidate;
+				hit[lane] = id;
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja računa udaljenost od ishodišta zrake do najbližeg
+	 * sjecišta zrake i ove sfere.
+	 *
+	 * @param sx
+	 *            koordinata x ishodišta zrake
+	 * @param sy
+	 *            koordinata y ishodišta zrake
+	 * @param sz
+	 *            koordinata z ishodišta zrake
+	 * @param dx
+	 *            koordinata x smjera zrake
+	 * @param dy
+	 *            koordinata y smjera zrake
+	 * @param dz
+	 *            koordinata z smjera zrake
+	 * @return udaljenost do najbližeg sjecišta ili
+	 *         {@link Double#POSITIVE_INFINITY} ukoliko sjecište ne postoji
+	 */
+	private double distance(double sx, double sy, double sz, double dx, double dy, double dz) {
+		double closestLambda = closestLambda(sx, sy, sz, dx, dy, dz);
+		if (!(closestLambda > 0)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return closestLambda * Math.sqrt(dx * dx + dy * dy + dz * dz);
+	}
+
+	@Override
+	public boolean occludes(Ray ray, double maxDistance) {
+		return intersectionDistance(ray) < maxDistance;
+	}
+
 	@Override
 	public RayIntersection findClosestRayIntersection(Ray ray) {
-		// predpostavak je da je a = 1 jer je d - normiziran, ako nije rezultat
-		// neće biti dobar
-		Point3D startMinusCenter = ray.start.sub(center);
-		double b = 2 * ray.direction.scalarProduct(ray.start.sub(center));
-		double c = startMinusCenter.scalarProduct(startMinusCenter) - radius * radius;
-		double determinant = b * b - 4 * c;
-		// kompleksno rješenje
-		if (determinant < 0) {
+		Point3D start = ray.start;
+		Point3D direction = ray.direction;
+		double closestLambda = closestLambda(start.x, start.y, start.z, direction.x, direction.y, direction.z);
+		if (!(closestLambda > 0)) {
 			return null;
 		}
 
-		return determinIntersection(determinant, b, ray);
+		// sjecište je vanjsko ukoliko ishodište zrake leži izvan sfere
+		Point3D startMinusCenter = ray.start.sub(center);
+		boolean outer = startMinusCenter.scalarProduct(startMinusCenter) - radius * radius > 0;
+		Point3D directionVector = ray.direction.scalarMultiply(closestLambda);
+		return new RaySphereIntersection(ray.start.add(directionVector), directionVector.norm(), outer);
+	}
+
+	@Override
+	public boolean findSurface(Ray ray, SurfacePoint surface) {
+		Point3D start = ray.start;
+		Point3D direction = ray.direction;
+		double closestLambda = closestLambda(start.x, start.y, start.z, direction.x, direction.y, direction.z);
+		if (!(closestLambda > 0)) {
+			return false;
+		}
+
+		double ox = start.x - center.x;
+		double oy = start.y - center.y;
+		double oz = start.z - center.z;
+		double vx = closestLambda * direction.x;
+		double vy = closestLambda * direction.y;
+		double vz = closestLambda * direction.z;
+		surface.x = start.x + vx;
+		surface.y = start.y + vy;
+		surface.z = start.z + vz;
+		surface.distance = Math.sqrt(vx * vx + vy * vy + vz * vz);
+		surface.outer = ox * ox + oy * oy + oz * oz - radius * radius > 0;
+		setNormal(surface, surface.x - center.x, surface.y - center.y, surface.z - center.z);
+		surface.kdr = kdr;
+		surface.kdg = kdg;
+		surface.kdb = kdb;
+		surface.krr = krr;
+		surface.krg = krg;
+		surface.krb = krb;
+		surface.krn = krn;
+		return true;
 	}
 
 	/**
-	 * Pomoćna metoda koja se koristi kako bi se odredilo presjecište zrake
-	 * modelirane razredom {@link Ray} <b>ray</b> i ovog primjerka razreda
+	 * Pomoćna metoda koja u <b>surface</b> zapisuje normalu dobivenu normiranjem
+	 * vektora (<b>nx</b>, <b>ny</b>, <b>nz</b>). Normiranje je jednako onome u
+	 * metodi {@link Point3D#modifyNormalize()}, pa je i normala jednaka
+	 * normali sjecišta.
 	 *
-	 * @param determinant
-	 *            determinanta izračunata unutar
-	 *            {@link #findClosestRayIntersection(Ray)}
-	 * @param b
-	 *            konstanta b izračunata unutar
-	 *            {@link #findClosestRayIntersection(Ray)}
-	 * @param ray
-	 *            primjerak razreda {@link Ray} s kojim se traži presjecište
-	 * @return primjerak razreda koji implementira sučelje
-	 *         {@link RayIntersection}, a koji modelira presjecište zrake
-	 *         <b>ray</b> i ove sfere ili <code>null</code> ukoliko presjecište
-	 *         ne postoji ili je iza očišta
+	 * @param surface
+	 *            točka površine u koju se zapisuje normala
+	 * @param nx
+	 *            koordinata x vektora od središta sfere do točke sjecišta
+	 * @param ny
+	 *            koordinata y vektora od središta sfere do točke sjecišta
+	 * @param nz
+	 *            koordinata z vektora od središta sfere do točke sjecišta
 	 */
-	private RayIntersection determinIntersection(double determinant, double b, Ray ray) {
-		double closestLambda;
-		boolean outer;
-		if (determinant == 0 && (-b) > 0) {
-			closestLambda = -b;
-			outer = true;
+	static void setNormal(SurfacePoint surface, double nx, double ny, double nz) {
+		double norm = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if (norm < 1E-9) {
+			surface.normalX = 0;
+			surface.normalY = 0;
+			surface.normalZ = 0;
 		} else {
-			double root = Math.sqrt(determinant);
-			double lambda1 = (-b + root) / 2;
-			double lambda2 = (-b - root) / 2;
-			if (lambda1 > 0 && lambda2 > 0) {
-				closestLambda = Math.min(lambda1, lambda2);
-				outer = true;
-			} else if (lambda1 > 0 || lambda2 > 0) {
-				closestLambda = Math.max(lambda1, lambda2);
-				outer = false;
-			} else {
-				return null;
-			}
+			surface.normalX = nx / norm;
+			surface.normalY = ny / norm;
+			surface.normalZ = nz / norm;
 		}
+	}
 
-		Point3D directionVector = ray.direction.scalarMultiply(closestLambda);
-		return new RaySphereIntersection(ray.start.add(directionVector), directionVector.norm(), outer);
+	/**
+	 * Pomoćna metoda koja određuje parametar najbližeg sjecišta zrake i ovog
+	 * primjerka razreda ispred ishodišta zrake. Izračun se provodi nad
+	 * primitivnim vrijednostima i ne zauzima memoriju.
+	 *
+	 * @param sx
+	 *            koordinata x ishodišta zrake
+	 * @param sy
+	 *            koordinata y ishodišta zrake
+	 * @param sz
+	 *            koordinata z ishodišta zrake
+	 * @param dx
+	 *            koordinata x smjera zrake
+	 * @param dy
+	 *            koordinata y smjera zrake
+	 * @param dz
+	 *            koordinata z smjera zrake
+	 * @return parametar najbližeg sjecišta ili 0 ukoliko presjecište ne
+	 *         postoji ili je iza očišta
+	 */
+	private double closestLambda(double sx, double sy, double sz, double dx, double dy, double dz) {
+		// predpostavak je da je a = 1 jer je d - normiziran, ako nije rezultat
+		// neće biti dobar
+		double ox = sx - center.x;
+		double oy = sy - center.y;
+		double oz = sz - center.z;
+		double b = 2 * (dx * ox + dy * oy + dz * oz);
+		double c = ox * ox + oy * oy + oz * oz - radius * radius;
+		double determinant = b * b - 4 * c;
+		// kompleksno rješenje
+		if (determinant < 0) {
+			return 0;
+		}
+		if (determinant == 0 && (-b) > 0) {
+			return -b;
+		}
+
+		double root = Math.sqrt(determinant);
+		double lambda1 = (-b + root) / 2;
+		double lambda2 = (-b - root) / 2;
+		// lambda2 je uvijek manji korijen
+		if (lambda2 > 0) {
+			return lambda2;
+		}
+		return lambda1 > 0 ? lambda1 : 0;
 	}
 
 	/**
@@ -155,7 +384,10 @@ public class Sphere extends GraphicalObject {
 	 */
 	private class RaySphereIntersection extends RayIntersection {
 
-		/** Normala na površinu sfere modelirane razredom {@link Sphere} */
+		/**
+		 * Normala na površinu sfere modelirane razredom {@link Sphere}, računa
+		 * se tek pri prvom dohvatu
+		 */
 		private Point3D normal;
 
 		/**
@@ -174,11 +406,13 @@ public class Sphere extends GraphicalObject {
 		 */
 		public RaySphereIntersection(Point3D point, double distance, boolean outer) {
 			super(point, distance, outer);
-			normal = this.getPoint().sub(center).modifyNormalize();
 		}
 
 		@Override
 		public Point3D getNormal() {
+			if (normal == null) {
+				normal = this.getPoint().sub(center).modifyNormalize();
+			}
 			return normal;
 		}
 
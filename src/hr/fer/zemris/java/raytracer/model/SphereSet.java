@@ -0,0 +1,578 @@
+package hr.fer.zemris.java.raytracer.model;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Razred predstavlja skup sfera spremljen po komponentama (engl. <i>structure
+ * of arrays</i>): središta, radijusi, kvadrati radijusa i koeficijenti
+ * materijala svih sfera nalaze se u poljima primitivnih vrijednosti, pa se
+ * sjecišta sa svim sferama skupa računaju u jednoj petlji bez dohvaćanja
+ * zasebnih objekata. Sfera na indeksu <i>i</i> daje jednaka sjecišta kao i
+ * primjerak razreda {@link Sphere} iz kojeg je prepisana.
+ * <p>
+ * Skup se može koristiti samostalno, kao jedan objekt scene, ili kao spremište
+ * objekata listova strukture za ubrzanje: metode
+ * {@link #nearest(Ray, int, int, Hit)},
+ * {@link #intersect(RayPacket, int, int, int)} i
+ * {@link #occludes(Ray, int, int, double)} ispituju samo sfere iz raspona
+ * indeksa, a metoda {@link #findSurface(Ray, int, SurfacePoint)} zapisuje
+ * podatke za sjenčanje pogođene sfere. Razred je nepromijenjiv.
+ *
+ * @see Sphere
+ *
+ * @author Davor Češljaš
+ */
+public final class SphereSet extends GraphicalObject implements Bounded, Intersectable, Occluder, Shadeable {
+
+	/** Koordinate x središta sfera */
+	private final double[] centerX;
+
+	/** Koordinate y središta sfera */
+	private final double[] centerY;
+
+	/** Koordinate z središta sfera */
+	private final double[] centerZ;
+
+	/** Radijusi sfera */
+	private final double[] radius;
+
+	/** Kvadrati radijusa sfera */
+	private final double[] radiusSquared;
+
+	/** @see RayIntersection#getKdr() */
+	private final double[] kdr;
+
+	/** @see RayIntersection#getKdg() */
+	private final double[] kdg;
+
+	/** @see RayIntersection#getKdb() */
+	private final double[] kdb;
+
+	/** @see RayIntersection#getKrr() */
+	private final double[] krr;
+
+	/** @see RayIntersection#getKrg() */
+	private final double[] krg;
+
+	/** @see RayIntersection#getKrb() */
+	private final double[] krb;
+
+	/** @see RayIntersection#getKrn() */
+	private final double[] krn;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda prepisivanjem
+	 * sfera <b>spheres</b>. Sfera na indeksu <i>i</i> liste postaje sfera na
+	 * indeksu <i>i</i> skupa.
+	 *
+	 * @param spheres
+	 *            sfere koje se prepisuju u skup
+	 * @throws IllegalArgumentException
+	 *             ukoliko je lista prazna
+	 */
+	public SphereSet(List<Sphere> spheres) {
+		Objects.requireNonNull(spheres);
+		int n = spheres.size();
+		if (n == 0) {
+			throw new IllegalArgumentException("Skup sfera mora sadržavati barem jednu sferu!");
+		}
+
+		centerX = new double[n];
+		centerY = new double[n];
+		centerZ = new double[n];
+		radius = new double[n];
+		radiusSquared = new double[n];
+		kdr = new double[n];
+		kdg = new double[n];
+		kdb = new double[n];
+		krr = new double[n];
+		krg = new double[n];
+		krb = new double[n];
+		krn = new double[n];
+		for (int i = 0; i < n; i++) {
+			Sphere sphere = spheres.get(i);
+			Point3D center = sphere.getCenter();
+			centerX[i] = center.x;
+			centerY[i] = center.y;
+			centerZ[i] = center.z;
+			radius[i] = sphere.getRadius();
+			radiusSquared[i] = radius[i] * radius[i];
+			kdr[i] = sphere.getKdr();
+			kdg[i] = sphere.getKdg();
+			kdb[i] = sphere.getKdb();
+			krr[i] = sphere.getKrr();
+			krg[i] = sphere.getKrg();
+			krb[i] = sphere.getKrb();
+			krn[i] = sphere.getKrn();
+		}
+	}
+
+	/**
+	 * Metoda dohvaća broj sfera u skupu
+	 *
+	 * @return broj sfera
+	 */
+	public int size() {
+		return radius.length;
+	}
+
+	/**
+	 * Metoda dohvaća kvadar koji omeđuje sferu <b>index</b>
+	 *
+	 * @param index
+	 *            indeks sfere
+	 * @return kvadar koji omeđuje sferu
+	 */
+	public BoundingBox getBounds(int index) {
+		return BoundingBox.ofSphere(new Point3D(centerX[index], centerY[index], centerZ[index]), radius[index]);
+	}
+
+	@Override
+	public BoundingBox getBounds() {
+		BoundingBox bounds = getBounds(0);
+		for (int i = 1; i < radius.length; i++) {
+			bounds = bounds.union(getBounds(i));
+		}
+		return bounds;
+	}
+
+	/**
+	 * Metoda među sferama s indeksima od <b>from</b> do <b>to</b>
+	 * (isključivo) traži sfere koje zraka <b>ray</b> siječe bliže od
+	 * udaljenosti zapisane u <b>hit</b>. Najbliža takva sfera i udaljenost do
+	 * njenog sjecišta zapisuju se u <b>hit</b>, a ukoliko takve sfere nema,
+	 * <b>hit</b> ostaje nepromijenjen. Petlja se izvodi nad poljima
+	 * primitivnih vrijednosti i ne zauzima memoriju.
+	 *
+	 * @param ray
+	 *            zraka koja se ispituje
+	 * @param from
+	 *            indeks prve sfere koja se ispituje
+	 * @param to
+	 *            indeks do kojeg (isključivo) se sfere ispituju
+	 * @param hit
+	 *            dosad najbliže sjecište
+	 */
+	public void nearest(Ray ray, int from, int to, Hit hit) {
+		double sx = ray.start.x;
+		double sy = ray.start.y;
+		double sz = ray.start.z;
+		double dx = ray.direction.x;
+		double dy = ray.direction.y;
+		double dz = ray.direction.z;
+		double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+		double[] centerX = this.centerX;
+		double[] centerY = this.centerY;
+		double[] centerZ = this.centerZ;
+		double[] radiusSquared = this.radiusSquared;
+		int nearest = hit.index;
+		double nearestDistance = hit.distance;
+		for (int i = from; i < to; i++) {
+			double lambda = closestLambda(sx - centerX[i], sy - centerY[i], sz - centerZ[i], dx, dy, dz,
+					radiusSquared[i]);
+			double distance = lambda > 0 ? lambda * length : Double.POSITIVE_INFINITY;
+			if (distance < nearestDistance) {
+				nearest = i;
+				nearestDistance = distance;
+			}
+		}
+		hit.index = nearest;
+		hit.distance = nearestDistance;
+	}
+
+	/**
+	 * Metoda ispituje sjecišta sfera s indeksima od <b>from</b> do <b>to</b>
+	 * (isključivo) sa zrakama paketa <b>packet</b> iz maske <b>mask</b>. Za
+	 * svaku zraku bilježi se indeks najbliže sfere ukoliko je bliža od dosad
+	 * najbližeg sjecišta zrake.
+	 *
+	 * @param packet
+	 *            paket zraka
+	 * @param mask
+	 *            maska zraka koje se ispituju
+	 * @param from
+	 *            indeks prve sfere koja se ispituje
+	 * @param to
+	 *            indeks do kojeg (isključivo) se sfere ispituju
+	 */
+	public void intersect(RayPacket packet, int mask, int from, int to) {
+		intersect(packet, mask, from, to, RayPacket.NO_HIT);
+	}
+
+	/**
+	 * {@inheritDoc} Ispituju se sve sfere skupa, a za svaku zraku bilježi se
+	 * identifikator <b>id</b> cijelog skupa.
+	 */
+	@Override
+	public void intersect(RayPacket packet, int mask, int id) {
+		intersect(packet, mask, 0, radius.length, id);
+	}
+
+	/**
+	 * Pomoćna metoda koja ispituje sjecišta sfera s indeksima od <b>from</b>
+	 * do <b>to</b> (isključivo) sa zrakama paketa iz maske. Vanjska petlja
+	 * prolazi sferama, pa se podaci jedne sfere dohvaćaju jednom za sve zrake.
+	 *
+	 * @param packet
+	 *            paket zraka
+	 * @param mask
+	 *            maska zraka koje se ispituju
+	 * @param from
+	 *            indeks prve sfere koja se ispituje
+	 * @param to
+	 *            indeks do kojeg (isključivo) se sfere ispituju
+	 * @param id
+	 *            identifikator koji se bilježi ili {@link RayPacket#NO_HIT}
+	 *            ukoliko se bilježi indeks sfere
+	 */
+	private void intersect(RayPacket packet, int mask, int from, int to, int id) {
+		double[] startX = packet.startX;
+		double[] startY = packet.startY;
+		double[] startZ = packet.startZ;
+		double[] directionX = packet.directionX;
+		double[] directionY = packet.directionY;
+		double[] directionZ = packet.directionZ;
+		double[] distance = packet.distance;
+		int[] hit = packet.hit;
+		int size = packet.size();
+		for (int i = from; i < to; i++) {
+			double cx = centerX[i];
+			double cy = centerY[i];
+			double cz = centerZ[i];
+			double r2 = radiusSquared[i];
+			int recorded = id == RayPacket.NO_HIT ? i : id;
+			for (int lane = 0; lane < size; lane++) {
+				if ((mask & (1 << lane)) == 0) {
+					continue;
+				}
+
+				double dx = directionX[lane];
+				double dy = directionY[lane];
+				double dz = directionZ[lane];
+				double lambda = closestLambda(startX[lane] - cx, startY[lane] - cy, startZ[lane] - cz, dx, dy, dz,
+						r2);
+				if (!(lambda > 0)) {
+					continue;
+				}
+
+				double candidate = lambda * Math.sqrt(dx * dx + dy * dy + dz * dz);
+				if (candidate < distance[lane]) {
+					distance[lane] = candidate;
+					hit[lane] = recorded;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Metoda ispituje siječe li zraka <b>ray</b> neku od sfera s indeksima od
+	 * <b>from</b> do <b>to</b> (isključivo) na udaljenosti od ishodišta zrake
+	 * manjoj od <b>maxDistance</b>. Ispitivanje staje na prvoj takvoj sferi.
+	 *
+	 * @param ray
+	 *            zraka koja se ispituje
+	 * @param from
+	 *            indeks prve sfere koja se ispituje
+	 * @param to
+	 *            indeks do kojeg (isključivo) se sfere ispituju
+	 * @param maxDistance
+	 *            udaljenost od ishodišta zrake do koje se sjecište traži
+	 * @return <code>true</code> ukoliko neka sfera siječe zraku prije
+	 *         udaljenosti <b>maxDistance</b>
+	 */
+	public boolean occludes(Ray ray, int from, int to, double maxDistance) {
+		double sx = ray.start.x;
+		double sy = ray.start.y;
+		double sz = ray.start.z;
+		double dx = ray.direction.x;
+		double dy = ray.direction.y;
+		double dz = ray.direction.z;
+		double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		for (int i = from; i < to; i++) {
+			double lambda = closestLambda(sx - centerX[i], sy - centerY[i], sz - centerZ[i], dx, dy, dz,
+					radiusSquared[i]);
+			if (lambda > 0 && lambda * length < maxDistance) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean occludes(Ray ray, double maxDistance) {
+		return occludes(ray, 0, radius.length, maxDistance);
+	}
+
+	@Override
+	public double intersectionDistance(Ray ray) {
+		Hit hit = Hit.local();
+		nearest(ray, 0, radius.length, hit);
+		return hit.distance;
+	}
+
+	@Override
+	public RayIntersection findClosestRayIntersection(Ray ray) {
+		Hit hit = Hit.local();
+		nearest(ray, 0, radius.length, hit);
+		return hit.index == RayPacket.NO_HIT ? null : findRayIntersection(ray, hit.index);
+	}
+
+	/**
+	 * Metoda stvara sjecište zrake <b>ray</b> i sfere <b>index</b>. Sjecište
+	 * je jednako onome koje bi stvorila metoda
+	 * {@link Sphere#findClosestRayIntersection(Ray)} sfere iz koje je sfera
+	 * <b>index</b> prepisana.
+	 *
+	 * @param ray
+	 *            zraka
+	 * @param index
+	 *            indeks sfere
+	 * @return sjecište ili <code>null</code> ukoliko zraka ne siječe sferu
+	 *         ispred svog ishodišta
+	 */
+	public RayIntersection findRayIntersection(Ray ray, int index) {
+		Point3D start = ray.start;
+		Point3D direction = ray.direction;
+		double ox = start.x - centerX[index];
+		double oy = start.y - centerY[index];
+		double oz = start.z - centerZ[index];
+		double lambda = closestLambda(ox, oy, oz, direction.x, direction.y, direction.z, radiusSquared[index]);
+		if (!(lambda > 0)) {
+			return null;
+		}
+
+		// sjecište je vanjsko ukoliko ishodište zrake leži izvan sfere
+		boolean outer = ox * ox + oy * oy + oz * oz - radiusSquared[index] > 0;
+		Point3D directionVector = direction.scalarMultiply(lambda);
+		return new SetIntersection(start.add(directionVector), directionVector.norm(), outer, index);
+	}
+
+	@Override
+	public boolean findSurface(Ray ray, SurfacePoint surface) {
+		Hit hit = Hit.local();
+		nearest(ray, 0, radius.length, hit);
+		return hit.index != RayPacket.NO_HIT && findSurface(ray, hit.index, surface);
+	}
+
+	/**
+	 * Metoda zapisuje u <b>surface</b> podatke o sjecištu zrake <b>ray</b> i
+	 * sfere <b>index</b>. Zapisani podaci jednaki su podacima sjecišta koje bi
+	 * stvorila metoda {@link #findRayIntersection(Ray, int)}, ali se sjecište
+	 * ne stvara. Ukoliko sjecište ne postoji, <b>surface</b> ostaje
+	 * nepromijenjen.
+	 *
+	 * @param ray
+	 *            zraka
+	 * @param index
+	 *            indeks sfere
+	 * @param surface
+	 *            primjerak u koji se zapisuju podaci o sjecištu
+	 * @return <code>true</code> ukoliko zraka siječe sferu ispred svog
+	 *         ishodišta
+	 */
+	public boolean findSurface(Ray ray, int index, SurfacePoint surface) {
+		Point3D start = ray.start;
+		Point3D direction = ray.direction;
+		double ox = start.x - centerX[index];
+		double oy = start.y - centerY[index];
+		double oz = start.z - centerZ[index];
+		double lambda = closestLambda(ox, oy, oz, direction.x, direction.y, direction.z, radiusSquared[index]);
+		if (!(lambda > 0)) {
+			return false;
+		}
+
+		double vx = lambda * direction.x;
+		double vy = lambda * direction.y;
+		double vz = lambda * direction.z;
+		surface.x = start.x + vx;
+		surface.y = start.y + vy;
+		surface.z = start.z + vz;
+		surface.distance = Math.sqrt(vx * vx + vy * vy + vz * vz);
+		surface.outer = ox * ox + oy * oy + oz * oz - radiusSquared[index] > 0;
+		Sphere.setNormal(surface, surface.x - centerX[index], surface.y - centerY[index],
+				surface.z - centerZ[index]);
+		surface.kdr = kdr[index];
+		surface.kdg = kdg[index];
+		surface.kdb = kdb[index];
+		surface.krr = krr[index];
+		surface.krg = krg[index];
+		surface.krb = krb[index];
+		surface.krn = krn[index];
+		return true;
+	}
+
+	/**
+	 * Pomoćna metoda koja određuje parametar najbližeg sjecišta zrake sa
+	 * smjerom (<b>dx</b>, <b>dy</b>, <b>dz</b>) i sfere polumjera
+	 * <i>sqrt(</i><b>r2</b><i>)</i> ispred ishodišta zrake. Ishodište je
+	 * zadano relativno na središte sfere. Izračun je jednak onome u razredu
+	 * {@link Sphere}.
+	 *
+	 * @param ox
+	 *            koordinata x ishodišta zrake relativno na središte sfere
+	 * @param oy
+	 *            koordinata y ishodišta zrake relativno na središte sfere
+	 * @param oz
+	 *            koordinata z ishodišta zrake relativno na središte sfere
+	 * @param dx
+	 *            koordinata x smjera zrake
+	 * @param dy
+	 *            koordinata y smjera zrake
+	 * @param dz
+	 *            koordinata z smjera zrake
+	 * @param r2
+	 *            kvadrat radijusa sfere
+	 * @return parametar najbližeg sjecišta ili 0 ukoliko presjecište ne
+	 *         postoji ili je iza ishodišta
+	 */
+	private static double closestLambda(double ox, double oy, double oz, double dx, double dy, double dz,
+			double r2) {
+		double b = 2 * (dx * ox + dy * oy + dz * oz);
+		double c = ox * ox + oy * oy + oz * oz - r2;
+		double determinant = b * b - 4 * c;
+		// kompleksno rješenje
+		if (determinant < 0) {
+			return 0;
+		}
+		if (determinant == 0 && (-b) > 0) {
+			return -b;
+		}
+
+		double root = Math.sqrt(determinant);
+		double lambda1 = (-b + root) / 2;
+		double lambda2 = (-b - root) / 2;
+		// lambda2 je uvijek manji korijen
+		if (lambda2 > 0) {
+			return lambda2;
+		}
+		return lambda1 > 0 ? lambda1 : 0;
+	}
+
+	/**
+	 * Razred predstavlja dosad najbliže sjecište pri pretraživanju skupa
+	 * sfera: indeks sfere ({@link RayPacket#NO_HIT} ukoliko sjecišta nema) i
+	 * udaljenost do sjecišta. Primjerak se ponovno koristi za više upita
+	 * metodom {@link #reset()}, kako upiti ne bi zauzimali memoriju.
+	 *
+	 * @author Davor Češljaš
+	 */
+	public static final class Hit {
+
+		/** Primjerak za svaku dretvu, kako upiti ne bi zauzimali memoriju */
+		private static final ThreadLocal<Hit> LOCAL = ThreadLocal.withInitial(Hit::new);
+
+		/** Indeks najbliže sfere */
+		public int index;
+
+		/** Udaljenost do najbližeg sjecišta */
+		public double distance;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda bez sjecišta
+		 */
+		public Hit() {
+			reset();
+		}
+
+		/**
+		 * Metoda postavlja primjerak u stanje bez sjecišta
+		 */
+		public void reset() {
+			index = RayPacket.NO_HIT;
+			distance = Double.POSITIVE_INFINITY;
+		}
+
+		/**
+		 * Metoda dohvaća primjerak dretve koja je poziva, postavljen u stanje
+		 * bez sjecišta. Primjerak dijele svi upiti unutar dretve, pa vrijedi
+		 * samo do sljedećeg poziva ove metode.
+		 *
+		 * @return primjerak dretve koja poziva metodu
+		 */
+		public static Hit local() {
+			Hit hit = LOCAL.get();
+			hit.reset();
+			return hit;
+		}
+	}
+
+	/**
+	 * Razred koji predstavlja sjecište zrake i jedne sfere skupa.
+	 *
+	 * @see RayIntersection
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class SetIntersection extends RayIntersection {
+
+		/** Indeks sfere */
+		private final int index;
+
+		/** Normala na površinu sfere, računa se tek pri prvom dohvatu */
+		private Point3D normal;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param point
+		 *            točka sjecišta
+		 * @param distance
+		 *            udaljenost od ishodišta zrake do sjecišta
+		 * @param outer
+		 *            <code>true</code> ako je presjecište vanjsko,
+		 *            <code>false</code> inače
+		 * @param index
+		 *            indeks sfere
+		 */
+		public SetIntersection(Point3D point, double distance, boolean outer, int index) {
+			super(point, distance, outer);
+			this.index = index;
+		}
+
+		@Override
+		public Point3D getNormal() {
+			if (normal == null) {
+				normal = getPoint().sub(new Point3D(centerX[index], centerY[index], centerZ[index]))
+						.modifyNormalize();
+			}
+			return normal;
+		}
+
+		@Override
+		public double getKdr() {
+			return kdr[index];
+		}
+
+		@Override
+		public double getKdg() {
+			return kdg[index];
+		}
+
+		@Override
+		public double getKdb() {
+			return kdb[index];
+		}
+
+		@Override
+		public double getKrr() {
+			return krr[index];
+		}
+
+		@Override
+		public double getKrg() {
+			return krg[index];
+		}
+
+		@Override
+		public double getKrb() {
+			return krb[index];
+		}
+
+		@Override
+		public double getKrn() {
+			return krn[index];
+		}
+	}
+}
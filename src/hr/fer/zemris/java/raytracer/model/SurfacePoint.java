@@ -0,0 +1,87 @@
+package hr.fer.zemris.java.raytracer.model;
+
+/**
+ * Razred predstavlja točku površine koju je pogodila zraka, s podacima
+ * potrebnima za sjenčanje: točkom sjecišta, normalom, udaljenošću od
+ * ishodišta zrake i svojstvima materijala. Podaci su jednaki onima koje daje
+ * sjecište ({@link RayIntersection}), ali su spremljeni u primitivnim
+ * vrijednostima. Primjerak se ponovno koristi za više upita (vidi
+ * {@link Shadeable}), kako sjenčanje ne bi zauzimalo memoriju.
+ *
+ * @see Shadeable
+ *
+ * @author Davor Češljaš
+ */
+public final class SurfacePoint {
+
+	/** Koordinata x točke sjecišta */
+	public double x;
+
+	/** Koordinata y točke sjecišta */
+	public double y;
+
+	/** Koordinata z točke sjecišta */
+	public double z;
+
+	/** Koordinata x jedinične normale u točki sjecišta */
+	public double normalX;
+
+	/** Koordinata y jedinične normale u točki sjecišta */
+	public double normalY;
+
+	/** Koordinata z jedinične normale u točki sjecišta */
+	public double normalZ;
+
+	/** Udaljenost od ishodišta zrake do sjecišta */
+	public double distance;
+
+	/** Označava je li sjecište vanjsko */
+	public boolean outer;
+
+	/** @see RayIntersection#getKdr() */
+	public double kdr;
+
+	/** @see RayIntersection#getKdg() */
+	public double kdg;
+
+	/** @see RayIntersection#getKdb() */
+	public double kdb;
+
+	/** @see RayIntersection#getKrr() */
+	public double krr;
+
+	/** @see RayIntersection#getKrg() */
+	public double krg;
+
+	/** @see RayIntersection#getKrb() */
+	public double krb;
+
+	/** @see RayIntersection#getKrn() */
+	public double krn;
+
+	/**
+	 * Metoda prepisuje podatke sjecišta <b>intersection</b> u ovaj primjerak
+	 *
+	 * @param intersection
+	 *            sjecište koje se prepisuje
+	 */
+	public void set(RayIntersection intersection) {
+		Point3D point = intersection.getPoint();
+		Point3D normal = intersection.getNormal();
+		x = point.x;
+		y = point.y;
+		z = point.z;
+		normalX = normal.x;
+		normalY = normal.y;
+		normalZ = normal.z;
+		distance = intersection.getDistance();
+		outer = intersection.isOuter();
+		kdr = intersection.getKdr();
+		kdg = intersection.getKdg();
+		kdb = intersection.getKdb();
+		krr = intersection.getKrr();
+		krg = intersection.getKrg();
+		krb = intersection.getKrb();
+		krn = intersection.getKrn();
+	}
+}
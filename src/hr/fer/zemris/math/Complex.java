@@ -3,7 +3,9 @@ package hr.fer.zemris.math;
 import static hr.fer.zemris.math.DoubleUtil.doubleEquals;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import hr.fer.zemris.math.complex.ComplexParser;
 
@@ -50,8 +52,27 @@ public class Complex {
 	/** Konstantan primjerak ovog razreda koji predstavlja 0 - i1 */
 	public static final Complex IM_NEG = new Complex(0, -1);
 
-	/** Konstanta koja predstavlja potenciju 2 */
-	private static final int SQUARE = 2;
+	/** Najveći broj korijena jedinice čija se tablica pohranjuje */
+	private static final int MAX_CACHED_UNITY_ROOTS = 1 << 12;
+
+	/** Najveći broj pohranjenih tablica korijena jedinice */
+	private static final int UNITY_ROOTS_CACHE_SIZE = 8;
+
+	/**
+	 * Dijeljene tablice korijena jedinice, prema broju korijena. Čuvaju se
+	 * samo nedavno korištene tablice, a pristup je sinkroniziran nad samom
+	 * mapom.
+	 */
+	private static final Map<Integer, double[]> UNITY_ROOTS = new LinkedHashMap<Integer, double[]>(16, 0.75f,
+			true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, double[]> eldest) {
+			return size() > UNITY_ROOTS_CACHE_SIZE;
+		}
+	};
 
 	/** Članska varijabla koja predstavlja realan dio kompleksnog broja */
 	private double re;
@@ -90,7 +111,7 @@ public class Complex {
 	 * @return modul kompleksnog broja
 	 */
 	public double module() {
-		return Math.sqrt(Math.pow(re, SQUARE) + Math.pow(im, SQUARE));
+		return NumericPolicy.current().module(re, im);
 	}
 
 	/**
@@ -128,7 +149,7 @@ public class Complex {
 		}
 		double numeratorReal = re * c.re + im * c.im;
 		double numeratorImaginary = im * c.re - re * c.im;
-		double denominator = Math.pow(c.re, SQUARE) + Math.pow(c.im, SQUARE);
+		double denominator = NumericPolicy.current().squaredModule(c.re, c.im);
 
 		return new Complex(numeratorReal / denominator, numeratorImaginary / denominator);
 
@@ -179,7 +200,9 @@ public class Complex {
 	/**
 	 * Metoda vraća novi primjerak ovog razreda koji predstavlja potenciju
 	 * <b>n</b> ovog primjerka razreda {@link Complex}. Metoda niti na koji
-	 * način neće promijeniti ovaj primjerak razreda.
+	 * način neće promijeniti ovaj primjerak razreda. Potencija se računa u
+	 * pravokutnom obliku uzastopnim kvadriranjem, odnosno s najviše
+	 * <i>2*log2(n)</i> množenja i bez pretvorbe u polarni oblik.
 	 *
 	 * @param n
 	 *            potencija ovog primjerka razreda {@link Complex}
@@ -191,10 +214,24 @@ public class Complex {
 			throw new IllegalArgumentException("Eksponent ne može biti manji od nule");
 		}
 
-		double powMagnitude = Math.pow(module(), n);
-		double angle = getAngle();
-		return new Complex(powMagnitude * Math.cos(n * angle), powMagnitude * Math.sin(n * angle));
-
+		double resultRe = 1;
+		double resultIm = 0;
+		double baseRe = re;
+		double baseIm = im;
+		while (n > 0) {
+			if ((n & 1) != 0) {
+				double tmp = resultRe * baseRe - resultIm * baseIm;
+				resultIm = resultRe * baseIm + resultIm * baseRe;
+				resultRe = tmp;
+			}
+			n >>= 1;
+			if (n > 0) {
+				double tmp = baseRe * baseRe - baseIm * baseIm;
+				baseIm = 2 * baseRe * baseIm;
+				baseRe = tmp;
+			}
+		}
+		return new Complex(resultRe, resultIm);
 	}
 
 	/**
@@ -209,7 +246,7 @@ public class Complex {
 	 *         predanog primjerka razreda {@link Complex} <b>c</b>
 	 */
 	public double distance(Complex c) {
-		return Math.sqrt(Math.pow(this.re - c.re, SQUARE) + Math.pow(this.im - c.im, SQUARE));
+		return NumericPolicy.current().module(this.re - c.re, this.im - c.im);
 	}
 
 	/**
@@ -229,15 +266,78 @@ public class Complex {
 			throw new IllegalArgumentException("Korijen ne može biti " + n);
 		}
 
-		List<Complex> roots = new ArrayList<>();
+		// k-ti korijen je glavni korijen pomnožen s k-tim n-tim korijenom
+		// jedinice
 		double rootMagnitude = Math.pow(module(), 1.0 / n);
+		double angle = getAngle() / n;
+		double principalRe = rootMagnitude * Math.cos(angle);
+		double principalIm = rootMagnitude * Math.sin(angle);
+
+		double[] unity = rootsOfUnity(n);
+		List<Complex> roots = new ArrayList<>(n);
 		for (int k = 0; k < n; k++) {
-			roots.add(new Complex(rootMagnitude * getRootAngle(true, k, n), rootMagnitude * getRootAngle(false, k, n)));
+			double unityRe = unity[2 * k];
+			double unityIm = unity[2 * k + 1];
+			roots.add(new Complex(principalRe * unityRe - principalIm * unityIm,
+					principalRe * unityIm + principalIm * unityRe));
 		}
 
 		return roots;
 	}
 
+	/**
+	 * Pomoćna metoda koja dohvaća tablicu n-tih korijena jedinice
+	 * <i>e^(i*2*PI*k/n)</i> za <i>k = 0, 1, ... , n-1</i>. Realni i imaginarni
+	 * dijelovi u tablici su naizmjence. Tablice za <i>n</i> do
+	 * {@value #MAX_CACHED_UNITY_ROOTS} dijele se između svih dretvi, pri čemu
+	 * se čuva samo {@value #UNITY_ROOTS_CACHE_SIZE} zadnje korištenih tablica.
+	 * Veće tablice računaju se pri svakom pozivu.
+	 *
+	 * @param n
+	 *            broj korijena jedinice
+	 * @return tablica n-tih korijena jedinice, ne smije se mijenjati
+	 */
+	private static double[] rootsOfUnity(int n) {
+		if (n > MAX_CACHED_UNITY_ROOTS) {
+			return computeRootsOfUnity(n);
+		}
+
+		double[] table;
+		synchronized (UNITY_ROOTS) {
+			table = UNITY_ROOTS.get(n);
+		}
+		if (table != null) {
+			return table;
+		}
+
+		// tablica se računa izvan sinkroniziranog bloka
+		table = computeRootsOfUnity(n);
+		synchronized (UNITY_ROOTS) {
+			double[] previous = UNITY_ROOTS.putIfAbsent(n, table);
+			return previous != null ? previous : table;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja računa tablicu n-tih korijena jedinice. Svaki
+	 * korijen računa se izravno iz kuta kako se pogreška ne bi gomilala.
+	 *
+	 * @param n
+	 *            broj korijena jedinice
+	 * @return tablica n-tih korijena jedinice
+	 *
+	 * @see #rootsOfUnity(int)
+	 */
+	private static double[] computeRootsOfUnity(int n) {
+		double[] table = new double[2 * n];
+		for (int k = 0; k < n; k++) {
+			double angle = 2 * Math.PI * k / n;
+			table[2 * k] = Math.cos(angle);
+			table[2 * k + 1] = Math.sin(angle);
+		}
+		return table;
+	}
+
 	/**
 	 * Pomoćna metoda koja računa i dohvaća kut kompleksnog broja iz pretvorbe u
 	 * polarni oblika.
@@ -249,24 +349,6 @@ public class Complex {
 		return angle < 0 ? (angle + 2 * Math.PI) : angle;
 	}
 
-	/**
-	 * Pomoćna metoda za računanje kuta korijena. Koristi je {@link #root(int)}.
-	 * Moguće je računati realni ili imaginarni dio
-	 *
-	 * @param real
-	 *            <code><b>true</b></code> ako tražimo realan dio korijena,
-	 *            <code><b>false</b></code>inače
-	 * @param rootNumber
-	 *            broj korijena
-	 * @param root
-	 *            koji se korijen računa (n u metodi {@link #root(int)})
-	 * @return kut korijena
-	 */
-	private double getRootAngle(boolean real, int rootNumber, int root) {
-		double argument = (getAngle() + 2 * rootNumber * Math.PI) / root;
-		return real ? Math.cos(argument) : Math.sin(argument);
-	}
-
 	/**
 	 * Parsira predani argument <b>s</b> u primjerak razreda {@link Complex}.
 	 * Ukoliko nije moguće parsirati predani argument, metoda baca
@@ -0,0 +1,558 @@
+package hr.fer.zemris.math;
+
+import java.util.Arrays;
+
+/**
+ * Razred predstavlja polje kompleksnih brojeva pohranjeno kao dva polja
+ * primitivnih <b>double</b> vrijednosti: jedno za realne, a drugo za
+ * imaginarne dijelove. Za razliku od polja primjeraka razreda {@link Complex},
+ * čiji su elementi reference na objekte razbacane po memoriji, elementi ovog
+ * polja zauzimaju uzastopna mjesta u memoriji, a operacije nad njima ne
+ * stvaraju nove objekte.
+ * <p>
+ * Razred nudi skupne operacije nad elementima (zbrajanje, oduzimanje,
+ * množenje, dijeljenje, množenje sa zbrajanjem, modul i udaljenost) koje se
+ * provode nad rasponom indeksa <i>[from, to)</i>. Rezultat se zapisuje u
+ * predano polje rezultata koje smije biti jednako nekom od operanada, pa se
+ * operacije mogu provoditi i na mjestu, bez privremenih polja. Petlje su
+ * jednostavne i bez grananja kako bi ih JIT prevoditelj mogao vektorizirati.
+ * <p>
+ * Razred nije siguran za istovremeno korištenje iz više dretvi ukoliko neka od
+ * dretvi mijenja iste elemente.
+ *
+ * @see Complex
+ *
+ * @author Davor Češljaš
+ */
+public final class ComplexArray {
+
+	/** Realni dijelovi elemenata */
+	private final double[] re;
+
+	/** Imaginarni dijelovi elemenata */
+	private final double[] im;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda duljine
+	 * <b>length</b> čiji su svi elementi jednaki nuli.
+	 *
+	 * @param length
+	 *            duljina polja
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je duljina negativna
+	 */
+	public ComplexArray(int length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("Duljina polja ne smije biti negativna, a predana je " + length);
+		}
+
+		this.re = new double[length];
+		this.im = new double[length];
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda nad predanim
+	 * poljima realnih i imaginarnih dijelova. Polja se ne kopiraju, pa se
+	 * promjene elemenata ovog primjerka vide u predanim poljima i obrnuto.
+	 *
+	 * @param re
+	 *            realni dijelovi elemenata
+	 * @param im
+	 *            imaginarni dijelovi elemenata
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je neko od polja <code>null</code> ili ukoliko polja
+	 *             nisu jednake duljine
+	 */
+	public ComplexArray(double[] re, double[] im) {
+		if (re == null || im == null) {
+			throw new IllegalArgumentException("Polja ne smiju biti null!");
+		}
+		if (re.length != im.length) {
+			throw new IllegalArgumentException("Polja realnih i imaginarnih dijelova moraju biti jednake duljine!");
+		}
+
+		this.re = re;
+		this.im = im;
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda s elementima
+	 * jednakim predanim kompleksnim brojevima.
+	 *
+	 * @param numbers
+	 *            kompleksni brojevi koji se kopiraju u polje
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code>
+	 */
+	public ComplexArray(Complex... numbers) {
+		this(lengthOf(numbers));
+		for (int i = 0; i < numbers.length; i++) {
+			set(i, numbers[i]);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja vraća duljinu predanog polja kompleksnih brojeva.
+	 *
+	 * @param numbers
+	 *            polje kompleksnih brojeva
+	 * @return duljina polja
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code>
+	 */
+	private static int lengthOf(Complex[] numbers) {
+		if (numbers == null) {
+			throw new IllegalArgumentException("Kompleksni brojevi ne smiju biti null!");
+		}
+		return numbers.length;
+	}
+
+	/**
+	 * Metoda koja vraća duljinu ovog polja.
+	 *
+	 * @return duljina polja
+	 */
+	public int length() {
+		return re.length;
+	}
+
+	/**
+	 * Metoda koja dohvaća polje realnih dijelova elemenata. Vraća se polje
+	 * koje ovaj primjerak koristi, a ne njegova kopija.
+	 *
+	 * @return polje realnih dijelova elemenata
+	 */
+	public double[] realParts() {
+		return re;
+	}
+
+	/**
+	 * Metoda koja dohvaća polje imaginarnih dijelova elemenata. Vraća se polje
+	 * koje ovaj primjerak koristi, a ne njegova kopija.
+	 *
+	 * @return polje imaginarnih dijelova elemenata
+	 */
+	public double[] imaginaryParts() {
+		return im;
+	}
+
+	/**
+	 * Metoda koja dohvaća realni dio elementa s indeksom <b>index</b>.
+	 *
+	 * @param index
+	 *            indeks elementa
+	 * @return realni dio elementa
+	 */
+	public double getRe(int index) {
+		return re[index];
+	}
+
+	/**
+	 * Metoda koja dohvaća imaginarni dio elementa s indeksom <b>index</b>.
+	 *
+	 * @param index
+	 *            indeks elementa
+	 * @return imaginarni dio elementa
+	 */
+	public double getIm(int index) {
+		return im[index];
+	}
+
+	/**
+	 * Metoda koja dohvaća element s indeksom <b>index</b> kao novi primjerak
+	 * razreda {@link Complex}.
+	 *
+	 * @param index
+	 *            indeks elementa
+	 * @return element s indeksom <b>index</b>
+	 */
+	public Complex get(int index) {
+		return new Complex(re[index], im[index]);
+	}
+
+	/**
+	 * Metoda koja postavlja element s indeksom <b>index</b> na <i>re +
+	 * i*im</i>.
+	 *
+	 * @param index
+	 *            indeks elementa
+	 * @param re
+	 *            realni dio elementa
+	 * @param im
+	 *            imaginarni dio elementa
+	 */
+	public void set(int index, double re, double im) {
+		this.re[index] = re;
+		this.im[index] = im;
+	}
+
+	/**
+	 * Metoda koja postavlja element s indeksom <b>index</b> na vrijednost
+	 * predanog kompleksnog broja.
+	 *
+	 * @param index
+	 *            indeks elementa
+	 * @param c
+	 *            nova vrijednost elementa
+	 */
+	public void set(int index, Complex c) {
+		set(index, c.getRe(), c.getIm());
+	}
+
+	/**
+	 * Metoda koja vraća kopiju ovog polja.
+	 *
+	 * @return kopija ovog polja
+	 */
+	public ComplexArray copy() {
+		return new ComplexArray(re.clone(), im.clone());
+	}
+
+	/**
+	 * Metoda koja pretvara ovo polje u polje primjeraka razreda
+	 * {@link Complex}.
+	 *
+	 * @return polje primjeraka razreda {@link Complex}
+	 */
+	public Complex[] toComplexArray() {
+		Complex[] numbers = new Complex[re.length];
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = get(i);
+		}
+		return numbers;
+	}
+
+	/**
+	 * Metoda koja za svaki indeks <i>i</i> iz raspona <i>[from, to)</i> računa
+	 * <i>result[i] = a[i] + b[i]</i>.
+	 *
+	 * @param a
+	 *            prvi pribrojnik
+	 * @param b
+	 *            drugi pribrojnik
+	 * @param result
+	 *            polje rezultata, smije biti jednako <b>a</b> ili <b>b</b>
+	 * @param from
+	 *            početni indeks (uključivo)
+	 * @param to
+	 *            završni indeks (isključivo)
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko raspon nije unutar svih polja
+	 */
+	public static void add(ComplexArray a, ComplexArray b, ComplexArray result, int from, int to) {
+		checkRange(from, to, a, b, result);
+		double[] aRe = a.re, aIm = a.im, bRe = b.re, bIm = b.im, rRe = result.re, rIm = result.im;
+		for (int i = from; i < to; i++) {
+			rRe[i] = aRe[i] + bRe[i];
+			rIm[i] = aIm[i] + bIm[i];
+		}
+	}
+
+	/**
+	 * Metoda koja za svaki indeks <i>i</i> iz raspona <i>[from, to)</i> računa
+	 * <i>result[i] = a[i] - b[i]</i>.
+	 *
+	 * @param a
+	 *            umanjenik
+	 * @param b
+	 *            umanjitelj
+	 * @param result
+	 *            polje rezultata, smije biti jednako <b>a</b> ili <b>b</b>
+	 * @param from
+	 *            početni indeks (uključivo)
+	 * @param to
+	 *            završni indeks (isključivo)
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko raspon nije unutar svih polja
+	 */
+	public static void sub(ComplexArray a, ComplexArray b, ComplexArray result, int from, int to) {
+		checkRange(from, to, a, b, result);
+		double[] aRe = a.re, aIm = a.im, bRe = b.re, bIm = b.im, rRe = result.re, rIm = result.im;
+		for (int i = from; i < to; i++) {
+			rRe[i] = aRe[i] - bRe[i];
+			rIm[i] = aIm[i] - bIm[i];
+		}
+	}
+
+	/**
+	 * Metoda koja za svaki indeks <i>i</i> iz raspona <i>[from, to)</i> računa
+	 * <i>result[i] = a[i] * b[i]</i>.
+	 *
+	 * @param a
+	 *            prvi faktor
+	 * @param b
+	 *            drugi faktor
+	 * @param result
+	 *            polje rezultata, smije biti jednako <b>a</b> ili <b>b</b>
+	 * @param from
+	 *            početni indeks (uključivo)
+	 * @param to
+	 *            završni indeks (isključivo)
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko raspon nije unutar svih polja
+	 */
+	public static void multiply(ComplexArray a, ComplexArray b, ComplexArray result, int from, int to) {
+		checkRange(from, to, a, b, result);
+		double[] aRe = a.re, aIm = a.im, bRe = b.re, bIm = b.im, rRe = result.re, rIm = result.im;
+		for (int i = from; i < to; i++) {
+			double xRe = aRe[i], xIm = aIm[i], yRe = bRe[i], yIm = bIm[i];
+			rRe[i] = xRe * yRe - xIm * yIm;
+			rIm[i] = xRe * yIm + xIm * yRe;
+		}
+	}
+
+	/**
+	 * Metoda koja za svaki indeks <i>i</i> iz raspona <i>[from, to)</i> računa
+	 * <i>result[i] = a[i] / b[i]</i>. Za razliku od metode
+	 * {@link Complex#divide(Complex)} dijeljenje s nulom ne izaziva iznimku,
+	 * već daje beskonačnost ili <code>NaN</code> prema pravilima
+	 * <b>double</b> aritmetike.
+	 *
+	 * @param a
+	 *            djeljenik
+	 * @param b
+	 *            djelitelj
+	 * @param result
+	 *            polje rezultata, smije biti jednako <b>a</b> ili <b>b</b>
+	 * @param from
+	 *            početni indeks (uključivo)
+	 * @param to
+	 *            završni indeks (isključivo)
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko raspon nije unutar svih polja
+	 */
+	public static void divide(ComplexArray a, ComplexArray b, ComplexArray result, int from, int to) {
+		checkRange(from, to, a, b, result);
+		double[] aRe = a.re, aIm = a.im, bRe = b.re, bIm = b.im, rRe = result.re, rIm = result.im;
+		for (int i = from; i < to; i++) {
+			double xRe = aRe[i], xIm = aIm[i], yRe = bRe[i], yIm = bIm[i];
+			double denominator = yRe * yRe + yIm * yIm;
+			rRe[i] = (xRe * yRe + xIm * yIm) / denominator;
+			rIm[i] = (xIm * yRe - xRe * yIm) / denominator;
+		}
+	}
+
+	/**
+	 * Metoda koja za svaki indeks <i>i</i> iz raspona <i>[from, to)</i> računa
+	 * <i>result[i] = a[i] * b[i] + c[i]</i> u jednom prolazu, bez privremenog
+	 * polja umnožaka.
+	 *
+	 * @param a
+	 *            prvi faktor
+	 * @param b
+	 *            drugi faktor
+	 * @param c
+	 *            pribrojnik
+	 * @param result
+	 *            polje rezultata, smije biti jednako nekom od operanada
+	 * @param from
+	 *            početni indeks (uključivo)
+	 * @param to
+	 *            završni indeks (isključivo)
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko raspon nije unutar svih polja
+	 */
+	public static void multiplyAdd(ComplexArray a, ComplexArray b, ComplexArray c, ComplexArray result, int from,
+			int to) {
+		checkRange(from, to, a, b, c, result);
+		double[] aRe = a.re, aIm = a.im, bRe = b.re, bIm = b.im, cRe = c.re, cIm = c.im, rRe = result.re,
+				rIm = result.im;
+		for (int i = from; i < to; i++) {
+			double xRe = aRe[i], xIm = aIm[i], yRe = bRe[i], yIm = bIm[i];
+			rRe[i] = xRe * yRe - xIm * yIm + cRe[i];
+			rIm[i] = xRe * yIm + xIm * yRe + cIm[i];
+		}
+	}
+
+	/**
+	 * Metoda koja za svaki indeks <i>i</i> iz raspona <i>[from, to)</i> računa
+	 * modul <i>|a[i]|</i> i zapisuje ga u <b>result[i]</b>.
+	 *
+	 * @param a
+	 *            polje čiji se moduli računaju
+	 * @param result
+	 *            polje rezultata
+	 * @param from
+	 *            početni indeks (uključivo)
+	 * @param to
+	 *            završni indeks (isključivo)
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko raspon nije unutar oba polja
+	 */
+	public static void module(ComplexArray a, double[] result, int from, int to) {
+		checkRange(from, to, a);
+		checkRange(from, to, result.length);
+		double[] aRe = a.re, aIm = a.im;
+		for (int i = from; i < to; i++) {
+			result[i] = Math.sqrt(aRe[i] * aRe[i] + aIm[i] * aIm[i]);
+		}
+	}
+
+	/**
+	 * Metoda koja za svaki indeks <i>i</i> iz raspona <i>[from, to)</i> računa
+	 * udaljenost <i>|a[i] - b[i]|</i> i zapisuje je u <b>result[i]</b>.
+	 *
+	 * @param a
+	 *            prvo polje točaka
+	 * @param b
+	 *            drugo polje točaka
+	 * @param result
+	 *            polje rezultata
+	 * @param from
+	 *            početni indeks (uključivo)
+	 * @param to
+	 *            završni indeks (isključivo)
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko raspon nije unutar svih polja
+	 */
+	public static void distance(ComplexArray a, ComplexArray b, double[] result, int from, int to) {
+		checkRange(from, to, a, b);
+		checkRange(from, to, result.length);
+		double[] aRe = a.re, aIm = a.im, bRe = b.re, bIm = b.im;
+		for (int i = from; i < to; i++) {
+			double dRe = aRe[i] - bRe[i];
+			double dIm = aIm[i] - bIm[i];
+			result[i] = Math.sqrt(dRe * dRe + dIm * dIm);
+		}
+	}
+
+	/**
+	 * Metoda koja ovom polju na mjestu pribraja polje <b>other</b>, odnosno
+	 * računa <i>this[i] = this[i] + other[i]</i> za sve elemente.
+	 *
+	 * @param other
+	 *            pribrojnik
+	 * @return ovaj primjerak razreda
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko polja nisu jednake duljine
+	 */
+	public ComplexArray addInPlace(ComplexArray other) {
+		add(this, requireSameLength(other), this, 0, re.length);
+		return this;
+	}
+
+	/**
+	 * Metoda koja od ovog polja na mjestu oduzima polje <b>other</b>, odnosno
+	 * računa <i>this[i] = this[i] - other[i]</i> za sve elemente.
+	 *
+	 * @param other
+	 *            umanjitelj
+	 * @return ovaj primjerak razreda
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko polja nisu jednake duljine
+	 */
+	public ComplexArray subInPlace(ComplexArray other) {
+		sub(this, requireSameLength(other), this, 0, re.length);
+		return this;
+	}
+
+	/**
+	 * Metoda koja ovo polje na mjestu množi poljem <b>other</b>, odnosno
+	 * računa <i>this[i] = this[i] * other[i]</i> za sve elemente.
+	 *
+	 * @param other
+	 *            množitelj
+	 * @return ovaj primjerak razreda
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko polja nisu jednake duljine
+	 */
+	public ComplexArray multiplyInPlace(ComplexArray other) {
+		multiply(this, requireSameLength(other), this, 0, re.length);
+		return this;
+	}
+
+	/**
+	 * Metoda koja ovo polje na mjestu dijeli poljem <b>other</b>, odnosno
+	 * računa <i>this[i] = this[i] / other[i]</i> za sve elemente.
+	 *
+	 * @param other
+	 *            djelitelj
+	 * @return ovaj primjerak razreda
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko polja nisu jednake duljine
+	 */
+	public ComplexArray divideInPlace(ComplexArray other) {
+		divide(this, requireSameLength(other), this, 0, re.length);
+		return this;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li predano polje jednake duljine kao
+	 * ovo polje.
+	 *
+	 * @param other
+	 *            polje koje se provjerava
+	 * @return predano polje
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko polja nisu jednake duljine
+	 */
+	private ComplexArray requireSameLength(ComplexArray other) {
+		if (other.re.length != re.length) {
+			throw new IllegalArgumentException(
+					"Polja moraju biti jednake duljine, a duljine su " + re.length + " i " + other.re.length);
+		}
+		return other;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava nalazi li se raspon <i>[from, to)</i>
+	 * unutar svih predanih polja.
+	 *
+	 * @param from
+	 *            početni indeks (uključivo)
+	 * @param to
+	 *            završni indeks (isključivo)
+	 * @param arrays
+	 *            polja koja se provjeravaju
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko raspon nije unutar nekog od polja
+	 */
+	private static void checkRange(int from, int to, ComplexArray... arrays) {
+		for (ComplexArray array : arrays) {
+			checkRange(from, to, array.re.length);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava nalazi li se raspon <i>[from, to)</i>
+	 * unutar polja duljine <b>length</b>.
+	 *
+	 * @param from
+	 *            početni indeks (uključivo)
+	 * @param to
+	 *            završni indeks (isključivo)
+	 * @param length
+	 *            duljina polja
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko raspon nije unutar polja
+	 */
+	private static void checkRange(int from, int to, int length) {
+		if (from < 0 || from > to || to > length) {
+			throw new IllegalArgumentException(
+					"Raspon [" + from + ", " + to + ") nije unutar polja duljine " + length + "!");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toComplexArray());
+	}
+}
@@ -0,0 +1,380 @@
+package hr.fer.zemris.math;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Razred predstavlja binarni format za pohranu polja kompleksnih brojeva,
+ * kompleksnih polinoma ({@link ComplexPolynomial}) i kompleksnih polinoma
+ * zadanih korijenima ({@link ComplexRootedPolynomial}). Za razliku od
+ * tekstualnog zapisa (vidi {@link hr.fer.zemris.math.complex.ComplexParser}),
+ * binarni zapis nije potrebno analizirati pa se i vrlo velike datoteke učitavaju
+ * u nekoliko milisekundi.
+ * <p>
+ * Datoteka se sastoji od zaglavlja duljine {@value #HEADER_SIZE} bajtova:
+ * <ul>
+ * <li>4 bajta - oznaka formata <i>"CPLX"</i></li>
+ * <li>2 bajta - inačica formata (trenutno {@value #VERSION})</li>
+ * <li>1 bajt - vrsta zapisa (vidi {@link Kind})</li>
+ * <li>1 bajt - rezervirano, uvijek 0</li>
+ * <li>8 bajtova - broj kompleksnih brojeva <i>n</i></li>
+ * </ul>
+ * nakon kojeg slijedi <i>n</i> realnih dijelova pa <i>n</i> imaginarnih
+ * dijelova. Sve vrijednosti zapisane su u poretku <i>little-endian</i>.
+ * Faktori polinoma zapisuju se redom <i>z0, z1, ... , zn</i>, a korijeni
+ * redom kojim ih vraća metoda {@link ComplexRootedPolynomial#getRoots()}.
+ * <p>
+ * Čitanje i pisanje provodi se preko datoteke mapirane u memoriju
+ * ({@link FileChannel#map(MapMode, long, long)}), a realni i imaginarni
+ * dijelovi kopiraju se jednom skupnom operacijom u polja primitivnih
+ * vrijednosti. Metoda {@link #readArray(Path)} zato ne stvara niti jedan
+ * objekt po pročitanom broju.
+ *
+ * @see ComplexArray
+ *
+ * @author Davor Češljaš
+ */
+public final class ComplexBinaryFormat {
+
+	/**
+	 * Enumeracija predstavlja vrstu zapisa pohranjenog u datoteci
+	 *
+	 * @author Davor Češljaš
+	 */
+	public enum Kind {
+		/** Polje kompleksnih brojeva */
+		ARRAY,
+		/** Faktori kompleksnog polinoma */
+		POLYNOMIAL,
+		/** Korijeni kompleksnog polinoma */
+		ROOTED_POLYNOMIAL;
+	}
+
+	/** Oznaka formata na početku svake datoteke */
+	private static final byte[] MAGIC = { 'C', 'P', 'L', 'X' };
+
+	/** Trenutna inačica formata */
+	public static final short VERSION = 1;
+
+	/** Duljina zaglavlja u bajtovima */
+	public static final int HEADER_SIZE = 16;
+
+	/**
+	 * Najveći broj kompleksnih brojeva u jednoj datoteci. Datoteka se mapira
+	 * u memoriju jednim pozivom metode
+	 * {@link FileChannel#map(MapMode, long, long)}, koji ne može mapirati više
+	 * od {@link Integer#MAX_VALUE} bajtova, pa zaglavlje i oba bloka dijelova
+	 * zajedno moraju stati u toliko bajtova.
+	 */
+	public static final int MAX_LENGTH = (Integer.MAX_VALUE - HEADER_SIZE) / (2 * Double.BYTES);
+
+	/**
+	 * Privatni konstruktor koji služi da se ne mogu stvarati primjerci ovog
+	 * razreda
+	 */
+	private ComplexBinaryFormat() {
+	}
+
+	/**
+	 * Metoda koja zapisuje polje kompleksnih brojeva <b>array</b> u datoteku
+	 * <b>file</b>. Ukoliko datoteka postoji, njezin sadržaj se prepisuje.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @param array
+	 *            polje kompleksnih brojeva
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja
+	 * @throws IllegalArgumentException
+	 *             ukoliko je neki od argumenata <code>null</code> ili ukoliko
+	 *             se zapisuje više od {@value #MAX_LENGTH} brojeva
+	 */
+	public static void write(Path file, ComplexArray array) throws IOException {
+		if (array == null) {
+			throw new IllegalArgumentException("Polje kompleksnih brojeva ne smije biti null!");
+		}
+
+		write(file, Kind.ARRAY, array);
+	}
+
+	/**
+	 * Metoda koja zapisuje faktore polinoma <b>polynomial</b> u datoteku
+	 * <b>file</b>. Ukoliko datoteka postoji, njezin sadržaj se prepisuje.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @param polynomial
+	 *            polinom
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja
+	 * @throws IllegalArgumentException
+	 *             ukoliko je neki od argumenata <code>null</code> ili ukoliko
+	 *             se zapisuje više od {@value #MAX_LENGTH} brojeva
+	 */
+	public static void write(Path file, ComplexPolynomial polynomial) throws IOException {
+		if (polynomial == null) {
+			throw new IllegalArgumentException("Polinom ne smije biti null!");
+		}
+
+		write(file, Kind.POLYNOMIAL, new ComplexArray(polynomial.getFactors()));
+	}
+
+	/**
+	 * Metoda koja zapisuje korijene polinoma <b>polynomial</b> u datoteku
+	 * <b>file</b>. Ukoliko datoteka postoji, njezin sadržaj se prepisuje.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @param polynomial
+	 *            polinom zadan korijenima
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja
+	 * @throws IllegalArgumentException
+	 *             ukoliko je neki od argumenata <code>null</code> ili ukoliko
+	 *             se zapisuje više od {@value #MAX_LENGTH} brojeva
+	 */
+	public static void write(Path file, ComplexRootedPolynomial polynomial) throws IOException {
+		if (polynomial == null) {
+			throw new IllegalArgumentException("Polinom ne smije biti null!");
+		}
+
+		write(file, Kind.ROOTED_POLYNOMIAL, new ComplexArray(polynomial.getRoots()));
+	}
+
+	/**
+	 * Metoda koja čita kompleksne brojeve iz datoteke <b>file</b> bez obzira
+	 * na vrstu zapisa. Brojevi se kopiraju izravno u polja primitivnih
+	 * vrijednosti vraćenog primjerka razreda {@link ComplexArray}.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @return pročitani kompleksni brojevi
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code> ili ukoliko
+	 *             datoteka nije u ovom formatu
+	 */
+	public static ComplexArray readArray(Path file) throws IOException {
+		return read(file, null);
+	}
+
+	/**
+	 * Metoda koja čita polinom iz datoteke <b>file</b> zapisane metodom
+	 * {@link #write(Path, ComplexPolynomial)}.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @return pročitani polinom
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code>, ukoliko
+	 *             datoteka nije u ovom formatu ili ukoliko u njoj nije zapisan
+	 *             polinom
+	 */
+	public static ComplexPolynomial readPolynomial(Path file) throws IOException {
+		return new ComplexPolynomial(read(file, Kind.POLYNOMIAL).toComplexArray());
+	}
+
+	/**
+	 * Metoda koja čita polinom zadan korijenima iz datoteke <b>file</b>
+	 * zapisane metodom {@link #write(Path, ComplexRootedPolynomial)}.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @return pročitani polinom zadan korijenima
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code>, ukoliko
+	 *             datoteka nije u ovom formatu ili ukoliko u njoj nisu zapisani
+	 *             korijeni polinoma
+	 */
+	public static ComplexRootedPolynomial readRootedPolynomial(Path file) throws IOException {
+		return new ComplexRootedPolynomial(read(file, Kind.ROOTED_POLYNOMIAL).toComplexArray());
+	}
+
+	/**
+	 * Metoda koja čita samo zaglavlje datoteke <b>file</b> i vraća vrstu
+	 * zapisa.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @return vrsta zapisa u datoteci
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code> ili ukoliko
+	 *             datoteka nije u ovom formatu
+	 */
+	public static Kind kindOf(Path file) throws IOException {
+		checkFile(file);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = readHeader(channel, file);
+			return kindOf(header, file);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja zapisuje zaglavlje i kompleksne brojeve u datoteku.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @param kind
+	 *            vrsta zapisa
+	 * @param array
+	 *            kompleksni brojevi koji se zapisuju
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom pisanja
+	 * @throws IllegalArgumentException
+	 *             ukoliko se zapisuje više od {@value #MAX_LENGTH} brojeva
+	 */
+	private static void write(Path file, Kind kind, ComplexArray array) throws IOException {
+		checkFile(file);
+
+		int length = array.length();
+		if (length > MAX_LENGTH) {
+			throw new IllegalArgumentException(
+					"U datoteku se može zapisati najviše " + MAX_LENGTH + " brojeva, a predano je " + length + "!");
+		}
+
+		long blockSize = (long) length * Double.BYTES;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE + 2 * blockSize);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.put(MAGIC).putShort(VERSION).put((byte) kind.ordinal()).put((byte) 0).putLong(length);
+			buffer.asDoubleBuffer().put(array.realParts(), 0, length).put(array.imaginaryParts(), 0, length);
+			buffer.force();
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja čita kompleksne brojeve iz datoteke i provjerava
+	 * vrstu zapisa.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @param expected
+	 *            očekivana vrsta zapisa ili <code>null</code> ukoliko je
+	 *            prihvatljiva bilo koja vrsta
+	 * @return pročitani kompleksni brojevi
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 */
+	private static ComplexArray read(Path file, Kind expected) throws IOException {
+		checkFile(file);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = readHeader(channel, file);
+			Kind kind = kindOf(header, file);
+			if (expected != null && kind != expected) {
+				throw new IllegalArgumentException(
+						"U datoteci " + file + " zapisan je " + kind + ", a očekivan je " + expected + "!");
+			}
+
+			long length = header.getLong();
+			if (length < 0 || length > MAX_LENGTH
+					|| channel.size() != HEADER_SIZE + 2 * length * Double.BYTES) {
+				throw new IllegalArgumentException(
+						"Duljina datoteke " + file + " ne odgovara broju zapisanih brojeva " + length + "!");
+			}
+
+			double[] re = new double[(int) length];
+			double[] im = new double[(int) length];
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, HEADER_SIZE, 2 * length * Double.BYTES);
+			buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(re).get(im);
+			return new ComplexArray(re, im);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja čita zaglavlje datoteke te provjerava oznaku i
+	 * inačicu formata. Vraćeni spremnik postavljen je iza inačice formata.
+	 *
+	 * @param channel
+	 *            kanal otvorene datoteke
+	 * @param file
+	 *            putanja do datoteke, koristi se za poruke o pogrešci
+	 * @return spremnik sa zaglavljem
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 */
+	private static ByteBuffer readHeader(FileChannel channel, Path file) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		while (header.hasRemaining() && channel.read(header) >= 0) {
+			// čita se dok se zaglavlje ne popuni ili dok se ne dođe do kraja
+		}
+		header.flip();
+
+		if (header.remaining() != HEADER_SIZE) {
+			throw new IllegalArgumentException("Datoteka " + file + " je prekratka!");
+		}
+		for (byte b : MAGIC) {
+			if (header.get() != b) {
+				throw new IllegalArgumentException("Datoteka " + file + " nije u binarnom formatu kompleksnih brojeva!");
+			}
+		}
+
+		short version = header.getShort();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Inačica formata " + version + " datoteke " + file + " nije podržana!");
+		}
+
+		return header;
+	}
+
+	/**
+	 * Pomoćna metoda koja iz zaglavlja čita vrstu zapisa i preskače
+	 * rezervirani bajt.
+	 *
+	 * @param header
+	 *            spremnik postavljen iza inačice formata
+	 * @param file
+	 *            putanja do datoteke, koristi se za poruke o pogrešci
+	 * @return vrsta zapisa
+	 */
+	private static Kind kindOf(ByteBuffer header, Path file) {
+		int ordinal = header.get();
+		header.get();
+		if (ordinal < 0 || ordinal >= Kind.values().length) {
+			throw new IllegalArgumentException("Nepoznata vrsta zapisa " + ordinal + " u datoteci " + file + "!");
+		}
+
+		return Kind.values()[ordinal];
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava da putanja do datoteke nije
+	 * <code>null</code>.
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code>
+	 */
+	private static void checkFile(Path file) {
+		if (file == null) {
+			throw new IllegalArgumentException("Putanja do datoteke ne smije biti null!");
+		}
+	}
+}
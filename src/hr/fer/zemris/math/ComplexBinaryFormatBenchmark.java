@@ -0,0 +1,127 @@
+package hr.fer.zemris.math;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import hr.fer.zemris.benchmark.BenchmarkResult;
+import hr.fer.zemris.benchmark.BenchmarkRunner;
+import hr.fer.zemris.math.complex.ComplexStreamParser;
+
+/**
+ * Razred predstavlja program koji uspoređuje trajanje učitavanja kompleksnih
+ * brojeva iz tekstualne datoteke (metodom
+ * {@link ComplexStreamParser#parse(Path)}) i iz datoteke u binarnom formatu
+ * (metodom {@link ComplexBinaryFormat#readArray(Path)}). Broj kompleksnih
+ * brojeva može se predati kao argument naredbenog retka, a podrazumijevano
+ * iznosi {@value #DEFAULT_LENGTH}. Mjerenje provodi {@link BenchmarkRunner}.
+ *
+ * @see ComplexBinaryFormat
+ *
+ * @author Davor Češljaš
+ */
+public class ComplexBinaryFormatBenchmark {
+
+	/** Podrazumijevani broj kompleksnih brojeva */
+	private static final int DEFAULT_LENGTH = 1_000_000;
+
+	/** Broj učitavanja prije mjerenja (zagrijavanje) */
+	private static final int WARMUP_ROUNDS = 1;
+
+	/** Broj mjerenih učitavanja */
+	private static final int ROUNDS = 5;
+
+	/**
+	 * Metoda od koje započinje izvođenje programa.
+	 *
+	 * @param args
+	 *            argumenti naredbenog redka. Ukoliko je predan, prvi argument
+	 *            predstavlja broj kompleksnih brojeva
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom rada s datotekama
+	 */
+	public static void main(String[] args) throws IOException {
+		int length = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LENGTH;
+
+		Random random = new Random(42);
+		ComplexArray numbers = new ComplexArray(length);
+		for (int i = 0; i < length; i++) {
+			numbers.set(i, random.nextGaussian(), random.nextGaussian());
+		}
+
+		Path text = Files.createTempFile("complex", ".txt");
+		Path binary = Files.createTempFile("complex", ".cplx");
+		try {
+			try (BufferedWriter writer = Files.newBufferedWriter(text, StandardCharsets.US_ASCII)) {
+				for (int i = 0; i < length; i++) {
+					// znanstveni zapis nije dio tekstualnog formata
+					double im = numbers.getIm(i);
+					writer.write(BigDecimal.valueOf(numbers.getRe(i)).toPlainString() + (im < 0 ? " - i" : " + i")
+							+ BigDecimal.valueOf(Math.abs(im)).toPlainString());
+					writer.newLine();
+				}
+			}
+			ComplexBinaryFormat.write(binary, numbers);
+
+			System.out.printf("Brojeva: %d, tekst: %d B, binarno: %d B%n", length, Files.size(text),
+					Files.size(binary));
+			// učitavanje traje dovoljno dugo da se u svakom krugu izvodi
+			// samo jednom
+			BenchmarkRunner runner = new BenchmarkRunner(WARMUP_ROUNDS, ROUNDS, 1);
+			String parameters = "n=" + length;
+			runner.add("ComplexStreamParser.parse", parameters, () -> read(() -> ComplexStreamParser.parse(text)));
+			runner.add("ComplexBinaryFormat.readArray", parameters,
+					() -> read(() -> ComplexBinaryFormat.readArray(binary)));
+			List<BenchmarkResult> results = runner.run(name -> true);
+
+			double textTime = results.get(0).getMeanNanos() / 1e6;
+			double binaryTime = results.get(1).getMeanNanos() / 1e6;
+			System.out.printf("tekst: %10.2f ms, binarno: %10.2f ms, ubrzanje: %6.1fx%n", textTime, binaryTime,
+					textTime / binaryTime);
+		} finally {
+			Files.delete(text);
+			Files.delete(binary);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja izvodi učitavanje <b>reader</b> kao posao koji se
+	 * mjeri, pretvarajući pogrešku prilikom čitanja u neprovjeravanu iznimku.
+	 *
+	 * @param reader
+	 *            učitavanje kompleksnih brojeva
+	 * @return broj učitanih kompleksnih brojeva
+	 * @throws UncheckedIOException
+	 *             ukoliko dođe do pogreške prilikom čitanja
+	 */
+	private static double read(Reader reader) {
+		try {
+			return reader.read().length();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Funkcijsko sučelje koje predstavlja učitavanje kompleksnih brojeva.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private interface Reader {
+
+		/**
+		 * Metoda koja učitava kompleksne brojeve.
+		 *
+		 * @return učitani kompleksni brojevi
+		 * @throws IOException
+		 *             ukoliko dođe do pogreške prilikom čitanja
+		 */
+		ComplexArray read() throws IOException;
+	}
+}
@@ -0,0 +1,200 @@
+package hr.fer.zemris.math;
+
+/**
+ * Pomoćni razred koji predstavlja biblioteku metoda za množenje kompleksnih
+ * polinoma čiji su faktori pohranjeni u poljima primitivnih <b>double</b>
+ * vrijednosti (zasebno realni i imaginarni dijelovi). Za polinome malog reda
+ * množenje se provodi klasičnim postupkom složenosti <i>O(n*m)</i>, a za
+ * polinome većeg reda brzom Fourierovom transformacijom (FFT) složenosti
+ * <i>O(n log n)</i>. Odabir postupka je automatski i ovisi o konstanti
+ * {@value #SCHOOLBOOK_TRESHOLD}.
+ *
+ * @see ComplexPolynomial#multiply(ComplexPolynomial)
+ * @see ComplexRootedPolynomial#toComplexPolynom()
+ *
+ * @author Davor Češljaš
+ */
+public class ComplexFFT {
+
+	/**
+	 * Konstanta koja predstavlja najveći broj faktora manjeg polinoma za koji
+	 * se množenje provodi klasičnim postupkom
+	 */
+	public static final int SCHOOLBOOK_TRESHOLD = 48;
+
+	/**
+	 * Metoda koja množi polinome <i>a</i> i <i>b</i> čiji su faktori predani
+	 * kao realni i imaginarni dijelovi, od najmanje potencije prema najvećoj.
+	 * Ukoliko manji od polinoma ima najviše {@value #SCHOOLBOOK_TRESHOLD}
+	 * faktora, koristi se klasični postupak, a inače FFT.
+	 *
+	 * @param aRe
+	 *            realni dijelovi faktora prvog polinoma
+	 * @param aIm
+	 *            imaginarni dijelovi faktora prvog polinoma
+	 * @param bRe
+	 *            realni dijelovi faktora drugog polinoma
+	 * @param bIm
+	 *            imaginarni dijelovi faktora drugog polinoma
+	 * @return polje veličine 2 čiji je prvi element polje realnih, a drugi
+	 *         polje imaginarnih dijelova faktora umnoška
+	 */
+	public static double[][] multiply(double[] aRe, double[] aIm, double[] bRe, double[] bIm) {
+		if (Math.min(aRe.length, bRe.length) <= SCHOOLBOOK_TRESHOLD) {
+			return multiplySchoolbook(aRe, aIm, bRe, bIm);
+		}
+		return multiplyFFT(aRe, aIm, bRe, bIm);
+	}
+
+	/**
+	 * Metoda koja množi polinome klasičnim postupkom složenosti <i>O(n*m)</i>.
+	 * Parametri i povratna vrijednost jednaki su kao kod metode
+	 * {@link #multiply(double[], double[], double[], double[])}.
+	 *
+	 * @param aRe
+	 *            realni dijelovi faktora prvog polinoma
+	 * @param aIm
+	 *            imaginarni dijelovi faktora prvog polinoma
+	 * @param bRe
+	 *            realni dijelovi faktora drugog polinoma
+	 * @param bIm
+	 *            imaginarni dijelovi faktora drugog polinoma
+	 * @return realni i imaginarni dijelovi faktora umnoška
+	 */
+	public static double[][] multiplySchoolbook(double[] aRe, double[] aIm, double[] bRe, double[] bIm) {
+		if (aRe.length == 0 || bRe.length == 0) {
+			return new double[][] { new double[0], new double[0] };
+		}
+
+		double[] re = new double[aRe.length + bRe.length - 1];
+		double[] im = new double[re.length];
+		for (int i = 0; i < aRe.length; i++) {
+			double xRe = aRe[i];
+			double xIm = aIm[i];
+			for (int j = 0; j < bRe.length; j++) {
+				re[i + j] += xRe * bRe[j] - xIm * bIm[j];
+				im[i + j] += xRe * bIm[j] + xIm * bRe[j];
+			}
+		}
+		return new double[][] { re, im };
+	}
+
+	/**
+	 * Metoda koja množi polinome brzom Fourierovom transformacijom složenosti
+	 * <i>O(n log n)</i>. Parametri i povratna vrijednost jednaki su kao kod
+	 * metode {@link #multiply(double[], double[], double[], double[])}.
+	 *
+	 * @param aRe
+	 *            realni dijelovi faktora prvog polinoma
+	 * @param aIm
+	 *            imaginarni dijelovi faktora prvog polinoma
+	 * @param bRe
+	 *            realni dijelovi faktora drugog polinoma
+	 * @param bIm
+	 *            imaginarni dijelovi faktora drugog polinoma
+	 * @return realni i imaginarni dijelovi faktora umnoška
+	 */
+	public static double[][] multiplyFFT(double[] aRe, double[] aIm, double[] bRe, double[] bIm) {
+		if (aRe.length == 0 || bRe.length == 0) {
+			return new double[][] { new double[0], new double[0] };
+		}
+
+		int length = aRe.length + bRe.length - 1;
+		int n = Integer.highestOneBit(length);
+		if (n < length) {
+			n <<= 1;
+		}
+
+		double[] xRe = new double[n];
+		double[] xIm = new double[n];
+		double[] yRe = new double[n];
+		double[] yIm = new double[n];
+		System.arraycopy(aRe, 0, xRe, 0, aRe.length);
+		System.arraycopy(aIm, 0, xIm, 0, aIm.length);
+		System.arraycopy(bRe, 0, yRe, 0, bRe.length);
+		System.arraycopy(bIm, 0, yIm, 0, bIm.length);
+
+		double[] cos = new double[n / 2];
+		double[] sin = new double[n / 2];
+		for (int i = 0; i < n / 2; i++) {
+			double angle = 2 * Math.PI * i / n;
+			cos[i] = Math.cos(angle);
+			sin[i] = Math.sin(angle);
+		}
+
+		transform(xRe, xIm, cos, sin, false);
+		transform(yRe, yIm, cos, sin, false);
+		for (int i = 0; i < n; i++) {
+			double tmp = xRe[i] * yRe[i] - xIm[i] * yIm[i];
+			xIm[i] = xRe[i] * yIm[i] + xIm[i] * yRe[i];
+			xRe[i] = tmp;
+		}
+		transform(xRe, xIm, cos, sin, true);
+
+		double[] re = new double[length];
+		double[] im = new double[length];
+		for (int i = 0; i < length; i++) {
+			re[i] = xRe[i] / n;
+			im[i] = xIm[i] / n;
+		}
+		return new double[][] { re, im };
+	}
+
+	/**
+	 * Pomoćna metoda koja provodi iterativnu radix-2 brzu Fourierovu
+	 * transformaciju nad predanim poljima. Transformacija se provodi na mjestu,
+	 * a inverzna transformacija nije normirana (rezultat je potrebno podijeliti
+	 * s duljinom polja).
+	 *
+	 * @param re
+	 *            realni dijelovi, duljina mora biti potencija broja 2
+	 * @param im
+	 *            imaginarni dijelovi
+	 * @param cos
+	 *            tablica kosinusa kutova <i>2*PI*k/n</i>
+	 * @param sin
+	 *            tablica sinusa kutova <i>2*PI*k/n</i>
+	 * @param inverse
+	 *            <code>true</code> za inverznu transformaciju,
+	 *            <code>false</code> inače
+	 */
+	private static void transform(double[] re, double[] im, double[] cos, double[] sin, boolean inverse) {
+		int n = re.length;
+		// permutacija obrnutih bitova
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >> 1;
+			for (; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				double tmp = re[i];
+				re[i] = re[j];
+				re[j] = tmp;
+				tmp = im[i];
+				im[i] = im[j];
+				im[j] = tmp;
+			}
+		}
+
+		double sign = inverse ? 1 : -1;
+		for (int size = 2; size <= n; size <<= 1) {
+			int half = size >> 1;
+			int step = n / size;
+			for (int start = 0; start < n; start += size) {
+				for (int k = 0; k < half; k++) {
+					double wRe = cos[k * step];
+					double wIm = sign * sin[k * step];
+					int even = start + k;
+					int odd = even + half;
+					double tRe = re[odd] * wRe - im[odd] * wIm;
+					double tIm = re[odd] * wIm + im[odd] * wRe;
+					re[odd] = re[even] - tRe;
+					im[odd] = im[even] - tIm;
+					re[even] += tRe;
+					im[even] += tIm;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package hr.fer.zemris.math;
+
+/**
+ * Sučelje predstavlja analitičku kompleksnu funkciju f(z) čija se vrijednost i
+ * vrijednost derivacije f'(z) računaju istovremeno i bez stvaranja novih
+ * objekata. Rezultat izračuna zapisuje se u polje primitivnih vrijednosti
+ * veličine barem {@value #RESULT_SIZE} na pozicije {@link #F_RE},
+ * {@link #F_IM}, {@link #DF_RE} i {@link #DF_IM}. Implementacije ovog sučelja
+ * moraju biti sigurne za istovremeno korištenje iz više dretvi.
+ *
+ * @see ComplexPolynomialEvaluator
+ *
+ * @author Davor Češljaš
+ */
+public interface ComplexFunction {
+
+	/** Indeks realnog dijela vrijednosti funkcije u polju rezultata */
+	int F_RE = 0;
+
+	/** Indeks imaginarnog dijela vrijednosti funkcije u polju rezultata */
+	int F_IM = 1;
+
+	/** Indeks realnog dijela vrijednosti derivacije u polju rezultata */
+	int DF_RE = 2;
+
+	/** Indeks imaginarnog dijela vrijednosti derivacije u polju rezultata */
+	int DF_IM = 3;
+
+	/** Potrebna veličina polja u koje se zapisuje rezultat */
+	int RESULT_SIZE = 4;
+
+	/**
+	 * Metoda koja u točki <i>z = zRe + i*zIm</i> istovremeno izračunava
+	 * vrijednost funkcije f(z) i njezine derivacije f'(z). Rezultat se
+	 * zapisuje u predano polje <b>result</b> na pozicije {@link #F_RE},
+	 * {@link #F_IM}, {@link #DF_RE} i {@link #DF_IM}.
+	 *
+	 * @param zRe
+	 *            realni dio točke u kojoj se računa vrijednost
+	 * @param zIm
+	 *            imaginarni dio točke u kojoj se računa vrijednost
+	 * @param result
+	 *            polje veličine barem {@value #RESULT_SIZE} u koje se zapisuje
+	 *            rezultat
+	 */
+	void evaluate(double zRe, double zIm, double[] result);
+}
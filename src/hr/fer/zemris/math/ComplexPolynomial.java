@@ -13,9 +13,17 @@ import java.util.StringJoiner;
  * {@link Complex}. Popis metoda dan je u nastavku:
  * <ul>
  * <li>{@link #order()}</li>
+ * <li>{@link #getFactors()}</li>
  * <li>{@link #multiply(ComplexPolynomial)}</li>
  * <li>{@link #derive()}</li>
  * <li>{@link #apply(Complex)}</li>
+ * <li>{@link #apply(Complex, MutableComplex)}</li>
+ * <li>{@link #apply(double, double, MutableComplex)}</li>
+ * <li>{@link #apply(double[], double[], double[], double[])}</li>
+ * <li>{@link #apply(ComplexArray, ComplexArray)}</li>
+ * <li>{@link #getEvaluator()}</li>
+ * <li>{@link #findRoots()}</li>
+ * <li>{@link #findRoots(double, int)}</li>
  * <li>{@link #toString()} - nadjačana metoda</li>
  * </ul>
  * 
@@ -32,6 +40,18 @@ public class ComplexPolynomial {
 	 */
 	private Complex[] factors;
 
+	/**
+	 * Članska varijabla koja predstavlja prevedeni oblik ovog polinoma. Stvara
+	 * se lijeno, prilikom prvog poziva metode {@link #getEvaluator()}
+	 */
+	private volatile ComplexPolynomialEvaluator evaluator;
+
+	/** Relativna točnost korijena koju koristi metoda {@link #findRoots()} */
+	public static final double ROOT_TOLERANCE = 1E-12;
+
+	/** Najveći broj iteracija koji koristi metoda {@link #findRoots()} */
+	public static final int ROOT_MAX_ITERATIONS = 500;
+
 	/**
 	 * Konstruktor koji inicijalizira primjerak ovog razreda. Konstruktor prima
 	 * varijabilni broj kompleksnih faktora, koji su primjerci razreda
@@ -59,11 +79,23 @@ public class ComplexPolynomial {
 		return (short) (factors.length - 1);
 	}
 
+	/**
+	 * Metoda koja dohvaća kopiju faktora ovog polinoma: <i>z0, z1, ... ,
+	 * zn-1,zn</i> <b>tim redom</b>
+	 *
+	 * @return kopija faktora ovog polinoma
+	 */
+	public Complex[] getFactors() {
+		return factors.clone();
+	}
+
 	/**
 	 * Metoda koja množi dva polinoma u obliku sume produkata. Metoda vraća novi
 	 * primjerak ovog razreda. Metoda ne modificira predani niti ovaj primjerak
-	 * ovog razreda.
+	 * ovog razreda. Za polinome većeg reda množenje se provodi brzom Fourierovom
+	 * transformacijom.
 	 * 
+	 * @see ComplexFFT#multiply(double[], double[], double[], double[])
 	 *
 	 * @param primjerak
 	 *            ovog razreda koji predstavlja množitelja ovog primjerka ovog
@@ -73,33 +105,60 @@ public class ComplexPolynomial {
 	 *         primjerka i predanog primjerka <b>p</b>
 	 */
 	public ComplexPolynomial multiply(ComplexPolynomial p) {
-		Complex[] multiplied = fillArrayWithZeros(this.factors.length + p.order());
+		double[][] multiplied = ComplexFFT.multiply(realParts(this.factors), imaginaryParts(this.factors),
+				realParts(p.factors), imaginaryParts(p.factors));
+		return fromParts(multiplied[0], multiplied[1]);
+	}
 
-		for (int i = 0; i < this.factors.length; i++) {
-			for (int j = 0; j < p.factors.length; j++) {
-				multiplied[i + j] = multiplied[i + j].add(this.factors[i].multiply(p.factors[j]));
-			}
+	/**
+	 * Pomoćna metoda koja stvara primjerak ovog razreda iz faktora predanih
+	 * kao realni i imaginarni dijelovi, <b>tim redom</b> od <i>z0</i> do
+	 * <i>zn</i>.
+	 *
+	 * @param re
+	 *            realni dijelovi faktora
+	 * @param im
+	 *            imaginarni dijelovi faktora
+	 * @return novi primjerak ovog razreda
+	 */
+	static ComplexPolynomial fromParts(double[] re, double[] im) {
+		Complex[] factors = new Complex[re.length];
+		for (int i = 0; i < re.length; i++) {
+			factors[i] = new Complex(re[i], im[i]);
 		}
+		return new ComplexPolynomial(factors);
+	}
 
-		return new ComplexPolynomial(multiplied);
+	/**
+	 * Pomoćna metoda koja iz polja primjeraka razreda {@link Complex} izdvaja
+	 * realne dijelove
+	 *
+	 * @param numbers
+	 *            polje kompleksnih brojeva
+	 * @return polje realnih dijelova
+	 */
+	static double[] realParts(Complex[] numbers) {
+		double[] re = new double[numbers.length];
+		for (int i = 0; i < numbers.length; i++) {
+			re[i] = numbers[i].getRe();
+		}
+		return re;
 	}
 
 	/**
-	 * Pomoćna metoda koja stvara novo polje primjeraka razreda {@link Complex}
-	 * te ga puni sa {@link Complex#ZERO}. Punjenje se radi zbog toga što je
-	 * kompleksna nula neutralni element za zbroj kompleksnih brojeva
+	 * Pomoćna metoda koja iz polja primjeraka razreda {@link Complex} izdvaja
+	 * imaginarne dijelove
 	 *
-	 * @param size
-	 *            potrebna veličina polja primjeraka razreda {@link Complex}
-	 * @return polje primjeraka razreda {@link Complex} veličine <b>size</b>
-	 *         napunjeno sa {@link Complex#ZERO}
+	 * @param numbers
+	 *            polje kompleksnih brojeva
+	 * @return polje imaginarnih dijelova
 	 */
-	private Complex[] fillArrayWithZeros(int size) {
-		Complex[] ones = new Complex[size];
-		for (int i = 0; i < size; i++) {
-			ones[i] = Complex.ZERO;
+	static double[] imaginaryParts(Complex[] numbers) {
+		double[] im = new double[numbers.length];
+		for (int i = 0; i < numbers.length; i++) {
+			im[i] = numbers[i].getIm();
 		}
-		return ones;
+		return im;
 	}
 
 	/**
@@ -137,6 +196,157 @@ public class ComplexPolynomial {
 		return result;
 	}
 
+	/**
+	 * Metoda koja u polinom uvrštava predanu vrijednost <b>z</b> te rezultat
+	 * zapisuje u predani akumulator <b>result</b>. Metoda ne stvara nove
+	 * objekte, a vrijednost računa Hornerovim postupkom.
+	 *
+	 * @param z
+	 *            vrijednost z funkcije f(z) koju je potrebno uvrstiti
+	 * @param result
+	 *            akumulator u koji se zapisuje f(z)
+	 * @return predani akumulator <b>result</b>
+	 */
+	public MutableComplex apply(Complex z, MutableComplex result) {
+		return apply(z.getRe(), z.getIm(), result);
+	}
+
+	/**
+	 * Metoda koja u polinom uvrštava vrijednost <i>zRe + i*zIm</i> te rezultat
+	 * zapisuje u predani akumulator <b>result</b>. Metoda ne stvara nove
+	 * objekte, a vrijednost računa Hornerovim postupkom.
+	 *
+	 * @param zRe
+	 *            realni dio točke
+	 * @param zIm
+	 *            imaginarni dio točke
+	 * @param result
+	 *            akumulator u koji se zapisuje f(z)
+	 * @return predani akumulator <b>result</b>
+	 */
+	public MutableComplex apply(double zRe, double zIm, MutableComplex result) {
+		result.set(0, 0);
+		for (int i = factors.length - 1; i >= 0; i--) {
+			result.fma(zRe, zIm, factors[i].getRe(), factors[i].getIm());
+		}
+		return result;
+	}
+
+	/**
+	 * Metoda koja računa vrijednost polinoma u svim točkama <i>re[k] +
+	 * i*im[k]</i> te rezultate zapisuje u predana polja <b>resultRe</b> i
+	 * <b>resultIm</b>. Metoda ne stvara primjerke razreda {@link Complex}, a
+	 * velik broj točaka obrađuje paralelno.
+	 *
+	 * @param re
+	 *            realni dijelovi točaka
+	 * @param im
+	 *            imaginarni dijelovi točaka
+	 * @param resultRe
+	 *            polje u koje se zapisuju realni dijelovi rezultata
+	 * @param resultIm
+	 *            polje u koje se zapisuju imaginarni dijelovi rezultata
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko polja nisu jednake duljine
+	 *
+	 * @see ComplexPolynomialEvaluator#apply(double[], double[], double[],
+	 *      double[])
+	 */
+	public void apply(double[] re, double[] im, double[] resultRe, double[] resultIm) {
+		getEvaluator().apply(re, im, resultRe, resultIm);
+	}
+
+	/**
+	 * Metoda koja računa vrijednost polinoma u svim točkama polja
+	 * <b>points</b> te rezultate zapisuje u polje <b>result</b>. Metoda ne
+	 * stvara primjerke razreda {@link Complex}, a velik broj točaka obrađuje
+	 * paralelno.
+	 *
+	 * @param points
+	 *            točke u kojima se računa vrijednost
+	 * @param result
+	 *            polje u koje se zapisuju rezultati, smije biti jednako polju
+	 *            <b>points</b>
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko polja nisu jednake duljine
+	 *
+	 * @see ComplexPolynomialEvaluator#apply(ComplexArray, ComplexArray)
+	 */
+	public void apply(ComplexArray points, ComplexArray result) {
+		getEvaluator().apply(points, result);
+	}
+
+	/**
+	 * Metoda koja dohvaća prevedeni oblik ovog polinoma predstavljen razredom
+	 * {@link ComplexPolynomialEvaluator}. Prevedeni oblik istovremeno računa
+	 * vrijednost polinoma i njegove derivacije bez stvaranja novih objekata.
+	 * Prevedeni oblik stvara se samo jednom za ovaj primjerak razreda, a svaki
+	 * sljedeći poziv vraća isti primjerak.
+	 *
+	 * @return prevedeni oblik ovog polinoma
+	 */
+	public ComplexPolynomialEvaluator getEvaluator() {
+		ComplexPolynomialEvaluator result = evaluator;
+		if (result == null) {
+			// utrka je bezopasna, razred je nepromijenjiv
+			result = new ComplexPolynomialEvaluator(factors);
+			evaluator = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Metoda koja pronalazi sve korijene ovog polinoma Aberth-Ehrlichovom
+	 * metodom uz relativnu točnost {@value #ROOT_TOLERANCE} i najviše
+	 * {@value #ROOT_MAX_ITERATIONS} iteracija.
+	 *
+	 * @return polinom predstavljen pronađenim korijenima
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko su svi faktori ovog polinoma jednaki nuli
+	 *
+	 * @see #findRoots(double, int)
+	 */
+	public ComplexRootedPolynomial findRoots() {
+		return findRoots(ROOT_TOLERANCE, ROOT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Metoda koja pronalazi sve korijene ovog polinoma Aberth-Ehrlichovom
+	 * metodom. Svi se korijeni traže istovremeno, a za polinome visokog reda
+	 * ažuriranja se provode paralelno. Iteracija za pojedini korijen prestaje
+	 * kada je njegova promjena manja od <b>tolerance</b> puta modul korijena
+	 * (ili od <b>tolerance</b> za korijene unutar jedinične kružnice).
+	 * <p>
+	 * Vraćeni polinom ima vodeći faktor 1, odnosno pronađeni korijeni ne
+	 * čuvaju vodeći faktor ovog polinoma.
+	 *
+	 * @param tolerance
+	 *            relativna točnost korijena
+	 * @param maxIterations
+	 *            najveći broj iteracija
+	 * @return polinom predstavljen pronađenim korijenima
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko točnost nije pozitivna, ukoliko broj iteracija nije
+	 *             pozitivan ili ukoliko su svi faktori ovog polinoma jednaki
+	 *             nuli
+	 *
+	 * @see ComplexRootFinder
+	 */
+	public ComplexRootedPolynomial findRoots(double tolerance, int maxIterations) {
+		if (!(tolerance > 0)) {
+			throw new IllegalArgumentException("Točnost mora biti pozitivna!");
+		}
+		if (maxIterations < 1) {
+			throw new IllegalArgumentException("Broj iteracija mora biti pozitivan!");
+		}
+
+		return new ComplexRootedPolynomial(ComplexRootFinder.findRoots(factors, tolerance, maxIterations));
+	}
+
 	@Override
 	public String toString() {
 		StringJoiner sj = new StringJoiner("+", "f(z) = ", "");
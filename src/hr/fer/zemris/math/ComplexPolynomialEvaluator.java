@@ -0,0 +1,303 @@
+package hr.fer.zemris.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Razred predstavlja "prevedeni" oblik kompleksnog polinoma predstavljenog
+ * razredom {@link ComplexPolynomial}. Faktori polinoma pohranjeni su u dva
+ * polja primitivnih <b>double</b> vrijednosti (realni i imaginarni dijelovi),
+ * a vrijednost polinoma i njegove derivacije u točki <i>z</i> računaju se
+ * istovremeno, u jednom prolazu Hornerovim postupkom. Prilikom izračuna ne
+ * stvara se niti jedan novi objekt pa je ovaj razred prikladan za korištenje
+ * unutar petlji koje se izvode velik broj puta (primjerice prilikom crtanja
+ * Newton-Raphsonovog fraktala).
+ * <p>
+ * Razred nudi i izračun vrijednosti polinoma u velikom broju točaka odjednom,
+ * metodom {@link #apply(double[], double[], double[], double[])}. Točke se
+ * obrađuju u blokovima pa se faktori polinoma čitaju jednom po bloku, a ne
+ * jednom po točki, dok se veliki broj točaka dijeli na poslove koji se
+ * izvode paralelno.
+ * <p>
+ * Razred implementira sučelje {@link ComplexFunction}, nepromijenjiv je te
+ * ga je sigurno koristiti iz više dretvi istovremeno. Primjerak ovog razreda
+ * dohvaća se metodom {@link ComplexPolynomial#getEvaluator()} koja ga stvara
+ * samo jednom po polinomu.
+ *
+ * @see ComplexPolynomial
+ * @see ComplexFunction
+ *
+ * @author Davor Češljaš
+ */
+public final class ComplexPolynomialEvaluator implements ComplexFunction {
+
+	/** Broj točaka koje se obrađuju u jednom bloku */
+	private static final int BLOCK_SIZE = 256;
+
+	/**
+	 * Najveći broj operacija (točaka pomnoženih s brojem faktora) koje posao
+	 * obrađuje slijedno, bez daljnje podjele
+	 */
+	private static final long SEQUENTIAL_WORK = 1 << 16;
+
+	/** Realni dijelovi faktora: <i>z0, z1, ... , zn</i> <b>tim redom</b> */
+	private final double[] re;
+
+	/** Imaginarni dijelovi faktora: <i>z0, z1, ... , zn</i> <b>tim redom</b> */
+	private final double[] im;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Predani faktori
+	 * raspakiravaju se u polja primitivnih vrijednosti.
+	 *
+	 * @param factors
+	 *            faktori polinoma: <i>z0, z1, ... , zn</i> <b>tim redom</b>
+	 */
+	ComplexPolynomialEvaluator(Complex[] factors) {
+		re = new double[factors.length];
+		im = new double[factors.length];
+		for (int i = 0; i < factors.length; i++) {
+			re[i] = factors[i].getRe();
+			im[i] = factors[i].getIm();
+		}
+	}
+
+	/**
+	 * Metoda koja vraća red polinoma kojeg ovaj primjerak razreda izračunava.
+	 *
+	 * @return red polinoma
+	 */
+	public int order() {
+		return re.length - 1;
+	}
+
+	@Override
+	public void evaluate(double zRe, double zIm, double[] result) {
+		int n = re.length - 1;
+		if (n < 0) {
+			result[F_RE] = result[F_IM] = result[DF_RE] = result[DF_IM] = 0;
+			return;
+		}
+
+		double fRe = re[n];
+		double fIm = im[n];
+		double dRe = 0;
+		double dIm = 0;
+		for (int i = n - 1; i >= 0; i--) {
+			// f' = f' * z + f
+			double tmpRe = dRe * zRe - dIm * zIm + fRe;
+			dIm = dRe * zIm + dIm * zRe + fIm;
+			dRe = tmpRe;
+			// f = f * z + zi
+			tmpRe = fRe * zRe - fIm * zIm + re[i];
+			fIm = fRe * zIm + fIm * zRe + im[i];
+			fRe = tmpRe;
+		}
+
+		result[F_RE] = fRe;
+		result[F_IM] = fIm;
+		result[DF_RE] = dRe;
+		result[DF_IM] = dIm;
+	}
+
+	/**
+	 * Metoda koja u polinom uvrštava predanu vrijednost <b>z</b>. Metoda je
+	 * ekvivalentna metodi {@link ComplexPolynomial#apply(Complex)}, ali se
+	 * izračun provodi Hornerovim postupkom nad primitivnim vrijednostima.
+	 *
+	 * @param z
+	 *            vrijednost z funkcije f(z) koju je potrebno uvrstiti
+	 * @return rezultat koji je primjerak razreda {@link Complex} i koji
+	 *         predstavlja f(z) u točki <b>z</b>
+	 */
+	public Complex apply(Complex z) {
+		double[] result = new double[RESULT_SIZE];
+		evaluate(z.getRe(), z.getIm(), result);
+		return new Complex(result[F_RE], result[F_IM]);
+	}
+
+	/**
+	 * Metoda koja računa vrijednost polinoma u svim točkama <i>re[k] +
+	 * i*im[k]</i> i rezultate zapisuje u polja <b>resultRe</b> i
+	 * <b>resultIm</b> na iste pozicije. Metoda ne stvara niti jedan primjerak
+	 * razreda {@link Complex}. Za velik broj točaka izračun se provodi
+	 * paralelno preko {@link ForkJoinPool#commonPool()}. Polja rezultata smiju
+	 * biti ista kao i polja točaka.
+	 *
+	 * @param re
+	 *            realni dijelovi točaka
+	 * @param im
+	 *            imaginarni dijelovi točaka
+	 * @param resultRe
+	 *            polje u koje se zapisuju realni dijelovi rezultata
+	 * @param resultIm
+	 *            polje u koje se zapisuju imaginarni dijelovi rezultata
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko polja nisu jednake duljine
+	 */
+	public void apply(double[] re, double[] im, double[] resultRe, double[] resultIm) {
+		int length = re.length;
+		if (im.length != length || resultRe.length != length || resultIm.length != length) {
+			throw new IllegalArgumentException("Polja točaka i rezultata moraju biti jednake duljine!");
+		}
+
+		BatchJob job = new BatchJob(re, im, resultRe, resultIm, 0, length);
+		if (workOf(length) <= SEQUENTIAL_WORK) {
+			job.computeDirect();
+		} else {
+			ForkJoinPool.commonPool().invoke(job);
+		}
+	}
+
+	/**
+	 * Metoda koja računa vrijednost polinoma u svim točkama polja
+	 * <b>points</b> te rezultate zapisuje u polje <b>result</b>. Metoda je
+	 * ekvivalentna metodi
+	 * {@link #apply(double[], double[], double[], double[])} nad poljima
+	 * realnih i imaginarnih dijelova predanih polja.
+	 *
+	 * @param points
+	 *            točke u kojima se računa vrijednost
+	 * @param result
+	 *            polje u koje se zapisuju rezultati, smije biti jednako polju
+	 *            <b>points</b>
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko polja nisu jednake duljine
+	 */
+	public void apply(ComplexArray points, ComplexArray result) {
+		apply(points.realParts(), points.imaginaryParts(), result.realParts(), result.imaginaryParts());
+	}
+
+	/**
+	 * Pomoćna metoda koja procjenjuje količinu posla za izračun vrijednosti
+	 * polinoma u <b>points</b> točaka.
+	 *
+	 * @param points
+	 *            broj točaka
+	 * @return procjena količine posla
+	 */
+	private long workOf(int points) {
+		return (long) points * Math.max(re.length, 1);
+	}
+
+	/**
+	 * Pomoćna metoda koja Hornerovim postupkom računa vrijednost polinoma u
+	 * točkama od indeksa <b>from</b> uključivo do indeksa <b>to</b> isključivo.
+	 * Točke se obrađuju u blokovima veličine {@value #BLOCK_SIZE}: za svaki
+	 * faktor obilaze se sve točke bloka.
+	 *
+	 * @param zRe
+	 *            realni dijelovi točaka
+	 * @param zIm
+	 *            imaginarni dijelovi točaka
+	 * @param resultRe
+	 *            polje u koje se zapisuju realni dijelovi rezultata
+	 * @param resultIm
+	 *            polje u koje se zapisuju imaginarni dijelovi rezultata
+	 * @param from
+	 *            početni indeks (uključivo)
+	 * @param to
+	 *            završni indeks (isključivo)
+	 */
+	private void evaluateRange(double[] zRe, double[] zIm, double[] resultRe, double[] resultIm, int from, int to) {
+		int n = re.length - 1;
+		double[] accRe = new double[BLOCK_SIZE];
+		double[] accIm = new double[BLOCK_SIZE];
+		double[] pointRe = new double[BLOCK_SIZE];
+		double[] pointIm = new double[BLOCK_SIZE];
+
+		for (int start = from; start < to; start += BLOCK_SIZE) {
+			int size = Math.min(BLOCK_SIZE, to - start);
+			System.arraycopy(zRe, start, pointRe, 0, size);
+			System.arraycopy(zIm, start, pointIm, 0, size);
+			double leadRe = n < 0 ? 0 : re[n];
+			double leadIm = n < 0 ? 0 : im[n];
+			for (int k = 0; k < size; k++) {
+				accRe[k] = leadRe;
+				accIm[k] = leadIm;
+			}
+
+			for (int i = n - 1; i >= 0; i--) {
+				double factorRe = re[i];
+				double factorIm = im[i];
+				for (int k = 0; k < size; k++) {
+					double tmp = accRe[k] * pointRe[k] - accIm[k] * pointIm[k] + factorRe;
+					accIm[k] = accRe[k] * pointIm[k] + accIm[k] * pointRe[k] + factorIm;
+					accRe[k] = tmp;
+				}
+			}
+
+			System.arraycopy(accRe, 0, resultRe, start, size);
+			System.arraycopy(accIm, 0, resultIm, start, size);
+		}
+	}
+
+	/**
+	 * Razred koji nasljeđuje apstraktan razred {@link RecursiveAction} i
+	 * predstavlja posao izračuna vrijednosti polinoma u rasponu točaka. Posao
+	 * se dijeli na dvije polovice sve dok količina posla ne padne ispod
+	 * {@value ComplexPolynomialEvaluator#SEQUENTIAL_WORK}.
+	 *
+	 * @see RecursiveAction
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class BatchJob extends RecursiveAction {
+
+		// čemu pojedine privatne varijable služe opisano u konstruktoru
+
+		private static final long serialVersionUID = 1L;
+		private double[] zRe;
+		private double[] zIm;
+		private double[] resultRe;
+		private double[] resultIm;
+		private int from;
+		private int to;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param zRe
+		 *            realni dijelovi točaka
+		 * @param zIm
+		 *            imaginarni dijelovi točaka
+		 * @param resultRe
+		 *            polje u koje se zapisuju realni dijelovi rezultata
+		 * @param resultIm
+		 *            polje u koje se zapisuju imaginarni dijelovi rezultata
+		 * @param from
+		 *            početni indeks (uključivo)
+		 * @param to
+		 *            završni indeks (isključivo)
+		 */
+		public BatchJob(double[] zRe, double[] zIm, double[] resultRe, double[] resultIm, int from, int to) {
+			this.zRe = zRe;
+			this.zIm = zIm;
+			this.resultRe = resultRe;
+			this.resultIm = resultIm;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (workOf(to - from) <= SEQUENTIAL_WORK || to - from <= BLOCK_SIZE) {
+				computeDirect();
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new BatchJob(zRe, zIm, resultRe, resultIm, from, middle),
+					new BatchJob(zRe, zIm, resultRe, resultIm, middle, to));
+		}
+
+		/**
+		 * Metoda za izračun vrijednosti polinoma u točkama u rasponu
+		 * {@link #from} - {@link #to}
+		 */
+		private void computeDirect() {
+			evaluateRange(zRe, zIm, resultRe, resultIm, from, to);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package hr.fer.zemris.math;
+
+import java.util.List;
+import java.util.Random;
+
+import hr.fer.zemris.benchmark.BenchmarkResult;
+import hr.fer.zemris.benchmark.BenchmarkRunner;
+
+/**
+ * Razred predstavlja program koji uspoređuje brzinu izračuna vrijednosti
+ * polinoma i njegove derivacije preko metoda
+ * {@link ComplexPolynomial#apply(Complex)} i
+ * {@link ComplexPolynomialEvaluator#evaluate(double, double, double[])}. Za
+ * svaki red polinoma od 2 do 64 program ispisuje prosječno vrijeme jednog
+ * izračuna (f(z) i f'(z)) u nanosekundama za oba načina. Mjerenje provodi
+ * {@link BenchmarkRunner}.
+ *
+ * @see ComplexPolynomial
+ * @see ComplexPolynomialEvaluator
+ *
+ * @author Davor Češljaš
+ */
+public class ComplexPolynomialEvaluatorBenchmark {
+
+	/** Redovi polinoma za koje se provodi mjerenje */
+	private static final int[] ORDERS = { 2, 4, 8, 16, 32, 64 };
+
+	/** Broj točaka u kojima se računa vrijednost polinoma */
+	private static final int POINTS = 1 << 12;
+
+	/**
+	 * Metoda od koje započinje izvođenje programa.
+	 *
+	 * @param args
+	 *            argumenti naredbenog redka. Ovdje se ne koriste
+	 */
+	public static void main(String[] args) {
+		Random random = new Random(42);
+		Complex[] points = new Complex[POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			points[i] = new Complex(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+		}
+
+		// poslovi se registriraju u parovima apply/evaluate za svaki red
+		BenchmarkRunner runner = new BenchmarkRunner();
+		for (int order : ORDERS) {
+			Complex[] factors = new Complex[order + 1];
+			for (int i = 0; i <= order; i++) {
+				factors[i] = new Complex(random.nextDouble(), random.nextDouble());
+			}
+			ComplexPolynomial polynomial = new ComplexPolynomial(factors);
+			String parameters = "n=" + POINTS + ",order=" + order;
+
+			runner.add("ComplexPolynomial.apply", parameters, () -> runInterpreted(polynomial, points));
+			runner.add("ComplexPolynomialEvaluator.evaluate", parameters, () -> runCompiled(polynomial, points));
+		}
+		List<BenchmarkResult> results = runner.run(name -> true);
+
+		System.out.printf("%5s %15s %15s %10s%n", "red", "apply [ns]", "evaluate [ns]", "ubrzanje");
+		for (int i = 0; i < ORDERS.length; i++) {
+			double interpreted = results.get(2 * i).getMeanNanos() / POINTS;
+			double compiled = results.get(2 * i + 1).getMeanNanos() / POINTS;
+			System.out.printf("%5d %15.1f %15.1f %9.1fx%n", ORDERS[i], interpreted, compiled, interpreted / compiled);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja računa f(z) i f'(z) za sve točke preko metode
+	 * {@link ComplexPolynomial#apply(Complex)}
+	 *
+	 * @param polynomial
+	 *            polinom čija se vrijednost računa
+	 * @param points
+	 *            točke u kojima se računa vrijednost
+	 * @return zbroj realnih dijelova svih izračunatih vrijednosti
+	 */
+	private static double runInterpreted(ComplexPolynomial polynomial, Complex[] points) {
+		ComplexPolynomial derived = polynomial.derive();
+		double sum = 0;
+		for (Complex z : points) {
+			sum += polynomial.apply(z).getRe() + derived.apply(z).getRe();
+		}
+		return sum;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa f(z) i f'(z) za sve točke preko metode
+	 * {@link ComplexPolynomialEvaluator#evaluate(double, double, double[])}
+	 *
+	 * @param polynomial
+	 *            polinom čija se vrijednost računa
+	 * @param points
+	 *            točke u kojima se računa vrijednost
+	 * @return zbroj realnih dijelova svih izračunatih vrijednosti
+	 */
+	private static double runCompiled(ComplexPolynomial polynomial, Complex[] points) {
+		ComplexPolynomialEvaluator evaluator = polynomial.getEvaluator();
+		double[] result = new double[ComplexFunction.RESULT_SIZE];
+		double sum = 0;
+		for (Complex z : points) {
+			evaluator.evaluate(z.getRe(), z.getIm(), result);
+			sum += result[ComplexFunction.F_RE] + result[ComplexFunction.DF_RE];
+		}
+		return sum;
+	}
+}
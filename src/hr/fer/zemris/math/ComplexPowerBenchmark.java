@@ -0,0 +1,163 @@
+package hr.fer.zemris.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import hr.fer.zemris.benchmark.BenchmarkJob;
+import hr.fer.zemris.benchmark.BenchmarkResult;
+import hr.fer.zemris.benchmark.BenchmarkRunner;
+
+/**
+ * Razred predstavlja program koji uspoređuje brzinu metoda
+ * {@link Complex#power(int)} i {@link Complex#root(int)} s izračunom preko
+ * polarnog oblika (modul, kut, <i>cos</i> i <i>sin</i> za svaku potenciju
+ * odnosno za svaki korijen). Za svaki <i>n</i> od 2 do 1000 program ispisuje
+ * prosječno vrijeme jednog poziva u nanosekundama za oba načina. Mjerenje
+ * provodi {@link BenchmarkRunner}.
+ *
+ * @see Complex
+ *
+ * @author Davor Češljaš
+ */
+public class ComplexPowerBenchmark {
+
+	/** Potencije i redovi korijena za koje se provodi mjerenje */
+	private static final int[] EXPONENTS = { 2, 3, 5, 10, 50, 100, 500, 1000 };
+
+	/** Broj kompleksnih brojeva nad kojima se mjeri */
+	private static final int NUMBERS = 256;
+
+	/** Broj izvođenja svakog posla prije mjerenja prvog posla (zagrijavanje) */
+	private static final int WARMUP_ROUNDS = 50;
+
+	/** Nazivi poslova koji se mjere za svaki <i>n</i>, redom registracije */
+	private static final String[] NAMES = { "polarPower", "Complex.power", "polarRoot", "Complex.root" };
+
+	/**
+	 * Metoda od koje započinje izvođenje programa.
+	 *
+	 * @param args
+	 *            argumenti naredbenog redka. Ovdje se ne koriste
+	 */
+	public static void main(String[] args) {
+		Complex[] numbers = new Complex[NUMBERS];
+		for (int i = 0; i < NUMBERS; i++) {
+			double angle = 2 * Math.PI * i / NUMBERS;
+			numbers[i] = new Complex(Math.cos(angle) * 1.001, Math.sin(angle) * 0.999);
+		}
+
+		BenchmarkRunner runner = new BenchmarkRunner();
+		List<BenchmarkJob> jobs = new ArrayList<>();
+		for (int n : EXPONENTS) {
+			String parameters = "n=" + NUMBERS + ",k=" + n;
+			BenchmarkJob[] exponentJobs = { () -> sum(numbers, z -> polarPower(z, n)),
+					() -> sum(numbers, z -> z.power(n)), () -> sumRoots(numbers, z -> polarRoot(z, n)),
+					() -> sumRoots(numbers, z -> z.root(n)) };
+			for (int i = 0; i < exponentJobs.length; i++) {
+				runner.add(NAMES[i], parameters, exponentJobs[i]);
+				jobs.add(exponentJobs[i]);
+			}
+		}
+
+		// zagrijavanje svih putanja prije prvog mjerenja, kako prvi posao ne
+		// bi bio u prednosti zbog poziva kroz samo jednu operaciju
+		double sink = 0;
+		for (BenchmarkJob job : jobs) {
+			for (int i = 0; i < WARMUP_ROUNDS; i++) {
+				sink += job.run();
+			}
+		}
+		if (sink == Double.MIN_VALUE) {
+			System.out.println(sink);
+		}
+		List<BenchmarkResult> results = runner.run(name -> true);
+
+		System.out.printf("%6s %14s %14s %9s %14s %14s %9s%n", "n", "polarni^n", "power [ns]", "ubrzanje",
+				"polarni korijen", "root [ns]", "ubrzanje");
+		for (int i = 0; i < EXPONENTS.length; i++) {
+			double polarPower = results.get(NAMES.length * i).getMeanNanos() / NUMBERS;
+			double power = results.get(NAMES.length * i + 1).getMeanNanos() / NUMBERS;
+			double polarRoot = results.get(NAMES.length * i + 2).getMeanNanos() / NUMBERS;
+			double root = results.get(NAMES.length * i + 3).getMeanNanos() / NUMBERS;
+			System.out.printf("%6d %14.1f %14.1f %8.1fx %14.1f %14.1f %8.1fx%n", EXPONENTS[i], polarPower, power,
+					polarPower / power, polarRoot, root, polarRoot / root);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja primjenjuje operaciju na sve brojeve i zbraja realne
+	 * dijelove rezultata.
+	 *
+	 * @param numbers
+	 *            brojevi nad kojima se provodi operacija
+	 * @param operation
+	 *            operacija
+	 * @return zbroj realnih dijelova rezultata
+	 */
+	private static double sum(Complex[] numbers, Function<Complex, Complex> operation) {
+		double sum = 0;
+		for (Complex z : numbers) {
+			sum += operation.apply(z).getRe();
+		}
+		return sum;
+	}
+
+	/**
+	 * Pomoćna metoda koja primjenjuje korjenovanje na sve brojeve i zbraja
+	 * realne dijelove prvog korijena.
+	 *
+	 * @param numbers
+	 *            brojevi nad kojima se provodi operacija
+	 * @param operation
+	 *            korjenovanje
+	 * @return zbroj realnih dijelova prvih korijena
+	 */
+	private static double sumRoots(Complex[] numbers, Function<Complex, List<Complex>> operation) {
+		double sum = 0;
+		for (Complex z : numbers) {
+			sum += operation.apply(z).get(0).getRe();
+		}
+		return sum;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa potenciju preko polarnog oblika.
+	 *
+	 * @param z
+	 *            broj koji se potencira
+	 * @param n
+	 *            potencija
+	 * @return <i>z^n</i>
+	 */
+	private static Complex polarPower(Complex z, int n) {
+		double magnitude = Math.pow(z.module(), n);
+		double angle = Math.atan2(z.getIm(), z.getRe());
+		return new Complex(magnitude * Math.cos(n * angle), magnitude * Math.sin(n * angle));
+	}
+
+	/**
+	 * Pomoćna metoda koja računa sve korijene preko polarnog oblika, računajući
+	 * kut ponovo za svaki korijen.
+	 *
+	 * @param z
+	 *            broj koji se korjenuje
+	 * @param n
+	 *            red korijena
+	 * @return svi n-ti korijeni broja <i>z</i>
+	 */
+	private static List<Complex> polarRoot(Complex z, int n) {
+		List<Complex> roots = new ArrayList<>();
+		double magnitude = Math.pow(z.module(), 1.0 / n);
+		for (int k = 0; k < n; k++) {
+			double angle = Math.atan2(z.getIm(), z.getRe());
+			angle = angle < 0 ? angle + 2 * Math.PI : angle;
+			double cosArgument = (angle + 2 * k * Math.PI) / n;
+			angle = Math.atan2(z.getIm(), z.getRe());
+			angle = angle < 0 ? angle + 2 * Math.PI : angle;
+			double sinArgument = (angle + 2 * k * Math.PI) / n;
+			roots.add(new Complex(magnitude * Math.cos(cosArgument), magnitude * Math.sin(sinArgument)));
+		}
+		return roots;
+	}
+}
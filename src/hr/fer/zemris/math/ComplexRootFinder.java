@@ -0,0 +1,370 @@
+package hr.fer.zemris.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Razred koji pronalazi sve korijene kompleksnog polinoma predstavljenog
+ * razredom {@link ComplexPolynomial} Aberth-Ehrlichovom metodom. Metoda sve
+ * korijene traži istovremeno: u svakom koraku svaki se korijen pomiče za
+ * Newtonov korak koji je korigiran odbijanjem od ostalih korijena, pa
+ * aproksimacije ne konvergiraju istom korijenu. Više o metodi možete
+ * pročitati <a href="https://en.wikipedia.org/wiki/Aberth_method">na
+ * poveznici</a>.
+ * <p>
+ * Svi korijeni ažuriraju se iz aproksimacija prethodnog koraka pa je ažuriranja
+ * moguće provoditi paralelno. Za polinome reda većeg od
+ * {@value #PARALLEL_TRESHOLD} ažuriranja se dijele na poslove koji se izvode
+ * preko {@link ForkJoinPool#commonPool()}. Konvergencija se provjerava za
+ * svaki korijen zasebno, a korijeni koji su konvergirali više se ne
+ * ažuriraju.
+ *
+ * @see ComplexPolynomial#findRoots()
+ *
+ * @author Davor Češljaš
+ */
+class ComplexRootFinder {
+
+	/** Red polinoma od kojeg se ažuriranja korijena provode paralelno */
+	static final int PARALLEL_TRESHOLD = 256;
+
+	/**
+	 * Najveći broj korijena koje jedan posao ažurira, bez daljnje podjele
+	 */
+	private static final int SEQUENTIAL_ROOTS = 64;
+
+	/** Pomak kuta početnih aproksimacija kako ne bi bile simetrične */
+	private static final double ANGLE_OFFSET = 0.4;
+
+	/** Realni dijelovi faktora polinoma <b>tim redom</b> od <i>z0</i> */
+	private final double[] re;
+
+	/** Imaginarni dijelovi faktora polinoma <b>tim redom</b> od <i>z0</i> */
+	private final double[] im;
+
+	/** Red polinoma */
+	private final int order;
+
+	/** Granica relativne promjene korijena ispod koje korijen konvergira */
+	private final double tolerance;
+
+	/** Realni dijelovi trenutnih aproksimacija korijena */
+	private double[] rootsRe;
+
+	/** Imaginarni dijelovi trenutnih aproksimacija korijena */
+	private double[] rootsIm;
+
+	/** Realni dijelovi novih aproksimacija korijena */
+	private double[] nextRe;
+
+	/** Imaginarni dijelovi novih aproksimacija korijena */
+	private double[] nextIm;
+
+	/** Zastavice koje označavaju korijene koji su konvergirali */
+	private boolean[] converged;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Faktori moraju
+	 * biti takvi da je vodeći faktor i slobodni član različit od nule.
+	 *
+	 * @param re
+	 *            realni dijelovi faktora polinoma
+	 * @param im
+	 *            imaginarni dijelovi faktora polinoma
+	 * @param tolerance
+	 *            granica relativne promjene korijena ispod koje korijen
+	 *            konvergira
+	 */
+	private ComplexRootFinder(double[] re, double[] im, double tolerance) {
+		this.re = re;
+		this.im = im;
+		this.order = re.length - 1;
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Metoda koja pronalazi sve korijene polinoma s predanim faktorima.
+	 * Korijeni u nuli izdvajaju se prije iteracije, a vodeći faktori jednaki
+	 * nuli se zanemaruju.
+	 *
+	 * @param factors
+	 *            faktori polinoma: <i>z0, z1, ... , zn</i> <b>tim redom</b>
+	 * @param tolerance
+	 *            granica relativne promjene korijena ispod koje korijen
+	 *            konvergira
+	 * @param maxIterations
+	 *            najveći broj iteracija
+	 * @return pronađeni korijeni
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko su svi faktori polinoma jednaki nuli
+	 */
+	static Complex[] findRoots(Complex[] factors, double tolerance, int maxIterations) {
+		int high = factors.length - 1;
+		while (high >= 0 && isZero(factors[high])) {
+			high--;
+		}
+		if (high < 0) {
+			throw new IllegalArgumentException("Nul-polinom nema konačan broj korijena!");
+		}
+
+		int low = 0;
+		while (low < high && isZero(factors[low])) {
+			low++;
+		}
+
+		Complex[] roots = new Complex[high];
+		for (int i = 0; i < low; i++) {
+			roots[i] = Complex.ZERO;
+		}
+		if (high == low) {
+			return roots;
+		}
+
+		double[] re = new double[high - low + 1];
+		double[] im = new double[re.length];
+		for (int i = low; i <= high; i++) {
+			re[i - low] = factors[i].getRe();
+			im[i - low] = factors[i].getIm();
+		}
+
+		ComplexRootFinder finder = new ComplexRootFinder(re, im, tolerance);
+		finder.iterate(maxIterations);
+		for (int i = 0; i < finder.order; i++) {
+			roots[low + i] = new Complex(finder.rootsRe[i], finder.rootsIm[i]);
+		}
+		return roots;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li kompleksan broj točno nula.
+	 *
+	 * @param c
+	 *            broj koji se provjerava
+	 * @return <code>true</code> ako je broj nula, <code>false</code> inače
+	 */
+	private static boolean isZero(Complex c) {
+		return c.getRe() == 0 && c.getIm() == 0;
+	}
+
+	/**
+	 * Pomoćna metoda koja postavlja početne aproksimacije i provodi iteracije
+	 * dok svi korijeni ne konvergiraju ili dok se ne dosegne
+	 * <b>maxIterations</b> iteracija.
+	 *
+	 * @param maxIterations
+	 *            najveći broj iteracija
+	 */
+	private void iterate(int maxIterations) {
+		rootsRe = new double[order];
+		rootsIm = new double[order];
+		nextRe = new double[order];
+		nextIm = new double[order];
+		converged = new boolean[order];
+
+		// početne aproksimacije na kružnici radijusa geometrijske sredine
+		// modula korijena
+		double radius = Math.pow(Math.hypot(re[0], im[0]) / Math.hypot(re[order], im[order]), 1.0 / order);
+		for (int i = 0; i < order; i++) {
+			double angle = 2 * Math.PI * i / order + ANGLE_OFFSET;
+			rootsRe[i] = radius * Math.cos(angle);
+			rootsIm[i] = radius * Math.sin(angle);
+		}
+
+		int[] active = new int[order];
+		int activeCount = order;
+		for (int i = 0; i < order; i++) {
+			active[i] = i;
+		}
+
+		for (int iteration = 0; iteration < maxIterations && activeCount > 0; iteration++) {
+			UpdateJob job = new UpdateJob(active, 0, activeCount);
+			if (order > PARALLEL_TRESHOLD) {
+				ForkJoinPool.commonPool().invoke(job);
+			} else {
+				job.computeDirect();
+			}
+
+			int stillActive = 0;
+			for (int k = 0; k < activeCount; k++) {
+				int i = active[k];
+				rootsRe[i] = nextRe[i];
+				rootsIm[i] = nextIm[i];
+				if (!converged[i]) {
+					active[stillActive++] = i;
+				}
+			}
+			activeCount = stillActive;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja računa novu aproksimaciju korijena s indeksom
+	 * <b>i</b> i zapisuje je u {@link #nextRe} i {@link #nextIm}.
+	 *
+	 * @param i
+	 *            indeks korijena
+	 */
+	private void update(int i) {
+		double zRe = rootsRe[i];
+		double zIm = rootsIm[i];
+
+		// Newtonov korak p(z)/p'(z), privremeno zapisan u nextRe[i] i nextIm[i]
+		newtonRatio(i, zRe, zIm);
+		double ratioRe = nextRe[i];
+		double ratioIm = nextIm[i];
+
+		// zbroj 1 / (z - zj) za j != i
+		double sumRe = 0;
+		double sumIm = 0;
+		for (int j = 0; j < order; j++) {
+			if (j == i) {
+				continue;
+			}
+			double dRe = zRe - rootsRe[j];
+			double dIm = zIm - rootsIm[j];
+			double denominator = dRe * dRe + dIm * dIm;
+			sumRe += dRe / denominator;
+			sumIm -= dIm / denominator;
+		}
+
+		// w = ratio / (1 - ratio * sum)
+		double denRe = 1 - (ratioRe * sumRe - ratioIm * sumIm);
+		double denIm = -(ratioRe * sumIm + ratioIm * sumRe);
+		double denominator = denRe * denRe + denIm * denIm;
+		double wRe = (ratioRe * denRe + ratioIm * denIm) / denominator;
+		double wIm = (ratioIm * denRe - ratioRe * denIm) / denominator;
+
+		if (Double.isNaN(wRe) || Double.isNaN(wIm)) {
+			nextRe[i] = zRe;
+			nextIm[i] = zIm;
+			converged[i] = true;
+			return;
+		}
+
+		nextRe[i] = zRe - wRe;
+		nextIm[i] = zIm - wIm;
+		double step = Math.hypot(wRe, wIm);
+		converged[i] = step <= tolerance * Math.max(1, Math.hypot(zRe, zIm));
+	}
+
+	/**
+	 * Pomoćna metoda koja računa omjer <i>p(z)/p'(z)</i> i zapisuje ga u
+	 * {@link #nextRe} i {@link #nextIm} na indeks <b>i</b>, kako računanje ne
+	 * bi zauzimalo memoriju. Za točke izvan jedinične kružnice omjer se računa
+	 * preko polinoma obrnutih faktora u točki <i>1/z</i> kako vrijednosti za
+	 * polinome visokog reda ne bi premašile opseg <b>double</b> vrijednosti.
+	 *
+	 * @param i
+	 *            indeks korijena za koji se omjer računa
+	 * @param zRe
+	 *            realni dio točke
+	 * @param zIm
+	 *            imaginarni dio točke
+	 */
+	private void newtonRatio(int i, double zRe, double zIm) {
+		double modulus = zRe * zRe + zIm * zIm;
+		boolean reversed = modulus > 1;
+		double xRe = reversed ? zRe / modulus : zRe;
+		double xIm = reversed ? -zIm / modulus : zIm;
+
+		double fRe = reversed ? re[0] : re[order];
+		double fIm = reversed ? im[0] : im[order];
+		double dRe = 0;
+		double dIm = 0;
+		for (int k = order - 1; k >= 0; k--) {
+			int index = reversed ? order - k : k;
+			double tmp = dRe * xRe - dIm * xIm + fRe;
+			dIm = dRe * xIm + dIm * xRe + fIm;
+			dRe = tmp;
+			tmp = fRe * xRe - fIm * xIm + re[index];
+			fIm = fRe * xIm + fIm * xRe + im[index];
+			fRe = tmp;
+		}
+
+		if (fRe == 0 && fIm == 0) {
+			// točka je korijen
+			nextRe[i] = 0;
+			nextIm[i] = 0;
+			return;
+		}
+
+		// q = f / f'
+		double denominator = dRe * dRe + dIm * dIm;
+		double qRe = (fRe * dRe + fIm * dIm) / denominator;
+		double qIm = (fIm * dRe - fRe * dIm) / denominator;
+		if (!reversed) {
+			nextRe[i] = qRe;
+			nextIm[i] = qIm;
+			return;
+		}
+
+		// p(z)/p'(z) = z / (n - w * q'(w)/q(w)) za w = 1/z
+		double sRe = (xRe * qRe + xIm * qIm) / (qRe * qRe + qIm * qIm);
+		double sIm = (xIm * qRe - xRe * qIm) / (qRe * qRe + qIm * qIm);
+		double nRe = order - sRe;
+		double nIm = -sIm;
+		denominator = nRe * nRe + nIm * nIm;
+		nextRe[i] = (zRe * nRe + zIm * nIm) / denominator;
+		nextIm[i] = (zIm * nRe - zRe * nIm) / denominator;
+	}
+
+	/**
+	 * Razred koji nasljeđuje apstraktan razred {@link RecursiveAction} i
+	 * predstavlja posao ažuriranja dijela aktivnih korijena. Posao se dijeli na
+	 * dvije polovice sve dok ne ostane najviše {@value #SEQUENTIAL_ROOTS}
+	 * korijena.
+	 *
+	 * @see RecursiveAction
+	 *
+	 * @author Davor Češljaš
+	 */
+	private class UpdateJob extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/** Indeksi aktivnih korijena */
+		private int[] active;
+
+		/** Početna pozicija u {@link #active} (uključivo) */
+		private int from;
+
+		/** Završna pozicija u {@link #active} (isključivo) */
+		private int to;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param active
+		 *            indeksi aktivnih korijena
+		 * @param from
+		 *            početna pozicija (uključivo)
+		 * @param to
+		 *            završna pozicija (isključivo)
+		 */
+		public UpdateJob(int[] active, int from, int to) {
+			this.active = active;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= SEQUENTIAL_ROOTS) {
+				computeDirect();
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new UpdateJob(active, from, middle), new UpdateJob(active, middle, to));
+		}
+
+		/**
+		 * Metoda koja ažurira korijene u rasponu {@link #from} - {@link #to}
+		 */
+		private void computeDirect() {
+			for (int k = from; k < to; k++) {
+				update(active[k]);
+			}
+		}
+	}
+}
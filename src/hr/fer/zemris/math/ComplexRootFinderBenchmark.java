@@ -0,0 +1,94 @@
+package hr.fer.zemris.math;
+
+import java.util.Random;
+
+/**
+ * Razred predstavlja program koji mjeri vrijeme pronalaska svih korijena
+ * polinoma metodom {@link ComplexPolynomial#findRoots()}. Faktori polinoma su
+ * slučajni brojevi s normalnom razdiobom. Redovi polinoma mogu se predati kao
+ * argumenti naredbenog redka, a ukoliko nisu predani mjeri se za redove 10,
+ * 100, 1000 i 10000.
+ *
+ * @see ComplexPolynomial#findRoots()
+ *
+ * @author Davor Češljaš
+ */
+public class ComplexRootFinderBenchmark {
+
+	/** Redovi polinoma za koje se mjeri ukoliko nisu predani argumenti */
+	private static final int[] DEFAULT_ORDERS = { 10, 100, 1000, 10000 };
+
+	/**
+	 * Metoda od koje započinje izvođenje programa.
+	 *
+	 * @param args
+	 *            argumenti naredbenog redka. Redovi polinoma za koje se mjeri
+	 */
+	public static void main(String[] args) {
+		int[] orders = DEFAULT_ORDERS;
+		if (args.length > 0) {
+			orders = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				orders[i] = Integer.parseInt(args[i]);
+			}
+		}
+
+		Random random = new Random(42);
+		System.out.printf("%7s %12s %15s%n", "red", "vrijeme [ms]", "max |f/f'|");
+		for (int order : orders) {
+			Complex[] factors = new Complex[order + 1];
+			for (int i = 0; i <= order; i++) {
+				factors[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+			}
+			ComplexPolynomial polynomial = new ComplexPolynomial(factors);
+
+			long start = System.nanoTime();
+			ComplexRootedPolynomial roots = polynomial.findRoots();
+			long elapsed = System.nanoTime() - start;
+
+			System.out.printf("%7d %12.1f %15.3e%n", order, elapsed / 1E6, maxNewtonStep(polynomial, roots));
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja procjenjuje najveću pogrešku pronađenih korijena
+	 * kao Newtonov korak <i>|f(z)/f'(z)|</i>. Za korijene izvan jedinične
+	 * kružnice korak se računa za polinom obrnutih faktora u točki <i>1/z</i>
+	 * i preslikava natrag, jer bi vrijednost polinoma visokog reda premašila
+	 * opseg <b>double</b> vrijednosti.
+	 *
+	 * @param polynomial
+	 *            polinom čiji su korijeni pronađeni
+	 * @param roots
+	 *            pronađeni korijeni
+	 * @return procjena najveće pogreške korijena
+	 */
+	private static double maxNewtonStep(ComplexPolynomial polynomial, ComplexRootedPolynomial roots) {
+		Complex[] factors = polynomial.getFactors();
+		Complex[] reversedFactors = new Complex[factors.length];
+		for (int i = 0; i < factors.length; i++) {
+			reversedFactors[i] = factors[factors.length - 1 - i];
+		}
+		ComplexPolynomialEvaluator evaluator = polynomial.getEvaluator();
+		ComplexPolynomialEvaluator reversed = new ComplexPolynomial(reversedFactors).getEvaluator();
+
+		double[] result = new double[ComplexFunction.RESULT_SIZE];
+		double max = 0;
+		for (Complex root : roots.getRoots()) {
+			double modulus = root.module();
+			double scale = 1;
+			if (modulus > 1) {
+				Complex w = Complex.ONE.divide(root);
+				reversed.evaluate(w.getRe(), w.getIm(), result);
+				// pogreška u 1/z preslikava se u pogrešku u z
+				scale = modulus * modulus;
+			} else {
+				evaluator.evaluate(root.getRe(), root.getIm(), result);
+			}
+			double f = Math.hypot(result[ComplexFunction.F_RE], result[ComplexFunction.F_IM]);
+			double df = Math.hypot(result[ComplexFunction.DF_RE], result[ComplexFunction.DF_IM]);
+			max = Math.max(max, scale * f / df);
+		}
+		return max;
+	}
+}
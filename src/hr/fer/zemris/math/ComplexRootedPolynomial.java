@@ -14,9 +14,14 @@ import java.util.StringJoiner;
  * koji prihvaća varijablan broj kompleksnih korijena, koji su primjerci razreda
  * {@link Complex}. Popis metoda dan je u nastavku:
  * <ul>
+ * <li>{@link #order()}</li>
+ * <li>{@link #getRoots()}</li>
  * <li>{@link #apply(Complex)}</li>
+ * <li>{@link #apply(Complex, MutableComplex)}</li>
+ * <li>{@link #apply(double, double, MutableComplex)}</li>
  * <li>{@link #toComplexPolynom()}</li>
  * <li>{@link #indexOfClosestRootFor(Complex, double)}</li>
+ * <li>{@link #indexOfClosestRootFor(double, double, double)}</li>
  * <li>{@link #toString()} - nadjačana metoda</li>
  * </ul>
  * 
@@ -50,6 +55,26 @@ public class ComplexRootedPolynomial {
 		this.roots = roots;
 	}
 
+	/**
+	 * Metoda koja vraća red polinoma. Red polinoma jednak je broju njegovih
+	 * korijena
+	 *
+	 * @return red polinoma
+	 */
+	public int order() {
+		return roots.length;
+	}
+
+	/**
+	 * Metoda koja dohvaća kopiju korijena ovog polinoma: <i>z0, z1, ... ,
+	 * zn-1,zn</i> <b>tim redom</b>
+	 *
+	 * @return kopija korijena ovog polinoma
+	 */
+	public Complex[] getRoots() {
+		return roots.clone();
+	}
+
 	/**
 	 * Metoda koja u polinom uvrštava predanu vrijednost <b>z</b> te vraća
 	 * rezultat koji je primjerak razreda {@link Complex} i koji predstavlja
@@ -68,6 +93,42 @@ public class ComplexRootedPolynomial {
 		return result.get();
 	}
 
+	/**
+	 * Metoda koja u polinom uvrštava predanu vrijednost <b>z</b> te rezultat
+	 * zapisuje u predani akumulator <b>result</b>. Metoda ne stvara nove
+	 * objekte. Za polinom bez korijena rezultat je 1.
+	 *
+	 * @param z
+	 *            vrijednost z funkcije f(z) koju je potrebno uvrstiti
+	 * @param result
+	 *            akumulator u koji se zapisuje f(z)
+	 * @return predani akumulator <b>result</b>
+	 */
+	public MutableComplex apply(Complex z, MutableComplex result) {
+		return apply(z.getRe(), z.getIm(), result);
+	}
+
+	/**
+	 * Metoda koja u polinom uvrštava vrijednost <i>zRe + i*zIm</i> te rezultat
+	 * zapisuje u predani akumulator <b>result</b>. Metoda ne stvara nove
+	 * objekte. Za polinom bez korijena rezultat je 1.
+	 *
+	 * @param zRe
+	 *            realni dio točke
+	 * @param zIm
+	 *            imaginarni dio točke
+	 * @param result
+	 *            akumulator u koji se zapisuje f(z)
+	 * @return predani akumulator <b>result</b>
+	 */
+	public MutableComplex apply(double zRe, double zIm, MutableComplex result) {
+		result.set(1, 0);
+		for (Complex root : roots) {
+			result.multiplyInPlace(zRe - root.getRe(), zIm - root.getIm());
+		}
+		return result;
+	}
+
 	/**
 	 * Metoda koja dohvaća poziciju u polju korijena od onog korijena koji je
 	 * najbliže točki u kompleksnoj ravnini <b>z</b>, ako je udaljenost od
@@ -86,49 +147,110 @@ public class ComplexRootedPolynomial {
 	 * @see Complex#distance(Complex)
 	 */
 	public int indexOfClosestRootFor(Complex z, double treshold) {
+		return indexOfClosestRootFor(z.getRe(), z.getIm(), treshold);
+	}
+
+	/**
+	 * Metoda koja radi isto što i metoda
+	 * {@link #indexOfClosestRootFor(Complex, double)}, ali točku u kompleksnoj
+	 * ravnini prima kao realni i imaginarni dio te pri tome ne stvara nove
+	 * objekte.
+	 *
+	 * @param re
+	 *            realni dio točke u kompleksnoj ravnini do koje se računa
+	 *            udaljenost
+	 * @param im
+	 *            imaginarni dio točke u kompleksnoj ravnini do koje se računa
+	 *            udaljenost
+	 * @param treshold
+	 *            granica koja definira kolika najveća udaljenost smije biti od
+	 *            korijena do točke
+	 * @return pozicija u polju korijena do korijena koji je u kompleksnoj
+	 *         ravnini najmanje udaljen od točke ili -1 ukoliko je ta
+	 *         udaljenost veća od <b>treshold</b>
+	 */
+	public int indexOfClosestRootFor(double re, double im, double treshold) {
+		// bitan je samo poredak udaljenosti pa se uspoređuju mjere
+		NumericPolicy policy = NumericPolicy.current();
 		int minIndex = 0;
-		double minDistance = roots[0].distance(z);
+		double minDistance = distance(policy, roots[0], re, im);
 		for (int i = 1; i < roots.length; i++) {
-			double distance = roots[i].distance(z);
+			double distance = distance(policy, roots[i], re, im);
 			if (distance < minDistance) {
 				minDistance = distance;
 				minIndex = i;
 			}
 		}
 
-		return minDistance <= treshold ? minIndex : -1;
+		return minDistance <= policy.distanceMeasureOf(treshold) ? minIndex : -1;
+	}
+
+	/**
+	 * Pomoćna metoda koja računa mjeru udaljenosti korijena <b>root</b> do
+	 * točke <i>re + i*im</i> u kompleksnoj ravnini.
+	 *
+	 * @param policy
+	 *            način računanja mjere udaljenosti
+	 * @param root
+	 *            korijen od kojeg se računa udaljenost
+	 * @param re
+	 *            realni dio točke
+	 * @param im
+	 *            imaginarni dio točke
+	 * @return mjera udaljenosti korijena <b>root</b> do točke
+	 *
+	 * @see NumericPolicy#distanceMeasure(double, double)
+	 */
+	private static double distance(NumericPolicy policy, Complex root, double re, double im) {
+		return policy.distanceMeasure(root.getRe() - re, root.getIm() - im);
 	}
 
 	/**
 	 * Metoda koja vrši konverziju iz primjeraka ovog razreda u primjerke
 	 * razreda {@link ComplexPolynomial}. Prilikom te konverzije stvara se novi
 	 * primjerak razreda {@link ComplexPolynomial} i pri tome se niti na koji
-	 * način ne mijenja ovaj primjerak razreda {@link ComplexRootedPolynomial}
+	 * način ne mijenja ovaj primjerak razreda {@link ComplexRootedPolynomial}.
+	 * Linearni faktori množe se u uravnoteženom stablu umnožaka pa je, uz
+	 * množenje brzom Fourierovom transformacijom, složenost konverzije
+	 * <i>O(n log^2 n)</i>
 	 *
 	 * @return primjerak razreda {@link ComplexPolynomial} nastao konverzijom iz
 	 *         ovog primjerka razreda {@link ComplexRootedPolynomial}
+	 *
+	 * @see ComplexFFT
 	 */
 	public ComplexPolynomial toComplexPolynom() {
-		// oblik je 1*z1 +(- rooti) * z0 od svakog od ovih
-		ComplexPolynomial result = createComplexPolynomialForRoot(roots[0]);
-		for (int i = 1; i < roots.length; i++) {
-			result = result.multiply(createComplexPolynomialForRoot(roots[i]));
+		if (roots.length == 0) {
+			return new ComplexPolynomial(Complex.ONE);
 		}
-		return result;
+
+		double[][] result = multiplyFactors(0, roots.length);
+		return ComplexPolynomial.fromParts(result[0], result[1]);
 	}
 
 	/**
-	 * Pomoćna metoda koja od korijena ovog primjerka razreda
-	 * {@link ComplexRootedPolynomial} stvara primjerak razreda
-	 * {@link ComplexPolynomial}. Metoda se koristi prilikom konverzije metodom
-	 * {@link #toComplexPolynom()}. 
+	 * Pomoćna metoda koja množi linearne faktore <i>(z - zi)</i> za korijene od
+	 * indeksa <b>from</b> uključivo do indeksa <b>to</b> isključivo. Raspon se
+	 * dijeli na dvije polovice čiji se umnošci zatim pomnože.
 	 *
-	 * @param root
-	 *            korijen koji je potrebno pretvoriti u {@link ComplexPolynomial}
-	 * @return primjerak razreda {@link ComplexPolynomial} nastao iz korijena <b>root</b>
+	 * @param from
+	 *            početni indeks korijena (uključivo)
+	 * @param to
+	 *            završni indeks korijena (isključivo)
+	 * @return polje veličine 2 čiji je prvi element polje realnih, a drugi
+	 *         polje imaginarnih dijelova faktora umnoška
 	 */
-	private ComplexPolynomial createComplexPolynomialForRoot(Complex root) {
-		return new ComplexPolynomial(root.negate(), Complex.ONE);
+	private double[][] multiplyFactors(int from, int to) {
+		if (to - from == 1) {
+			// oblik je 1*z1 +(- rooti) * z0
+			Complex root = roots[from];
+			return new double[][] { { -root.getRe(), 1 }, { -root.getIm(), 0 } };
+		}
+
+		int middle = (from + to) >>> 1;
+		double[][] left = multiplyFactors(from, middle);
+		double[][] right = multiplyFactors(middle, to);
+		return ComplexFFT.multiply(left[0], left[1], right[0], right[1]);
 	}
 
 	@Override
@@ -21,7 +21,7 @@ public class DoubleUtil {
 	 * te dvije vrijednosti jednake. Koeficijent se koristi i unutar
 	 * {@link #DOUBLE_COMPARATOR}
 	 */
-	private static final double DIFF = 1E-5;
+	public static final double DIFF = 1E-5;
 
 	/**
 	 * Konstanta koja predstavlja primjerak razreda koji implementira sučelje
@@ -56,4 +56,25 @@ public class DoubleUtil {
 		return Math.abs(firstNumber - secondNumber) < DIFF;
 	}
 
+	/**
+	 * Metoda koja uspoređuje vrijednosti <b>firstNumber</b> i
+	 * <b>secondNumber</b> jednako kao {@link #DOUBLE_COMPARATOR}, ali bez
+	 * pakiranja vrijednosti u primjerke razreda {@link Double}.
+	 *
+	 * @param firstNumber
+	 *            prvi broj koji se uspoređuje
+	 * @param secondNumber
+	 *            drugi broj koji se uspoređuje
+	 * @return 1 ako je <b>firstNumber</b> veći za više od {@value #DIFF}, 0
+	 *         ako su brojevi jednaki prema metodi
+	 *         {@link #doubleEquals(double, double)}, -1 inače
+	 */
+	public static int compare(double firstNumber, double secondNumber) {
+		if (firstNumber - secondNumber > DIFF)
+			return 1;
+		if (doubleEquals(firstNumber, secondNumber))
+			return 0;
+		return -1;
+	}
+
 }
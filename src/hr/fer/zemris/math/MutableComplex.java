@@ -0,0 +1,290 @@
+package hr.fer.zemris.math;
+
+import static hr.fer.zemris.math.DoubleUtil.doubleEquals;
+
+/**
+ * Razred predstavlja promjenjiv kompleksni broj koji služi kao akumulator
+ * prilikom računanja. Za razliku od razreda {@link Complex}, čija svaka
+ * operacija stvara novi primjerak, operacije ovog razreda mijenjaju ovaj
+ * primjerak i vraćaju ga, pa se niz operacija unutar petlje može provesti bez
+ * stvaranja ijednog novog objekta:
+ *
+ * <pre>
+ * MutableComplex acc = new MutableComplex();
+ * for (...) {
+ * 	acc.multiplyInPlace(z).addInPlace(c);
+ * }
+ * Complex result = acc.toComplex();
+ * </pre>
+ *
+ * Razred nije siguran za istovremeno korištenje iz više dretvi, pa svaka
+ * dretva treba koristiti vlastiti primjerak.
+ *
+ * @see Complex
+ *
+ * @author Davor Češljaš
+ */
+public final class MutableComplex {
+
+	/** Članska varijabla koja predstavlja realan dio kompleksnog broja */
+	private double re;
+
+	/** Članska varijabla koja predstavlja imaginaran dio kompleksnog broja */
+	private double im;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda na 0.
+	 */
+	public MutableComplex() {
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda na <i>re +
+	 * i*im</i>.
+	 *
+	 * @param re
+	 *            realni dio kompleksnog broja
+	 * @param im
+	 *            imaginarni dio kompleksnog broja
+	 */
+	public MutableComplex(double re, double im) {
+		this.re = re;
+		this.im = im;
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda na vrijednost
+	 * predanog kompleksnog broja.
+	 *
+	 * @param c
+	 *            početna vrijednost
+	 */
+	public MutableComplex(Complex c) {
+		this(c.getRe(), c.getIm());
+	}
+
+	/**
+	 * Metoda dohvaća realan dio ovog kompleksnog broja
+	 *
+	 * @return realan dio ovog kompleksnog broja
+	 */
+	public double getRe() {
+		return re;
+	}
+
+	/**
+	 * Metoda dohvaća imaginaran dio ovog kompleksnog broja
+	 *
+	 * @return imaginaran dio ovog kompleksnog broja
+	 */
+	public double getIm() {
+		return im;
+	}
+
+	/**
+	 * Metoda koja postavlja vrijednost ovog broja na <i>re + i*im</i>.
+	 *
+	 * @param re
+	 *            novi realni dio
+	 * @param im
+	 *            novi imaginarni dio
+	 * @return ovaj primjerak razreda
+	 */
+	public MutableComplex set(double re, double im) {
+		this.re = re;
+		this.im = im;
+		return this;
+	}
+
+	/**
+	 * Metoda koja postavlja vrijednost ovog broja na vrijednost predanog
+	 * kompleksnog broja.
+	 *
+	 * @param c
+	 *            nova vrijednost
+	 * @return ovaj primjerak razreda
+	 */
+	public MutableComplex set(Complex c) {
+		return set(c.getRe(), c.getIm());
+	}
+
+	/**
+	 * Metoda koja ovom broju pribraja <i>re + i*im</i>.
+	 *
+	 * @param re
+	 *            realni dio pribrojnika
+	 * @param im
+	 *            imaginarni dio pribrojnika
+	 * @return ovaj primjerak razreda
+	 */
+	public MutableComplex addInPlace(double re, double im) {
+		this.re += re;
+		this.im += im;
+		return this;
+	}
+
+	/**
+	 * Metoda koja ovom broju pribraja broj <b>c</b>.
+	 *
+	 * @param c
+	 *            pribrojnik
+	 * @return ovaj primjerak razreda
+	 */
+	public MutableComplex addInPlace(Complex c) {
+		return addInPlace(c.getRe(), c.getIm());
+	}
+
+	/**
+	 * Metoda koja od ovog broja oduzima <i>re + i*im</i>.
+	 *
+	 * @param re
+	 *            realni dio umanjitelja
+	 * @param im
+	 *            imaginarni dio umanjitelja
+	 * @return ovaj primjerak razreda
+	 */
+	public MutableComplex subInPlace(double re, double im) {
+		this.re -= re;
+		this.im -= im;
+		return this;
+	}
+
+	/**
+	 * Metoda koja od ovog broja oduzima broj <b>c</b>.
+	 *
+	 * @param c
+	 *            umanjitelj
+	 * @return ovaj primjerak razreda
+	 */
+	public MutableComplex subInPlace(Complex c) {
+		return subInPlace(c.getRe(), c.getIm());
+	}
+
+	/**
+	 * Metoda koja ovaj broj množi s <i>re + i*im</i>.
+	 *
+	 * @param re
+	 *            realni dio množitelja
+	 * @param im
+	 *            imaginarni dio množitelja
+	 * @return ovaj primjerak razreda
+	 */
+	public MutableComplex multiplyInPlace(double re, double im) {
+		double newRe = this.re * re - this.im * im;
+		this.im = this.re * im + this.im * re;
+		this.re = newRe;
+		return this;
+	}
+
+	/**
+	 * Metoda koja ovaj broj množi s brojem <b>c</b>.
+	 *
+	 * @param c
+	 *            množitelj
+	 * @return ovaj primjerak razreda
+	 */
+	public MutableComplex multiplyInPlace(Complex c) {
+		return multiplyInPlace(c.getRe(), c.getIm());
+	}
+
+	/**
+	 * Metoda koja ovaj broj dijeli s <i>re + i*im</i>.
+	 *
+	 * @param re
+	 *            realni dio djelitelja
+	 * @param im
+	 *            imaginarni dio djelitelja
+	 * @return ovaj primjerak razreda
+	 *
+	 * @throws ArithmeticException
+	 *             ukoliko se pokuša dijeliti s nulom, odnosno brojem čiji su
+	 *             realni i imaginarni dio manji od {@value DoubleUtil#DIFF}
+	 *             (kao i {@link Complex#divide(Complex)})
+	 */
+	public MutableComplex divideInPlace(double re, double im) {
+		if (doubleEquals(re, 0) && doubleEquals(im, 0)) {
+			throw new ArithmeticException("Dijeljenje s 0!");
+		}
+
+		double denominator = re * re + im * im;
+		double newRe = (this.re * re + this.im * im) / denominator;
+		this.im = (this.im * re - this.re * im) / denominator;
+		this.re = newRe;
+		return this;
+	}
+
+	/**
+	 * Metoda koja ovaj broj dijeli s brojem <b>c</b>.
+	 *
+	 * @param c
+	 *            djelitelj
+	 * @return ovaj primjerak razreda
+	 *
+	 * @throws ArithmeticException
+	 *             ukoliko se pokuša dijeliti s nulom
+	 */
+	public MutableComplex divideInPlace(Complex c) {
+		return divideInPlace(c.getRe(), c.getIm());
+	}
+
+	/**
+	 * Metoda koja ovaj broj množi s <i>mRe + i*mIm</i> i zatim mu pribraja
+	 * <i>aRe + i*aIm</i>, odnosno provodi jedan korak Hornerovog postupka.
+	 *
+	 * @param mRe
+	 *            realni dio množitelja
+	 * @param mIm
+	 *            imaginarni dio množitelja
+	 * @param aRe
+	 *            realni dio pribrojnika
+	 * @param aIm
+	 *            imaginarni dio pribrojnika
+	 * @return ovaj primjerak razreda
+	 */
+	public MutableComplex fma(double mRe, double mIm, double aRe, double aIm) {
+		double newRe = re * mRe - im * mIm + aRe;
+		im = re * mIm + im * mRe + aIm;
+		re = newRe;
+		return this;
+	}
+
+	/**
+	 * Metoda koja ovaj broj množi s brojem <b>m</b> i zatim mu pribraja broj
+	 * <b>a</b>.
+	 *
+	 * @param m
+	 *            množitelj
+	 * @param a
+	 *            pribrojnik
+	 * @return ovaj primjerak razreda
+	 *
+	 * @see #fma(double, double, double, double)
+	 */
+	public MutableComplex fma(Complex m, Complex a) {
+		return fma(m.getRe(), m.getIm(), a.getRe(), a.getIm());
+	}
+
+	/**
+	 * Metoda računa modul ovog kompleksnog broja.
+	 *
+	 * @return modul kompleksnog broja
+	 */
+	public double module() {
+		return Math.sqrt(re * re + im * im);
+	}
+
+	/**
+	 * Metoda koja pretvara trenutnu vrijednost ovog broja u nepromijenjiv
+	 * primjerak razreda {@link Complex}.
+	 *
+	 * @return novi primjerak razreda {@link Complex} jednak ovom broju
+	 */
+	public Complex toComplex() {
+		return new Complex(re, im);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("(%f %s %fi)", re, im >= 0 ? "+" : "", im);
+	}
+}
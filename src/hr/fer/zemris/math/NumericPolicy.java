@@ -0,0 +1,207 @@
+package hr.fer.zemris.math;
+
+/**
+ * Enumeracija predstavlja način na koji razredi {@link Complex},
+ * {@link Vector3} i {@link ComplexRootedPolynomial} te usporedba
+ * <b>double</b> vrijednosti računaju module, norme, udaljenosti i usporedbe.
+ * Postoje dva načina:
+ * <ul>
+ * <li>{@link #STRICT} - dosadašnje ponašanje: kvadriranje preko
+ * {@link Math#pow(double, double)}, udaljenosti s korjenovanjem i usporedba
+ * preko {@link DoubleUtil#DOUBLE_COMPARATOR}</li>
+ * <li>{@link #FAST} - kvadriranje običnim množenjem, usporedba kvadrata
+ * udaljenosti tamo gdje je bitan samo poredak te usporedba primitivnih
+ * vrijednosti bez pakiranja u {@link Double}</li>
+ * </ul>
+ * Oba načina daju rezultate koji se razlikuju najviše u zadnjim bitovima
+ * mantise (vidi {@link #TOLERANCE}). Način se postavlja globalno metodom
+ * {@link #setCurrent(NumericPolicy)}, a pojedino mjesto u kodu može i
+ * izravno koristiti metode željenog načina.
+ *
+ * @author Davor Češljaš
+ */
+public enum NumericPolicy {
+
+	/** Dosadašnje ponašanje */
+	STRICT {
+		@Override
+		public double squaredModule(double x, double y) {
+			return Math.pow(x, SQUARE) + Math.pow(y, SQUARE);
+		}
+
+		@Override
+		public double squaredNorm(double x, double y, double z) {
+			return Math.pow(x, SQUARE) + Math.pow(y, SQUARE) + Math.pow(z, SQUARE);
+		}
+
+		@Override
+		public double distanceMeasure(double dx, double dy) {
+			return Math.sqrt(squaredModule(dx, dy));
+		}
+
+		@Override
+		public double distanceMeasureOf(double distance) {
+			return distance;
+		}
+
+		@Override
+		public int compare(double first, double second) {
+			return DoubleUtil.DOUBLE_COMPARATOR.compare(first, second);
+		}
+	},
+
+	/** Brži izračun uz razliku najviše u zadnjim bitovima mantise */
+	FAST {
+		@Override
+		public double squaredModule(double x, double y) {
+			return x * x + y * y;
+		}
+
+		@Override
+		public double squaredNorm(double x, double y, double z) {
+			return x * x + y * y + z * z;
+		}
+
+		@Override
+		public double distanceMeasure(double dx, double dy) {
+			return dx * dx + dy * dy;
+		}
+
+		@Override
+		public double distanceMeasureOf(double distance) {
+			return distance * distance;
+		}
+
+		@Override
+		public int compare(double first, double second) {
+			return DoubleUtil.compare(first, second);
+		}
+	};
+
+	/**
+	 * Najveća relativna razlika rezultata istog izračuna u dva načina
+	 */
+	public static final double TOLERANCE = 1E-14;
+
+	/** Konstanta koja predstavlja potenciju 2 */
+	private static final int SQUARE = 2;
+
+	/** Trenutni globalni način */
+	private static volatile NumericPolicy current = STRICT;
+
+	/**
+	 * Metoda koja dohvaća trenutni globalni način. Podrazumijevani način je
+	 * {@link #STRICT}.
+	 *
+	 * @return trenutni globalni način
+	 */
+	public static NumericPolicy current() {
+		return current;
+	}
+
+	/**
+	 * Metoda koja postavlja globalni način.
+	 *
+	 * @param policy
+	 *            novi globalni način
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code>
+	 */
+	public static void setCurrent(NumericPolicy policy) {
+		if (policy == null) {
+			throw new IllegalArgumentException("Način ne smije biti null!");
+		}
+
+		current = policy;
+	}
+
+	/**
+	 * Metoda koja računa kvadrat modula kompleksnog broja <i>x + i*y</i>.
+	 *
+	 * @param x
+	 *            realni dio
+	 * @param y
+	 *            imaginarni dio
+	 * @return kvadrat modula
+	 */
+	public abstract double squaredModule(double x, double y);
+
+	/**
+	 * Metoda koja računa kvadrat norme vektora <i>(x, y, z)</i>.
+	 *
+	 * @param x
+	 *            x komponenta
+	 * @param y
+	 *            y komponenta
+	 * @param z
+	 *            z komponenta
+	 * @return kvadrat norme
+	 */
+	public abstract double squaredNorm(double x, double y, double z);
+
+	/**
+	 * Metoda koja računa modul kompleksnog broja <i>x + i*y</i>.
+	 *
+	 * @param x
+	 *            realni dio
+	 * @param y
+	 *            imaginarni dio
+	 * @return modul
+	 */
+	public double module(double x, double y) {
+		return Math.sqrt(squaredModule(x, y));
+	}
+
+	/**
+	 * Metoda koja računa normu vektora <i>(x, y, z)</i>.
+	 *
+	 * @param x
+	 *            x komponenta
+	 * @param y
+	 *            y komponenta
+	 * @param z
+	 *            z komponenta
+	 * @return norma
+	 */
+	public double norm(double x, double y, double z) {
+		return Math.sqrt(squaredNorm(x, y, z));
+	}
+
+	/**
+	 * Metoda koja računa mjeru udaljenosti točaka u ravnini čija je razlika
+	 * <i>(dx, dy)</i>. Mjera služi samo za usporedbu udaljenosti: veća
+	 * udaljenost ima veću mjeru. Granica udaljenosti pretvara se u mjeru
+	 * metodom {@link #distanceMeasureOf(double)}.
+	 *
+	 * @param dx
+	 *            razlika po prvoj osi
+	 * @param dy
+	 *            razlika po drugoj osi
+	 * @return mjera udaljenosti
+	 */
+	public abstract double distanceMeasure(double dx, double dy);
+
+	/**
+	 * Metoda koja pretvara udaljenost u mjeru udaljenosti usporedivu s
+	 * rezultatom metode {@link #distanceMeasure(double, double)}.
+	 *
+	 * @param distance
+	 *            nenegativna udaljenost
+	 * @return mjera udaljenosti
+	 */
+	public abstract double distanceMeasureOf(double distance);
+
+	/**
+	 * Metoda koja uspoređuje dvije <b>double</b> vrijednosti uz toleranciju
+	 * jednaku onoj u {@link DoubleUtil#DOUBLE_COMPARATOR}.
+	 *
+	 * @param first
+	 *            prva vrijednost
+	 * @param second
+	 *            druga vrijednost
+	 * @return pozitivan broj, nula ili negativan broj ukoliko je prva
+	 *         vrijednost veća, jednaka ili manja od druge
+	 */
+	public abstract int compare(double first, double second);
+}
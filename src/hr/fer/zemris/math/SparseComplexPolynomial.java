@@ -0,0 +1,312 @@
+package hr.fer.zemris.math;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Razred predstavlja rijetki kompleksni polinom, odnosno polinom kod kojeg je
+ * većina faktora jednaka nuli (primjerice <i>z^1000 - 1</i>). Za razliku od
+ * razreda {@link ComplexPolynomial} pohranjuju se samo članovi s faktorom
+ * različitim od nule, zajedno s pripadnim potencijama, pa je zauzeće memorije
+ * i trajanje deriviranja razmjerno broju članova, a ne redu polinoma.
+ * <p>
+ * Vrijednost polinoma i derivacije računaju se istovremeno i bez stvaranja
+ * novih objekata. Članovi se obilaze uzlazno po potencijama, a potencija
+ * <i>z</i> svakog sljedećeg člana dobiva se iz potencije prethodnog člana
+ * množenjem s <i>z</i> na razliku potencija, koja se računa uzastopnim
+ * kvadriranjem. Izračun za polinom s <i>t</i> članova reda <i>n</i> zato traje
+ * <i>O(t log n)</i>, a ne <i>O(n)</i>.
+ * <p>
+ * Razred implementira sučelje {@link ComplexFunction} pa se može predati
+ * Newton-Raphsonovom fraktalu jednako kao i prevedeni oblik gustog polinoma
+ * ({@link ComplexPolynomialEvaluator}). Razred je nepromijenjiv te ga je
+ * sigurno koristiti iz više dretvi istovremeno. Popis metoda dan je u
+ * nastavku:
+ * <ul>
+ * <li>{@link #order()}</li>
+ * <li>{@link #numberOfTerms()}</li>
+ * <li>{@link #derive()}</li>
+ * <li>{@link #apply(Complex)}</li>
+ * <li>{@link #evaluate(double, double, double[])}</li>
+ * <li>{@link #findRoots()}</li>
+ * <li>{@link #toComplexPolynomial()}</li>
+ * <li>{@link #toString()} - nadjačana metoda</li>
+ * </ul>
+ *
+ * @see ComplexPolynomial
+ * @see ComplexFunction
+ *
+ * @author Davor Češljaš
+ */
+public final class SparseComplexPolynomial implements ComplexFunction {
+
+	/** Potencije članova, strogo uzlazno */
+	private final int[] exponents;
+
+	/** Realni dijelovi faktora članova, redom kao {@link #exponents} */
+	private final double[] re;
+
+	/** Imaginarni dijelovi faktora članova, redom kao {@link #exponents} */
+	private final double[] im;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Član s indeksom
+	 * <i>i</i> je <i>factors[i] * z^exponents[i]</i>. Članovi ne moraju biti
+	 * poredani, faktori članova s istom potencijom se zbrajaju, a članovi s
+	 * faktorom jednakim nuli se izostavljaju.
+	 *
+	 * @param exponents
+	 *            potencije članova
+	 * @param factors
+	 *            faktori članova
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je neki od argumenata <code>null</code>, ukoliko
+	 *             polja nisu jednake duljine ili ukoliko je neka od potencija
+	 *             negativna
+	 */
+	public SparseComplexPolynomial(int[] exponents, Complex[] factors) {
+		if (exponents == null || factors == null) {
+			throw new IllegalArgumentException("Potencije i faktori ne smiju biti null!");
+		}
+		if (exponents.length != factors.length) {
+			throw new IllegalArgumentException("Broj potencija i broj faktora moraju biti jednaki!");
+		}
+
+		Map<Integer, Complex> terms = new TreeMap<>();
+		for (int i = 0; i < exponents.length; i++) {
+			if (exponents[i] < 0) {
+				throw new IllegalArgumentException("Potencija ne smije biti negativna, a predana je " + exponents[i]);
+			}
+			if (factors[i] == null) {
+				throw new IllegalArgumentException("Faktori ne smiju biti null!");
+			}
+			terms.merge(exponents[i], factors[i], Complex::add);
+		}
+
+		terms.values().removeIf(c -> c.getRe() == 0 && c.getIm() == 0);
+		this.exponents = new int[terms.size()];
+		this.re = new double[terms.size()];
+		this.im = new double[terms.size()];
+		int i = 0;
+		for (Entry<Integer, Complex> term : terms.entrySet()) {
+			this.exponents[i] = term.getKey();
+			this.re[i] = term.getValue().getRe();
+			this.im[i] = term.getValue().getIm();
+			i++;
+		}
+	}
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda iz gustog polinoma
+	 * <b>polynomial</b>. Pohranjuju se samo faktori različiti od nule.
+	 *
+	 * @param polynomial
+	 *            gusti polinom
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code>
+	 */
+	public SparseComplexPolynomial(ComplexPolynomial polynomial) {
+		this(exponentsOf(polynomial), polynomial.getFactors());
+	}
+
+	/**
+	 * Pomoćna metoda koja vraća potencije <i>0, 1, ... , n</i> za sve faktore
+	 * gustog polinoma.
+	 *
+	 * @param polynomial
+	 *            gusti polinom
+	 * @return potencije svih faktora
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je predani argument <code>null</code>
+	 */
+	private static int[] exponentsOf(ComplexPolynomial polynomial) {
+		if (polynomial == null) {
+			throw new IllegalArgumentException("Polinom ne smije biti null!");
+		}
+
+		// red gustog polinoma je short, pa se duljina uzima iz faktora
+		int[] exponents = new int[polynomial.getFactors().length];
+		for (int i = 0; i < exponents.length; i++) {
+			exponents[i] = i;
+		}
+		return exponents;
+	}
+
+	/**
+	 * Metoda koja vraća red polinoma, odnosno najveću potenciju člana s
+	 * faktorom različitim od nule. Red nul-polinoma je 0.
+	 *
+	 * @return red polinoma
+	 */
+	public int order() {
+		return exponents.length == 0 ? 0 : exponents[exponents.length - 1];
+	}
+
+	/**
+	 * Metoda koja vraća broj članova polinoma s faktorom različitim od nule.
+	 *
+	 * @return broj članova polinoma
+	 */
+	public int numberOfTerms() {
+		return exponents.length;
+	}
+
+	/**
+	 * Metoda koja derivira ovaj primjerak ovog razreda. Metoda vraća novi
+	 * primjerak ovog razreda, a ovaj primjerak ne modificira.
+	 *
+	 * @return novi primjerak ovog razreda koji predstavlja derivaciju ovog
+	 *         primjerka
+	 */
+	public SparseComplexPolynomial derive() {
+		int start = exponents.length > 0 && exponents[0] == 0 ? 1 : 0;
+		int[] derivedExponents = new int[exponents.length - start];
+		Complex[] derivedFactors = new Complex[derivedExponents.length];
+		for (int i = start; i < exponents.length; i++) {
+			derivedExponents[i - start] = exponents[i] - 1;
+			derivedFactors[i - start] = new Complex(re[i] * exponents[i], im[i] * exponents[i]);
+		}
+		return new SparseComplexPolynomial(derivedExponents, derivedFactors);
+	}
+
+	/**
+	 * Metoda koja u polinom uvrštava predanu vrijednost <b>z</b> te vraća
+	 * rezultat koji je primjerak razreda {@link Complex} i koji predstavlja
+	 * funkciju f(z) u točki <b>z</b>
+	 *
+	 * @param z
+	 *            vrijednost z funkcije f(z) koju je potrebno uvrstiti
+	 * @return rezultat koji je primjerak razreda {@link Complex} i koji
+	 *         predstavlja f(z) u točki <b>z</b>
+	 */
+	public Complex apply(Complex z) {
+		double[] result = new double[RESULT_SIZE];
+		evaluate(z.getRe(), z.getIm(), result);
+		return new Complex(result[F_RE], result[F_IM]);
+	}
+
+	@Override
+	public void evaluate(double zRe, double zIm, double[] result) {
+		double fRe = 0;
+		double fIm = 0;
+		double dRe = 0;
+		double dIm = 0;
+
+		int k = 0;
+		if (exponents.length > 0 && exponents[0] == 0) {
+			fRe = re[0];
+			fIm = im[0];
+			k = 1;
+		}
+
+		// p = z^(e - 1) za potenciju e trenutnog člana
+		double pRe = 1;
+		double pIm = 0;
+		int previous = 1;
+		for (; k < exponents.length; k++) {
+			// p = p * z^(e - previous) uzastopnim kvadriranjem
+			int step = exponents[k] - previous;
+			double bRe = zRe;
+			double bIm = zIm;
+			while (step > 0) {
+				if ((step & 1) != 0) {
+					double tmp = pRe * bRe - pIm * bIm;
+					pIm = pRe * bIm + pIm * bRe;
+					pRe = tmp;
+				}
+				step >>= 1;
+				if (step > 0) {
+					double tmp = bRe * bRe - bIm * bIm;
+					bIm = 2 * bRe * bIm;
+					bRe = tmp;
+				}
+			}
+			previous = exponents[k];
+
+			// c * z^(e - 1)
+			double cpRe = re[k] * pRe - im[k] * pIm;
+			double cpIm = re[k] * pIm + im[k] * pRe;
+			// f' += e * c * z^(e - 1)
+			dRe += previous * cpRe;
+			dIm += previous * cpIm;
+			// f += c * z^(e - 1) * z
+			fRe += cpRe * zRe - cpIm * zIm;
+			fIm += cpRe * zIm + cpIm * zRe;
+		}
+
+		result[F_RE] = fRe;
+		result[F_IM] = fIm;
+		result[DF_RE] = dRe;
+		result[DF_IM] = dIm;
+	}
+
+	/**
+	 * Metoda koja pronalazi sve korijene ovog polinoma. Korijeni polinoma s
+	 * najviše dva člana, <i>a*z^n + b*z^k</i>, računaju se izravno: <i>k</i>
+	 * korijena jednako je nuli, a preostali su (<i>n - k</i>)-ti korijeni
+	 * broja <i>-b/a</i>. Korijeni ostalih polinoma traže se metodom
+	 * {@link ComplexPolynomial#findRoots()} nad gustim oblikom polinoma.
+	 * Vraćeni polinom ima vodeći faktor 1.
+	 *
+	 * @return polinom predstavljen pronađenim korijenima
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je ovaj polinom nul-polinom
+	 */
+	public ComplexRootedPolynomial findRoots() {
+		if (exponents.length == 0) {
+			throw new IllegalArgumentException("Nul-polinom nema konačan broj korijena!");
+		}
+		if (exponents.length > 2) {
+			return toComplexPolynomial().findRoots();
+		}
+
+		int order = order();
+		int zeros = exponents[0];
+		Complex[] roots = new Complex[order];
+		Arrays.fill(roots, 0, zeros, Complex.ZERO);
+		if (zeros < order) {
+			Complex ratio = new Complex(-re[0], -im[0]).divide(new Complex(re[1], im[1]));
+			List<Complex> nonZero = ratio.root(order - zeros);
+			for (int i = zeros; i < order; i++) {
+				roots[i] = nonZero.get(i - zeros);
+			}
+		}
+		return new ComplexRootedPolynomial(roots);
+	}
+
+	/**
+	 * Metoda koja pretvara ovaj primjerak ovog razreda u gusti polinom
+	 * predstavljen razredom {@link ComplexPolynomial}.
+	 *
+	 * @return gusti polinom jednak ovom polinomu
+	 */
+	public ComplexPolynomial toComplexPolynomial() {
+		Complex[] factors = new Complex[order() + 1];
+		for (int i = 0; i < factors.length; i++) {
+			factors[i] = Complex.ZERO;
+		}
+		for (int i = 0; i < exponents.length; i++) {
+			factors[exponents[i]] = new Complex(re[i], im[i]);
+		}
+		return new ComplexPolynomial(factors);
+	}
+
+	@Override
+	public String toString() {
+		StringJoiner sj = new StringJoiner("+", "f(z) = ", "");
+		sj.setEmptyValue("f(z) = 0");
+		for (int i = exponents.length - 1; i >= 0; i--) {
+			sj.add(String.format("(%s * z^%d)", new Complex(re[i], im[i]), exponents[i]));
+		}
+
+		return sj.toString();
+	}
+}
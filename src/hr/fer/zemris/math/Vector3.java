@@ -24,9 +24,6 @@ import static hr.fer.zemris.math.DoubleUtil.doubleEquals;
  */
 public class Vector3 {
 
-	/** Konstanta koja predstavlja potenciju 2 */
-	private static final int SQUARE = 2;
-
 	/** Članska varijabla koja predstavlja x-koordinatu ovog vektora */
 	private double x;
 
@@ -60,7 +57,7 @@ public class Vector3 {
 	 * @return norma ovog vekotra
 	 */
 	public double norm() {
-		return Math.sqrt(Math.pow(x, SQUARE) + Math.pow(y, SQUARE) + Math.pow(z, SQUARE));
+		return NumericPolicy.current().norm(x, y, z);
 	}
 
 	/**
@@ -0,0 +1,569 @@
+package hr.fer.zemris.math.complex;
+
+import java.util.Arrays;
+
+import hr.fer.zemris.math.ComplexFunction;
+
+/**
+ * Razred predstavlja prevedeni oblik izraza kompleksne funkcije jedne varijable
+ * koji stvara {@link ComplexExpressionParser}. Izraz je preveden u linearan
+ * niz instrukcija nad registrima, pri čemu svaka instrukcija upisuje rezultat
+ * u novi registar. Svaki registar sadrži dualni broj, odnosno vrijednost
+ * međurezultata i njegovu derivaciju po varijabli <i>z</i>, pa se izvođenjem
+ * instrukcija istovremeno dobivaju f(z) i f'(z) (automatska derivacija unaprijed,
+ * engl. <i>forward-mode automatic differentiation</i>).
+ * <p>
+ * Prilikom izračuna ne obilazi se stablo izraza i ne stvaraju se novi objekti:
+ * svaka dretva koristi vlastito polje registara, a konstantni podizrazi
+ * izračunati su već prilikom prevođenja. Razred implementira sučelje
+ * {@link ComplexFunction} te ga je sigurno koristiti iz više dretvi
+ * istovremeno.
+ *
+ * @see ComplexExpressionParser
+ * @see ComplexFunction
+ *
+ * @author Davor Češljaš
+ */
+public final class CompiledComplexExpression implements ComplexFunction {
+
+	/** Operacija zbrajanja */
+	static final int ADD = 0;
+	/** Operacija oduzimanja */
+	static final int SUB = 1;
+	/** Operacija množenja */
+	static final int MUL = 2;
+	/** Operacija dijeljenja */
+	static final int DIV = 3;
+	/** Operacija negacije */
+	static final int NEG = 4;
+	/** Operacija potenciranja cijelim brojem (eksponent nije registar) */
+	static final int POWI = 5;
+	/** Operacija potenciranja kompleksnim brojem */
+	static final int POW = 6;
+	/** Funkcija e^z */
+	static final int EXP = 7;
+	/** Funkcija glavne vrijednosti prirodnog logaritma */
+	static final int LOG = 8;
+	/** Funkcija glavne vrijednosti drugog korijena */
+	static final int SQRT = 9;
+	/** Funkcija sinus */
+	static final int SIN = 10;
+	/** Funkcija kosinus */
+	static final int COS = 11;
+	/** Funkcija tangens */
+	static final int TAN = 12;
+	/** Funkcija sinus hiperbolni */
+	static final int SINH = 13;
+	/** Funkcija kosinus hiperbolni */
+	static final int COSH = 14;
+
+	/** Broj <b>double</b> vrijednosti u jednom registru */
+	private static final int REGISTER_SIZE = 4;
+
+	/** Registar u koji se prilikom izračuna upisuje varijabla <i>z</i> */
+	private static final int VARIABLE_REGISTER = 0;
+
+	/** Operacije instrukcija <b>tim redom</b> */
+	private final int[] operations;
+
+	/** Registri prvih operanada instrukcija */
+	private final int[] left;
+
+	/**
+	 * Registri drugih operanada instrukcija (za {@link #POWI} sam cjelobrojni
+	 * eksponent)
+	 */
+	private final int[] right;
+
+	/** Registri u koje instrukcije upisuju rezultat */
+	private final int[] targets;
+
+	/** Registar u kojem se nalazi rezultat izraza */
+	private final int resultRegister;
+
+	/** Početno stanje registara s već izračunatim konstantama */
+	private final double[] template;
+
+	/** Registri pojedine dretve */
+	private final ThreadLocal<double[]> registers;
+
+	/** Izvorni tekst izraza */
+	private final String expression;
+
+	/**
+	 * Konstruktor koji inicijalizira primjerak ovog razreda. Koristi ga
+	 * {@link Builder#build(int, String)}.
+	 *
+	 * @param builder
+	 *            graditelj koji sadrži instrukcije i konstante
+	 * @param resultRegister
+	 *            registar u kojem se nalazi rezultat izraza
+	 * @param expression
+	 *            izvorni tekst izraza
+	 */
+	private CompiledComplexExpression(Builder builder, int resultRegister, String expression) {
+		this.operations = Arrays.copyOf(builder.operations, builder.size);
+		this.left = Arrays.copyOf(builder.left, builder.size);
+		this.right = Arrays.copyOf(builder.right, builder.size);
+		this.targets = Arrays.copyOf(builder.targets, builder.size);
+		this.template = Arrays.copyOf(builder.registers, builder.registerCount * REGISTER_SIZE);
+		this.resultRegister = resultRegister;
+		this.expression = expression;
+		this.registers = ThreadLocal.withInitial(template::clone);
+	}
+
+	@Override
+	public void evaluate(double zRe, double zIm, double[] result) {
+		double[] r = registers.get();
+		r[0] = zRe;
+		r[1] = zIm;
+		r[2] = 1;
+		r[3] = 0;
+
+		for (int i = 0, n = operations.length; i < n; i++) {
+			execute(operations[i], left[i], right[i], targets[i], r);
+		}
+
+		int offset = resultRegister * REGISTER_SIZE;
+		result[F_RE] = r[offset];
+		result[F_IM] = r[offset + 1];
+		result[DF_RE] = r[offset + 2];
+		result[DF_IM] = r[offset + 3];
+	}
+
+	@Override
+	public String toString() {
+		return "f(z) = " + expression;
+	}
+
+	/**
+	 * Pomoćna metoda koja izvodi jednu instrukciju nad dualnim brojevima u
+	 * registrima <b>r</b>.
+	 *
+	 * @param operation
+	 *            operacija koja se izvodi
+	 * @param a
+	 *            registar prvog operanda
+	 * @param b
+	 *            registar drugog operanda ili eksponent za {@link #POWI}
+	 * @param target
+	 *            registar u koji se upisuje rezultat
+	 * @param r
+	 *            registri
+	 */
+	private static void execute(int operation, int a, int b, int target, double[] r) {
+		int ao = a * REGISTER_SIZE;
+		int bo = b * REGISTER_SIZE;
+		int to = target * REGISTER_SIZE;
+		double ar = r[ao], ai = r[ao + 1], adr = r[ao + 2], adi = r[ao + 3];
+
+		switch (operation) {
+		case ADD:
+			set(r, to, ar + r[bo], ai + r[bo + 1], adr + r[bo + 2], adi + r[bo + 3]);
+			return;
+		case SUB:
+			set(r, to, ar - r[bo], ai - r[bo + 1], adr - r[bo + 2], adi - r[bo + 3]);
+			return;
+		case NEG:
+			set(r, to, -ar, -ai, -adr, -adi);
+			return;
+		case MUL: {
+			double br = r[bo], bi = r[bo + 1], bdr = r[bo + 2], bdi = r[bo + 3];
+			set(r, to, ar * br - ai * bi, ar * bi + ai * br,
+					adr * br - adi * bi + ar * bdr - ai * bdi, adr * bi + adi * br + ar * bdi + ai * bdr);
+			return;
+		}
+		case DIV: {
+			double br = r[bo], bi = r[bo + 1], bdr = r[bo + 2], bdi = r[bo + 3];
+			double denominator = br * br + bi * bi;
+			double vr = (ar * br + ai * bi) / denominator;
+			double vi = (ai * br - ar * bi) / denominator;
+			// (a/b)' = (a' - (a/b) * b') / b
+			double nr = adr - (vr * bdr - vi * bdi);
+			double ni = adi - (vr * bdi + vi * bdr);
+			set(r, to, vr, vi, (nr * br + ni * bi) / denominator, (ni * br - nr * bi) / denominator);
+			return;
+		}
+		case POWI:
+			powerInteger(r, to, ar, ai, adr, adi, b);
+			return;
+		case POW: {
+			// a^b = exp(b * log a), (a^b)' = a^b * (b' * log a + b * a' / a)
+			double br = r[bo], bi = r[bo + 1], bdr = r[bo + 2], bdi = r[bo + 3];
+			double modulus = ar * ar + ai * ai;
+			double lr = 0.5 * Math.log(modulus);
+			double li = Math.atan2(ai, ar);
+			double er = Math.exp(br * lr - bi * li);
+			double angle = br * li + bi * lr;
+			double vr = er * Math.cos(angle);
+			double vi = er * Math.sin(angle);
+			double qr = (adr * ar + adi * ai) / modulus;
+			double qi = (adi * ar - adr * ai) / modulus;
+			double sr = bdr * lr - bdi * li + br * qr - bi * qi;
+			double si = bdr * li + bdi * lr + br * qi + bi * qr;
+			set(r, to, vr, vi, vr * sr - vi * si, vr * si + vi * sr);
+			return;
+		}
+		case EXP: {
+			double er = Math.exp(ar);
+			double vr = er * Math.cos(ai);
+			double vi = er * Math.sin(ai);
+			chain(r, to, vr, vi, vr, vi, adr, adi);
+			return;
+		}
+		case LOG: {
+			double modulus = ar * ar + ai * ai;
+			chain(r, to, 0.5 * Math.log(modulus), Math.atan2(ai, ar), ar / modulus, -ai / modulus, adr, adi);
+			return;
+		}
+		case SQRT: {
+			double root = Math.sqrt(Math.sqrt(ar * ar + ai * ai));
+			double angle = Math.atan2(ai, ar) / 2;
+			double vr = root * Math.cos(angle);
+			double vi = root * Math.sin(angle);
+			// (sqrt a)' = 1 / (2 * sqrt a)
+			double denominator = 2 * (vr * vr + vi * vi);
+			chain(r, to, vr, vi, vr / denominator, -vi / denominator, adr, adi);
+			return;
+		}
+		case SIN:
+			chain(r, to, Math.sin(ar) * Math.cosh(ai), Math.cos(ar) * Math.sinh(ai), Math.cos(ar) * Math.cosh(ai),
+					-Math.sin(ar) * Math.sinh(ai), adr, adi);
+			return;
+		case COS:
+			chain(r, to, Math.cos(ar) * Math.cosh(ai), -Math.sin(ar) * Math.sinh(ai), -Math.sin(ar) * Math.cosh(ai),
+					-Math.cos(ar) * Math.sinh(ai), adr, adi);
+			return;
+		case TAN: {
+			double sr = Math.sin(ar) * Math.cosh(ai), si = Math.cos(ar) * Math.sinh(ai);
+			double cr = Math.cos(ar) * Math.cosh(ai), ci = -Math.sin(ar) * Math.sinh(ai);
+			double denominator = cr * cr + ci * ci;
+			double vr = (sr * cr + si * ci) / denominator;
+			double vi = (si * cr - sr * ci) / denominator;
+			// tan' = 1 + tan^2
+			chain(r, to, vr, vi, 1 + vr * vr - vi * vi, 2 * vr * vi, adr, adi);
+			return;
+		}
+		case SINH:
+			chain(r, to, Math.sinh(ar) * Math.cos(ai), Math.cosh(ar) * Math.sin(ai), Math.cosh(ar) * Math.cos(ai),
+					Math.sinh(ar) * Math.sin(ai), adr, adi);
+			return;
+		case COSH:
+			chain(r, to, Math.cosh(ar) * Math.cos(ai), Math.sinh(ar) * Math.sin(ai), Math.sinh(ar) * Math.cos(ai),
+					Math.cosh(ar) * Math.sin(ai), adr, adi);
+			return;
+		default:
+			throw new IllegalStateException("Nepoznata operacija " + operation);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja potencira dualni broj <i>(ar + i*ai, adr + i*adi)</i>
+	 * cijelim brojem <b>n</b> uzastopnim kvadriranjem.
+	 *
+	 * @param r
+	 *            registri
+	 * @param to
+	 *            pomak registra u koji se upisuje rezultat
+	 * @param ar
+	 *            realni dio baze
+	 * @param ai
+	 *            imaginarni dio baze
+	 * @param adr
+	 *            realni dio derivacije baze
+	 * @param adi
+	 *            imaginarni dio derivacije baze
+	 * @param n
+	 *            eksponent
+	 */
+	private static void powerInteger(double[] r, int to, double ar, double ai, double adr, double adi, int n) {
+		if (n == 0) {
+			set(r, to, 1, 0, 0, 0);
+			return;
+		}
+
+		int m = Math.abs(n);
+		// p = a^(m-1)
+		double pr = 1, pi = 0;
+		double br = ar, bi = ai;
+		for (int e = m - 1; e > 0; e >>= 1) {
+			if ((e & 1) != 0) {
+				double tmp = pr * br - pi * bi;
+				pi = pr * bi + pi * br;
+				pr = tmp;
+			}
+			double tmp = br * br - bi * bi;
+			bi = 2 * br * bi;
+			br = tmp;
+		}
+		double vr = pr * ar - pi * ai;
+		double vi = pr * ai + pi * ar;
+		// (a^m)' = m * a^(m-1) * a'
+		double dr = m * (pr * adr - pi * adi);
+		double di = m * (pr * adi + pi * adr);
+
+		if (n < 0) {
+			double denominator = vr * vr + vi * vi;
+			vr /= denominator;
+			vi /= -denominator;
+			// (1/v)' = -v' / v^2
+			double sr = vr * vr - vi * vi;
+			double si = 2 * vr * vi;
+			double tmp = -(dr * sr - di * si);
+			di = -(dr * si + di * sr);
+			dr = tmp;
+		}
+		set(r, to, vr, vi, dr, di);
+	}
+
+	/**
+	 * Pomoćna metoda koja u registar upisuje vrijednost funkcije <i>v</i> i
+	 * derivaciju dobivenu pravilom lanca: <i>g * a'</i>
+	 *
+	 * @param r
+	 *            registri
+	 * @param to
+	 *            pomak registra u koji se upisuje rezultat
+	 * @param vr
+	 *            realni dio vrijednosti funkcije
+	 * @param vi
+	 *            imaginarni dio vrijednosti funkcije
+	 * @param gr
+	 *            realni dio derivacije funkcije u točki
+	 * @param gi
+	 *            imaginarni dio derivacije funkcije u točki
+	 * @param adr
+	 *            realni dio derivacije argumenta
+	 * @param adi
+	 *            imaginarni dio derivacije argumenta
+	 */
+	private static void chain(double[] r, int to, double vr, double vi, double gr, double gi, double adr,
+			double adi) {
+		set(r, to, vr, vi, gr * adr - gi * adi, gr * adi + gi * adr);
+	}
+
+	/**
+	 * Pomoćna metoda koja upisuje dualni broj u registar.
+	 *
+	 * @param r
+	 *            registri
+	 * @param to
+	 *            pomak registra u koji se upisuje rezultat
+	 * @param vr
+	 *            realni dio vrijednosti
+	 * @param vi
+	 *            imaginarni dio vrijednosti
+	 * @param dr
+	 *            realni dio derivacije
+	 * @param di
+	 *            imaginarni dio derivacije
+	 */
+	private static void set(double[] r, int to, double vr, double vi, double dr, double di) {
+		r[to] = vr;
+		r[to + 1] = vi;
+		r[to + 2] = dr;
+		r[to + 3] = di;
+	}
+
+	/**
+	 * Graditelj prevedenog izraza kojeg koristi {@link ComplexExpressionParser}.
+	 * Svaka metoda graditelja vraća registar u kojem će se nalaziti rezultat.
+	 * Ukoliko su svi operandi operacije konstante, operacija se izvodi odmah, a
+	 * rezultat postaje nova konstanta.
+	 *
+	 * @author Davor Češljaš
+	 */
+	static class Builder {
+
+		/** Početni kapacitet polja graditelja */
+		private static final int INITIAL_CAPACITY = 16;
+
+		/** Operacije instrukcija */
+		private int[] operations = new int[INITIAL_CAPACITY];
+
+		/** Registri prvih operanada */
+		private int[] left = new int[INITIAL_CAPACITY];
+
+		/** Registri drugih operanada */
+		private int[] right = new int[INITIAL_CAPACITY];
+
+		/** Registri rezultata */
+		private int[] targets = new int[INITIAL_CAPACITY];
+
+		/** Broj instrukcija */
+		private int size;
+
+		/** Početno stanje registara */
+		private double[] registers = new double[INITIAL_CAPACITY * REGISTER_SIZE];
+
+		/** Zastavice koje označavaju konstantne registre */
+		private boolean[] constant = new boolean[INITIAL_CAPACITY];
+
+		/** Broj registara */
+		private int registerCount = 1;
+
+		/**
+		 * Metoda koja dohvaća registar varijable <i>z</i>.
+		 *
+		 * @return registar varijable
+		 */
+		int variable() {
+			return VARIABLE_REGISTER;
+		}
+
+		/**
+		 * Metoda koja stvara registar s konstantom <i>re + i*im</i>.
+		 *
+		 * @param re
+		 *            realni dio konstante
+		 * @param im
+		 *            imaginarni dio konstante
+		 * @return registar konstante
+		 */
+		int constant(double re, double im) {
+			int register = newRegister(true);
+			set(registers, register * REGISTER_SIZE, re, im, 0, 0);
+			return register;
+		}
+
+		/**
+		 * Metoda koja provjerava sadrži li registar konstantu.
+		 *
+		 * @param register
+		 *            registar koji se provjerava
+		 * @return <code>true</code> ako je registar konstanta,
+		 *         <code>false</code> inače
+		 */
+		boolean isConstant(int register) {
+			return constant[register];
+		}
+
+		/**
+		 * Metoda koja dohvaća realni dio konstantnog registra
+		 *
+		 * @param register
+		 *            konstantni registar
+		 * @return realni dio konstante
+		 */
+		double constantRe(int register) {
+			return registers[register * REGISTER_SIZE];
+		}
+
+		/**
+		 * Metoda koja dohvaća imaginarni dio konstantnog registra
+		 *
+		 * @param register
+		 *            konstantni registar
+		 * @return imaginarni dio konstante
+		 */
+		double constantIm(int register) {
+			return registers[register * REGISTER_SIZE + 1];
+		}
+
+		/**
+		 * Metoda koja dodaje operaciju s jednim operandom.
+		 *
+		 * @param operation
+		 *            operacija
+		 * @param a
+		 *            registar operanda
+		 * @return registar rezultata
+		 */
+		int unary(int operation, int a) {
+			return emit(operation, a, 0, constant[a]);
+		}
+
+		/**
+		 * Metoda koja dodaje operaciju s dva operanda.
+		 *
+		 * @param operation
+		 *            operacija
+		 * @param a
+		 *            registar prvog operanda
+		 * @param b
+		 *            registar drugog operanda
+		 * @return registar rezultata
+		 */
+		int binary(int operation, int a, int b) {
+			return emit(operation, a, b, constant[a] && constant[b]);
+		}
+
+		/**
+		 * Metoda koja dodaje potenciranje cijelim brojem.
+		 *
+		 * @param a
+		 *            registar baze
+		 * @param n
+		 *            eksponent
+		 * @return registar rezultata
+		 */
+		int powerInteger(int a, int n) {
+			return emit(POWI, a, n, constant[a]);
+		}
+
+		/**
+		 * Metoda koja stvara prevedeni izraz.
+		 *
+		 * @param result
+		 *            registar rezultata izraza
+		 * @param expression
+		 *            izvorni tekst izraza
+		 * @return prevedeni izraz
+		 */
+		CompiledComplexExpression build(int result, String expression) {
+			return new CompiledComplexExpression(this, result, expression);
+		}
+
+		/**
+		 * Pomoćna metoda koja dodaje instrukciju ili je odmah izvodi ako je
+		 * rezultat konstanta.
+		 *
+		 * @param operation
+		 *            operacija
+		 * @param a
+		 *            prvi operand
+		 * @param b
+		 *            drugi operand
+		 * @param fold
+		 *            <code>true</code> ako se operacija izvodi odmah
+		 * @return registar rezultata
+		 */
+		private int emit(int operation, int a, int b, boolean fold) {
+			int target = newRegister(fold);
+			if (fold) {
+				execute(operation, a, b, target, registers);
+				return target;
+			}
+
+			if (size == operations.length) {
+				int capacity = size * 2;
+				operations = Arrays.copyOf(operations, capacity);
+				left = Arrays.copyOf(left, capacity);
+				right = Arrays.copyOf(right, capacity);
+				targets = Arrays.copyOf(targets, capacity);
+			}
+			operations[size] = operation;
+			left[size] = a;
+			right[size] = b;
+			targets[size] = target;
+			size++;
+			return target;
+		}
+
+		/**
+		 * Pomoćna metoda koja zauzima novi registar.
+		 *
+		 * @param isConstant
+		 *            je li registar konstanta
+		 * @return novi registar
+		 */
+		private int newRegister(boolean isConstant) {
+			if (registerCount == constant.length) {
+				constant = Arrays.copyOf(constant, registerCount * 2);
+				registers = Arrays.copyOf(registers, registerCount * 2 * REGISTER_SIZE);
+			}
+			constant[registerCount] = isConstant;
+			return registerCount++;
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package hr.fer.zemris.math.complex;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Razred predstavlja leksički analizator koji leksički analizira izraz
+ * kompleksne funkcije jedne varijable, primjerice <i>z^3 - 1 + sin(z)</i>.
+ * Leksičke jedinke koje ovaj razred generira predstavljene su razredom
+ * {@link Token}. Ovaj leksički analizator koristi {@link ComplexExpressionParser}
+ * prilikom parsiranja izraza. Za razliku od {@link ComplexLexer}-a, znakovi '+'
+ * i '-' uvijek se generiraju kao operatori, a o tome jesu li unarni ili binarni
+ * odlučuje sintaksni analizator. Analizator generira sljedeće tokene:
+ * <ul>
+ * <li>{@link TokenType#NUMBER} - nenegativan realan broj</li>
+ * <li>{@link TokenType#IMAGINARY} - imaginarna jedinica 'i'</li>
+ * <li>{@link TokenType#VARIABLE} - varijabla 'z'</li>
+ * <li>{@link TokenType#FUNCTION} - ime funkcije (niz slova)</li>
+ * <li>{@link TokenType#OPERATOR} - jedan od znakova '+', '-', '*', '/' ili
+ * '^'</li>
+ * <li>{@link TokenType#OPEN_BRACKET} i {@link TokenType#CLOSED_BRACKET}</li>
+ * </ul>
+ *
+ * @see Token
+ * @see ComplexExpressionParser
+ *
+ * @author Davor Češljaš
+ */
+public class ComplexExpressionLexer {
+
+	/** Konstanta koja predstavlja znak '*'. */
+	public static final char MULTIPLY = '*';
+
+	/** Konstanta koja predstavlja znak '/'. */
+	public static final char DIVIDE = '/';
+
+	/** Konstanta koja predstavlja znak '^'. */
+	public static final char POWER = '^';
+
+	/** Konstanta koja predstavlja znak '.' */
+	private static final char DOT = '.';
+
+	/** Konstanta koja predstavlja ime imaginarne jedinice */
+	private static final String IMAGINARY_UNIT = "i";
+
+	/** Konstanta koja predstavlja ime varijable */
+	private static final String VARIABLE_NAME = "z";
+
+	/**
+	 * Konstantan primjerak razreda {@link Token} koji predstavlja token za
+	 * varijablu <i>z</i>
+	 */
+	public static final Token VARIABLE = new Token('z', TokenType.VARIABLE);
+
+	/**
+	 * Konstantan primjerak razreda {@link Token} koji predstavlja token za
+	 * otvorenu zagradu
+	 */
+	public static final Token OPEN_BRACKET = new Token('(', TokenType.OPEN_BRACKET);
+
+	/**
+	 * Konstantan primjerak razreda {@link Token} koji predstavlja token za
+	 * zatvorenu zagradu
+	 */
+	public static final Token CLOSED_BRACKET = new Token(')', TokenType.CLOSED_BRACKET);
+
+	/** Ulazni niz znakova koji se leksički analizira */
+	private char[] data;
+
+	/** Trenutni pozicija u ulaznom nizu znakova */
+	private int currentIndex;
+
+	/** Zadnje izvađeni token */
+	private Token currentToken;
+
+	/**
+	 * Konstruktor koji iz ulaznog primjerka razreda {@link String}
+	 * inicijalizira ulazni niz znakova.
+	 *
+	 * @param input
+	 *            ulazni primjerak razreda {@link String} koji se leksički
+	 *            analizira
+	 * @throws IllegalArgumentException
+	 *             ukoliko je kao <b>input</b> predan <b>null</b>
+	 */
+	public ComplexExpressionLexer(String input) {
+		if (input == null) {
+			throw new IllegalArgumentException("Leksička analiza ne može biti izvedena nad null");
+		}
+
+		this.data = input.toCharArray();
+	}
+
+	/**
+	 * Analizator iz predanog ulaznog teksta pokušava izvaditi sljedeći token.
+	 * Metoda ujedino ažurira trenutni token.
+	 *
+	 * @return sljedeći token iz ulaznog niza
+	 *
+	 * @throws NoSuchElementException
+	 *             ukoliko je već izvađen token {@link ComplexLexer#EOF}
+	 * @throws IllegalArgumentException
+	 *             ukoliko ulazni niz sadrži nepoznati znak
+	 */
+	public Token nextToken() {
+		extractToken();
+		return currentToken;
+	}
+
+	/**
+	 * Metoda dohvaća zadnje izvađeni token.
+	 *
+	 * @return zadnje izvađeni token ili <code>null</code> ukoliko token još
+	 *         nije izvađen
+	 */
+	public Token getToken() {
+		return currentToken;
+	}
+
+	/**
+	 * Pomoćna metoda koja vrši vađenje sljedećeg tokena. Ako uspije izvađeni
+	 * token će biti postavljen kao trenutni token
+	 */
+	private void extractToken() {
+		if (currentToken != null && currentToken.getType() == TokenType.EOF) {
+			throw new NoSuchElementException("Nemam više tokena!");
+		}
+
+		skipWhitespaces();
+
+		if (isEOF()) {
+			currentToken = ComplexLexer.EOF;
+			return;
+		}
+
+		char c = data[currentIndex];
+		if (Character.isDigit(c) || c == DOT) {
+			extractNumber();
+		} else if (Character.isLetter(c)) {
+			extractName();
+		} else if (isOperator(c)) {
+			currentToken = new Token(c, TokenType.OPERATOR);
+			currentIndex++;
+		} else if (c == '(') {
+			currentToken = OPEN_BRACKET;
+			currentIndex++;
+		} else if (c == ')') {
+			currentToken = CLOSED_BRACKET;
+			currentIndex++;
+		} else {
+			throw new IllegalArgumentException("Nepoznati znak '" + c + "' na poziciji " + currentIndex);
+		}
+	}
+
+	/**
+	 * Provjerava je li znak operator
+	 *
+	 * @see TokenType#OPERATOR
+	 *
+	 * @param c
+	 *            znak koji provjeravamo
+	 * @return <b>true</b> ukoliko je <b>c</b> operator, <b>false</b> inače
+	 */
+	private boolean isOperator(char c) {
+		return c == ComplexLexer.PLUS || c == ComplexLexer.MINUS || c == MULTIPLY || c == DIVIDE || c == POWER;
+	}
+
+	/**
+	 * Pomoćna metoda koja vrši vađenje sljedećeg tokena tipa
+	 * {@link TokenType#NUMBER}, a koji predstavlja nenegativan broj.
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko se naredni niz znakova ne može parsirati u broj
+	 *             korištenjem metode {@link Double#parseDouble(String)}
+	 */
+	private void extractNumber() {
+		int start = currentIndex;
+		while (!isEOF() && (Character.isDigit(data[currentIndex]) || data[currentIndex] == DOT)) {
+			currentIndex++;
+		}
+
+		String number = new String(data, start, currentIndex - start);
+		try {
+			currentToken = new Token(Double.parseDouble(number), TokenType.NUMBER);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Ne mogu parsirati predani broj '" + number + "'");
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja vrši vađenje imena. Ime može predstavljati
+	 * imaginarnu jedinicu, varijablu ili ime funkcije.
+	 */
+	private void extractName() {
+		int start = currentIndex;
+		while (!isEOF() && Character.isLetter(data[currentIndex])) {
+			currentIndex++;
+		}
+
+		String name = new String(data, start, currentIndex - start).toLowerCase();
+		if (name.equals(IMAGINARY_UNIT)) {
+			currentToken = ComplexLexer.IMAGINARY;
+		} else if (name.equals(VARIABLE_NAME)) {
+			currentToken = VARIABLE;
+		} else {
+			currentToken = new Token(name, TokenType.FUNCTION);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja ispituje jesmo li došli do kraja ulaznog niza.
+	 *
+	 * @return <b>true</b> ukoliko smo došli do kraj niza <b>false</b> inače
+	 */
+	private boolean isEOF() {
+		return currentIndex >= data.length;
+	}
+
+	/**
+	 * Pomoćna metoda koja se koristi za preskakanje praznina u ulaznom nizu.
+	 */
+	private void skipWhitespaces() {
+		while (!isEOF() && Character.isWhitespace(data[currentIndex])) {
+			currentIndex++;
+		}
+	}
+}
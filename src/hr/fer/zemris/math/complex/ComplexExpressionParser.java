@@ -0,0 +1,290 @@
+package hr.fer.zemris.math.complex;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import hr.fer.zemris.math.ComplexFunction;
+
+/**
+ * Razred koji predstavlja sintaksni analizator izraza kompleksne funkcije jedne
+ * varijable. Razred nad primjerkom razreda {@link ComplexExpressionLexer}
+ * poziva {@link ComplexExpressionLexer#nextToken()} te izraz odmah prevodi u
+ * primjerak razreda {@link CompiledComplexExpression}, bez gradnje stabla.
+ * Razred započinje parsiranje prilikom inicijalizacije (poziva konstruktora).
+ * Rezultat je moguće dohvatiti pomoću metode {@link #getResult()}.
+ * <p>
+ * Gramatika izraza je sljedeća:
+ *
+ * <pre>
+ * izraz     := član (('+' | '-') član)*
+ * član      := unarni (('*' | '/') unarni | potencija)*
+ * unarni    := ('+' | '-') unarni | potencija
+ * potencija := primarni ('^' unarni)?
+ * primarni  := broj | 'i' | 'z' | funkcija '(' izraz ')' | '(' izraz ')'
+ * </pre>
+ *
+ * Množenje se može i izostaviti (npr. <i>3z^2</i> ili <i>2i</i>). Podržane
+ * funkcije su: <i>exp, log (ln), sqrt, sin, cos, tan, sinh</i> i <i>cosh</i>.
+ * Primjer izraza: <i>z^3 - 1 + sin(z)</i>
+ *
+ * @see ComplexExpressionLexer
+ * @see CompiledComplexExpression
+ *
+ * @author Davor Češljaš
+ */
+public class ComplexExpressionParser {
+
+	/**
+	 * Najveća apsolutna vrijednost cjelobrojnog eksponenta koji se računa
+	 * uzastopnim kvadriranjem
+	 */
+	private static final int MAX_INTEGER_EXPONENT = 1 << 20;
+
+	/** Podržane funkcije i pripadne operacije */
+	private static final Map<String, Integer> FUNCTIONS = new HashMap<>();
+
+	static {
+		FUNCTIONS.put("exp", CompiledComplexExpression.EXP);
+		FUNCTIONS.put("log", CompiledComplexExpression.LOG);
+		FUNCTIONS.put("ln", CompiledComplexExpression.LOG);
+		FUNCTIONS.put("sqrt", CompiledComplexExpression.SQRT);
+		FUNCTIONS.put("sin", CompiledComplexExpression.SIN);
+		FUNCTIONS.put("cos", CompiledComplexExpression.COS);
+		FUNCTIONS.put("tan", CompiledComplexExpression.TAN);
+		FUNCTIONS.put("sinh", CompiledComplexExpression.SINH);
+		FUNCTIONS.put("cosh", CompiledComplexExpression.COSH);
+	}
+
+	/** Leksički analizator iz kojeg se dohvaćaju tokeni */
+	private ComplexExpressionLexer lexer;
+
+	/** Graditelj prevedenog izraza */
+	private CompiledComplexExpression.Builder builder;
+
+	/** Primjerak razreda {@link CompiledComplexExpression} koji je rezultat */
+	private CompiledComplexExpression result;
+
+	/**
+	 * Konstruktor koji stvara primjerak razreda {@link ComplexExpressionLexer}
+	 * i predaje mu predani tekst <b>input</b>. Nakon toga kreće sintaksna
+	 * analiza unutar koje se izraz prevodi.
+	 *
+	 * @param input
+	 *            tekst izraza koji je potrebno parsirati
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je <b>input</b> <code>null</code>, prazan ili
+	 *             ukoliko izraz nije u gore opisanom formatu
+	 */
+	public ComplexExpressionParser(String input) {
+		if (input == null || input.trim().isEmpty()) {
+			throw new IllegalArgumentException("Ne mogu parsirati izraz iz null niti iz praznog niza!");
+		}
+
+		lexer = new ComplexExpressionLexer(input);
+		builder = new CompiledComplexExpression.Builder();
+		lexer.nextToken();
+
+		int register = parseExpression();
+		if (lexer.getToken().getType() != TokenType.EOF) {
+			throw new IllegalArgumentException("Neočekivani token " + lexer.getToken());
+		}
+		result = builder.build(register, input.trim());
+	}
+
+	/**
+	 * Metoda koja dohvaća prevedeni izraz koji je rezultat parsiranja
+	 *
+	 * @return prevedeni izraz koji je rezultat parsiranja
+	 */
+	public CompiledComplexExpression getResult() {
+		return result;
+	}
+
+	/**
+	 * Parsira predani izraz <b>input</b> i vraća ga kao primjerak sučelja
+	 * {@link ComplexFunction}.
+	 *
+	 * @param input
+	 *            tekst izraza koji je potrebno parsirati
+	 * @return prevedeni izraz
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko izraz nije moguće parsirati
+	 */
+	public static ComplexFunction parse(String input) {
+		return new ComplexExpressionParser(input).getResult();
+	}
+
+	/**
+	 * Pomoćna metoda koja parsira pravilo <i>izraz</i>.
+	 *
+	 * @return registar u kojem je rezultat
+	 */
+	private int parseExpression() {
+		int register = parseTerm();
+		while (true) {
+			if (isOperator(ComplexLexer.PLUS)) {
+				lexer.nextToken();
+				register = builder.binary(CompiledComplexExpression.ADD, register, parseTerm());
+			} else if (isOperator(ComplexLexer.MINUS)) {
+				lexer.nextToken();
+				register = builder.binary(CompiledComplexExpression.SUB, register, parseTerm());
+			} else {
+				return register;
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja parsira pravilo <i>član</i>.
+	 *
+	 * @return registar u kojem je rezultat
+	 */
+	private int parseTerm() {
+		int register = parseUnary();
+		while (true) {
+			if (isOperator(ComplexExpressionLexer.MULTIPLY)) {
+				lexer.nextToken();
+				register = builder.binary(CompiledComplexExpression.MUL, register, parseUnary());
+			} else if (isOperator(ComplexExpressionLexer.DIVIDE)) {
+				lexer.nextToken();
+				register = builder.binary(CompiledComplexExpression.DIV, register, parseUnary());
+			} else if (startsPrimary()) {
+				register = builder.binary(CompiledComplexExpression.MUL, register, parsePower());
+			} else {
+				return register;
+			}
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja parsira pravilo <i>unarni</i>.
+	 *
+	 * @return registar u kojem je rezultat
+	 */
+	private int parseUnary() {
+		if (isOperator(ComplexLexer.MINUS)) {
+			lexer.nextToken();
+			return builder.unary(CompiledComplexExpression.NEG, parseUnary());
+		}
+		if (isOperator(ComplexLexer.PLUS)) {
+			lexer.nextToken();
+			return parseUnary();
+		}
+		return parsePower();
+	}
+
+	/**
+	 * Pomoćna metoda koja parsira pravilo <i>potencija</i>. Ukoliko je
+	 * eksponent cijeli broj, potencija se računa uzastopnim kvadriranjem.
+	 *
+	 * @return registar u kojem je rezultat
+	 */
+	private int parsePower() {
+		int base = parsePrimary();
+		if (!isOperator(ComplexExpressionLexer.POWER)) {
+			return base;
+		}
+
+		lexer.nextToken();
+		int exponent = parseUnary();
+		if (builder.isConstant(exponent) && builder.constantIm(exponent) == 0) {
+			double value = builder.constantRe(exponent);
+			if (value == Math.rint(value) && Math.abs(value) <= MAX_INTEGER_EXPONENT) {
+				return builder.powerInteger(base, (int) value);
+			}
+		}
+		return builder.binary(CompiledComplexExpression.POW, base, exponent);
+	}
+
+	/**
+	 * Pomoćna metoda koja parsira pravilo <i>primarni</i>.
+	 *
+	 * @return registar u kojem je rezultat
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko trenutni token ne može započeti pravilo ili ukoliko
+	 *             je funkcija nepoznata
+	 */
+	private int parsePrimary() {
+		Token token = lexer.getToken();
+		switch (token.getType()) {
+		case NUMBER:
+			lexer.nextToken();
+			return builder.constant((Double) token.getValue(), 0);
+		case IMAGINARY:
+			lexer.nextToken();
+			return builder.constant(0, 1);
+		case VARIABLE:
+			lexer.nextToken();
+			return builder.variable();
+		case FUNCTION:
+			Integer operation = FUNCTIONS.get(token.getValue());
+			if (operation == null) {
+				throw new IllegalArgumentException("Nepoznata funkcija '" + token.getValue() + "'");
+			}
+			lexer.nextToken();
+			return builder.unary(operation, parseBracket());
+		case OPEN_BRACKET:
+			return parseBracket();
+		default:
+			throw new IllegalArgumentException("Neočekivani token " + token);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja parsira izraz unutar zagrada.
+	 *
+	 * @return registar u kojem je rezultat
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko nedostaje otvorena ili zatvorena zagrada
+	 */
+	private int parseBracket() {
+		if (lexer.getToken().getType() != TokenType.OPEN_BRACKET) {
+			throw new IllegalArgumentException("Očekivana je '(', a dobiven je " + lexer.getToken());
+		}
+		lexer.nextToken();
+		int register = parseExpression();
+		if (lexer.getToken().getType() != TokenType.CLOSED_BRACKET) {
+			throw new IllegalArgumentException("Očekivana je ')', a dobiven je " + lexer.getToken());
+		}
+		lexer.nextToken();
+		return register;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li trenutni token operator
+	 * <b>operator</b>.
+	 *
+	 * @param operator
+	 *            znak operatora
+	 * @return <code>true</code> ako je trenutni token traženi operator,
+	 *         <code>false</code> inače
+	 */
+	private boolean isOperator(char operator) {
+		Token token = lexer.getToken();
+		return token.getType() == TokenType.OPERATOR && (Character) token.getValue() == operator;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava može li trenutni token započeti pravilo
+	 * <i>primarni</i>. Koristi se za izostavljeno množenje.
+	 *
+	 * @return <code>true</code> ako trenutni token može započeti pravilo
+	 *         <i>primarni</i>, <code>false</code> inače
+	 */
+	private boolean startsPrimary() {
+		switch (lexer.getToken().getType()) {
+		case NUMBER:
+		case IMAGINARY:
+		case VARIABLE:
+		case FUNCTION:
+		case OPEN_BRACKET:
+			return true;
+		default:
+			return false;
+		}
+	}
+}
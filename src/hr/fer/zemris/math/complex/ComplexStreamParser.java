@@ -0,0 +1,552 @@
+package hr.fer.zemris.math.complex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import hr.fer.zemris.math.ComplexArray;
+
+/**
+ * Razred predstavlja sintaksni analizator za veliki broj kompleksnih brojeva,
+ * zapisanih po jedan u svakom retku ulaza. Svaki redak mora biti u formatu
+ * koji prihvaća {@link ComplexParser} (primjerice <i>"-2.71-i3.15"</i>), a
+ * prazni retci se preskaču. Rezultat se vraća kao primjerak razreda
+ * {@link ComplexArray}, odnosno kao dva polja primitivnih vrijednosti.
+ * <p>
+ * Za razliku od razreda {@link ComplexParser} ovaj razred ne stvara primjerke
+ * razreda {@link String}, {@link Token} niti
+ * {@link hr.fer.zemris.math.Complex}: ulaz se čita znak po znak izravno iz
+ * predanog {@link CharSequence} (primjerice {@link String} ili
+ * {@link java.nio.CharBuffer}) ili iz datoteke mapirane u memoriju, a brojevi
+ * se računaju izravno iz znamenaka. Samo brojevi s više od 15 značajnih
+ * znamenaka prepuštaju se metodi
+ * {@link Double#parseDouble(String)}, pa su rezultati jednaki rezultatima
+ * razreda {@link ComplexParser} do posljednjeg bita.
+ * <p>
+ * Ulaz duži od {@value #CHUNK_SIZE} znakova dijeli se na dijelove na
+ * granicama redaka, a dijelovi se analiziraju paralelno preko
+ * {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+ *
+ * @see ComplexParser
+ * @see ComplexArray
+ *
+ * @author Davor Češljaš
+ */
+public class ComplexStreamParser {
+
+	/** Približan broj znakova jednog dijela ulaza koji se analizira slijedno */
+	static final int CHUNK_SIZE = 1 << 20;
+
+	/** Znak koji označava kraj retka */
+	private static final char NEW_LINE = '\n';
+
+	/** Znak koji predstavlja imaginarnu jedinicu */
+	private static final char IMAGINARY_UNIT = 'i';
+
+	/** Znak koji predstavlja decimalnu točku */
+	private static final char DOT = '.';
+
+	/** Najveća mantisa koja se može točno prikazati kao <b>double</b> */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	/** Točne potencije broja 10 prikazive kao <b>double</b> */
+	private static final double[] POWERS_OF_TEN = new double[23];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	/** Ulaz koji se analizira */
+	private final CharSequence input;
+
+	/** Trenutna pozicija u ulazu */
+	private int position;
+
+	/** Realni dijelovi do sada pročitanih brojeva */
+	private double[] re = new double[16];
+
+	/** Imaginarni dijelovi do sada pročitanih brojeva */
+	private double[] im = new double[16];
+
+	/** Broj do sada pročitanih brojeva */
+	private int size;
+
+	/**
+	 * Privatni konstruktor koji inicijalizira primjerak ovog razreda.
+	 *
+	 * @param input
+	 *            ulaz koji se analizira
+	 */
+	private ComplexStreamParser(CharSequence input) {
+		this.input = input;
+	}
+
+	/**
+	 * Metoda koja analizira predani ulaz i vraća sve pročitane kompleksne
+	 * brojeve, redom kojim su zapisani.
+	 *
+	 * @param input
+	 *            ulaz s jednim kompleksnim brojem po retku
+	 * @return pročitani kompleksni brojevi
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko je ulaz <code>null</code> ili ukoliko neki od
+	 *             redaka nije u ispravnom formatu
+	 */
+	public static ComplexArray parse(CharSequence input) {
+		return parse(input, CHUNK_SIZE);
+	}
+
+	/**
+	 * Metoda koja mapira predanu datoteku u memoriju i analizira je jednako
+	 * kao metoda {@link #parse(CharSequence)}. Sadržaj datoteke mora biti u
+	 * kodiranju čiji se znakovi korišteni u formatu zapisuju jednim bajtom
+	 * (primjerice ASCII ili UTF-8).
+	 *
+	 * @param file
+	 *            putanja do datoteke
+	 * @return pročitani kompleksni brojevi
+	 *
+	 * @throws IOException
+	 *             ukoliko dođe do pogreške prilikom čitanja datoteke
+	 * @throws IllegalArgumentException
+	 *             ukoliko je datoteka veća od 2GB ili ukoliko neki od redaka
+	 *             nije u ispravnom formatu
+	 */
+	public static ComplexArray parse(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Datoteka " + file + " je prevelika za mapiranje!");
+			}
+
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, length);
+			return parse(new ByteSequence(buffer), CHUNK_SIZE);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja dijeli ulaz na dijelove veličine približno
+	 * <b>chunkSize</b> znakova na granicama redaka i analizira ih.
+	 *
+	 * @param input
+	 *            ulaz koji se analizira
+	 * @param chunkSize
+	 *            približan broj znakova jednog dijela
+	 * @return pročitani kompleksni brojevi
+	 */
+	static ComplexArray parse(CharSequence input, int chunkSize) {
+		if (input == null) {
+			throw new IllegalArgumentException("Ne mogu parsirati kompleksne brojeve iz null!");
+		}
+
+		List<ChunkJob> jobs = new ArrayList<>();
+		int length = input.length();
+		for (int start = 0; start < length;) {
+			int end = start + chunkSize >= length ? length : lineEnd(input, start + chunkSize, length);
+			jobs.add(new ChunkJob(input, start, end));
+			start = end;
+		}
+
+		if (jobs.size() == 1) {
+			return jobs.get(0).compute();
+		}
+		ForkJoinTask.invokeAll(jobs);
+
+		int total = 0;
+		for (ChunkJob job : jobs) {
+			total += job.join().length();
+		}
+		double[] re = new double[total];
+		double[] im = new double[total];
+		int offset = 0;
+		for (ChunkJob job : jobs) {
+			ComplexArray part = job.join();
+			System.arraycopy(part.realParts(), 0, re, offset, part.length());
+			System.arraycopy(part.imaginaryParts(), 0, im, offset, part.length());
+			offset += part.length();
+		}
+		return new ComplexArray(re, im);
+	}
+
+	/**
+	 * Pomoćna metoda koja pronalazi poziciju iza prvog znaka kraja retka
+	 * počevši od pozicije <b>from</b>.
+	 *
+	 * @param input
+	 *            ulaz
+	 * @param from
+	 *            pozicija od koje se traži
+	 * @param length
+	 *            duljina ulaza
+	 * @return pozicija iza kraja retka ili duljina ulaza ukoliko kraja retka
+	 *         nema
+	 */
+	private static int lineEnd(CharSequence input, int from, int length) {
+		for (int i = from; i < length; i++) {
+			if (input.charAt(i) == NEW_LINE) {
+				return i + 1;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Pomoćna metoda koja analizira sve retke između pozicija <b>from</b>
+	 * (uključivo) i <b>to</b> (isključivo).
+	 *
+	 * @param from
+	 *            početak prvog retka
+	 * @param to
+	 *            kraj zadnjeg retka
+	 * @return pročitani kompleksni brojevi
+	 */
+	private ComplexArray parseLines(int from, int to) {
+		int lineStart = from;
+		while (lineStart < to) {
+			int lineEnd = lineStart;
+			while (lineEnd < to && input.charAt(lineEnd) != NEW_LINE) {
+				lineEnd++;
+			}
+			parseLine(lineStart, lineEnd);
+			lineStart = lineEnd + 1;
+		}
+		return new ComplexArray(Arrays.copyOf(re, size), Arrays.copyOf(im, size));
+	}
+
+	/**
+	 * Pomoćna metoda koja analizira jedan redak. Pravila su jednaka pravilima
+	 * razreda {@link ComplexParser}: brojevi i imaginarne jedinice s
+	 * predznacima se zbrajaju, dva operatora zaredom nisu dozvoljena, redak ne
+	 * smije završiti operatorom, a imaginarna jedinica mora biti ispred broja.
+	 *
+	 * @param lineStart
+	 *            početak retka
+	 * @param end
+	 *            kraj retka (bez znaka kraja retka)
+	 */
+	private void parseLine(int lineStart, int end) {
+		position = lineStart;
+		double resultRe = 0;
+		double resultIm = 0;
+		int factor = 1;
+		boolean imaginary = false;
+		boolean previousOperator = false;
+		boolean empty = true;
+
+		while (true) {
+			skipWhitespaces(end);
+			if (position >= end) {
+				break;
+			}
+
+			empty = false;
+			char c = input.charAt(position);
+			if (c == IMAGINARY_UNIT) {
+				position++;
+				previousOperator = false;
+				if (isNumberNext(end)) {
+					imaginary = true;
+				} else {
+					resultIm += factor;
+					factor = 1;
+				}
+			} else if (isOperator(c) && !(position + 1 < end && isDigit(input.charAt(position + 1)))) {
+				if (previousOperator) {
+					throw error("Ne mogu parsirati dva operatora jedan iza drugog", position);
+				}
+				if (c == ComplexLexer.MINUS) {
+					factor = -factor;
+				}
+				position++;
+				previousOperator = true;
+			} else {
+				double value = scanNumber(end) * factor;
+				previousOperator = false;
+				skipWhitespaces(end);
+				if (position < end && input.charAt(position) == IMAGINARY_UNIT) {
+					throw error("Krivi format mora biti 'i*b', a ne 'b*i' (b je dani broj)", position);
+				}
+				if (imaginary) {
+					resultIm += value;
+				} else {
+					resultRe += value;
+				}
+				factor = 1;
+				imaginary = false;
+			}
+		}
+
+		if (previousOperator) {
+			throw error("Redak ne smije završiti operatorom", end);
+		}
+		if (!empty) {
+			add(resultRe, resultIm);
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li sljedeći element retka broj, bez
+	 * pomicanja trenutne pozicije.
+	 *
+	 * @param end
+	 *            kraj retka
+	 * @return <code>true</code> ako je sljedeći element broj,
+	 *         <code>false</code> inače
+	 */
+	private boolean isNumberNext(int end) {
+		int next = position;
+		while (next < end && isWhitespace(input.charAt(next))) {
+			next++;
+		}
+		if (next >= end) {
+			return false;
+		}
+
+		char c = input.charAt(next);
+		if (c == IMAGINARY_UNIT) {
+			return false;
+		}
+		return !isOperator(c) || (next + 1 < end && isDigit(input.charAt(next + 1)));
+	}
+
+	/**
+	 * Pomoćna metoda koja čita broj s mogućim predznakom od trenutne pozicije.
+	 * Broj s najviše 15 značajnih znamenaka i najviše 22 decimale računa se
+	 * kao količnik cijelog broja i potencije broja 10, što je jednako
+	 * rezultatu metode {@link Double#parseDouble(String)}.
+	 *
+	 * @param end
+	 *            kraj retka
+	 * @return pročitani broj
+	 *
+	 * @throws IllegalArgumentException
+	 *             ukoliko na trenutnoj poziciji nije broj
+	 */
+	private double scanNumber(int end) {
+		int start = position;
+		boolean negative = false;
+		char c = input.charAt(position);
+		if (isOperator(c)) {
+			negative = c == ComplexLexer.MINUS;
+			position++;
+		}
+
+		int digitsStart = position;
+		long mantissa = 0;
+		int fractionDigits = 0;
+		boolean digits = false;
+		boolean dot = false;
+		boolean exact = true;
+		for (; position < end; position++) {
+			c = input.charAt(position);
+			if (isDigit(c)) {
+				digits = true;
+				if (mantissa < MAX_EXACT_MANTISSA / 10) {
+					mantissa = mantissa * 10 + (c - '0');
+					if (dot) {
+						fractionDigits++;
+					}
+				} else {
+					exact = false;
+				}
+			} else if (c == DOT) {
+				if (dot) {
+					throw error("Ne mogu parsirati predani broj", start);
+				}
+				dot = true;
+			} else {
+				break;
+			}
+		}
+
+		if (!digits) {
+			throw error("Ne mogu parsirati predani broj", start);
+		}
+
+		double value;
+		if (exact && fractionDigits < POWERS_OF_TEN.length) {
+			value = mantissa / POWERS_OF_TEN[fractionDigits];
+		} else {
+			value = Double.parseDouble(input.subSequence(digitsStart, position).toString());
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Pomoćna metoda koja preskače praznine unutar retka.
+	 *
+	 * @param end
+	 *            kraj retka
+	 */
+	private void skipWhitespaces(int end) {
+		while (position < end && isWhitespace(input.charAt(position))) {
+			position++;
+		}
+	}
+
+	/**
+	 * Pomoćna metoda koja dodaje pročitani broj u rezultat.
+	 *
+	 * @param resultRe
+	 *            realni dio broja
+	 * @param resultIm
+	 *            imaginarni dio broja
+	 */
+	private void add(double resultRe, double resultIm) {
+		if (size == re.length) {
+			re = Arrays.copyOf(re, size * 2);
+			im = Arrays.copyOf(im, size * 2);
+		}
+		re[size] = resultRe;
+		im[size] = resultIm;
+		size++;
+	}
+
+	/**
+	 * Pomoćna metoda koja stvara iznimku s opisom pogreške i pozicijom u
+	 * ulazu.
+	 *
+	 * @param message
+	 *            opis pogreške
+	 * @param at
+	 *            pozicija pogreške u ulazu
+	 * @return stvorena iznimka
+	 */
+	private static IllegalArgumentException error(String message, int at) {
+		return new IllegalArgumentException(message + " (pozicija " + at + ")!");
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li znak operator.
+	 *
+	 * @param c
+	 *            znak koji se provjerava
+	 * @return <code>true</code> ako je znak operator, <code>false</code> inače
+	 */
+	private static boolean isOperator(char c) {
+		return c == ComplexLexer.PLUS || c == ComplexLexer.MINUS;
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li znak znamenka.
+	 *
+	 * @param c
+	 *            znak koji se provjerava
+	 * @return <code>true</code> ako je znak znamenka, <code>false</code> inače
+	 */
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Pomoćna metoda koja provjerava je li znak praznina unutar retka.
+	 *
+	 * @param c
+	 *            znak koji se provjerava
+	 * @return <code>true</code> ako je znak praznina, <code>false</code> inače
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\r';
+	}
+
+	/**
+	 * Razred koji nasljeđuje apstraktan razred {@link RecursiveTask} i
+	 * predstavlja posao analize jednog dijela ulaza.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class ChunkJob extends RecursiveTask<ComplexArray> {
+
+		private static final long serialVersionUID = 1L;
+
+		/** Ulaz koji se analizira */
+		private final CharSequence input;
+
+		/** Početak dijela (uključivo) */
+		private final int from;
+
+		/** Kraj dijela (isključivo) */
+		private final int to;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param input
+		 *            ulaz koji se analizira
+		 * @param from
+		 *            početak dijela (uključivo)
+		 * @param to
+		 *            kraj dijela (isključivo)
+		 */
+		public ChunkJob(CharSequence input, int from, int to) {
+			this.input = input;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected ComplexArray compute() {
+			return new ComplexStreamParser(input).parseLines(from, to);
+		}
+	}
+
+	/**
+	 * Razred predstavlja pogled na bajtove kao na niz znakova, bez kopiranja.
+	 * Svaki bajt predstavlja jedan znak, što vrijedi za sve znakove formata
+	 * kompleksnih brojeva.
+	 *
+	 * @author Davor Češljaš
+	 */
+	private static class ByteSequence implements CharSequence {
+
+		/** Bajtovi nad kojima je pogled */
+		private final ByteBuffer buffer;
+
+		/**
+		 * Konstruktor koji inicijalizira primjerak ovog razreda.
+		 *
+		 * @param buffer
+		 *            bajtovi nad kojima je pogled
+		 */
+		public ByteSequence(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int length() {
+			return buffer.limit();
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) (buffer.get(index) & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			StringBuilder sb = new StringBuilder(end - start);
+			for (int i = start; i < end; i++) {
+				sb.append(charAt(i));
+			}
+			return sb;
+		}
+
+		@Override
+		public String toString() {
+			return subSequence(0, length()).toString();
+		}
+	}
+}
@@ -8,7 +8,12 @@ package hr.fer.zemris.math.complex;
  * <li>{@link TokenType#IMAGINARY}</li>
  * <li>{@link TokenType#EOF}</li>
  * <li>{@link TokenType#OPERATOR}</li>
+ * <li>{@link TokenType#VARIABLE}</li>
+ * <li>{@link TokenType#FUNCTION}</li>
+ * <li>{@link TokenType#OPEN_BRACKET}</li>
+ * <li>{@link TokenType#CLOSED_BRACKET}</li>
  * </ul>
+ * Posljednja četiri tipa generira samo {@link ComplexExpressionLexer}.
  * 
  * @author Davor Češljaš
  */
@@ -18,8 +23,22 @@ public enum TokenType {
 	NUMBER,
 	/** Tip tokena koji predstavlja imaginarnu jedinicu */
 	IMAGINARY,
-	/** Tip tokena koji predstavlja operator ('+' ili '-') */
+	/**
+	 * Tip tokena koji predstavlja operator ('+' ili '-', a unutar izraza i
+	 * '*', '/' i '^')
+	 */
 	OPERATOR,
+	/** Tip tokena koji predstavlja varijablu <i>z</i> unutar izraza */
+	VARIABLE,
+	/**
+	 * Tip tokena koji predstavlja ime funkcije unutar izraza. Ime odgovara
+	 * tipu {@link String}
+	 */
+	FUNCTION,
+	/** Tip tokena koji predstavlja otvorenu zagradu '(' */
+	OPEN_BRACKET,
+	/** Tip tokena koji predstavlja zatvorenu zagradu ')' */
+	CLOSED_BRACKET,
 	/** Tip tokena koji predstavlja oznaku kraja niza */
 	EOF
 }
@@ -0,0 +1,124 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DiscoveredRootsTest {
+
+	private static final double TRESHOLD = 0.0002;
+
+	@Test
+	public void noviKorijen() {
+		DiscoveredRoots roots = new DiscoveredRoots(TRESHOLD);
+		assertEquals(0, roots.size());
+		assertEquals(0, roots.indexOf(1, 0));
+		assertEquals(1, roots.indexOf(-1, 0));
+		assertEquals(0, roots.indexOf(1 + TRESHOLD / 2, -TRESHOLD / 2));
+		assertEquals(1, roots.indexOf(-1, TRESHOLD));
+		assertEquals(2, roots.size());
+	}
+
+	@Test
+	public void korijenUSusjednojCeliji() {
+		// korijen je uz rub ćelije, a točka u susjednoj ćeliji
+		DiscoveredRoots roots = new DiscoveredRoots(TRESHOLD);
+		double edge = 5000 * TRESHOLD;
+		assertEquals(0, roots.indexOf(edge + TRESHOLD / 10, edge - TRESHOLD / 10));
+		assertEquals(0, roots.indexOf(edge - TRESHOLD / 2, edge + TRESHOLD / 2));
+		assertEquals(1, roots.indexOf(-edge, -edge));
+		assertEquals(1, roots.indexOf(-edge - TRESHOLD / 2, -edge + TRESHOLD / 2));
+		assertEquals(2, roots.size());
+	}
+
+	@Test
+	public void najbliziKorijen() {
+		Random random = new Random(1);
+		DiscoveredRoots roots = new DiscoveredRoots(TRESHOLD);
+		List<double[]> added = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			double re = 4 * random.nextDouble() - 2;
+			double im = 4 * random.nextDouble() - 2;
+			if (linearFind(added, re, im, 2 * TRESHOLD) < 0) {
+				assertEquals(added.size(), roots.indexOf(re, im));
+				added.add(new double[] { re, im });
+			}
+		}
+
+		for (int i = 0; i < 20000; i++) {
+			double[] root = added.get(random.nextInt(added.size()));
+			double re = root[0] + 3 * TRESHOLD * (random.nextDouble() - 0.5);
+			double im = root[1] + 3 * TRESHOLD * (random.nextDouble() - 0.5);
+			int expected = linearFind(added, re, im, TRESHOLD);
+			if (expected >= 0) {
+				assertEquals(expected, roots.indexOf(re, im));
+			}
+		}
+	}
+
+	@Test
+	public void poredakNeovisanORedoslijeduOtkrivanja() {
+		Random random = new Random(2);
+		List<double[]> unity = new ArrayList<>();
+		for (int k = 0; k < 50; k++) {
+			unity.add(new double[] { Math.cos(2 * Math.PI * k / 50), Math.sin(2 * Math.PI * k / 50) });
+		}
+
+		double[][] expected = null;
+		for (int round = 0; round < 10; round++) {
+			Collections.shuffle(unity, random);
+			DiscoveredRoots roots = new DiscoveredRoots(TRESHOLD);
+			for (double[] root : unity) {
+				// korijeni se otkrivaju s malom pogreškom
+				roots.indexOf(root[0] + 1E-9 * random.nextGaussian(), root[1] + 1E-9 * random.nextGaussian());
+			}
+
+			int[] order = roots.canonicalOrder();
+			double[][] ordered = new double[order.length][];
+			for (int i = 0; i < order.length; i++) {
+				ordered[order[i]] = unity.get(i);
+			}
+			if (expected == null) {
+				expected = ordered;
+			} else {
+				assertArrayEquals(expected, ordered);
+			}
+		}
+	}
+
+	@Test
+	public void ogranicenBrojKorijena() {
+		DiscoveredRoots roots = new DiscoveredRoots(TRESHOLD);
+		for (int i = 0; i < DiscoveredRoots.MAX_ROOTS; i++) {
+			assertEquals(i, roots.indexOf(i * 3 * TRESHOLD, 0));
+		}
+		assertEquals(-1, roots.indexOf(0, 1));
+		assertEquals(DiscoveredRoots.MAX_ROOTS, roots.size());
+		assertEquals(7, roots.indexOf(7 * 3 * TRESHOLD, TRESHOLD / 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void granicaMoraBitiPozitivna() {
+		new DiscoveredRoots(0);
+	}
+
+	private static int linearFind(List<double[]> roots, double re, double im, double treshold) {
+		int minIndex = -1;
+		double minDistance = treshold * treshold;
+		for (int i = 0; i < roots.size(); i++) {
+			double dRe = roots.get(i)[0] - re;
+			double dIm = roots.get(i)[1] - im;
+			double distance = dRe * dRe + dIm * dIm;
+			if (distance < minDistance || distance == minDistance && minIndex < 0) {
+				minDistance = distance;
+				minIndex = i;
+			}
+		}
+		return minIndex;
+	}
+}
@@ -0,0 +1,57 @@
+package hr.fer.zemris.java.fractals;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.SparseComplexPolynomial;
+
+public class NewtonFractalProducerTest {
+
+	private static final int WIDTH = 64;
+
+	private static final int HEIGHT = 48;
+
+	@Test
+	public void bojeNeoviseOBrojuDretvi() {
+		SparseComplexPolynomial function = new SparseComplexPolynomial(new int[] { 7, 0 },
+				new Complex[] { Complex.ONE, Complex.ONE_NEG });
+
+		short[] expected = null;
+		for (int threads : new int[] { 1, 2, 4, 8 }) {
+			NewtonFractalProducer producer = new NewtonFractalProducer(function, 1E-4, 2E-4, threads);
+			try {
+				short[][] data = new short[1][];
+				short[] colors = new short[1];
+				producer.produce(-2, 2, -1.5, 1.5, WIDTH, HEIGHT, 0, (result, count, requestNo) -> {
+					data[0] = result;
+					colors[0] = count;
+				});
+
+				assertEquals(8, colors[0]);
+				if (expected == null) {
+					expected = data[0];
+				} else {
+					assertArrayEquals(expected, data[0]);
+				}
+			} finally {
+				producer.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void poznatiKorijeniRijetkogPolinoma() {
+		SparseComplexPolynomial function = new SparseComplexPolynomial(new int[] { 1000, 0 },
+				new Complex[] { Complex.ONE, Complex.ONE_NEG });
+		NewtonFractalProducer producer = new NewtonFractalProducer(function, 1E-4, 2E-4, 2);
+		try {
+			short[] colors = new short[1];
+			producer.produce(-0.01, 0.01, -0.01, 0.01, 4, 4, 0, (result, count, requestNo) -> colors[0] = count);
+			assertEquals(1001, colors[0]);
+		} finally {
+			producer.shutdown();
+		}
+	}
+}
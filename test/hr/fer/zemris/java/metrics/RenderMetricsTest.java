@@ -0,0 +1,169 @@
+package hr.fer.zemris.java.metrics;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.fractals.NewtonFractalProducer;
+import hr.fer.zemris.java.raytracer.RayCasterParallelProducer;
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexRootedPolynomial;
+
+public class RenderMetricsTest {
+
+	private static final long MILLI = 1_000_000L;
+
+	private static final MBeanServer SERVER = ManagementFactory.getPlatformMBeanServer();
+
+	@Test
+	public void razrediNaGranicama() {
+		assertEquals(0, RenderMetrics.bucket(0));
+		assertEquals(0, RenderMetrics.bucket(MILLI - 1));
+		assertEquals(1, RenderMetrics.bucket(MILLI));
+		assertEquals(1, RenderMetrics.bucket(2 * MILLI - 1));
+		assertEquals(2, RenderMetrics.bucket(2 * MILLI));
+		assertEquals(3, RenderMetrics.bucket(5 * MILLI));
+		assertEquals(12, RenderMetrics.bucket(10_000 * MILLI - 1));
+		assertEquals(13, RenderMetrics.bucket(10_000 * MILLI));
+		assertEquals(13, RenderMetrics.bucket(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void svakaGranicaOtvaraNoviRazred() {
+		long[] bounds = new RenderMetrics("units", () -> 0).getLatencyBucketBoundsMillis();
+		for (int i = 0; i < bounds.length; i++) {
+			assertEquals(i, RenderMetrics.bucket(bounds[i] * MILLI - 1));
+			assertEquals(i + 1, RenderMetrics.bucket(bounds[i] * MILLI));
+		}
+	}
+
+	@Test
+	public void histogramImaRazredViseOdGranica() {
+		RenderMetrics metrics = new RenderMetrics("units", () -> 0);
+
+		assertEquals(metrics.getLatencyBucketBoundsMillis().length + 1, metrics.getLatencyHistogram().length);
+		assertEquals(metrics.getLatencyBucketBoundsMillis().length + 1, metrics.getTileLatencyHistogram().length);
+	}
+
+	@Test
+	public void dovrsenZahtjevUlaziUSvojRazred() {
+		RenderMetrics metrics = new RenderMetrics("units", () -> 0);
+		// zahtjev je započeo prije 30 ms pa pripada razredu [20, 50)
+		metrics.requestCompleted(System.nanoTime() - 30 * MILLI, 100);
+
+		long[] histogram = metrics.getLatencyHistogram();
+		assertEquals(1, histogram[5]);
+		assertEquals(1, sum(histogram));
+		assertEquals(1, metrics.getRequestsCompleted());
+		assertEquals(100, metrics.getPixels());
+		assertTrue(metrics.getMeanLatencyMillis() >= 30);
+	}
+
+	@Test
+	public void dijeloviSeMjereSamoUzDetaljnoMjerenje() {
+		RenderMetrics metrics = new RenderMetrics("units", () -> 0);
+
+		assertEquals(0, metrics.tileStarted());
+		metrics.tileCompleted(metrics.tileStarted());
+		assertEquals(0, sum(metrics.getTileLatencyHistogram()));
+		assertEquals(0, metrics.getThreadBusyTimes().length);
+
+		metrics.setDetailedTiming(true);
+		metrics.tileCompleted(metrics.tileStarted());
+		assertEquals(1, sum(metrics.getTileLatencyHistogram()));
+		assertEquals(1, metrics.getThreadBusyTimes().length);
+		assertTrue(metrics.getThreadBusyTimes()[0].startsWith(Thread.currentThread().getName() + ": "));
+	}
+
+	@Test
+	public void ponistavanjeBriseSveMjere() {
+		RenderMetrics metrics = new RenderMetrics("units", () -> 7);
+		metrics.setDetailedTiming(true);
+		metrics.requestCompleted(metrics.requestStarted(), 100);
+		metrics.requestStarted();
+		metrics.requestCancelled();
+		metrics.addWorkUnits(3);
+		metrics.addIntersectionTests(5);
+		metrics.tileCompleted(metrics.tileStarted());
+
+		metrics.reset();
+
+		assertEquals(0, metrics.getRequestsStarted());
+		assertEquals(0, metrics.getRequestsCompleted());
+		assertEquals(0, metrics.getRequestsCancelled());
+		assertEquals(0, metrics.getPixels());
+		assertEquals(0, metrics.getPixelsPerSecond(), 0);
+		assertEquals(0, metrics.getMeanLatencyMillis(), 0);
+		assertEquals(0, metrics.getWorkUnits());
+		assertEquals(0, metrics.getIntersectionTests());
+		assertEquals(0, sum(metrics.getLatencyHistogram()));
+		assertEquals(0, sum(metrics.getTileLatencyHistogram()));
+		assertEquals(0, metrics.getThreadBusyTimes().length);
+		// poništavanje ne mijenja postavke ni trenutno stanje reda
+		assertTrue(metrics.isDetailedTiming());
+		assertEquals(7, metrics.getQueueDepth());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nazivJediniceNull() {
+		new RenderMetrics(null, () -> 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void izvorRedaNull() {
+		new RenderMetrics("units", null);
+	}
+
+	@Test
+	public void objavaIUklanjanje() throws MalformedObjectNameException {
+		RenderMetrics metrics = new RenderMetrics("units", () -> 0);
+
+		assertTrue(metrics.register("RenderMetricsTest"));
+		ObjectName name = metrics.getObjectName();
+		assertNotNull(name);
+		assertTrue(SERVER.isRegistered(name));
+		assertTrue(metrics.register("RenderMetricsTest"));
+		assertEquals(name, metrics.getObjectName());
+
+		metrics.unregister();
+		assertNull(metrics.getObjectName());
+		assertFalse(SERVER.isRegistered(name));
+		assertTrue(SERVER.queryNames(new ObjectName("hr.fer.zemris.java:type=RenderMetricsTest,*"), null).isEmpty());
+
+		metrics.unregister();
+		assertNull(metrics.getObjectName());
+	}
+
+	@Test
+	public void gasenjeProgramaUklanjaMjere() {
+		RayCasterParallelProducer rayCaster = new RayCasterParallelProducer(1);
+		ObjectName rayCasterName = rayCaster.getMetrics().getObjectName();
+		NewtonFractalProducer fractal = new NewtonFractalProducer(
+				new ComplexRootedPolynomial(Complex.ONE, Complex.ONE_NEG));
+		ObjectName fractalName = fractal.getMetrics().getObjectName();
+		assertTrue(SERVER.isRegistered(rayCasterName));
+		assertTrue(SERVER.isRegistered(fractalName));
+
+		rayCaster.shutdown();
+		fractal.shutdown();
+
+		assertFalse(SERVER.isRegistered(rayCasterName));
+		assertFalse(SERVER.isRegistered(fractalName));
+		assertNull(rayCaster.getMetrics().getObjectName());
+		assertNull(fractal.getMetrics().getObjectName());
+	}
+
+	private static long sum(long[] values) {
+		long sum = 0;
+		for (long value : values) {
+			sum += value;
+		}
+		return sum;
+	}
+}
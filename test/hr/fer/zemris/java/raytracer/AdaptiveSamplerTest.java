@@ -0,0 +1,164 @@
+package hr.fer.zemris.java.raytracer;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbProducer;
+import hr.fer.zemris.java.raytracer.model.Point3D;
+import hr.fer.zemris.java.raytracer.model.RayPacket;
+import hr.fer.zemris.java.raytracer.viewer.RayTracerViewer;
+
+public class AdaptiveSamplerTest {
+
+	private static final int SIZE = 3;
+
+	private static final int CENTER = 4;
+
+	private static final int COLOR = 0xFF_40_80_C0;
+
+	private static final Point3D[] CAMERA = { new Point3D(10, 0, 0), new Point3D(0, 0, 0), new Point3D(0, 0, 10) };
+
+	@Test
+	public void jednolikRasterNemaRubova() {
+		AdaptiveSampler sampler = new AdaptiveSampler(10, 2);
+		int[] argb = filled(COLOR);
+		int[] ids = new int[SIZE * SIZE];
+		for (int y = 0; y < SIZE; y++) {
+			for (int x = 0; x < SIZE; x++) {
+				assertFalse(sampler.isEdge(argb, ids, SIZE, SIZE, x, y));
+			}
+		}
+	}
+
+	@Test
+	public void rubPoIdentifikatoru() {
+		AdaptiveSampler sampler = new AdaptiveSampler(10, 2);
+		int[] argb = filled(COLOR);
+		int[] ids = new int[SIZE * SIZE];
+		ids[CENTER] = RayPacket.NO_HIT;
+
+		// središte i njegova četiri susjeda su rubni, a kutovi nisu
+		boolean[] expected = { false, true, false, true, true, true, false, true, false };
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals("Indeks " + i, expected[i], sampler.isEdge(argb, ids, SIZE, SIZE, i % SIZE, i / SIZE));
+		}
+	}
+
+	@Test
+	public void rubPoKomponentiBoje() {
+		int threshold = 10;
+		AdaptiveSampler sampler = new AdaptiveSampler(threshold, 2);
+		int[] ids = new int[SIZE * SIZE];
+		for (int shift : new int[] { 16, 8, 0 }) {
+			int[] argb = filled(COLOR);
+			argb[CENTER] = COLOR + (threshold << shift);
+			assertFalse(sampler.isEdge(argb, ids, SIZE, SIZE, 1, 1));
+			assertFalse(sampler.isEdge(argb, ids, SIZE, SIZE, 1, 0));
+
+			argb[CENTER] = COLOR + (threshold + 1 << shift);
+			assertTrue(sampler.isEdge(argb, ids, SIZE, SIZE, 1, 1));
+			assertTrue(sampler.isEdge(argb, ids, SIZE, SIZE, 1, 0));
+			assertFalse(sampler.isEdge(argb, ids, SIZE, SIZE, 0, 0));
+
+			argb[CENTER] = COLOR - (threshold + 1 << shift);
+			assertTrue(sampler.isEdge(argb, ids, SIZE, SIZE, 1, 1));
+		}
+
+		// prozirnost se ne uspoređuje
+		int[] argb = filled(COLOR);
+		argb[CENTER] = COLOR & 0x00_FF_FF_FF;
+		assertFalse(sampler.isEdge(argb, ids, SIZE, SIZE, 1, 1));
+	}
+
+	@Test
+	public void granicneVrijednostiKonstruktora() {
+		assertEquals(0, new AdaptiveSampler(0, 1).getThreshold());
+		assertEquals(AdaptiveSampler.MAX_DEPTH, new AdaptiveSampler(0, AdaptiveSampler.MAX_DEPTH).getMaxDepth());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void dubinaNula() {
+		new AdaptiveSampler(AdaptiveSampler.DEFAULT_THRESHOLD, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void prevelikaDubina() {
+		new AdaptiveSampler(AdaptiveSampler.DEFAULT_THRESHOLD, AdaptiveSampler.MAX_DEPTH + 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativanPrag() {
+		new AdaptiveSampler(-1, AdaptiveSampler.DEFAULT_MAX_DEPTH);
+	}
+
+	@Test
+	public void jednolikoPodrucjeJednakoJednomUzorku() {
+		int width = 160;
+		int height = 120;
+		AdaptiveSampler sampler = new AdaptiveSampler();
+		Viewport viewport = new Viewport(CAMERA[0], CAMERA[1], CAMERA[2], 20, 20, width, height);
+		CompiledScene scene = new CompiledScene(RayTracerViewer.createPredefinedScene());
+
+		int[] primary = new int[width * height];
+		int[] ids = new int[width * height];
+		RayPacket packet = new RayPacket(1);
+		short[] rgb = new short[3];
+		for (int i = 0; i < primary.length; i++) {
+			packet.clear();
+			viewport.addRay(packet, i % width, i / width);
+			RayCasterUtil.tracer(scene, packet, rgb);
+			primary[i] = RayCasterUtil.toArgb(rgb, 0);
+			ids[i] = packet.hit[0];
+		}
+
+		int[] plain = render(RayCaster.getIRayTracerProducer(), width, height);
+		int[] refined = render(RayCaster.getIRayTracerProducer(sampler), width, height);
+		assertArrayEquals(primary, plain);
+
+		int edges = 0;
+		for (int i = 0; i < primary.length; i++) {
+			if (sampler.isEdge(primary, ids, width, height, i % width, i / width)) {
+				edges++;
+			} else {
+				assertEquals("Indeks " + i, plain[i], refined[i]);
+			}
+		}
+		assertTrue(edges > 0 && edges < primary.length / 2);
+		assertFalse(Arrays.equals(plain, refined));
+	}
+
+	@Test
+	public void paralelnoJednakoSlijednom() {
+		int width = 301;
+		int height = 203;
+		AdaptiveSampler sampler = new AdaptiveSampler();
+		int[] expected = render(RayCaster.getIRayTracerProducer(sampler), width, height);
+		for (int parallelism : new int[] { 1, 2, 4 }) {
+			for (int packetSize : new int[] { 1, 8 }) {
+				RayCasterParallelProducer producer = new RayCasterParallelProducer(parallelism, packetSize, sampler);
+				try {
+					assertArrayEquals("Dretvi: " + parallelism + ", paket: " + packetSize, expected,
+							render(producer, width, height));
+				} finally {
+					producer.shutdown();
+				}
+			}
+		}
+	}
+
+	private static int[] render(IRayTracerArgbProducer producer, int width, int height) {
+		int[] result = new int[width * height];
+		producer.produceArgb(CAMERA[0], CAMERA[1], CAMERA[2], 20, 20, width, height, 1,
+				(argb, w, h, requestNo) -> argb.get(result));
+		return result;
+	}
+
+	private static int[] filled(int color) {
+		int[] argb = new int[SIZE * SIZE];
+		Arrays.fill(argb, color);
+		return argb;
+	}
+}
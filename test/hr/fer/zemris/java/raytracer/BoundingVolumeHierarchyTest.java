@@ -0,0 +1,159 @@
+package hr.fer.zemris.java.raytracer;
+
+import static hr.fer.zemris.java.raytracer.model.RandomScenes.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.raytracer.model.GraphicalObject;
+import hr.fer.zemris.java.raytracer.model.Point3D;
+import hr.fer.zemris.java.raytracer.model.Ray;
+import hr.fer.zemris.java.raytracer.model.RayIntersection;
+import hr.fer.zemris.java.raytracer.model.Scene;
+import hr.fer.zemris.java.raytracer.model.Sphere;
+import hr.fer.zemris.java.raytracer.model.SurfacePoint;
+
+public class BoundingVolumeHierarchyTest {
+
+	private static final int RAYS = 2000;
+
+	private static final Point3D[] AXES = { new Point3D(1, 0, 0), new Point3D(-1, 0, 0), new Point3D(0, 1, 0),
+			new Point3D(0, -1, 0), new Point3D(0, 0, 1), new Point3D(0, 0, -1) };
+
+	@Test
+	public void nasumicneSfere() {
+		for (int count : new int[] { 2, 10, 100, 500 }) {
+			Random random = new Random(count);
+			assertMatchesLinear(randomScene(random, count, 0, 0), random);
+		}
+	}
+
+	@Test
+	public void neomedeniObjekti() {
+		Random random = new Random(7);
+		assertMatchesLinear(randomScene(random, 50, 5, 0), random);
+	}
+
+	@Test
+	public void omedeniObjektiKojiNisuSfere() {
+		Random random = new Random(11);
+		assertMatchesLinear(randomScene(random, 50, 3, 20), random);
+	}
+
+	@Test
+	public void jedanObjekt() {
+		Random random = new Random(3);
+		assertMatchesLinear(new Scene().add(randomSphere(random, 4)), random);
+	}
+
+	@Test
+	public void jedanNeomedeniObjekt() {
+		Random random = new Random(5);
+		assertMatchesLinear(new Scene().add(new Unbounded(randomSphere(random, 4))), random);
+	}
+
+	@Test
+	public void praznaScena() {
+		BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy(new Scene());
+		Ray ray = Ray.fromPoints(new Point3D(0, 0, 0), new Point3D(1, 1, 1));
+		assertNull(hierarchy.findClosestIntersection(ray));
+		assertFalse(hierarchy.findClosestSurface(ray, new SurfacePoint()));
+		assertFalse(hierarchy.isOccluded(ray, Double.POSITIVE_INFINITY));
+	}
+
+	@Test
+	public void zrakeUSmjeruOsi() {
+		// sfere u čvorovima rešetke, pa zrake paralelne osima pogađaju
+		// kvadre točno po stranicama
+		Scene scene = new Scene();
+		for (int x = -3; x <= 3; x++) {
+			for (int y = -3; y <= 3; y++) {
+				for (int z = -3; z <= 3; z++) {
+					scene.add(new Sphere(new Point3D(3 * x, 3 * y, 3 * z), 1, 1, 1, 1, 0.5, 0.5, 0.5, 10));
+				}
+			}
+		}
+
+		BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy(scene);
+		Random random = new Random(13);
+		for (int i = 0; i < RAYS; i++) {
+			// ishodišta i na rešetki i izvan nje
+			double scale = i % 2 == 0 ? 3 : 1;
+			Point3D start = new Point3D(scale * (random.nextInt(15) - 7), scale * (random.nextInt(15) - 7),
+					scale * (random.nextInt(15) - 7));
+			Point3D direction = AXES[i % AXES.length];
+			assertSameAnswers(scene, hierarchy, new Ray(start, direction.copy()), random);
+		}
+	}
+
+	@Test
+	public void zrakeUSmjeruOsiNasumicneSfere() {
+		Random random = new Random(17);
+		Scene scene = randomScene(random, 200, 2, 0);
+		BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy(scene);
+		for (int i = 0; i < RAYS; i++) {
+			assertSameAnswers(scene, hierarchy, new Ray(randomPoint(random, 12), AXES[i % AXES.length].copy()),
+					random);
+		}
+	}
+
+	private static void assertMatchesLinear(Scene scene, Random random) {
+		BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy(scene);
+		for (int i = 0; i < RAYS; i++) {
+			Ray ray = Ray.fromPoints(randomPoint(random, 12), randomPoint(random, 12));
+			assertSameAnswers(scene, hierarchy, ray, random);
+		}
+	}
+
+	private static void assertSameAnswers(Scene scene, BoundingVolumeHierarchy hierarchy, Ray ray, Random random) {
+		RayIntersection expected = null;
+		for (GraphicalObject object : scene.getObjects()) {
+			RayIntersection intersection = object.findClosestRayIntersection(ray);
+			if (intersection != null && (expected == null || intersection.getDistance() < expected.getDistance())) {
+				expected = intersection;
+			}
+		}
+
+		RayIntersection actual = hierarchy.findClosestIntersection(ray);
+		SurfacePoint surface = new SurfacePoint();
+		boolean found = hierarchy.findClosestSurface(ray, surface);
+		if (expected == null) {
+			assertNull(actual);
+			assertFalse(found);
+		} else {
+			assertNotNull(actual);
+			assertEquals(expected.getDistance(), actual.getDistance(), 0);
+			assertPointEquals(expected.getPoint(), actual.getPoint());
+
+			assertTrue(found);
+			assertEquals(expected.getDistance(), surface.distance, 0);
+			assertEquals(expected.isOuter(), surface.outer);
+			assertPointEquals(expected.getPoint(), new Point3D(surface.x, surface.y, surface.z));
+			assertPointEquals(expected.getNormal(), new Point3D(surface.normalX, surface.normalY, surface.normalZ));
+			assertEquals(expected.getKdr(), surface.kdr, 0);
+			assertEquals(expected.getKrb(), surface.krb, 0);
+			assertEquals(expected.getKrn(), surface.krn, 0);
+		}
+
+		// granice malo prije i malo iza sjecišta, jer se udaljenost zaklanjanja
+		// smije razlikovati od udaljenosti sjecišta u zadnjoj znamenci
+		double hit = expected == null ? 1 : expected.getDistance();
+		double[] limits = { random.nextDouble() * 30, Double.POSITIVE_INFINITY, hit * (1 - 1E-9), hit * (1 + 1E-9) };
+		for (double maxDistance : limits) {
+			boolean occluded = false;
+			for (GraphicalObject object : scene.getObjects()) {
+				RayIntersection intersection = object.findClosestRayIntersection(ray);
+				occluded |= intersection != null && intersection.getDistance() < maxDistance;
+			}
+			assertEquals(occluded, hierarchy.isOccluded(ray, maxDistance));
+		}
+	}
+
+	private static void assertPointEquals(Point3D expected, Point3D actual) {
+		assertEquals(expected.x, actual.x, 0);
+		assertEquals(expected.y, actual.y, 0);
+		assertEquals(expected.z, actual.z, 0);
+	}
+}
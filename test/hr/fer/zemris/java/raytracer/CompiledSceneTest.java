@@ -0,0 +1,84 @@
+package hr.fer.zemris.java.raytracer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.raytracer.model.LightSource;
+import hr.fer.zemris.java.raytracer.model.Point3D;
+import hr.fer.zemris.java.raytracer.model.Scene;
+import hr.fer.zemris.java.raytracer.model.Sphere;
+
+public class CompiledSceneTest {
+
+	@Test
+	public void nepromijenjenaScena() {
+		Scene scene = scene();
+		assertTrue(new CompiledScene(scene).isCompiledFrom(scene));
+		assertTrue(CompiledScene.linear(scene).isCompiledFrom(scene));
+		assertFalse(new CompiledScene(scene).isCompiledFrom(scene()));
+	}
+
+	@Test
+	public void dodanObjekt() {
+		Scene scene = scene();
+		CompiledScene compiled = new CompiledScene(scene);
+		scene.add(sphere(3));
+		assertFalse(compiled.isCompiledFrom(scene));
+	}
+
+	@Test
+	public void zamijenjenObjekt() {
+		Scene scene = scene();
+		CompiledScene compiled = new CompiledScene(scene);
+		scene.getObjects().set(1, sphere(1));
+		assertFalse(compiled.isCompiledFrom(scene));
+	}
+
+	@Test
+	public void pomaknutoSvjetlo() {
+		Scene scene = scene();
+		CompiledScene compiled = new CompiledScene(scene);
+		scene.getLights().get(1).getPoint().y += 1;
+		assertFalse(compiled.isCompiledFrom(scene));
+	}
+
+	@Test
+	public void zamijenjenoSvjetlo() {
+		Scene scene = scene();
+		CompiledScene compiled = new CompiledScene(scene);
+		scene.getLights().set(0, new LightSource(new Point3D(10, 10, 10), 200, 200, 100));
+		assertFalse(compiled.isCompiledFrom(scene));
+		scene.getLights().set(0, new LightSource(new Point3D(10, 10, 10), 200, 200, 200));
+		assertTrue(compiled.isCompiledFrom(scene));
+	}
+
+	@Test
+	public void spremnikPripremaPromijenjenuScenu() {
+		Scene scene = scene();
+		SceneCache cache = new SceneCache(null);
+		CompiledScene compiled = cache.get(scene);
+		assertSame(compiled, cache.get(scene));
+		assertEquals(1, cache.getCompilations());
+
+		scene.getLights().get(0).getPoint().x = -10;
+		CompiledScene recompiled = cache.get(scene);
+		assertNotSame(compiled, recompiled);
+		assertEquals(-10, recompiled.getLightPoint(0).x, 0);
+		assertEquals(2, cache.getCompilations());
+	}
+
+	private static Scene scene() {
+		Scene scene = new Scene();
+		scene.add(sphere(0));
+		scene.add(sphere(1));
+		scene.add(sphere(2));
+		scene.add(new LightSource(new Point3D(10, 10, 10), 200, 200, 200));
+		scene.add(new LightSource(new Point3D(-10, 5, 10), 100, 100, 100));
+		return scene;
+	}
+
+	private static Sphere sphere(double x) {
+		return new Sphere(new Point3D(3 * x, 0, 0), 1, 1, 1, 1, 0.5, 0.5, 0.5, 10);
+	}
+}
@@ -0,0 +1,94 @@
+package hr.fer.zemris.java.raytracer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbObserver;
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbProducer;
+import hr.fer.zemris.java.raytracer.model.Point3D;
+
+public class RayCasterParallelProducerTest {
+
+	private static final int WIDTH = 301;
+
+	private static final int HEIGHT = 203;
+
+	private static final Point3D[][] CAMERAS = { { new Point3D(10, 0, 0), new Point3D(0, 0, 0), new Point3D(0, 0, 10) },
+			{ new Point3D(6, 7, 3), new Point3D(-1, 0.5, 0), new Point3D(0.2, 0, 1) } };
+
+	@Test
+	public void velicinaDijelaSlike() {
+		assertEquals(8, RayCasterParallelProducer.tileSize(1, 1, 1));
+		assertEquals(8, RayCasterParallelProducer.tileSize(100, 100, 64));
+		assertEquals(64, RayCasterParallelProducer.tileSize(10_000, 10_000, 1));
+		assertEquals(64, RayCasterParallelProducer.tileSize(4096, 4096, 4));
+		// 512 * 512 / (4 * 16) = 64^2
+		assertEquals(64, RayCasterParallelProducer.tileSize(512, 512, 4));
+		// 256 * 256 / (4 * 16) = 32^2
+		assertEquals(32, RayCasterParallelProducer.tileSize(256, 256, 4));
+		// 128 * 128 / (4 * 16) = 16^2
+		assertEquals(16, RayCasterParallelProducer.tileSize(128, 128, 4));
+		for (int parallelism = 1; parallelism <= 256; parallelism *= 2) {
+			int size = RayCasterParallelProducer.tileSize(WIDTH, HEIGHT, parallelism);
+			assertTrue(size >= 8 && size <= 64);
+		}
+	}
+
+	@Test
+	public void jednakoSlijednomIzracunu() {
+		IRayTracerArgbProducer serial = RayCaster.getIRayTracerProducer();
+		for (Point3D[] camera : CAMERAS) {
+			int[] expected = render(serial, camera, 1);
+			for (int parallelism : new int[] { 1, 2, 4 }) {
+				for (int packetSize : new int[] { 1, 4, 8, 16 }) {
+					RayCasterParallelProducer producer = new RayCasterParallelProducer(parallelism, packetSize);
+					try {
+						assertArrayEquals("Dretvi: " + parallelism + ", paket: " + packetSize, expected,
+								render(producer, camera, 1));
+					} finally {
+						producer.shutdown();
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void zastarjeliZahtjevSeNeDojavljuje() {
+		RayCasterParallelProducer producer = new RayCasterParallelProducer(2);
+		try {
+			List<Long> delivered = new ArrayList<>();
+			IRayTracerArgbObserver observer = (argb, width, height, requestNo) -> delivered.add(requestNo);
+			Point3D[] camera = CAMERAS[0];
+
+			producer.produceArgb(camera[0], camera[1], camera[2], 20, 20, 40, 30, 5, observer);
+			producer.produceArgb(camera[0], camera[1], camera[2], 20, 20, 40, 30, 3, observer);
+			producer.produceArgb(camera[0], camera[1], camera[2], 20, 20, 40, 30, 6, observer);
+
+			assertEquals(3, producer.getMetrics().getRequestsStarted());
+			assertEquals(2, producer.getMetrics().getRequestsCompleted());
+			assertEquals(1, producer.getMetrics().getRequestsCancelled());
+			assertEquals(2, delivered.size());
+			assertEquals(5L, (long) delivered.get(0));
+			assertEquals(6L, (long) delivered.get(1));
+		} finally {
+			producer.shutdown();
+		}
+	}
+
+	static int[] render(IRayTracerArgbProducer producer, Point3D[] camera, long requestNo) {
+		int[] result = new int[WIDTH * HEIGHT];
+		producer.produceArgb(camera[0], camera[1], camera[2], 20, 20, WIDTH, HEIGHT, requestNo,
+				(argb, width, height, no) -> {
+					assertEquals(requestNo, no);
+					for (int i = 0; i < result.length; i++) {
+						result[i] = argb.get(i);
+					}
+				});
+		return result;
+	}
+}
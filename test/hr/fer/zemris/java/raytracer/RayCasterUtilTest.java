@@ -0,0 +1,243 @@
+package hr.fer.zemris.java.raytracer;
+
+import static hr.fer.zemris.java.raytracer.model.RandomScenes.*;
+import static org.junit.Assert.*;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.raytracer.model.GraphicalObject;
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbObserver;
+import hr.fer.zemris.java.raytracer.model.IRayTracerArgbProducer;
+import hr.fer.zemris.java.raytracer.model.LightSource;
+import hr.fer.zemris.java.raytracer.model.Point3D;
+import hr.fer.zemris.java.raytracer.model.Ray;
+import hr.fer.zemris.java.raytracer.model.RayIntersection;
+import hr.fer.zemris.java.raytracer.model.RayPacket;
+import hr.fer.zemris.java.raytracer.model.Scene;
+
+public class RayCasterUtilTest {
+
+	private static final int PACKETS = 300;
+
+	@Test
+	public void paketNasumicnihZraka() {
+		Random random = new Random(1);
+		Scene scene = litScene(random, 100, 0);
+		for (int i = 0; i < PACKETS; i++) {
+			RayPacket packet = new RayPacket(RayPacket.MAX_SIZE);
+			Point3D start = randomPoint(random, 12);
+			while (packet.size() < packet.getCapacity()) {
+				packet.add(start, 24 * random.nextDouble() - 12, 24 * random.nextDouble() - 12,
+						24 * random.nextDouble() - 12);
+			}
+			assertPacketMatchesScalar(scene, packet);
+		}
+	}
+
+	@Test
+	public void paketSusjednihZraka() {
+		Random random = new Random(2);
+		Scene scene = litScene(random, 100, 2);
+		for (int i = 0; i < PACKETS; i++) {
+			RayPacket packet = new RayPacket(16);
+			Point3D start = randomPoint(random, 20);
+			Point3D target = randomPoint(random, 5);
+			while (packet.size() < packet.getCapacity()) {
+				packet.add(start, target.x + random.nextDouble(), target.y + random.nextDouble(),
+						target.z + random.nextDouble());
+			}
+			assertPacketMatchesScalar(scene, packet);
+		}
+	}
+
+	@Test
+	public void paketSuprotnihZraka() {
+		// svaka zraka ima par suprotnog smjera, pa poredak djece određen
+		// prvom zrakom ne odgovara polovici paketa
+		Random random = new Random(3);
+		Scene scene = litScene(random, 150, 1);
+		for (int i = 0; i < PACKETS; i++) {
+			RayPacket packet = new RayPacket(RayPacket.MAX_SIZE);
+			Point3D start = randomPoint(random, 8);
+			while (packet.size() < packet.getCapacity()) {
+				double x = 2 * random.nextDouble() - 1;
+				double y = 2 * random.nextDouble() - 1;
+				double z = 2 * random.nextDouble() - 1;
+				packet.addDirection(start, x, y, z);
+				packet.addDirection(start, -x, -y, -z);
+			}
+			assertPacketMatchesScalar(scene, packet);
+		}
+	}
+
+	@Test
+	public void paketZrakaUSmjeruOsi() {
+		Random random = new Random(4);
+		Scene scene = litScene(random, 150, 0);
+		for (int i = 0; i < PACKETS; i++) {
+			RayPacket packet = new RayPacket(6);
+			Point3D start = randomPoint(random, 10);
+			packet.addDirection(start, 1, 0, 0);
+			packet.addDirection(start, -1, 0, 0);
+			packet.addDirection(start, 0, 1, 0);
+			packet.addDirection(start, 0, -1, 0);
+			packet.addDirection(start, 0, 0, 1);
+			packet.addDirection(start, 0, 0, -1);
+			assertPacketMatchesScalar(scene, packet);
+		}
+	}
+
+	@Test
+	public void nepotpunPaket() {
+		Random random = new Random(5);
+		Scene scene = litScene(random, 50, 0);
+		for (int size = 1; size < RayPacket.MAX_SIZE; size++) {
+			RayPacket packet = new RayPacket(RayPacket.MAX_SIZE);
+			Point3D start = randomPoint(random, 12);
+			for (int i = 0; i < size; i++) {
+				packet.addDirection(start, random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+			}
+			assertPacketMatchesScalar(scene, packet);
+		}
+	}
+
+	@Test
+	public void meduspremnikProizvodaca() {
+		IntBuffer buffer = RayCasterUtil.acquireBuffer(observer(null), 7, 5, 1);
+		assertEquals(35, buffer.limit());
+		assertFalse(buffer.isReadOnly());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nepromjenjivMeduspremnik() {
+		RayCasterUtil.acquireBuffer(observer(IntBuffer.allocate(35).asReadOnlyBuffer()), 7, 5, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void premalenMeduspremnik() {
+		IntBuffer buffer = IntBuffer.allocate(40);
+		buffer.limit(34);
+		RayCasterUtil.acquireBuffer(observer(buffer), 7, 5, 1);
+	}
+
+	@Test
+	public void ponudeniMeduspremnik() {
+		IntBuffer buffer = IntBuffer.allocate(35);
+		assertSame(buffer, RayCasterUtil.acquireBuffer(observer(buffer), 7, 5, 1));
+	}
+
+	@Test
+	public void zapisivanjeUPonudeniMeduspremnik() {
+		int width = 64;
+		int height = 48;
+		Point3D eye = new Point3D(10, 0, 0);
+		Point3D view = new Point3D(0, 0, 0);
+		Point3D viewUp = new Point3D(0, 0, 10);
+
+		int[] expected = new int[width * height];
+		RayCaster.getIRayTracerProducer().produceArgb(eye, view, viewUp, 20, 20, width, height, 1,
+				(argb, w, h, requestNo) -> argb.get(expected));
+
+		RayCasterParallelProducer parallel = new RayCasterParallelProducer(2, 4);
+		try {
+			for (IRayTracerArgbProducer producer : new IRayTracerArgbProducer[] { RayCaster.getIRayTracerProducer(),
+					parallel }) {
+				// dio polja iza slike se ne smije mijenjati
+				int[] array = new int[width * height + 1];
+				array[array.length - 1] = 0x12345678;
+				IntBuffer buffer = IntBuffer.wrap(array);
+				IntBuffer[] received = new IntBuffer[1];
+				producer.produceArgb(eye, view, viewUp, 20, 20, width, height, 1, new IRayTracerArgbObserver() {
+
+					@Override
+					public IntBuffer acquireBuffer(int w, int h, long requestNo) {
+						return buffer;
+					}
+
+					@Override
+					public void acceptResult(IntBuffer argb, int w, int h, long requestNo) {
+						received[0] = argb;
+					}
+				});
+
+				assertSame(buffer, received[0]);
+				assertArrayEquals(expected, Arrays.copyOf(array, width * height));
+				assertEquals(0x12345678, array[array.length - 1]);
+			}
+		} finally {
+			parallel.shutdown();
+		}
+	}
+
+	private static IRayTracerArgbObserver observer(IntBuffer buffer) {
+		return new IRayTracerArgbObserver() {
+
+			@Override
+			public IntBuffer acquireBuffer(int width, int height, long requestNo) {
+				return buffer;
+			}
+
+			@Override
+			public void acceptResult(IntBuffer argb, int width, int height, long requestNo) {
+			}
+		};
+	}
+
+	private static void assertPacketMatchesScalar(Scene scene, RayPacket packet) {
+		CompiledScene[] compiled = { new CompiledScene(scene), CompiledScene.linear(scene) };
+		for (CompiledScene current : compiled) {
+			int size = packet.size();
+			short[] packetRgb = new short[3 * size];
+			RayPacket copy = copyOf(packet, size);
+			RayCasterUtil.tracer(current, copy, packetRgb);
+
+			short[] rgb = new short[3];
+			for (int lane = 0; lane < size; lane++) {
+				Ray ray = copy.toRay(lane);
+				GraphicalObject expected = null;
+				RayIntersection closest = null;
+				for (GraphicalObject object : scene.getObjects()) {
+					RayIntersection intersection = object.findClosestRayIntersection(ray);
+					if (intersection != null
+							&& (closest == null || intersection.getDistance() < closest.getDistance())) {
+						closest = intersection;
+						expected = object;
+					}
+				}
+
+				if (expected == null) {
+					assertEquals(RayPacket.NO_HIT, copy.hit[lane]);
+					assertEquals(Double.POSITIVE_INFINITY, copy.distance[lane], 0);
+				} else {
+					assertSame(expected, current.getObject(copy.hit[lane]));
+					assertEquals(closest.getDistance(), copy.distance[lane], 1E-9 * closest.getDistance());
+				}
+
+				RayCasterUtil.tracer(current, ray, rgb);
+				assertEquals(rgb[0], packetRgb[3 * lane]);
+				assertEquals(rgb[1], packetRgb[3 * lane + 1]);
+				assertEquals(rgb[2], packetRgb[3 * lane + 2]);
+			}
+		}
+	}
+
+	private static RayPacket copyOf(RayPacket packet, int size) {
+		RayPacket copy = new RayPacket(packet.getCapacity());
+		for (int lane = 0; lane < size; lane++) {
+			copy.addDirection(new Point3D(packet.startX[lane], packet.startY[lane], packet.startZ[lane]),
+					packet.directionX[lane], packet.directionY[lane], packet.directionZ[lane]);
+		}
+		return copy;
+	}
+
+	private static Scene litScene(Random random, int spheres, int unbounded) {
+		Scene scene = randomScene(random, spheres, unbounded, 0);
+		scene.add(new LightSource(new Point3D(15, 15, 15), 200, 180, 160));
+		scene.add(new LightSource(new Point3D(-15, 5, -10), 100, 120, 140));
+		return scene;
+	}
+}
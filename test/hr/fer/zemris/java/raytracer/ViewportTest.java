@@ -0,0 +1,96 @@
+package hr.fer.zemris.java.raytracer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.raytracer.model.Point3D;
+import hr.fer.zemris.java.raytracer.model.Ray;
+import hr.fer.zemris.java.raytracer.model.RayPacket;
+import hr.fer.zemris.java.raytracer.viewer.RayTracerViewer;
+
+public class ViewportTest {
+
+	private static final double DELTA = 1E-12;
+
+	private static final Point3D[][] CAMERAS = {
+			{ new Point3D(10, 0, 0), new Point3D(0, 0, 0), new Point3D(0, 0, 10) },
+			{ new Point3D(6, 7, 3), new Point3D(-1, 0.5, 0), new Point3D(0.2, 0, 1) },
+			{ new Point3D(-3, -12, 4), new Point3D(1, 1, 1), new Point3D(1, 0, 0) },
+			{ new Point3D(0, 0, 20), new Point3D(0, 0, 0), new Point3D(0, 1, 0) } };
+
+	private static final double[][] SCREENS = { { 20, 20 }, { 8, 5 }, { 3, 12 }, { 40, 30 } };
+
+	private static final int[][] RASTERS = { { 64, 48 }, { 301, 203 }, { 17, 91 }, { 2, 2 } };
+
+	@Test
+	public void smjeroviKaoIzravniIzracun() {
+		for (int i = 0; i < CAMERAS.length; i++) {
+			Point3D[] camera = CAMERAS[i];
+			double horizontal = SCREENS[i][0];
+			double vertical = SCREENS[i][1];
+			int width = RASTERS[i][0];
+			int height = RASTERS[i][1];
+			Viewport viewport = new Viewport(camera[0], camera[1], camera[2], horizontal, vertical, width, height);
+
+			Ray ray = new Ray(new Point3D(), new Point3D());
+			RayPacket packet = new RayPacket(1);
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					Ray expected = baseline(viewport, camera[0], x, y);
+					viewport.aim(ray, x, y);
+					assertEquals(expected.start.x, ray.start.x, 0);
+					assertEquals(expected.start.y, ray.start.y, 0);
+					assertEquals(expected.start.z, ray.start.z, 0);
+					assertEquals(expected.direction.x, ray.direction.x, DELTA);
+					assertEquals(expected.direction.y, ray.direction.y, DELTA);
+					assertEquals(expected.direction.z, ray.direction.z, DELTA);
+
+					// paket dobiva istu zraku
+					packet.clear();
+					viewport.addRay(packet, x, y);
+					assertEquals(ray.direction.x, packet.directionX[0], 0);
+					assertEquals(ray.direction.y, packet.directionY[0], 0);
+					assertEquals(ray.direction.z, packet.directionZ[0], 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void slikaKaoIzravniIzracun() {
+		CompiledScene scene = new CompiledScene(RayTracerViewer.createPredefinedScene());
+		Point3D[] camera = CAMERAS[0];
+		int width = 301;
+		int height = 203;
+		Viewport viewport = new Viewport(camera[0], camera[1], camera[2], 20, 20, width, height);
+
+		Ray ray = new Ray(new Point3D(), new Point3D());
+		short[] expected = new short[3];
+		short[] actual = new short[3];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				RayCasterUtil.tracer(scene, baseline(viewport, camera[0], x, y), expected);
+				viewport.aim(ray, x, y);
+				RayCasterUtil.tracer(scene, ray, actual);
+				assertArrayEquals("(" + x + ", " + y + ")", expected, actual);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void praznaSirina() {
+		new Viewport(CAMERAS[0][0], CAMERAS[0][1], CAMERAS[0][2], 20, 20, 0, 10);
+	}
+
+	private static Ray baseline(Viewport viewport, Point3D eye, int x, int y) {
+		// zraka kroz slikovni element izračunata kao prije uvođenja
+		// primitivne baze zaslona
+		Point3D yPart = viewport.getYAxis()
+				.scalarMultiply(-((double) y / (viewport.getHeight() - 1)) * viewport.getVertical());
+		Point3D xPart = viewport.getXAxis()
+				.scalarMultiply(((double) x / (viewport.getWidth() - 1)) * viewport.getHorizontal());
+		Point3D screenPoint = yPart.modifyAdd(viewport.getScreenCorner()).add(xPart);
+		return Ray.fromPoints(eye, screenPoint);
+	}
+}
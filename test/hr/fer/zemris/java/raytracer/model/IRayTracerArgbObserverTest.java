@@ -0,0 +1,63 @@
+package hr.fer.zemris.java.raytracer.model;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.nio.IntBuffer;
+
+import org.junit.Test;
+
+public class IRayTracerArgbObserverTest {
+
+	@Test
+	public void omatanjeBezKopiranja() {
+		for (int type : new int[] { BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB }) {
+			BufferedImage image = new BufferedImage(7, 5, type);
+			IntBuffer buffer = IRayTracerArgbObserver.wrap(image);
+			assertEquals(35, buffer.limit());
+			assertFalse(buffer.isReadOnly());
+
+			buffer.put(2 * 7 + 3, 0xFF_12_34_56);
+			assertEquals(0xFF_12_34_56, image.getRGB(3, 2));
+			image.setRGB(6, 4, 0xFF_AB_CD_EF);
+			// TYPE_INT_RGB ne pohranjuje prozirnost
+			assertEquals(0xAB_CD_EF, buffer.get(4 * 7 + 6) & 0xFF_FF_FF);
+		}
+	}
+
+	@Test
+	public void nepodrzaniTipSlike() {
+		for (int type : new int[] { BufferedImage.TYPE_INT_BGR, BufferedImage.TYPE_INT_ARGB_PRE,
+				BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_GRAY }) {
+			try {
+				IRayTracerArgbObserver.wrap(new BufferedImage(4, 4, type));
+				fail("Tip " + type + " mora biti odbijen");
+			} catch (IllegalArgumentException e) {
+				// očekivano
+			}
+		}
+	}
+
+	@Test
+	public void dioVeceSlike() {
+		BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+		for (BufferedImage subimage : new BufferedImage[] { image.getSubimage(2, 2, 4, 4),
+				image.getSubimage(0, 0, 4, 8), image.getSubimage(0, 3, 8, 5) }) {
+			try {
+				IRayTracerArgbObserver.wrap(subimage);
+				fail("Dio slike " + subimage + " mora biti odbijen");
+			} catch (IllegalArgumentException e) {
+				// očekivano
+			}
+		}
+		// gornji dio slike pune širine počinje na početku polja
+		assertEquals(8 * 4, IRayTracerArgbObserver.wrap(image.getSubimage(0, 0, 8, 4)).limit());
+	}
+
+	@Test
+	public void podrazumijevaniMeduspremnik() {
+		IRayTracerArgbObserver observer = (argb, width, height, requestNo) -> {
+		};
+		assertNull(observer.acquireBuffer(10, 10, 1));
+	}
+}
@@ -0,0 +1,74 @@
+package hr.fer.zemris.java.raytracer.model;
+
+import java.util.Random;
+
+// nasumične scene zajedničke testovima bacanja zraka
+public final class RandomScenes {
+
+	private RandomScenes() {
+	}
+
+	public static Scene randomScene(Random random, int spheres, int unbounded, int boxed) {
+		Scene scene = new Scene();
+		for (int i = 0; i < spheres; i++) {
+			scene.add(randomSphere(random, 2 / Math.cbrt(spheres)));
+		}
+		for (int i = 0; i < unbounded; i++) {
+			scene.add(new Unbounded(randomSphere(random, 1)));
+		}
+		for (int i = 0; i < boxed; i++) {
+			scene.add(new Boxed(randomSphere(random, 1)));
+		}
+		return scene;
+	}
+
+	public static Sphere randomSphere(Random random, double maxRadius) {
+		return randomSphere(random, 0.2 * maxRadius, maxRadius);
+	}
+
+	public static Sphere randomSphere(Random random, double minRadius, double maxRadius) {
+		return new Sphere(randomPoint(random, 10), minRadius + (maxRadius - minRadius) * random.nextDouble(),
+				random.nextDouble(), random.nextDouble(), random.nextDouble(), random.nextDouble(),
+				random.nextDouble(), random.nextDouble(), 1 + random.nextInt(20));
+	}
+
+	public static Ray randomRay(Random random) {
+		return Ray.fromPoints(randomPoint(random, 12), randomPoint(random, 12));
+	}
+
+	public static Point3D randomPoint(Random random, double extent) {
+		return new Point3D(extent * (2 * random.nextDouble() - 1), extent * (2 * random.nextDouble() - 1),
+				extent * (2 * random.nextDouble() - 1));
+	}
+
+	/** Objekt koji nije omeđen, pa se ispituje za svaku zraku */
+	public static class Unbounded extends GraphicalObject {
+
+		private final Sphere sphere;
+
+		public Unbounded(Sphere sphere) {
+			this.sphere = sphere;
+		}
+
+		@Override
+		public RayIntersection findClosestRayIntersection(Ray ray) {
+			return sphere.findClosestRayIntersection(ray);
+		}
+	}
+
+	/** Omeđen objekt koji nije sfera, pa listovi ne koriste skup sfera */
+	public static class Boxed extends Unbounded implements Bounded {
+
+		private final BoundingBox bounds;
+
+		public Boxed(Sphere sphere) {
+			super(sphere);
+			this.bounds = sphere.getBounds();
+		}
+
+		@Override
+		public BoundingBox getBounds() {
+			return bounds;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package hr.fer.zemris.java.raytracer.model;
+
+import static org.junit.Assert.*;
+
+import java.nio.IntBuffer;
+
+import org.junit.Test;
+
+public class RayTracerResultAdapterTest {
+
+	@Test
+	public void rastavljanjeKomponenti() {
+		int[] argb = { 0xFF_00_00_00, 0xFF_FF_FF_FF, 0xFF_12_34_56, 0x00_80_7F_01, 0x7F_FF_00_80, 0xFF_01_02_03 };
+		short[][] result = new short[3][];
+		long[] received = new long[1];
+		RayTracerResultAdapter adapter = new RayTracerResultAdapter((red, green, blue, requestNo) -> {
+			result[0] = red;
+			result[1] = green;
+			result[2] = blue;
+			received[0] = requestNo;
+		});
+
+		// međuspremnik je dulji od slike 5 x 1
+		adapter.acceptResult(IntBuffer.wrap(argb), 5, 1, 42);
+
+		assertEquals(42, received[0]);
+		assertArrayEquals(new short[] { 0, 255, 0x12, 0x80, 255 }, result[0]);
+		assertArrayEquals(new short[] { 0, 255, 0x34, 0x7F, 0 }, result[1]);
+		assertArrayEquals(new short[] { 0, 255, 0x56, 0x01, 0x80 }, result[2]);
+	}
+
+	@Test
+	public void proizvodacPredajeSlikuKrozPrilagodnik() {
+		int[] argb = { 0xFF_0A_0B_0C, 0xFF_FD_FE_FF };
+		IRayTracerArgbProducer producer = (eye, view, viewUp, horizontal, vertical, width, height, requestNo,
+				observer) -> observer.acceptResult(IntBuffer.wrap(argb), width, height, requestNo);
+
+		short[][] result = new short[3][];
+		producer.produce(null, null, null, 1, 1, 2, 1, 7, (red, green, blue, requestNo) -> {
+			assertEquals(7, requestNo);
+			result[0] = red;
+			result[1] = green;
+			result[2] = blue;
+		});
+		assertArrayEquals(new short[] { 0x0A, 0xFD }, result[0]);
+		assertArrayEquals(new short[] { 0x0B, 0xFE }, result[1]);
+		assertArrayEquals(new short[] { 0x0C, 0xFF }, result[2]);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void promatracNull() {
+		new RayTracerResultAdapter(null);
+	}
+}
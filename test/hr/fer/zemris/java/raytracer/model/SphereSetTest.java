@@ -0,0 +1,233 @@
+package hr.fer.zemris.java.raytracer.model;
+
+import static hr.fer.zemris.java.raytracer.model.RandomScenes.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SphereSetTest {
+
+	private static final int RAYS = 3000;
+
+	@Test
+	public void najblizaSfera() {
+		Random random = new Random(1);
+		List<Sphere> spheres = randomSpheres(random, 60);
+		SphereSet set = new SphereSet(spheres);
+		for (int i = 0; i < RAYS; i++) {
+			Ray ray = randomRay(random);
+			int from = random.nextInt(spheres.size());
+			int to = from + random.nextInt(spheres.size() - from + 1);
+
+			SphereSet.Hit hit = new SphereSet.Hit();
+			set.nearest(ray, from, to, hit);
+			int expected = closest(spheres, ray, from, to);
+			assertEquals(expected, hit.index);
+			if (expected == RayPacket.NO_HIT) {
+				assertEquals(Double.POSITIVE_INFINITY, hit.distance, 0);
+			} else {
+				double distance = spheres.get(expected).findClosestRayIntersection(ray).getDistance();
+				assertEquals(distance, hit.distance, 1E-9 * distance);
+			}
+		}
+	}
+
+	@Test
+	public void najblizaSferaPamtiBlizeSjeciste() {
+		Random random = new Random(2);
+		List<Sphere> spheres = randomSpheres(random, 20);
+		SphereSet set = new SphereSet(spheres);
+		for (int i = 0; i < RAYS; i++) {
+			Ray ray = randomRay(random);
+			SphereSet.Hit hit = new SphereSet.Hit();
+			hit.index = 1000;
+			hit.distance = 2 * random.nextDouble();
+			double before = hit.distance;
+			set.nearest(ray, 0, spheres.size(), hit);
+
+			int expected = closest(spheres, ray, 0, spheres.size());
+			if (expected == RayPacket.NO_HIT
+					|| spheres.get(expected).findClosestRayIntersection(ray).getDistance() >= before * (1 + 1E-9)) {
+				assertEquals(1000, hit.index);
+				assertEquals(before, hit.distance, 0);
+			} else if (spheres.get(expected).findClosestRayIntersection(ray).getDistance() < before * (1 - 1E-9)) {
+				assertEquals(expected, hit.index);
+			}
+		}
+	}
+
+	@Test
+	public void paketZraka() {
+		Random random = new Random(3);
+		List<Sphere> spheres = randomSpheres(random, 60);
+		SphereSet set = new SphereSet(spheres);
+		for (int i = 0; i < RAYS / RayPacket.MAX_SIZE; i++) {
+			RayPacket packet = new RayPacket(RayPacket.MAX_SIZE);
+			Point3D start = randomPoint(random, 12);
+			while (packet.size() < packet.getCapacity()) {
+				// parovi suprotnih smjerova
+				double x = random.nextGaussian();
+				double y = random.nextGaussian();
+				double z = random.nextGaussian();
+				packet.addDirection(start, x, y, z);
+				packet.addDirection(start, -x, -y, -z);
+			}
+
+			// polovica trake izostavlja se iz maske
+			int mask = random.nextInt();
+			set.intersect(packet, mask, 0, spheres.size());
+			for (int lane = 0; lane < packet.size(); lane++) {
+				Ray ray = packet.toRay(lane);
+				int expected = (mask & 1 << lane) == 0 ? RayPacket.NO_HIT : closest(spheres, ray, 0, spheres.size());
+				assertEquals(expected, packet.hit[lane]);
+				if (expected == RayPacket.NO_HIT) {
+					assertEquals(Double.POSITIVE_INFINITY, packet.distance[lane], 0);
+				} else {
+					double distance = spheres.get(expected).findClosestRayIntersection(ray).getDistance();
+					assertEquals(distance, packet.distance[lane], 1E-9 * distance);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void zaklanjanje() {
+		Random random = new Random(4);
+		List<Sphere> spheres = randomSpheres(random, 60);
+		SphereSet set = new SphereSet(spheres);
+		for (int i = 0; i < RAYS; i++) {
+			Ray ray = randomRay(random);
+			double maxDistance = 25 * random.nextDouble();
+			boolean occluded = false;
+			boolean boundary = false;
+			for (Sphere sphere : spheres) {
+				RayIntersection intersection = sphere.findClosestRayIntersection(ray);
+				if (intersection != null) {
+					occluded |= intersection.getDistance() < maxDistance;
+					boundary |= Math.abs(intersection.getDistance() - maxDistance) < 1E-9 * maxDistance;
+				}
+			}
+			if (!boundary) {
+				assertEquals(occluded, set.occludes(ray, maxDistance));
+				assertEquals(occluded, set.occludes(ray, 0, spheres.size(), maxDistance));
+			}
+		}
+	}
+
+	@Test
+	public void sjecisteJednakoSjecistuSfere() {
+		Random random = new Random(5);
+		List<Sphere> spheres = randomSpheres(random, 60);
+		SphereSet set = new SphereSet(spheres);
+		for (int i = 0; i < RAYS; i++) {
+			Ray ray = randomRay(random);
+			int expected = closest(spheres, ray, 0, spheres.size());
+			RayIntersection actual = set.findClosestRayIntersection(ray);
+			SurfacePoint surface = new SurfacePoint();
+			boolean found = set.findSurface(ray, surface);
+			double distance = set.intersectionDistance(ray);
+			if (expected == RayPacket.NO_HIT) {
+				assertNull(actual);
+				assertFalse(found);
+				assertEquals(Double.POSITIVE_INFINITY, distance, 0);
+				continue;
+			}
+
+			Sphere sphere = spheres.get(expected);
+			RayIntersection intersection = sphere.findClosestRayIntersection(ray);
+			assertEquals(intersection.getDistance(), distance, 1E-9 * distance);
+			assertIntersectionEquals(intersection, actual);
+
+			SurfacePoint sphereSurface = new SurfacePoint();
+			assertTrue(sphere.findSurface(ray, sphereSurface));
+			assertTrue(found);
+			assertSurfaceEquals(sphereSurface, surface);
+		}
+	}
+
+	@Test
+	public void sjecistePojedineSfere() {
+		Random random = new Random(6);
+		List<Sphere> spheres = randomSpheres(random, 10);
+		SphereSet set = new SphereSet(spheres);
+		for (int i = 0; i < RAYS; i++) {
+			Ray ray = randomRay(random);
+			int index = random.nextInt(spheres.size());
+			Sphere sphere = spheres.get(index);
+
+			RayIntersection intersection = sphere.findClosestRayIntersection(ray);
+			SurfacePoint expected = new SurfacePoint();
+			SurfacePoint actual = new SurfacePoint();
+			assertEquals(intersection != null, sphere.findSurface(ray, expected));
+			assertEquals(intersection != null, set.findSurface(ray, index, actual));
+			if (intersection == null) {
+				assertNull(set.findRayIntersection(ray, index));
+			} else {
+				assertIntersectionEquals(intersection, set.findRayIntersection(ray, index));
+				assertSurfaceEquals(expected, actual);
+			}
+		}
+	}
+
+	private static void assertIntersectionEquals(RayIntersection expected, RayIntersection actual) {
+		assertNotNull(actual);
+		assertEquals(expected.getDistance(), actual.getDistance(), 0);
+		assertEquals(expected.isOuter(), actual.isOuter());
+		assertEquals(expected.getPoint().x, actual.getPoint().x, 0);
+		assertEquals(expected.getPoint().y, actual.getPoint().y, 0);
+		assertEquals(expected.getPoint().z, actual.getPoint().z, 0);
+		assertEquals(expected.getNormal().x, actual.getNormal().x, 0);
+		assertEquals(expected.getNormal().y, actual.getNormal().y, 0);
+		assertEquals(expected.getNormal().z, actual.getNormal().z, 0);
+		assertEquals(expected.getKdr(), actual.getKdr(), 0);
+		assertEquals(expected.getKdg(), actual.getKdg(), 0);
+		assertEquals(expected.getKdb(), actual.getKdb(), 0);
+		assertEquals(expected.getKrr(), actual.getKrr(), 0);
+		assertEquals(expected.getKrg(), actual.getKrg(), 0);
+		assertEquals(expected.getKrb(), actual.getKrb(), 0);
+		assertEquals(expected.getKrn(), actual.getKrn(), 0);
+	}
+
+	private static void assertSurfaceEquals(SurfacePoint expected, SurfacePoint actual) {
+		assertEquals(expected.distance, actual.distance, 0);
+		assertEquals(expected.outer, actual.outer);
+		assertEquals(expected.x, actual.x, 0);
+		assertEquals(expected.y, actual.y, 0);
+		assertEquals(expected.z, actual.z, 0);
+		assertEquals(expected.normalX, actual.normalX, 0);
+		assertEquals(expected.normalY, actual.normalY, 0);
+		assertEquals(expected.normalZ, actual.normalZ, 0);
+		assertEquals(expected.kdr, actual.kdr, 0);
+		assertEquals(expected.kdg, actual.kdg, 0);
+		assertEquals(expected.kdb, actual.kdb, 0);
+		assertEquals(expected.krr, actual.krr, 0);
+		assertEquals(expected.krg, actual.krg, 0);
+		assertEquals(expected.krb, actual.krb, 0);
+		assertEquals(expected.krn, actual.krn, 0);
+	}
+
+	private static int closest(List<Sphere> spheres, Ray ray, int from, int to) {
+		int closest = RayPacket.NO_HIT;
+		double closestDistance = Double.POSITIVE_INFINITY;
+		for (int i = from; i < to; i++) {
+			RayIntersection intersection = spheres.get(i).findClosestRayIntersection(ray);
+			if (intersection != null && intersection.getDistance() < closestDistance) {
+				closest = i;
+				closestDistance = intersection.getDistance();
+			}
+		}
+		return closest;
+	}
+
+	private static List<Sphere> randomSpheres(Random random, int count) {
+		List<Sphere> spheres = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			spheres.add(randomSphere(random, 0.3, 1.8));
+		}
+		return spheres;
+	}
+}
@@ -0,0 +1,128 @@
+package hr.fer.zemris.math;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ComplexArrayTest {
+
+	private static final double DELTA = 1E-12;
+
+	private static Complex[] randomNumbers(Random random, int size) {
+		Complex[] numbers = new Complex[size];
+		for (int i = 0; i < size; i++) {
+			numbers[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+		}
+		return numbers;
+	}
+
+	private static void assertElement(Complex expected, ComplexArray actual, int index) {
+		assertEquals(expected.getRe(), actual.getRe(index), DELTA);
+		assertEquals(expected.getIm(), actual.getIm(index), DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void razliciteDuljineDijelova() {
+		new ComplexArray(new double[2], new double[3]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rasponIzvanPolja() {
+		ComplexArray a = new ComplexArray(4);
+		ComplexArray.add(a, a, a, 2, 5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void razliciteDuljinePolja() {
+		new ComplexArray(3).addInPlace(new ComplexArray(4));
+	}
+
+	@Test
+	public void pretvorba() {
+		Complex[] numbers = randomNumbers(new Random(1), 10);
+		ComplexArray array = new ComplexArray(numbers);
+		assertEquals(numbers.length, array.length());
+		assertArrayEquals(numbers, array.toComplexArray());
+		array.set(3, Complex.IM);
+		assertEquals(Complex.IM, array.get(3));
+	}
+
+	@Test
+	public void skupneOperacije() {
+		Random random = new Random(2);
+		Complex[] x = randomNumbers(random, 50);
+		Complex[] y = randomNumbers(random, 50);
+		Complex[] z = randomNumbers(random, 50);
+		ComplexArray a = new ComplexArray(x);
+		ComplexArray b = new ComplexArray(y);
+		ComplexArray c = new ComplexArray(z);
+		ComplexArray result = new ComplexArray(50);
+		double[] real = new double[50];
+
+		ComplexArray.add(a, b, result, 0, 50);
+		for (int i = 0; i < 50; i++) {
+			assertElement(x[i].add(y[i]), result, i);
+		}
+		ComplexArray.sub(a, b, result, 0, 50);
+		for (int i = 0; i < 50; i++) {
+			assertElement(x[i].sub(y[i]), result, i);
+		}
+		ComplexArray.multiply(a, b, result, 0, 50);
+		for (int i = 0; i < 50; i++) {
+			assertElement(x[i].multiply(y[i]), result, i);
+		}
+		ComplexArray.divide(a, b, result, 0, 50);
+		for (int i = 0; i < 50; i++) {
+			assertElement(x[i].divide(y[i]), result, i);
+		}
+		ComplexArray.multiplyAdd(a, b, c, result, 0, 50);
+		for (int i = 0; i < 50; i++) {
+			assertElement(x[i].multiply(y[i]).add(z[i]), result, i);
+		}
+		ComplexArray.module(a, real, 0, 50);
+		for (int i = 0; i < 50; i++) {
+			assertEquals(x[i].module(), real[i], DELTA);
+		}
+		ComplexArray.distance(a, b, real, 0, 50);
+		for (int i = 0; i < 50; i++) {
+			assertEquals(x[i].distance(y[i]), real[i], DELTA);
+		}
+	}
+
+	@Test
+	public void operacijeNadRasponom() {
+		ComplexArray a = new ComplexArray(randomNumbers(new Random(3), 10));
+		ComplexArray original = a.copy();
+		ComplexArray.add(a, a, a, 2, 5);
+		for (int i = 0; i < 10; i++) {
+			Complex expected = i >= 2 && i < 5 ? original.get(i).add(original.get(i)) : original.get(i);
+			assertElement(expected, a, i);
+		}
+	}
+
+	@Test
+	public void operacijeNaMjestu() {
+		Random random = new Random(4);
+		Complex[] x = randomNumbers(random, 20);
+		Complex[] y = randomNumbers(random, 20);
+		ComplexArray a = new ComplexArray(x);
+		ComplexArray b = new ComplexArray(y);
+		a.multiplyInPlace(b).addInPlace(b).divideInPlace(b).subInPlace(b);
+		for (int i = 0; i < 20; i++) {
+			assertElement(x[i].multiply(y[i]).add(y[i]).divide(y[i]).sub(y[i]), a, i);
+		}
+	}
+
+	@Test
+	public void vrijednostPolinoma() {
+		Complex[] points = randomNumbers(new Random(5), 100);
+		ComplexPolynomial polynomial = new ComplexPolynomial(Complex.ONE, Complex.IM, new Complex(2, -1));
+		ComplexArray array = new ComplexArray(points);
+		polynomial.apply(array, array);
+		for (int i = 0; i < points.length; i++) {
+			assertElement(polynomial.apply(points[i]), array, i);
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package hr.fer.zemris.math;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import hr.fer.zemris.math.ComplexBinaryFormat.Kind;
+
+public class ComplexBinaryFormatTest {
+
+	private Path file;
+
+	@Before
+	public void stvoriDatoteku() throws IOException {
+		file = Files.createTempFile("complex", ".cplx");
+	}
+
+	@After
+	public void obrisiDatoteku() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void poljeKompleksnihBrojeva() throws IOException {
+		Random random = new Random(3);
+		ComplexArray array = new ComplexArray(100_000);
+		for (int i = 0; i < array.length(); i++) {
+			array.set(i, random.nextGaussian(), random.nextGaussian());
+		}
+		array.set(0, Double.NaN, Double.NEGATIVE_INFINITY);
+		array.set(1, -0.0, Double.MIN_VALUE);
+
+		ComplexBinaryFormat.write(file, array);
+		assertEquals(ComplexBinaryFormat.HEADER_SIZE + 16L * array.length(), Files.size(file));
+		assertEquals(Kind.ARRAY, ComplexBinaryFormat.kindOf(file));
+
+		ComplexArray read = ComplexBinaryFormat.readArray(file);
+		assertArrayEquals(array.realParts(), read.realParts(), 0);
+		assertArrayEquals(array.imaginaryParts(), read.imaginaryParts(), 0);
+	}
+
+	@Test
+	public void praznoPolje() throws IOException {
+		ComplexBinaryFormat.write(file, new ComplexArray(0));
+		assertEquals(0, ComplexBinaryFormat.readArray(file).length());
+	}
+
+	@Test
+	public void zaglavljeLittleEndian() throws IOException {
+		ComplexBinaryFormat.write(file, new ComplexArray(new Complex(1, 2)));
+		byte[] bytes = Files.readAllBytes(file);
+
+		assertEquals('C', bytes[0]);
+		assertEquals('X', bytes[3]);
+		assertEquals(ComplexBinaryFormat.VERSION, bytes[4]);
+		assertEquals(1, bytes[8]);
+		// 1.0 = 0x3FF0000000000000, najznačajniji bajt je zadnji
+		assertEquals(0x3F, bytes[ComplexBinaryFormat.HEADER_SIZE + 7]);
+		assertEquals(0, bytes[ComplexBinaryFormat.HEADER_SIZE]);
+	}
+
+	@Test
+	public void polinom() throws IOException {
+		ComplexPolynomial polynomial = new ComplexPolynomial(new Complex(1, -1), Complex.ZERO, Complex.IM_NEG,
+				new Complex(0.25, 3));
+		ComplexBinaryFormat.write(file, polynomial);
+
+		assertEquals(Kind.POLYNOMIAL, ComplexBinaryFormat.kindOf(file));
+		assertArrayEquals(polynomial.getFactors(), ComplexBinaryFormat.readPolynomial(file).getFactors());
+	}
+
+	@Test
+	public void polinomZadanKorijenima() throws IOException {
+		ComplexRootedPolynomial polynomial = new ComplexRootedPolynomial(Complex.ONE, Complex.ONE_NEG, Complex.IM,
+				new Complex(-2.5, 0.125));
+		ComplexBinaryFormat.write(file, polynomial);
+
+		assertEquals(Kind.ROOTED_POLYNOMIAL, ComplexBinaryFormat.kindOf(file));
+		assertArrayEquals(polynomial.getRoots(), ComplexBinaryFormat.readRootedPolynomial(file).getRoots());
+		assertEquals(4, ComplexBinaryFormat.readArray(file).length());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void krivaVrstaZapisa() throws IOException {
+		ComplexBinaryFormat.write(file, new ComplexPolynomial(Complex.ONE));
+		ComplexBinaryFormat.readRootedPolynomial(file);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void krivaOznaka() throws IOException {
+		Files.write(file, "nije binarni format".getBytes());
+		ComplexBinaryFormat.readArray(file);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void prekratkaDatoteka() throws IOException {
+		Files.write(file, new byte[] { 'C', 'P', 'L', 'X' });
+		ComplexBinaryFormat.readArray(file);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void odrezaniPodaci() throws IOException {
+		ComplexBinaryFormat.write(file, new ComplexArray(new Complex(1, 2), new Complex(3, 4)));
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+		ComplexBinaryFormat.readArray(file);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nepodrzanaInacica() throws IOException {
+		ComplexBinaryFormat.write(file, new ComplexArray(new Complex(1, 2)));
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[4] = 99;
+		Files.write(file, bytes);
+		ComplexBinaryFormat.readArray(file);
+	}
+
+	@Test
+	public void najvecaDuljinaStajeUJednoMapiranje() {
+		long size = ComplexBinaryFormat.HEADER_SIZE + 2L * ComplexBinaryFormat.MAX_LENGTH * Double.BYTES;
+		assertTrue(size <= Integer.MAX_VALUE);
+		assertTrue(size + 2 * Double.BYTES > Integer.MAX_VALUE);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void prevelikaDuljina() throws IOException {
+		// datoteka ima točno onoliko bajtova koliko zaglavlje navodi, ali ne
+		// stane u jedno mapiranje
+		long length = ComplexBinaryFormat.MAX_LENGTH + 1L;
+		ComplexBinaryFormat.write(file, new ComplexArray(0));
+		byte[] bytes = Files.readAllBytes(file);
+		ByteBuffer.wrap(bytes, 8, 8).order(ByteOrder.LITTLE_ENDIAN).putLong(length);
+		try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+			raf.write(bytes);
+			raf.setLength(ComplexBinaryFormat.HEADER_SIZE + 2 * length * Double.BYTES);
+		}
+		ComplexBinaryFormat.readArray(file);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void predanNull() throws IOException {
+		ComplexBinaryFormat.write(null, new ComplexArray(1));
+	}
+}
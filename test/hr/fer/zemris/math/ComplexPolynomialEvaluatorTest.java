@@ -0,0 +1,92 @@
+package hr.fer.zemris.math;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ComplexPolynomialEvaluatorTest {
+
+	private static final ComplexPolynomial POLYNOMIAL = new ComplexRootedPolynomial(new Complex(1, 0),
+			new Complex(-1, 0), new Complex(0, 1), new Complex(2, -3)).toComplexPolynom();
+
+	private static final Complex[] POINTS = { Complex.ZERO, Complex.ONE, new Complex(0.5, -0.25),
+			new Complex(-3, 2), new Complex(10, 7) };
+
+	@Test
+	public void istiPrevedeniOblik() {
+		assertSame(POLYNOMIAL.getEvaluator(), POLYNOMIAL.getEvaluator());
+	}
+
+	@Test
+	public void redPolinoma() {
+		assertEquals(POLYNOMIAL.order(), POLYNOMIAL.getEvaluator().order());
+	}
+
+	@Test
+	public void vrijednostPolinoma() {
+		for (Complex z : POINTS) {
+			assertEquals(POLYNOMIAL.apply(z), POLYNOMIAL.getEvaluator().apply(z));
+		}
+	}
+
+	@Test
+	public void vrijednostDerivacije() {
+		ComplexPolynomial derived = POLYNOMIAL.derive();
+		double[] result = new double[ComplexFunction.RESULT_SIZE];
+		for (Complex z : POINTS) {
+			POLYNOMIAL.getEvaluator().evaluate(z.getRe(), z.getIm(), result);
+			Complex expected = derived.apply(z);
+			assertEquals(expected.getRe(), result[ComplexFunction.DF_RE], 1E-6);
+			assertEquals(expected.getIm(), result[ComplexFunction.DF_IM], 1E-6);
+		}
+	}
+
+	@Test
+	public void konstantanPolinom() {
+		double[] result = new double[ComplexFunction.RESULT_SIZE];
+		new ComplexPolynomial(new Complex(3, -2)).getEvaluator().evaluate(5, 5, result);
+		assertArrayEquals(new double[] { 3, -2, 0, 0 }, result, 1E-12);
+	}
+
+	private static void assertBatchEqualsPointwise(ComplexPolynomial polynomial, int points) {
+		Random random = new Random(points);
+		double[] re = new double[points];
+		double[] im = new double[points];
+		for (int i = 0; i < points; i++) {
+			re[i] = random.nextDouble() * 2 - 1;
+			im[i] = random.nextDouble() * 2 - 1;
+		}
+		double[] resultRe = new double[points];
+		double[] resultIm = new double[points];
+		polynomial.apply(re, im, resultRe, resultIm);
+
+		double[] result = new double[ComplexFunction.RESULT_SIZE];
+		for (int i = 0; i < points; i++) {
+			polynomial.getEvaluator().evaluate(re[i], im[i], result);
+			assertEquals(result[ComplexFunction.F_RE], resultRe[i], 1E-12);
+			assertEquals(result[ComplexFunction.F_IM], resultIm[i], 1E-12);
+		}
+	}
+
+	@Test
+	public void vrijednostUViseTocaka() {
+		assertBatchEqualsPointwise(POLYNOMIAL, 1000);
+	}
+
+	@Test
+	public void paralelnaVrijednostUViseTocaka() {
+		Complex[] factors = new Complex[65];
+		Random random = new Random(1);
+		for (int i = 0; i < factors.length; i++) {
+			factors[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+		}
+		assertBatchEqualsPointwise(new ComplexPolynomial(factors), 100_003);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void razliciteDuljinePolja() {
+		POLYNOMIAL.apply(new double[2], new double[2], new double[2], new double[1]);
+	}
+}
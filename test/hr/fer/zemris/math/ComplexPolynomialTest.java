@@ -0,0 +1,120 @@
+package hr.fer.zemris.math;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ComplexPolynomialTest {
+
+	private static Complex[] randomNumbers(Random random, int size, double scale) {
+		Complex[] numbers = new Complex[size];
+		for (int i = 0; i < size; i++) {
+			numbers[i] = new Complex((random.nextDouble() * 2 - 1) * scale, (random.nextDouble() * 2 - 1) * scale);
+		}
+		return numbers;
+	}
+
+	// izvorni postupak množenja kojim se provjerava točnost
+	private static Complex[] multiplySchoolbook(Complex[] a, Complex[] b) {
+		Complex[] result = new Complex[a.length + b.length - 1];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = Complex.ZERO;
+		}
+		for (int i = 0; i < a.length; i++) {
+			for (int j = 0; j < b.length; j++) {
+				result[i + j] = result[i + j].add(a[i].multiply(b[j]));
+			}
+		}
+		return result;
+	}
+
+	// izvorni postupak pretvorbe korijena u faktore jedan po jedan
+	private static Complex[] expandSequentially(Complex[] roots) {
+		Complex[] result = { roots[0].negate(), Complex.ONE };
+		for (int i = 1; i < roots.length; i++) {
+			result = multiplySchoolbook(result, new Complex[] { roots[i].negate(), Complex.ONE });
+		}
+		return result;
+	}
+
+	private static void assertFactorsEqual(Complex[] expected, ComplexPolynomial actual, double relativeDelta) {
+		Complex[] factors = actual.getFactors();
+		assertEquals(expected.length, factors.length);
+		double max = 0;
+		for (Complex c : expected) {
+			max = Math.max(max, c.module());
+		}
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(0, expected[i].distance(factors[i]) / max, relativeDelta);
+		}
+	}
+
+	@Test
+	public void mnozenjeMalihPolinoma() {
+		ComplexPolynomial p1 = new ComplexPolynomial(new Complex(1, 0), new Complex(2, 0));
+		ComplexPolynomial p2 = new ComplexPolynomial(new Complex(-1, 0), new Complex(0, 1), new Complex(3, 0));
+		ComplexPolynomial result = p1.multiply(p2);
+		assertEquals(3, result.order());
+		Complex z = new Complex(0.7, -1.3);
+		assertEquals(p1.apply(z).multiply(p2.apply(z)), result.apply(z));
+	}
+
+	@Test
+	public void mnozenjeVelikihPolinoma() {
+		Random random = new Random(42);
+		Complex[] a = randomNumbers(random, 301, 10);
+		Complex[] b = randomNumbers(random, 157, 10);
+		assertFactorsEqual(multiplySchoolbook(a, b), new ComplexPolynomial(a).multiply(new ComplexPolynomial(b)),
+				1E-12);
+	}
+
+	@Test
+	public void fftIKlasicnoMnozenje() {
+		Random random = new Random(3);
+		double[] aRe = new double[200], aIm = new double[200], bRe = new double[90], bIm = new double[90];
+		for (int i = 0; i < aRe.length; i++) {
+			aRe[i] = random.nextGaussian();
+			aIm[i] = random.nextGaussian();
+		}
+		for (int i = 0; i < bRe.length; i++) {
+			bRe[i] = random.nextGaussian();
+			bIm[i] = random.nextGaussian();
+		}
+		double[][] fft = ComplexFFT.multiplyFFT(aRe, aIm, bRe, bIm);
+		double[][] schoolbook = ComplexFFT.multiplySchoolbook(aRe, aIm, bRe, bIm);
+		assertArrayEquals(schoolbook[0], fft[0], 1E-10);
+		assertArrayEquals(schoolbook[1], fft[1], 1E-10);
+	}
+
+	@Test
+	public void pretvorbaMalogBrojaKorijena() {
+		ComplexRootedPolynomial rooted = new ComplexRootedPolynomial(new Complex(1, 0), new Complex(2, 0),
+				new Complex(3, 0));
+		ComplexPolynomial polynomial = rooted.toComplexPolynom();
+		assertEquals(3, polynomial.order());
+		for (Complex z : new Complex[] { Complex.ZERO, Complex.IM, new Complex(-2, 5) }) {
+			assertEquals(rooted.apply(z), polynomial.apply(z));
+		}
+	}
+
+	@Test
+	public void pretvorbaBezKorijena() {
+		assertEquals(0, new ComplexRootedPolynomial().toComplexPolynom().order());
+	}
+
+	@Test
+	public void redVelikogBrojaKorijena() {
+		Complex[] roots = new Complex[40000];
+		Arrays.fill(roots, Complex.ONE);
+		assertEquals(40000, new ComplexRootedPolynomial(roots).order());
+	}
+
+	@Test
+	public void pretvorbaVelikogBrojaKorijena() {
+		Complex[] roots = randomNumbers(new Random(11), 400, 1);
+		assertFactorsEqual(expandSequentially(roots), new ComplexRootedPolynomial(roots).toComplexPolynom(), 1E-10);
+	}
+}
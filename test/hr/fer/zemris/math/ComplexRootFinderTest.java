@@ -0,0 +1,90 @@
+package hr.fer.zemris.math;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ComplexRootFinderTest {
+
+	private static final double DELTA = 1E-8;
+
+	private static void assertRootsFound(Complex[] expected, ComplexRootedPolynomial actual) {
+		List<Complex> found = new ArrayList<>(Arrays.asList(actual.getRoots()));
+		assertEquals(expected.length, found.size());
+		// svaki očekivani korijen uparuje se s jednim pronađenim (višestruki
+		// korijeni se ponavljaju)
+		for (Complex root : expected) {
+			Complex closest = Collections.min(found, Comparator.comparingDouble(root::distance));
+			assertEquals("Nije pronađen korijen " + root, 0, root.distance(closest), DELTA);
+			found.remove(closest);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nulPolinom() {
+		new ComplexPolynomial(Complex.ZERO, Complex.ZERO).findRoots();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativnaTocnost() {
+		new ComplexPolynomial(Complex.ONE, Complex.ONE).findRoots(-1, 10);
+	}
+
+	@Test
+	public void konstanta() {
+		assertEquals(0, new ComplexPolynomial(new Complex(3, 0)).findRoots().order());
+	}
+
+	@Test
+	public void korijeniJedinice() {
+		ComplexPolynomial polynomial = new ComplexPolynomial(Complex.ONE_NEG, Complex.ZERO, Complex.ZERO, Complex.ONE);
+		Complex[] expected = { Complex.ONE, new Complex(-0.5, Math.sqrt(3) / 2), new Complex(-0.5, -Math.sqrt(3) / 2) };
+		assertRootsFound(expected, polynomial.findRoots());
+	}
+
+	@Test
+	public void korijeniUNuliIVodeciNulFaktori() {
+		// z^2 * (z - 2) uz suvišne vodeće nule
+		ComplexPolynomial polynomial = new ComplexPolynomial(Complex.ZERO, Complex.ZERO, new Complex(-2, 0),
+				Complex.ONE, Complex.ZERO);
+		assertRootsFound(new Complex[] { Complex.ZERO, Complex.ZERO, new Complex(2, 0) }, polynomial.findRoots());
+	}
+
+	@Test
+	public void poznatiKorijeni() {
+		Random random = new Random(7);
+		Complex[] roots = new Complex[20];
+		for (int i = 0; i < roots.length; i++) {
+			roots[i] = new Complex(random.nextDouble() * 4 - 2, random.nextDouble() * 4 - 2);
+		}
+		ComplexPolynomial polynomial = new ComplexRootedPolynomial(roots).toComplexPolynom();
+		assertRootsFound(roots, polynomial.findRoots());
+	}
+
+	@Test
+	public void paralelnoTrazenje() {
+		// red veći od granice paralelnog izvođenja
+		int order = ComplexRootFinder.PARALLEL_TRESHOLD + 44;
+
+		// polinom z^n - 1 ima poznate korijene pa ga nije potrebno razvijati
+		Complex[] factors = new Complex[order + 1];
+		for (int i = 0; i <= order; i++) {
+			factors[i] = Complex.ZERO;
+		}
+		factors[0] = Complex.ONE_NEG;
+		factors[order] = Complex.ONE;
+		Complex[] unity = new Complex[order];
+		for (int i = 0; i < order; i++) {
+			double angle = 2 * Math.PI * i / order;
+			unity[i] = new Complex(Math.cos(angle), Math.sin(angle));
+		}
+		assertRootsFound(unity, new ComplexPolynomial(factors).findRoots());
+	}
+}
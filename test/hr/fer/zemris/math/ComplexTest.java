@@ -113,4 +113,63 @@ public class ComplexTest {
 		Complex to = new Complex(1,7);
 		assertEquals(from.distance(to), 7.0710678,0.0001);
 	}
+
+	@Test
+	public void potenciranjeKaoPolarniOblik() {
+		Complex c = new Complex(0.8, -0.7);
+		double module = c.module();
+		double angle = Math.atan2(c.getIm(), c.getRe());
+		for (int n = 0; n <= 1000; n++) {
+			double magnitude = Math.pow(module, n);
+			Complex power = c.power(n);
+			assertEquals(magnitude * Math.cos(n * angle), power.getRe(), 1E-12 * Math.max(1, magnitude));
+			assertEquals(magnitude * Math.sin(n * angle), power.getIm(), 1E-12 * Math.max(1, magnitude));
+		}
+	}
+
+	@Test
+	public void potenciranjeTocnoZaKvadrat() {
+		Complex c = new Complex(3, -4);
+		Complex square = c.power(2);
+		assertEquals(-7, square.getRe(), 0);
+		assertEquals(-24, square.getIm(), 0);
+		assertEquals(Complex.ONE, c.power(0));
+	}
+
+	@Test
+	public void korijeniVelikogReda() {
+		Complex c = new Complex(-2, 0.5);
+		for (int n : new int[] { 2, 7, 100, 5000 }) {
+			List<Complex> roots = c.root(n);
+			assertEquals(n, roots.size());
+			double angle = Math.atan2(c.getIm(), c.getRe());
+			angle = angle < 0 ? angle + 2 * Math.PI : angle;
+			double magnitude = Math.pow(c.module(), 1.0 / n);
+			for (int k = 0; k < n; k++) {
+				// isti redoslijed kao izravni izračun iz polarnog oblika
+				double argument = (angle + 2 * k * Math.PI) / n;
+				assertEquals(magnitude * Math.cos(argument), roots.get(k).getRe(), 1E-12);
+				assertEquals(magnitude * Math.sin(argument), roots.get(k).getIm(), 1E-12);
+			}
+		}
+	}
+
+	@Test
+	public void korijeniViseRazlicitihRedova() {
+		// više redova nego što se tablica pamti, pa se tablice izbacuju i
+		// ponovo računaju
+		Complex c = new Complex(0.3, -1.1);
+		List<List<Complex>> first = new ArrayList<>();
+		for (int n = 1; n <= 40; n++) {
+			first.add(c.root(n));
+		}
+		for (int n = 40; n >= 1; n--) {
+			List<Complex> expected = first.get(n - 1);
+			List<Complex> roots = c.root(n);
+			for (int k = 0; k < n; k++) {
+				assertEquals(expected.get(k).getRe(), roots.get(k).getRe(), 0);
+				assertEquals(expected.get(k).getIm(), roots.get(k).getIm(), 0);
+			}
+		}
+	}
 }
@@ -0,0 +1,87 @@
+package hr.fer.zemris.math;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MutableComplexTest {
+
+	private static final double DELTA = 1E-12;
+
+	private static final Complex A = new Complex(1.5, -2);
+
+	private static final Complex B = new Complex(-0.25, 3);
+
+	private static void assertValue(Complex expected, MutableComplex actual) {
+		assertEquals(expected.getRe(), actual.getRe(), DELTA);
+		assertEquals(expected.getIm(), actual.getIm(), DELTA);
+	}
+
+	@Test
+	public void operacije() {
+		assertValue(A.add(B), new MutableComplex(A).addInPlace(B));
+		assertValue(A.sub(B), new MutableComplex(A).subInPlace(B));
+		assertValue(A.multiply(B), new MutableComplex(A).multiplyInPlace(B));
+		assertValue(A.divide(B), new MutableComplex(A).divideInPlace(B));
+		assertValue(A.multiply(B).add(Complex.IM), new MutableComplex(A).fma(B, Complex.IM));
+		assertEquals(A.module(), new MutableComplex(A).module(), DELTA);
+	}
+
+	@Test
+	public void ulancavanje() {
+		MutableComplex acc = new MutableComplex();
+		acc.set(A).multiplyInPlace(A).subInPlace(B).divideInPlace(A);
+		assertEquals(A.multiply(A).sub(B).divide(A), acc.toComplex());
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void dijeljenjeNulom() {
+		new MutableComplex(A).divideInPlace(Complex.ZERO);
+	}
+
+	@Test
+	public void dijeljenjeKaoNepromjenjiviBroj() {
+		double small = DoubleUtil.DIFF / 2;
+		double large = 2 * DoubleUtil.DIFF;
+		Complex[] divisors = { Complex.ZERO, new Complex(small, -small), new Complex(-small, 0),
+				new Complex(0, small), new Complex(large, 0), new Complex(0, -large), new Complex(small, large), B };
+		for (Complex divisor : divisors) {
+			Complex expected;
+			try {
+				expected = A.divide(divisor);
+			} catch (ArithmeticException e) {
+				expected = null;
+			}
+
+			try {
+				MutableComplex actual = new MutableComplex(A).divideInPlace(divisor);
+				assertNotNull("Dijeljenje s " + divisor + " mora baciti iznimku", expected);
+				assertEquals(expected.getRe(), actual.getRe(), 1E-12 * Math.abs(expected.getRe()));
+				assertEquals(expected.getIm(), actual.getIm(), 1E-12 * Math.abs(expected.getIm()));
+			} catch (ArithmeticException e) {
+				assertNull("Dijeljenje s " + divisor + " ne smije baciti iznimku", expected);
+			}
+		}
+	}
+
+	@Test
+	public void vrijednostPolinoma() {
+		ComplexPolynomial polynomial = new ComplexPolynomial(new Complex(-1, 0), new Complex(0, 2), Complex.ZERO,
+				new Complex(3, 1));
+		MutableComplex result = new MutableComplex();
+		for (Complex z : new Complex[] { A, B, Complex.ZERO }) {
+			assertSame(result, polynomial.apply(z, result));
+			assertValue(polynomial.apply(z), result);
+		}
+	}
+
+	@Test
+	public void vrijednostPolinomaZadanogKorijenima() {
+		ComplexRootedPolynomial polynomial = new ComplexRootedPolynomial(Complex.ONE, A, B);
+		MutableComplex result = new MutableComplex();
+		for (Complex z : new Complex[] { A, Complex.IM, new Complex(2, 2) }) {
+			assertValue(polynomial.apply(z), polynomial.apply(z, result));
+		}
+		assertValue(Complex.ONE, new ComplexRootedPolynomial().apply(A, result));
+	}
+}
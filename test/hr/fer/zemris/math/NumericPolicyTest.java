@@ -0,0 +1,116 @@
+package hr.fer.zemris.math;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class NumericPolicyTest {
+
+	private static final int SAMPLES = 10000;
+
+	@After
+	public void vratiPodrazumijevaniNacin() {
+		NumericPolicy.setCurrent(NumericPolicy.STRICT);
+	}
+
+	private static double randomValue(Random random) {
+		// vrijednosti različitih redova veličine
+		return random.nextGaussian() * Math.pow(10, random.nextInt(13) - 6);
+	}
+
+	private static void assertRelativelyEqual(double expected, double actual) {
+		assertEquals(expected, actual, NumericPolicy.TOLERANCE * Math.max(Math.abs(expected), Double.MIN_NORMAL));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void postavljanjeNull() {
+		NumericPolicy.setCurrent(null);
+	}
+
+	@Test
+	public void podrazumijevaniNacin() {
+		assertEquals(NumericPolicy.STRICT, NumericPolicy.current());
+	}
+
+	@Test
+	public void moduliINorme() {
+		Random random = new Random(1);
+		for (int i = 0; i < SAMPLES; i++) {
+			double x = randomValue(random), y = randomValue(random), z = randomValue(random);
+			assertRelativelyEqual(NumericPolicy.STRICT.module(x, y), NumericPolicy.FAST.module(x, y));
+			assertRelativelyEqual(NumericPolicy.STRICT.squaredModule(x, y), NumericPolicy.FAST.squaredModule(x, y));
+			assertRelativelyEqual(NumericPolicy.STRICT.norm(x, y, z), NumericPolicy.FAST.norm(x, y, z));
+		}
+	}
+
+	@Test
+	public void usporedbe() {
+		Random random = new Random(2);
+		for (int i = 0; i < SAMPLES; i++) {
+			double a = random.nextDouble();
+			// dio vrijednosti unutar tolerancije usporedbe
+			double b = random.nextBoolean() ? a + (random.nextDouble() - 0.5) * 4E-5 : random.nextDouble();
+			assertEquals(NumericPolicy.STRICT.compare(a, b), NumericPolicy.FAST.compare(a, b));
+			assertEquals(DoubleUtil.DOUBLE_COMPARATOR.compare(a, b), DoubleUtil.compare(a, b));
+		}
+	}
+
+	@Test
+	public void poredakUdaljenosti() {
+		Random random = new Random(3);
+		for (int i = 0; i < SAMPLES; i++) {
+			double d1 = NumericPolicy.STRICT.distanceMeasure(random.nextGaussian(), random.nextGaussian());
+			double d2 = NumericPolicy.STRICT.distanceMeasure(random.nextGaussian(), random.nextGaussian());
+			double f1 = NumericPolicy.FAST.distanceMeasure(Math.sqrt(d1), 0);
+			double f2 = NumericPolicy.FAST.distanceMeasure(Math.sqrt(d2), 0);
+			assertEquals(Double.compare(d1, d2), Double.compare(f1, f2));
+		}
+	}
+
+	@Test
+	public void kompleksniBrojeviIVektori() {
+		Random random = new Random(4);
+		for (int i = 0; i < SAMPLES / 10; i++) {
+			Complex a = new Complex(randomValue(random), randomValue(random));
+			// Complex.divide odbija djelitelje blizu nule
+			Complex b = new Complex(3 + random.nextGaussian(), randomValue(random));
+			Vector3 v = new Vector3(randomValue(random), randomValue(random), randomValue(random));
+
+			NumericPolicy.setCurrent(NumericPolicy.STRICT);
+			double module = a.module();
+			double distance = a.distance(b);
+			Complex quotient = a.divide(b);
+			double norm = v.norm();
+
+			NumericPolicy.setCurrent(NumericPolicy.FAST);
+			assertRelativelyEqual(module, a.module());
+			assertRelativelyEqual(distance, a.distance(b));
+			assertRelativelyEqual(quotient.getRe(), a.divide(b).getRe());
+			assertRelativelyEqual(quotient.getIm(), a.divide(b).getIm());
+			assertRelativelyEqual(norm, v.norm());
+		}
+	}
+
+	@Test
+	public void najbliziKorijen() {
+		Random random = new Random(5);
+		Complex[] roots = new Complex[20];
+		for (int i = 0; i < roots.length; i++) {
+			roots[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+		}
+		ComplexRootedPolynomial polynomial = new ComplexRootedPolynomial(roots);
+		for (int i = 0; i < SAMPLES; i++) {
+			double re = random.nextGaussian();
+			double im = random.nextGaussian();
+			double treshold = random.nextDouble();
+
+			NumericPolicy.setCurrent(NumericPolicy.STRICT);
+			int strict = polynomial.indexOfClosestRootFor(re, im, treshold);
+			NumericPolicy.setCurrent(NumericPolicy.FAST);
+			assertEquals(strict, polynomial.indexOfClosestRootFor(re, im, treshold));
+		}
+	}
+}
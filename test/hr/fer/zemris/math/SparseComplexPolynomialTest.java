@@ -0,0 +1,132 @@
+package hr.fer.zemris.math;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SparseComplexPolynomialTest {
+
+	private static final Complex[] POINTS = { new Complex(0.5, -0.25), new Complex(-1.1, 0.3), new Complex(0.9, 0.4),
+			Complex.ZERO, Complex.IM };
+
+	private static void assertSameFunction(ComplexFunction expected, ComplexFunction actual, double delta) {
+		double[] e = new double[ComplexFunction.RESULT_SIZE];
+		double[] a = new double[ComplexFunction.RESULT_SIZE];
+		for (Complex z : POINTS) {
+			expected.evaluate(z.getRe(), z.getIm(), e);
+			actual.evaluate(z.getRe(), z.getIm(), a);
+			double scale = Math.max(1, Math.max(Math.hypot(e[0], e[1]), Math.hypot(e[2], e[3])));
+			assertArrayEquals(e, a, delta * scale);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void razliciteDuljine() {
+		new SparseComplexPolynomial(new int[] { 1, 2 }, new Complex[] { Complex.ONE });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativnaPotencija() {
+		new SparseComplexPolynomial(new int[] { -1 }, new Complex[] { Complex.ONE });
+	}
+
+	@Test
+	public void spajanjeIIzostavljanjeClanova() {
+		SparseComplexPolynomial polynomial = new SparseComplexPolynomial(new int[] { 5, 0, 5, 3 },
+				new Complex[] { Complex.ONE, Complex.ONE_NEG, Complex.ONE, Complex.ZERO });
+		assertEquals(2, polynomial.numberOfTerms());
+		assertEquals(5, polynomial.order());
+		assertEquals(new Complex(63, 0), polynomial.apply(new Complex(2, 0)));
+	}
+
+	@Test
+	public void nulPolinom() {
+		SparseComplexPolynomial polynomial = new SparseComplexPolynomial(new int[0], new Complex[0]);
+		assertEquals(0, polynomial.order());
+		assertEquals(Complex.ZERO, polynomial.apply(Complex.IM));
+		assertEquals(0, polynomial.derive().numberOfTerms());
+	}
+
+	@Test
+	public void rijetkiVisokogReda() {
+		// z^1000 - 1 + (2 + i)*z^37
+		SparseComplexPolynomial polynomial = new SparseComplexPolynomial(new int[] { 1000, 0, 37 },
+				new Complex[] { Complex.ONE, Complex.ONE_NEG, new Complex(2, 1) });
+		assertSameFunction(polynomial.toComplexPolynomial().getEvaluator(), polynomial, 1E-12);
+	}
+
+	@Test
+	public void gustiPolinom() {
+		Random random = new Random(5);
+		Complex[] factors = new Complex[30];
+		for (int i = 0; i < factors.length; i++) {
+			factors[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+		}
+		ComplexPolynomial dense = new ComplexPolynomial(factors);
+		assertSameFunction(dense.getEvaluator(), new SparseComplexPolynomial(dense), 1E-12);
+	}
+
+	@Test
+	public void gustiPolinomVisokogReda() {
+		// z^40000 + (2 + i)*z^12345 - 1, više faktora nego što stane u short
+		Complex[] factors = new Complex[40001];
+		Arrays.fill(factors, Complex.ZERO);
+		factors[0] = Complex.ONE_NEG;
+		factors[12345] = new Complex(2, 1);
+		factors[40000] = Complex.ONE;
+		SparseComplexPolynomial polynomial = new SparseComplexPolynomial(new ComplexPolynomial(factors));
+
+		assertEquals(40000, polynomial.order());
+		assertEquals(3, polynomial.numberOfTerms());
+		assertSameFunction(new SparseComplexPolynomial(new int[] { 40000, 12345, 0 },
+				new Complex[] { Complex.ONE, new Complex(2, 1), Complex.ONE_NEG }), polynomial, 0);
+	}
+
+	@Test
+	public void derivacija() {
+		SparseComplexPolynomial polynomial = new SparseComplexPolynomial(new int[] { 0, 1, 7, 120 },
+				new Complex[] { new Complex(3, 0), Complex.IM, new Complex(2, -1), Complex.ONE });
+		assertSameFunction(polynomial.toComplexPolynomial().derive().getEvaluator(), polynomial.derive(), 1E-12);
+	}
+
+	@Test
+	public void korijeniBinoma() {
+		// 2z^1000 + 2 = 0 i 3iz^7 - 3z^2 = 0
+		assertRootsOf(new SparseComplexPolynomial(new int[] { 1000, 0 },
+				new Complex[] { new Complex(2, 0), new Complex(2, 0) }), 1000, 0);
+		assertRootsOf(new SparseComplexPolynomial(new int[] { 7, 2 },
+				new Complex[] { new Complex(0, 3), new Complex(-3, 0) }), 7, 2);
+		assertRootsOf(new SparseComplexPolynomial(new int[] { 4 }, new Complex[] { Complex.IM }), 4, 4);
+	}
+
+	@Test
+	public void korijeniPolinomaSViseClanova() {
+		assertRootsOf(new SparseComplexPolynomial(new int[] { 12, 5, 0 },
+				new Complex[] { Complex.ONE, new Complex(0.5, -1), Complex.ONE_NEG }), 12, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void korijeniNulPolinoma() {
+		new SparseComplexPolynomial(new int[0], new Complex[0]).findRoots();
+	}
+
+	private static void assertRootsOf(SparseComplexPolynomial polynomial, int order, int zeros) {
+		Complex[] roots = polynomial.findRoots().getRoots();
+		assertEquals(order, roots.length);
+		SparseComplexPolynomial derived = polynomial.derive();
+		int zeroRoots = 0;
+		for (Complex root : roots) {
+			if (root.module() == 0) {
+				zeroRoots++;
+				continue;
+			}
+			// Newtonov korak u korijenu je zanemariv
+			double step = polynomial.apply(root).module() / derived.apply(root).module();
+			assertEquals(0, step, 1E-9 * Math.max(1, root.module()));
+		}
+		assertEquals(zeros, zeroRoots);
+	}
+}
@@ -0,0 +1,108 @@
+package hr.fer.zemris.math.complex;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexFunction;
+import hr.fer.zemris.math.ComplexPolynomial;
+
+public class ComplexExpressionParserTest {
+
+	private static final double DELTA = 1E-9;
+
+	private static final Complex[] POINTS = { new Complex(0.5, -0.25), new Complex(-1.5, 2), new Complex(2, 1),
+			new Complex(0.1, 0.3) };
+
+	private static double[] evaluate(String expression, Complex z) {
+		double[] result = new double[ComplexFunction.RESULT_SIZE];
+		ComplexExpressionParser.parse(expression).evaluate(z.getRe(), z.getIm(), result);
+		return result;
+	}
+
+	private static void assertValue(Complex expected, double[] result, int reIndex, int imIndex) {
+		assertEquals(expected.getRe(), result[reIndex], DELTA);
+		assertEquals(expected.getIm(), result[imIndex], DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void predanNull() {
+		new ComplexExpressionParser(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nepoznataFunkcija() {
+		new ComplexExpressionParser("foo(z)");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nezatvorenaZagrada() {
+		new ComplexExpressionParser("(z + 1");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void visakTokena() {
+		new ComplexExpressionParser("z + 1)");
+	}
+
+	@Test
+	public void polinom() {
+		ComplexPolynomial polynomial = new ComplexPolynomial(new Complex(-1, 0), new Complex(0, 2), Complex.ZERO,
+				new Complex(3, 0));
+		ComplexPolynomial derived = polynomial.derive();
+		for (Complex z : POINTS) {
+			double[] result = evaluate("3z^3 + 2i*z - 1", z);
+			assertValue(polynomial.apply(z), result, ComplexFunction.F_RE, ComplexFunction.F_IM);
+			assertValue(derived.apply(z), result, ComplexFunction.DF_RE, ComplexFunction.DF_IM);
+		}
+	}
+
+	@Test
+	public void prioritetOperatora() {
+		double[] result = evaluate("-2^2 + 12 / 3 / 2 * (1 + 1)", Complex.ZERO);
+		assertEquals(0, result[ComplexFunction.F_RE], DELTA);
+		assertEquals(0, result[ComplexFunction.DF_RE], DELTA);
+	}
+
+	@Test
+	public void negativanEksponent() {
+		for (Complex z : POINTS) {
+			double[] result = evaluate("z^-2", z);
+			Complex z2 = z.multiply(z);
+			assertValue(Complex.ONE.divide(z2), result, ComplexFunction.F_RE, ComplexFunction.F_IM);
+			Complex derivative = new Complex(-2, 0).divide(z2.multiply(z));
+			assertValue(derivative, result, ComplexFunction.DF_RE, ComplexFunction.DF_IM);
+		}
+	}
+
+	@Test
+	public void derivacijeFunkcija() {
+		String[] expressions = { "sin(z)", "cos(z)", "tan(z)", "exp(z)", "log(z)", "sqrt(z)", "sinh(z)", "cosh(z)",
+				"z^z", "sin(z^2) / (z + 3)", "z^3 - 1 + sin(z)" };
+		double h = 1E-6;
+		for (String expression : expressions) {
+			for (Complex z : POINTS) {
+				double[] result = evaluate(expression, z);
+				double[] plus = evaluate(expression, new Complex(z.getRe() + h, z.getIm()));
+				double[] minus = evaluate(expression, new Complex(z.getRe() - h, z.getIm()));
+				// središnja razlika po realnoj osi
+				assertEquals(expression, (plus[ComplexFunction.F_RE] - minus[ComplexFunction.F_RE]) / (2 * h),
+						result[ComplexFunction.DF_RE], 1E-5);
+				assertEquals(expression, (plus[ComplexFunction.F_IM] - minus[ComplexFunction.F_IM]) / (2 * h),
+						result[ComplexFunction.DF_IM], 1E-5);
+			}
+		}
+	}
+
+	@Test
+	public void vrijednostiFunkcija() {
+		double[] result = evaluate("exp(i * 3.14159265358979)", Complex.ZERO);
+		assertEquals(-1, result[ComplexFunction.F_RE], 1E-9);
+		assertEquals(0, result[ComplexFunction.F_IM], 1E-9);
+
+		result = evaluate("sqrt(z)", new Complex(-4, 0));
+		assertEquals(0, result[ComplexFunction.F_RE], DELTA);
+		assertEquals(2, result[ComplexFunction.F_IM], DELTA);
+	}
+}
@@ -0,0 +1,124 @@
+package hr.fer.zemris.math.complex;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.math.Complex;
+import hr.fer.zemris.math.ComplexArray;
+
+public class ComplexStreamParserTest {
+
+	private static final String[] LINES = { "1", "\t-1 +   i0", "i", "  -i", "0.25889 - i1.3445",
+			"0.25889 - i1.3445 + \t 78.299  +   i 350.22", "-2.71-i3.15", "3.51", "-i2.71", ".5 + i.25",
+			"12345678901234567890.5", "0.000000000000000000000000123", "- 3", "i -2" };
+
+	private static void assertSameAsComplexParser(String[] lines, ComplexArray actual) {
+		assertEquals(lines.length, actual.length());
+		for (int i = 0; i < lines.length; i++) {
+			Complex expected = new ComplexParser(lines[i]).getResult();
+			// rezultat mora biti jednak do posljednjeg bita
+			assertEquals(lines[i], Double.doubleToLongBits(expected.getRe()),
+					Double.doubleToLongBits(actual.getRe(i) + 0.0));
+			assertEquals(lines[i], Double.doubleToLongBits(expected.getIm()),
+					Double.doubleToLongBits(actual.getIm(i) + 0.0));
+		}
+	}
+
+	private static String[] randomLines(Random random, int count) {
+		String[] lines = new String[count];
+		for (int i = 0; i < count; i++) {
+			double re = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 4);
+			double im = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 4);
+			// znanstveni zapis nije dio formata
+			lines[i] = BigDecimal.valueOf(re).toPlainString() + (im < 0 ? " - i" : " + i")
+					+ BigDecimal.valueOf(Math.abs(im)).toPlainString();
+		}
+		return lines;
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void predanNull() {
+		ComplexStreamParser.parse((CharSequence) null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void imaginarnaJedinicaIzaBroja() {
+		ComplexStreamParser.parse("1\n2i\n");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void dvaOperatora() {
+		ComplexStreamParser.parse("1 + + i2");
+	}
+
+	@Test
+	public void operatorNaKrajuRetka() {
+		for (String input : new String[] { "3+", "-", "i-", "1\n2 - \n3", "i2 +\r\n", "+" }) {
+			try {
+				ComplexStreamParser.parse(input);
+				fail("Očekivana iznimka za \"" + input + "\"");
+			} catch (IllegalArgumentException expected) {
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void dvijeTocke() {
+		ComplexStreamParser.parse("1.2.3");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nepoznatiZnak() {
+		ComplexStreamParser.parse("1 + x");
+	}
+
+	@Test
+	public void primjeri() {
+		assertSameAsComplexParser(LINES, ComplexStreamParser.parse(String.join("\n", LINES)));
+	}
+
+	@Test
+	public void prazniRetciIWindowsKrajeviRedaka() {
+		ComplexArray result = ComplexStreamParser.parse("\r\n1 + i2\r\n\n   \n-i\r\n");
+		assertEquals(2, result.length());
+		assertEquals(new Complex(1, 2), result.get(0));
+		assertEquals(new Complex(0, -1), result.get(1));
+		assertEquals(0, ComplexStreamParser.parse("").length());
+	}
+
+	@Test
+	public void nasumicniBrojevi() {
+		String[] lines = randomLines(new Random(7), 2000);
+		assertSameAsComplexParser(lines, ComplexStreamParser.parse(CharBuffer.wrap(String.join("\n", lines))));
+	}
+
+	@Test
+	public void paralelnaAnaliza() {
+		String[] lines = randomLines(new Random(8), 5000);
+		String input = String.join("\n", lines);
+		// mali dijelovi kako bi se ulaz podijelio na mnogo poslova
+		assertSameAsComplexParser(lines, ComplexStreamParser.parse(input, 1000));
+		assertSameAsComplexParser(lines, ComplexStreamParser.parse(input, 1));
+	}
+
+	@Test
+	public void datoteka() throws IOException {
+		String[] lines = randomLines(new Random(9), 3000);
+		Path file = Files.createTempFile("complex", ".txt");
+		try {
+			Files.write(file, (String.join("\n", lines) + "\n").getBytes(StandardCharsets.US_ASCII));
+			assertSameAsComplexParser(lines, ComplexStreamParser.parse(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+}